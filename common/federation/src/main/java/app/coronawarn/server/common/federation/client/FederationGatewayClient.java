@@ -3,6 +3,7 @@ package app.coronawarn.server.common.federation.client;
 import app.coronawarn.server.common.federation.client.callback.RegistrationResponse;
 import app.coronawarn.server.common.federation.client.upload.BatchUploadResponse;
 import app.coronawarn.server.common.protocols.external.exposurenotification.DiagnosisKeyBatch;
+import feign.Response;
 import java.util.List;
 import org.springframework.cloud.openfeign.FeignClient;
 import org.springframework.http.ResponseEntity;
@@ -39,17 +40,33 @@ public interface FederationGatewayClient {
   ResponseEntity<RegistrationResponse> putCallbackRegistration(@PathVariable("id") String id,
       @PathVariable("url") String url);
 
+  /**
+   * HTTP GET request to federation gateway endpoint /diagnosiskeys/download to download the first batch of the given
+   * date. The response is returned undecoded and regardless of its status, so that the encoded
+   * {@link DiagnosisKeyBatch} can be read from the body as a stream. The caller has to close the response.
+   *
+   * @param date The date for which the batch should be downloaded.
+   * @return the undecoded response.
+   */
   @GetMapping(value = "/diagnosiskeys/download/{date}",
       headers = {"Accept=application/protobuf; version=1.0",
           "X-SSL-Client-SHA256=${federation-gateway.ssl.certificate-sha}",
           "X-SSL-Client-DN=${federation-gateway.ssl.certificate-dn}"})
-  ResponseEntity<DiagnosisKeyBatch> getDiagnosisKeys(@PathVariable("date") String date);
+  Response getDiagnosisKeys(@PathVariable("date") String date);
 
+  /**
+   * HTTP GET request to federation gateway endpoint /diagnosiskeys/download to download the batch with the given
+   * {@code batchTag}, see {@link #getDiagnosisKeys(String)}.
+   *
+   * @param batchTag The batchTag of the batch that should be downloaded.
+   * @param date     The date for which the batch should be downloaded.
+   * @return the undecoded response.
+   */
   @GetMapping(value = "/diagnosiskeys/download/{date}",
       headers = {"Accept=application/protobuf; version=1.0",
           "X-SSL-Client-SHA256=${federation-gateway.ssl.certificate-sha}",
           "X-SSL-Client-DN=${federation-gateway.ssl.certificate-dn}"})
-  ResponseEntity<DiagnosisKeyBatch> getDiagnosisKeys(@RequestHeader("batchTag") String batchTag,
+  Response getDiagnosisKeys(@RequestHeader("batchTag") String batchTag,
       @PathVariable("date") String date);
 
   /**
@@ -2,6 +2,7 @@ package app.coronawarn.server.common.persistence.domain;
 
 import app.coronawarn.server.common.persistence.domain.validation.ValidSubmissionTimestamp;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.annotation.PersistenceCreator;
 
 public class CheckInProtectedReports {
 
@@ -22,6 +23,7 @@ public class CheckInProtectedReports {
    * @param encryptedCheckInRecord The received encrypted CheckInRecord
    * @param submissionTimestamp The time when the trace warning was stored on the server
    */
+  @PersistenceCreator
   public CheckInProtectedReports(byte[] traceLocationIdHash, byte[] initializationVector, byte[] encryptedCheckInRecord,
       byte[] mac, long submissionTimestamp) {
     this.traceLocationIdHash = traceLocationIdHash;
@@ -31,6 +33,12 @@ public class CheckInProtectedReports {
     this.submissionTimestamp = submissionTimestamp;
   }
 
+  CheckInProtectedReports(Long id, byte[] traceLocationIdHash, byte[] initializationVector,
+      byte[] encryptedCheckInRecord, byte[] mac, long submissionTimestamp) {
+    this(traceLocationIdHash, initializationVector, encryptedCheckInRecord, mac, submissionTimestamp);
+    this.id = id;
+  }
+
   public Long getId() {
     return id;
   }
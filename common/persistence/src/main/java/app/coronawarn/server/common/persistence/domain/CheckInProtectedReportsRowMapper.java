@@ -0,0 +1,23 @@
+package app.coronawarn.server.common.persistence.domain;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import org.springframework.jdbc.core.RowMapper;
+
+/**
+ * Maps rows of the {@code check_in_protected_reports} table to {@link CheckInProtectedReports}, for streaming them
+ * with plain JDBC instead of the generic entity mapping.
+ */
+public class CheckInProtectedReportsRowMapper implements RowMapper<CheckInProtectedReports> {
+
+  @Override
+  public CheckInProtectedReports mapRow(ResultSet rs, int rowNum) throws SQLException {
+    return new CheckInProtectedReports(
+        rs.getLong("id"),
+        rs.getBytes("trace_location_id_hash"),
+        rs.getBytes("initialization_vector"),
+        rs.getBytes("encrypted_check_in_record"),
+        rs.getBytes("mac"),
+        rs.getLong("submission_timestamp"));
+  }
+}
@@ -0,0 +1,61 @@
+package app.coronawarn.server.common.persistence.domain;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.relational.core.mapping.Embedded;
+import org.springframework.data.relational.core.mapping.Embedded.OnEmpty;
+
+/**
+ * Content fetched from the DCC server (e.g. a business rule or a value set), which is immutable for its type and hash.
+ */
+public class DccContent {
+
+  @Id
+  @Embedded(onEmpty = OnEmpty.USE_NULL)
+  private DccContentId id;
+
+  private byte[] content;
+
+  private byte[] checksum;
+
+  private long fetchedTimestamp;
+
+  public DccContent() {
+  }
+
+  /**
+   * Creates a new {@link DccContent}.
+   *
+   * @param type             the type of the content, e.g. a business rule type or value set
+   * @param hash             the hash under which the DCC server provides the content
+   * @param content          the serialized content
+   * @param checksum         the SHA-256 digest of the serialized content
+   * @param fetchedTimestamp the time (in seconds since the epoch) at which the content was fetched
+   */
+  public DccContent(final String type, final String hash, final byte[] content, final byte[] checksum,
+      final long fetchedTimestamp) {
+    this.id = new DccContentId(type, hash);
+    this.content = content;
+    this.checksum = checksum;
+    this.fetchedTimestamp = fetchedTimestamp;
+  }
+
+  public String getType() {
+    return id.getType();
+  }
+
+  public String getHash() {
+    return id.getHash();
+  }
+
+  public byte[] getContent() {
+    return content;
+  }
+
+  public byte[] getChecksum() {
+    return checksum;
+  }
+
+  public long getFetchedTimestamp() {
+    return fetchedTimestamp;
+  }
+}
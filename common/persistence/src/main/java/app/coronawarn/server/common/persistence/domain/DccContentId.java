@@ -0,0 +1,51 @@
+package app.coronawarn.server.common.persistence.domain;
+
+import java.io.Serializable;
+import java.util.Objects;
+
+public class DccContentId implements Serializable {
+
+  private static final long serialVersionUID = 4172309814635112823L;
+
+  private String type;
+  private String hash;
+
+  public DccContentId() {
+  }
+
+  /**
+   * Primary Key.
+   *
+   * @param type type
+   * @param hash hash
+   */
+  public DccContentId(final String type, final String hash) {
+    this.type = type;
+    this.hash = hash;
+  }
+
+  @Override
+  public boolean equals(final Object obj) {
+    if (this == obj) {
+      return true;
+    }
+    if ((obj == null) || (getClass() != obj.getClass())) {
+      return false;
+    }
+    final DccContentId other = (DccContentId) obj;
+    return Objects.equals(type, other.type) && Objects.equals(hash, other.hash);
+  }
+
+  public String getHash() {
+    return hash;
+  }
+
+  public String getType() {
+    return type;
+  }
+
+  @Override
+  public int hashCode() {
+    return Objects.hash(type, hash);
+  }
+}
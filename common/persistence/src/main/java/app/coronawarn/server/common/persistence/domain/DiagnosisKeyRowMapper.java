@@ -0,0 +1,56 @@
+package app.coronawarn.server.common.persistence.domain;
+
+import app.coronawarn.server.common.protocols.external.exposurenotification.ReportType;
+import app.coronawarn.server.common.protocols.internal.SubmissionPayload.SubmissionType;
+import java.sql.Array;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import org.springframework.jdbc.core.RowMapper;
+
+/**
+ * Maps rows of the {@code diagnosis_key} table to {@link DiagnosisKey DiagnosisKeys} with a small memory footprint, for
+ * reading large numbers of keys, e.g. the whole distribution window. The columns are read directly instead of through
+ * the generic entity mapping, and equal origin countries and visited country sets are shared between all keys mapped
+ * by the same instance. The shared visited country sets are immutable. Instances are therefore not thread-safe and are
+ * meant to be used for a single query.
+ */
+public class DiagnosisKeyRowMapper implements RowMapper<DiagnosisKey> {
+
+  private final Map<String, String> originCountries = new HashMap<>();
+  private final Map<List<String>, Set<String>> visitedCountries = new HashMap<>();
+
+  @Override
+  public DiagnosisKey mapRow(ResultSet rs, int rowNum) throws SQLException {
+    String reportType = rs.getString("report_type");
+    return new DiagnosisKey(
+        rs.getBytes("key_data"),
+        SubmissionType.valueOf(rs.getString("submission_type")),
+        rs.getInt("rolling_start_interval_number"),
+        rs.getInt("rolling_period"),
+        rs.getInt("transmission_risk_level"),
+        rs.getLong("submission_timestamp"),
+        rs.getBoolean("consent_to_federation"),
+        canonicalOriginCountry(rs.getString("origin_country")),
+        canonicalVisitedCountries(rs.getArray("visited_countries")),
+        reportType == null ? null : ReportType.valueOf(reportType),
+        rs.getInt("days_since_onset_of_symptoms"));
+  }
+
+  private String canonicalOriginCountry(String originCountry) {
+    return originCountry == null ? null : originCountries.computeIfAbsent(originCountry, country -> country);
+  }
+
+  private Set<String> canonicalVisitedCountries(Array array) throws SQLException {
+    if (array == null) {
+      return null;
+    }
+    String[] countries = (String[]) array.getArray();
+    Arrays.sort(countries);
+    return visitedCountries.computeIfAbsent(Arrays.asList(countries), Set::copyOf);
+  }
+}
@@ -0,0 +1,359 @@
+package app.coronawarn.server.common.persistence.domain;
+
+import static app.coronawarn.server.common.persistence.domain.DiagnosisKey.KEY_DATA_LENGTH;
+
+import app.coronawarn.server.common.protocols.external.exposurenotification.ReportType;
+import app.coronawarn.server.common.protocols.internal.SubmissionPayload.SubmissionType;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.RandomAccess;
+import java.util.Set;
+import java.util.stream.IntStream;
+
+/**
+ * A compact, columnar store of {@link DiagnosisKey DiagnosisKeys}, for processing large numbers of keys, e.g. the
+ * whole distribution window. Instead of one object per key, with its own key data array and country references, the
+ * properties of all keys are kept in primitive columns: the key data is packed into a single byte array, the visited
+ * countries are a bitmask over the countries of the store and all other properties are held in narrow numeric columns.
+ * A key therefore takes about 40 bytes of heap.<br>
+ * Keys are appended once and addressed by their index afterwards; they cannot be changed or removed. {@link Selection
+ * Selections} of keys are immutable lists of indices, which still offer the keys as {@link DiagnosisKey} instances.
+ * Those instances are created on access and are detached copies. Instances are not thread-safe while keys are added,
+ * but can be read concurrently once they have been filled.
+ */
+public class DiagnosisKeyStore {
+
+  /**
+   * The maximum number of distinct origin and visited countries, limited by the size of the visited country bitmask.
+   */
+  public static final int MAX_NUMBER_OF_COUNTRIES = Long.SIZE;
+
+  private static final int INITIAL_CAPACITY = 16;
+  private static final byte NONE = -1;
+  private static final Selection EMPTY_SELECTION = new Selection(new DiagnosisKeyStore(), new int[0]);
+
+  private final List<String> countries = new ArrayList<>();
+  private final Map<String, Integer> countryIndices = new HashMap<>();
+
+  private int size;
+  private byte[] keyData = new byte[INITIAL_CAPACITY * KEY_DATA_LENGTH];
+  private int[] rollingStartIntervalNumbers = new int[INITIAL_CAPACITY];
+  private int[] submissionTimestamps = new int[INITIAL_CAPACITY];
+  private long[] visitedCountries = new long[INITIAL_CAPACITY];
+  private short[] rollingPeriods = new short[INITIAL_CAPACITY];
+  private short[] daysSinceOnsetOfSymptoms = new short[INITIAL_CAPACITY];
+  private byte[] transmissionRiskLevels = new byte[INITIAL_CAPACITY];
+  private byte[] reportTypes = new byte[INITIAL_CAPACITY];
+  private byte[] submissionTypes = new byte[INITIAL_CAPACITY];
+  private byte[] originCountries = new byte[INITIAL_CAPACITY];
+  private final BitSet consentToFederation = new BitSet();
+
+  /**
+   * Creates a store containing the given keys and returns a selection of all of them, in the order of the collection.
+   *
+   * @param diagnosisKeys the keys to store
+   * @return the selection of all stored keys
+   */
+  public static Selection copyOf(Collection<DiagnosisKey> diagnosisKeys) {
+    DiagnosisKeyStore store = new DiagnosisKeyStore();
+    diagnosisKeys.forEach(store::add);
+    store.trimToSize();
+    return store.selectAll();
+  }
+
+  /**
+   * Returns an empty selection.
+   *
+   * @return the empty selection
+   */
+  public static Selection emptySelection() {
+    return EMPTY_SELECTION;
+  }
+
+  /**
+   * Appends the given key to the store.
+   *
+   * @param diagnosisKey the key to append
+   * @return the index of the key within the store
+   * @throws IllegalArgumentException if a property of the key does not fit into its column, e.g. if the key data does
+   *                                  not have {@link DiagnosisKey#KEY_DATA_LENGTH} bytes or if the key would exceed the
+   *                                  {@link #MAX_NUMBER_OF_COUNTRIES maximum number of countries}
+   */
+  public int add(DiagnosisKey diagnosisKey) {
+    if (diagnosisKey.getKeyData().length != KEY_DATA_LENGTH) {
+      throw new IllegalArgumentException("Key data must be a byte array of length " + KEY_DATA_LENGTH + ".");
+    }
+    long visitedCountryMask = 0;
+    for (String visitedCountry : diagnosisKey.getVisitedCountries()) {
+      visitedCountryMask |= 1L << getCountryIndex(visitedCountry);
+    }
+    final byte originCountry = diagnosisKey.getOriginCountry() == null ? NONE
+        : (byte) getCountryIndex(diagnosisKey.getOriginCountry());
+    final short rollingPeriod = toShort(diagnosisKey.getRollingPeriod(), "Rolling period");
+    final short daysSinceOnset = toShort(diagnosisKey.getDaysSinceOnsetOfSymptoms(), "Days since onset of symptoms");
+    final byte transmissionRiskLevel = toByte(diagnosisKey.getTransmissionRiskLevel(), "Transmission risk level");
+    final byte reportType = diagnosisKey.getReportType() == null ? NONE
+        : toByte(diagnosisKey.getReportType().getNumber(), "Report type");
+    final byte submissionType = diagnosisKey.getSubmissionType() == null ? NONE
+        : toByte(diagnosisKey.getSubmissionType().getNumber(), "Submission type");
+
+    ensureCapacity(size + 1);
+    System.arraycopy(diagnosisKey.getKeyData(), 0, keyData, size * KEY_DATA_LENGTH, KEY_DATA_LENGTH);
+    rollingStartIntervalNumbers[size] = diagnosisKey.getRollingStartIntervalNumber();
+    submissionTimestamps[size] = (int) diagnosisKey.getSubmissionTimestamp();
+    visitedCountries[size] = visitedCountryMask;
+    rollingPeriods[size] = rollingPeriod;
+    daysSinceOnsetOfSymptoms[size] = daysSinceOnset;
+    transmissionRiskLevels[size] = transmissionRiskLevel;
+    reportTypes[size] = reportType;
+    submissionTypes[size] = submissionType;
+    originCountries[size] = originCountry;
+    consentToFederation.set(size, diagnosisKey.isConsentToFederation());
+    return size++;
+  }
+
+  /**
+   * Releases the capacity, which has been reserved for further keys.
+   */
+  public void trimToSize() {
+    resize(size);
+  }
+
+  /**
+   * Returns the number of stored keys.
+   *
+   * @return the number of keys
+   */
+  public int size() {
+    return size;
+  }
+
+  /**
+   * Returns a selection of the keys with the given indices.
+   *
+   * @param indices the indices of the selected keys, which must not be modified afterwards
+   * @return the selection
+   */
+  public Selection select(int[] indices) {
+    return new Selection(this, indices);
+  }
+
+  /**
+   * Returns a selection of all stored keys in the order in which they have been added.
+   *
+   * @return the selection
+   */
+  public Selection selectAll() {
+    return new Selection(this, IntStream.range(0, size).toArray());
+  }
+
+  /**
+   * Returns the key with the given index as a new, detached {@link DiagnosisKey} instance.
+   *
+   * @param index the index of the key
+   * @return the key
+   */
+  public DiagnosisKey get(int index) {
+    return new DiagnosisKey(getKeyData(index), getSubmissionType(index), getRollingStartIntervalNumber(index),
+        getRollingPeriod(index), getTransmissionRiskLevel(index), getSubmissionTimestamp(index),
+        isConsentToFederation(index), getOriginCountry(index), getVisitedCountries(index), getReportType(index),
+        getDaysSinceOnsetOfSymptoms(index));
+  }
+
+  /**
+   * Returns a copy of the key data of the key with the given index.
+   *
+   * @param index the index of the key
+   * @return the key data
+   */
+  public byte[] getKeyData(int index) {
+    byte[] target = new byte[KEY_DATA_LENGTH];
+    copyKeyData(index, target);
+    return target;
+  }
+
+  /**
+   * Copies the key data of the key with the given index to the given array, which can be reused for many keys.
+   *
+   * @param index  the index of the key
+   * @param target the array of at least {@link DiagnosisKey#KEY_DATA_LENGTH} bytes to copy to
+   */
+  public void copyKeyData(int index, byte[] target) {
+    System.arraycopy(keyData, checkIndex(index) * KEY_DATA_LENGTH, target, 0, KEY_DATA_LENGTH);
+  }
+
+  /**
+   * Compares the key data of two keys as unsigned bytes in lexicographic order.
+   *
+   * @param index      the index of the first key
+   * @param otherIndex the index of the second key
+   * @return a negative value, zero or a positive value if the key data of the first key is less than, equal to or
+   *         greater than the key data of the second key
+   */
+  public int compareKeyData(int index, int otherIndex) {
+    int from = checkIndex(index) * KEY_DATA_LENGTH;
+    int otherFrom = checkIndex(otherIndex) * KEY_DATA_LENGTH;
+    return Arrays.compareUnsigned(keyData, from, from + KEY_DATA_LENGTH,
+        keyData, otherFrom, otherFrom + KEY_DATA_LENGTH);
+  }
+
+  public SubmissionType getSubmissionType(int index) {
+    byte submissionType = submissionTypes[checkIndex(index)];
+    return submissionType == NONE ? null : SubmissionType.forNumber(submissionType);
+  }
+
+  public int getRollingStartIntervalNumber(int index) {
+    return rollingStartIntervalNumbers[checkIndex(index)];
+  }
+
+  public int getRollingPeriod(int index) {
+    return rollingPeriods[checkIndex(index)];
+  }
+
+  public int getTransmissionRiskLevel(int index) {
+    return transmissionRiskLevels[checkIndex(index)];
+  }
+
+  public long getSubmissionTimestamp(int index) {
+    return submissionTimestamps[checkIndex(index)];
+  }
+
+  public boolean isConsentToFederation(int index) {
+    return consentToFederation.get(checkIndex(index));
+  }
+
+  public String getOriginCountry(int index) {
+    byte originCountry = originCountries[checkIndex(index)];
+    return originCountry == NONE ? null : countries.get(originCountry);
+  }
+
+  /**
+   * Returns the visited countries of the key with the given index.
+   *
+   * @param index the index of the key
+   * @return a new, immutable set of the visited countries
+   */
+  public Set<String> getVisitedCountries(int index) {
+    long visitedCountryMask = visitedCountries[checkIndex(index)];
+    return Set.of(IntStream.range(0, countries.size())
+        .filter(country -> (visitedCountryMask & 1L << country) != 0)
+        .mapToObj(countries::get)
+        .toArray(String[]::new));
+  }
+
+  public ReportType getReportType(int index) {
+    byte reportType = reportTypes[checkIndex(index)];
+    return reportType == NONE ? null : ReportType.forNumber(reportType);
+  }
+
+  public int getDaysSinceOnsetOfSymptoms(int index) {
+    return daysSinceOnsetOfSymptoms[checkIndex(index)];
+  }
+
+  private int getCountryIndex(String country) {
+    Integer countryIndex = countryIndices.get(country);
+    if (countryIndex != null) {
+      return countryIndex;
+    }
+    if (countries.size() == MAX_NUMBER_OF_COUNTRIES) {
+      throw new IllegalArgumentException("More than " + MAX_NUMBER_OF_COUNTRIES + " countries cannot be stored.");
+    }
+    countries.add(country);
+    countryIndices.put(country, countries.size() - 1);
+    return countries.size() - 1;
+  }
+
+  private int checkIndex(int index) {
+    if (index < 0 || index >= size) {
+      throw new IndexOutOfBoundsException("Index " + index + " out of bounds for size " + size);
+    }
+    return index;
+  }
+
+  private void ensureCapacity(int capacity) {
+    if (capacity > rollingStartIntervalNumbers.length) {
+      resize(Math.max(capacity, rollingStartIntervalNumbers.length + (rollingStartIntervalNumbers.length >> 1)));
+    }
+  }
+
+  private void resize(int capacity) {
+    keyData = Arrays.copyOf(keyData, capacity * KEY_DATA_LENGTH);
+    rollingStartIntervalNumbers = Arrays.copyOf(rollingStartIntervalNumbers, capacity);
+    submissionTimestamps = Arrays.copyOf(submissionTimestamps, capacity);
+    visitedCountries = Arrays.copyOf(visitedCountries, capacity);
+    rollingPeriods = Arrays.copyOf(rollingPeriods, capacity);
+    daysSinceOnsetOfSymptoms = Arrays.copyOf(daysSinceOnsetOfSymptoms, capacity);
+    transmissionRiskLevels = Arrays.copyOf(transmissionRiskLevels, capacity);
+    reportTypes = Arrays.copyOf(reportTypes, capacity);
+    submissionTypes = Arrays.copyOf(submissionTypes, capacity);
+    originCountries = Arrays.copyOf(originCountries, capacity);
+  }
+
+  private static short toShort(int value, String property) {
+    if (value != (short) value) {
+      throw new IllegalArgumentException(property + " " + value + " is out of range.");
+    }
+    return (short) value;
+  }
+
+  private static byte toByte(int value, String property) {
+    if (value != (byte) value) {
+      throw new IllegalArgumentException(property + " " + value + " is out of range.");
+    }
+    return (byte) value;
+  }
+
+  /**
+   * An immutable selection of keys of a {@link DiagnosisKeyStore}. The keys can be processed directly on the store by
+   * their {@link #getIndex(int) indices}, or be accessed as list of detached {@link DiagnosisKey} instances.
+   */
+  public static final class Selection extends AbstractList<DiagnosisKey> implements RandomAccess {
+
+    private final DiagnosisKeyStore store;
+    private final int[] indices;
+
+    private Selection(DiagnosisKeyStore store, int[] indices) {
+      this.store = store;
+      this.indices = indices;
+    }
+
+    public DiagnosisKeyStore getStore() {
+      return store;
+    }
+
+    /**
+     * Returns the store index of the selected key at the given position.
+     *
+     * @param position the position within the selection
+     * @return the index of the key within the store
+     */
+    public int getIndex(int position) {
+      return indices[position];
+    }
+
+    /**
+     * Returns the store indices of all selected keys in the order of the selection.
+     *
+     * @return the indices of the keys within the store
+     */
+    public IntStream indices() {
+      return IntStream.of(indices);
+    }
+
+    @Override
+    public DiagnosisKey get(int position) {
+      return store.get(indices[position]);
+    }
+
+    @Override
+    public int size() {
+      return indices.length;
+    }
+  }
+}
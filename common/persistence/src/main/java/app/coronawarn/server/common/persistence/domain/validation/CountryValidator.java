@@ -1,12 +1,15 @@
 package app.coronawarn.server.common.persistence.domain.validation;
 
-import java.util.List;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
 import java.util.Locale;
 import java.util.Set;
 
 public class CountryValidator {
 
-  private static final List<String> ISO_COUNTRIES = List.of(Locale.getISOCountries());
+  private static final Set<String> ISO_COUNTRIES = Collections.unmodifiableSet(
+      new HashSet<>(Arrays.asList(Locale.getISOCountries())));
 
   private CountryValidator() {
   }
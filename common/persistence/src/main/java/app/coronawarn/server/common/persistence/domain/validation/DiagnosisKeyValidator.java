@@ -0,0 +1,70 @@
+package app.coronawarn.server.common.persistence.domain.validation;
+
+import static app.coronawarn.server.common.persistence.domain.DiagnosisKey.KEY_DATA_LENGTH;
+import static app.coronawarn.server.common.persistence.domain.DiagnosisKey.MAX_DAYS_SINCE_ONSET_OF_SYMPTOMS;
+import static app.coronawarn.server.common.persistence.domain.DiagnosisKey.MAX_ROLLING_PERIOD;
+import static app.coronawarn.server.common.persistence.domain.DiagnosisKey.MAX_TRANSMISSION_RISK_LEVEL;
+import static app.coronawarn.server.common.persistence.domain.DiagnosisKey.MIN_DAYS_SINCE_ONSET_OF_SYMPTOMS;
+import static app.coronawarn.server.common.persistence.domain.DiagnosisKey.MIN_ROLLING_PERIOD;
+import static app.coronawarn.server.common.persistence.domain.DiagnosisKey.MIN_TRANSMISSION_RISK_LEVEL;
+import static app.coronawarn.server.common.persistence.domain.DiagnosisKey.ROLLING_PERIOD_MINUTES_INTERVAL;
+import static app.coronawarn.server.common.persistence.domain.validation.ValidSubmissionTimestampValidator.SECONDS_PER_HOUR;
+
+import app.coronawarn.server.common.persistence.domain.DiagnosisKey;
+import app.coronawarn.server.common.protocols.internal.SubmissionPayload.SubmissionType;
+import java.time.Instant;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Checks the constraints declared on the fields of a {@link DiagnosisKey} with plain comparisons, without the
+ * reflective Bean Validation machinery of {@link DiagnosisKey#validate()}. A key is valid according to this validator
+ * if and only if {@link DiagnosisKey#validate()} does not report any violations, so the latter is only needed to
+ * describe the violations of invalid keys.
+ */
+public final class DiagnosisKeyValidator {
+
+  private static final long SECONDS_PER_ROLLING_PERIOD_INTERVAL =
+      TimeUnit.MINUTES.toSeconds(ROLLING_PERIOD_MINUTES_INTERVAL);
+
+  private DiagnosisKeyValidator() {
+  }
+
+  /**
+   * Checks whether the given {@link DiagnosisKey} satisfies all of its field constraints at the current time.
+   *
+   * @param diagnosisKey the key to check
+   * @return true if the key is valid
+   */
+  public static boolean isValid(DiagnosisKey diagnosisKey) {
+    return isValid(diagnosisKey, Instant.now().getEpochSecond());
+  }
+
+  /**
+   * Checks whether the given {@link DiagnosisKey} satisfies all of its field constraints at the given time.
+   *
+   * @param diagnosisKey the key to check
+   * @param epochSeconds the current time in seconds since epoch
+   * @return true if the key is valid
+   */
+  public static boolean isValid(DiagnosisKey diagnosisKey, long epochSeconds) {
+    byte[] keyData = diagnosisKey.getKeyData();
+    int rollingStartIntervalNumber = diagnosisKey.getRollingStartIntervalNumber();
+    return (keyData == null || keyData.length == KEY_DATA_LENGTH)
+        && (diagnosisKey.getSubmissionType() == SubmissionType.SUBMISSION_TYPE_PCR_TEST
+            || diagnosisKey.getSubmissionType() == SubmissionType.SUBMISSION_TYPE_RAPID_TEST)
+        && rollingStartIntervalNumber > 0
+        && rollingStartIntervalNumber <= epochSeconds / SECONDS_PER_ROLLING_PERIOD_INTERVAL
+        && isInRange(diagnosisKey.getRollingPeriod(), MIN_ROLLING_PERIOD, MAX_ROLLING_PERIOD)
+        && isInRange(diagnosisKey.getTransmissionRiskLevel(), MIN_TRANSMISSION_RISK_LEVEL, MAX_TRANSMISSION_RISK_LEVEL)
+        && diagnosisKey.getSubmissionTimestamp() >= 0
+        && diagnosisKey.getSubmissionTimestamp() <= epochSeconds / SECONDS_PER_HOUR
+        && CountryValidator.isValidCountryCode(diagnosisKey.getOriginCountry())
+        && CountryValidator.isValidCountryCodes(diagnosisKey.getVisitedCountries())
+        && isInRange(diagnosisKey.getDaysSinceOnsetOfSymptoms(), MIN_DAYS_SINCE_ONSET_OF_SYMPTOMS,
+            MAX_DAYS_SINCE_ONSET_OF_SYMPTOMS);
+  }
+
+  private static boolean isInRange(int value, int min, int max) {
+    return value >= min && value <= max;
+  }
+}
@@ -8,7 +8,8 @@ import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 @Repository
-public interface CheckInProtectedReportsRepository extends PagingAndSortingRepository<CheckInProtectedReports, Long> {
+public interface CheckInProtectedReportsRepository extends PagingAndSortingRepository<CheckInProtectedReports, Long>,
+    CheckInProtectedReportsStreamRepository {
 
   @Modifying
   @Query("INSERT INTO check_in_protected_reports (trace_location_id_hash, initialization_vector,"
@@ -23,20 +24,15 @@ public interface CheckInProtectedReportsRepository extends PagingAndSortingRepos
       @Param("submission_timestamp") Integer submissionTimestamp);
 
   /**
-   * Counts all entries that have a submission timestamp older than the specified one.
-   *
-   * @param submissionTimestamp The submission timestamp up to which entries will be expired.
-   * @return The number of expired submission timestamps.
-   */
-  @Query("SELECT COUNT(*) FROM check_in_protected_reports WHERE submission_timestamp<:threshold")
-  int countOlderThan(@Param("threshold") long submissionTimestamp);
-
-  /**
-   * Deletes all entries that have a submission timestamp older than the specified one.
+   * Deletes at most {@code limit} entries that have a submission timestamp older than the specified one. The
+   * retention policy calls this repeatedly, so that each chunk is deleted (and committed) in its own statement.
    *
    * @param submissionTimestamp The submission timestamp up to which entries will be deleted.
+   * @param limit               The maximum number of entries to delete.
+   * @return The number of deleted check-in protected reports.
    */
   @Modifying
-  @Query("DELETE FROM check_in_protected_reports WHERE submission_timestamp<:threshold")
-  void deleteOlderThan(@Param("threshold") long submissionTimestamp);
+  @Query("DELETE FROM check_in_protected_reports WHERE submission_timestamp<:threshold AND id IN ("
+      + "SELECT id FROM check_in_protected_reports WHERE submission_timestamp<:threshold LIMIT :limit)")
+  int deleteOlderThan(@Param("threshold") long submissionTimestamp, @Param("limit") int limit);
 }
@@ -0,0 +1,23 @@
+package app.coronawarn.server.common.persistence.repository;
+
+import app.coronawarn.server.common.persistence.domain.CheckInProtectedReports;
+import java.util.stream.Stream;
+
+/**
+ * Streaming operations on the check_in_protected_reports table, which are used instead of the fully materializing
+ * queries of the {@link CheckInProtectedReportsRepository} whenever large numbers of reports have to be read.
+ */
+public interface CheckInProtectedReportsStreamRepository {
+
+  /**
+   * Streams all entries with a submission timestamp strictly between the given hours since epoch, ordered by their
+   * submission timestamp and id. The rows are fetched through a server-side cursor, so only a bounded number of rows is
+   * held by the JDBC driver at any time. Must be called within a transaction and the returned stream must be closed
+   * after use.
+   *
+   * @param after  The submission timestamp after which entries will be fetched (exclusive).
+   * @param before The submission timestamp before which entries will be fetched (exclusive).
+   * @return Stream of the matching {@link CheckInProtectedReports}.
+   */
+  Stream<CheckInProtectedReports> streamAllSubmittedBetween(long after, long before);
+}
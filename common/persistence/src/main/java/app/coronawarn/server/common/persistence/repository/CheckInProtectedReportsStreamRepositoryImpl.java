@@ -0,0 +1,37 @@
+package app.coronawarn.server.common.persistence.repository;
+
+import app.coronawarn.server.common.persistence.domain.CheckInProtectedReports;
+import app.coronawarn.server.common.persistence.domain.CheckInProtectedReportsRowMapper;
+import java.sql.PreparedStatement;
+import java.util.stream.Stream;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcOperations;
+
+/**
+ * Implementation of the {@link CheckInProtectedReportsStreamRepository} fragment, which is picked up by Spring Data
+ * JDBC for the {@link CheckInProtectedReportsRepository}.
+ */
+public class CheckInProtectedReportsStreamRepositoryImpl implements CheckInProtectedReportsStreamRepository {
+
+  private final NamedParameterJdbcOperations jdbcOperations;
+
+  /**
+   * Creates a new {@link CheckInProtectedReportsStreamRepositoryImpl}.
+   *
+   * @param jdbcOperations JDBC operations to execute the statements with
+   */
+  public CheckInProtectedReportsStreamRepositoryImpl(NamedParameterJdbcOperations jdbcOperations) {
+    this.jdbcOperations = jdbcOperations;
+  }
+
+  @Override
+  public Stream<CheckInProtectedReports> streamAllSubmittedBetween(long after, long before) {
+    return jdbcOperations.getJdbcOperations().queryForStream(connection -> {
+      PreparedStatement ps = connection.prepareStatement("SELECT * FROM check_in_protected_reports "
+          + "WHERE submission_timestamp>? AND submission_timestamp<? ORDER BY submission_timestamp, id");
+      ps.setFetchSize(DiagnosisKeyBatchRepositoryImpl.FETCH_SIZE);
+      ps.setLong(1, after);
+      ps.setLong(2, before);
+      return ps;
+    }, new CheckInProtectedReportsRowMapper());
+  }
+}
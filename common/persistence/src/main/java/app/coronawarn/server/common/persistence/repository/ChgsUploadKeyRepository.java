@@ -15,7 +15,8 @@ import org.springframework.stereotype.Repository;
 @Profile("connect-chgs")
 public interface ChgsUploadKeyRepository extends FederationUploadKeyRepository {
 
-  @Query("SELECT * FROM chgs_upload_key WHERE (batch_tag is null or batch_tag = '')")
+  @Query("SELECT * FROM chgs_upload_key WHERE (batch_tag is null or batch_tag = '')"
+      + " ORDER BY submission_timestamp")
   Collection<FederationUploadKey> findAllUploadableKeys();
 
   /**
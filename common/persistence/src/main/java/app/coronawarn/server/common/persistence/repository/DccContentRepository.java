@@ -0,0 +1,36 @@
+package app.coronawarn.server.common.persistence.repository;
+
+import app.coronawarn.server.common.persistence.domain.DccContent;
+import app.coronawarn.server.common.persistence.domain.DccContentId;
+import java.util.Collection;
+import java.util.List;
+import org.springframework.data.jdbc.repository.query.Modifying;
+import org.springframework.data.jdbc.repository.query.Query;
+import org.springframework.data.repository.PagingAndSortingRepository;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface DccContentRepository extends PagingAndSortingRepository<DccContent, DccContentId> {
+
+  @Query("SELECT * FROM dcc_content WHERE type=:type AND hash IN (:hashes)")
+  List<DccContent> findAllByTypeAndHashIn(@Param("type") String type, @Param("hashes") Collection<String> hashes);
+
+  @Modifying
+  @Query("INSERT INTO dcc_content (type, hash, content, checksum, fetched_timestamp) "
+      + "VALUES (:type, :hash, :content, :checksum, :fetchedTimestamp) ON CONFLICT DO NOTHING")
+  void saveDoNothingOnConflict(@Param("type") String type, @Param("hash") String hash,
+      @Param("content") byte[] content, @Param("checksum") byte[] checksum,
+      @Param("fetchedTimestamp") long fetchedTimestamp);
+
+  @Modifying
+  @Query("DELETE FROM dcc_content WHERE type=:type AND hash=:hash")
+  void deleteByTypeAndHash(@Param("type") String type, @Param("hash") String hash);
+
+  @Modifying
+  @Query("DELETE FROM dcc_content WHERE fetched_timestamp < :threshold")
+  void deleteOlderThan(@Param("threshold") long threshold);
+
+  @Query("SELECT COUNT(*) FROM dcc_content WHERE fetched_timestamp < :threshold")
+  int countOlderThan(@Param("threshold") long threshold);
+}
@@ -0,0 +1,44 @@
+package app.coronawarn.server.common.persistence.repository;
+
+import app.coronawarn.server.common.persistence.domain.DiagnosisKey;
+import java.nio.ByteBuffer;
+import java.util.Collection;
+import java.util.Set;
+import java.util.stream.Stream;
+
+/**
+ * Set-based and streaming operations on the diagnosis_key table, which are used instead of the single row and fully
+ * materializing queries of the {@link DiagnosisKeyRepository} whenever large numbers of keys have to be processed.
+ */
+public interface DiagnosisKeyBatchRepository {
+
+  /**
+   * Returns the key data of all given keys, which already exist in the DB with the specified submission type.
+   *
+   * @param keyData        The key data to search for
+   * @param submissionType The submission type to search for
+   * @return the key data (wrapped into {@link ByteBuffer}s for value based equality) of all matching DB entries
+   */
+  Set<ByteBuffer> findExistingKeyData(Collection<byte[]> keyData, String submissionType);
+
+  /**
+   * Attempts to write all specified diagnosis keys into the database with one multi-row insert statement per chunk of
+   * keys. Keys for which a row with the same key data and submission type already exists are not inserted.
+   *
+   * @param diagnosisKeys The diagnosis keys to insert.
+   * @return the number of actually inserted diagnosis keys.
+   */
+  int saveAllDoNothingOnConflict(Collection<DiagnosisKey> diagnosisKeys);
+
+  /**
+   * Streams all diagnosis keys with a TRL greater or equal than the given value and a submission timestamp not older
+   * than the given one, ordered by their submission timestamp. The rows are fetched through a server-side cursor, so
+   * only a bounded number of rows is held by the JDBC driver at any time. Must be called within a transaction and the
+   * returned stream must be closed after use.
+   *
+   * @param minTrl              minimum Transmission-Risk-Level to be fetched from the database
+   * @param submissionTimestamp The submission timestamp from which on entries will be fetched.
+   * @return Stream of {@link DiagnosisKey}s with given TRL or higher
+   */
+  Stream<DiagnosisKey> streamAllWithTrlGreaterThanOrEqual(int minTrl, long submissionTimestamp);
+}
@@ -0,0 +1,137 @@
+package app.coronawarn.server.common.persistence.repository;
+
+import app.coronawarn.server.common.persistence.domain.DiagnosisKey;
+import app.coronawarn.server.common.persistence.domain.DiagnosisKeyRowMapper;
+import java.nio.ByteBuffer;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcOperations;
+
+/**
+ * Implementation of the {@link DiagnosisKeyBatchRepository} fragment, which is picked up by Spring Data JDBC for the
+ * {@link DiagnosisKeyRepository}.
+ */
+public class DiagnosisKeyBatchRepositoryImpl implements DiagnosisKeyBatchRepository {
+
+  /**
+   * Maximum number of keys per statement. Keeps the number of bind parameters of the multi-row insert (11 per row) well
+   * below the PostgreSQL limit of 32767.
+   */
+  static final int CHUNK_SIZE = 1000;
+
+  private static final String INSERT_COLUMNS = "(key_data, rolling_start_interval_number, rolling_period, "
+      + "submission_timestamp, transmission_risk_level, origin_country, visited_countries, report_type, "
+      + "days_since_onset_of_symptoms, consent_to_federation, submission_type)";
+  /**
+   * The primary key of the partitioned diagnosis key table also contains the submission timestamp, so the uniqueness of
+   * key data and submission type is enforced by the primary key of the diagnosis key registry: only the keys whose
+   * registry entry could be inserted by the same statement are inserted into the diagnosis key table.
+   */
+  private static final String INSERT_PREFIX = "WITH k " + INSERT_COLUMNS + " AS (VALUES ";
+  private static final String INSERT_VALUES = "(?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+  private static final String INSERT_SUFFIX = "), registered AS ("
+      + "INSERT INTO diagnosis_key_registry (key_data, submission_type, submission_timestamp)"
+      + " SELECT key_data, submission_type, submission_timestamp FROM k"
+      + " ON CONFLICT DO NOTHING RETURNING key_data, submission_type)"
+      + " INSERT INTO diagnosis_key " + INSERT_COLUMNS
+      + " SELECT k.* FROM k JOIN registered USING (key_data, submission_type)";
+
+  /**
+   * Number of rows fetched per cursor round-trip when streaming diagnosis keys.
+   */
+  static final int FETCH_SIZE = 10_000;
+
+  private final NamedParameterJdbcOperations jdbcOperations;
+
+  /**
+   * Creates a new {@link DiagnosisKeyBatchRepositoryImpl}.
+   *
+   * @param jdbcOperations JDBC operations to execute the statements with
+   */
+  public DiagnosisKeyBatchRepositoryImpl(NamedParameterJdbcOperations jdbcOperations) {
+    this.jdbcOperations = jdbcOperations;
+  }
+
+  @Override
+  public Set<ByteBuffer> findExistingKeyData(Collection<byte[]> keyData, String submissionType) {
+    Set<ByteBuffer> existingKeyData = new HashSet<>();
+    for (List<byte[]> chunk : chunked(new ArrayList<>(keyData))) {
+      existingKeyData.addAll(jdbcOperations.queryForList(
+          "SELECT key_data FROM diagnosis_key_registry"
+              + " WHERE submission_type=:submission_type AND key_data IN (:key_data)",
+          Map.of("submission_type", submissionType, "key_data", chunk), byte[].class)
+          .stream().map(ByteBuffer::wrap).collect(Collectors.toSet()));
+    }
+    return existingKeyData;
+  }
+
+  @Override
+  public int saveAllDoNothingOnConflict(Collection<DiagnosisKey> diagnosisKeys) {
+    // a statement must not contain the same key twice, because both rows would be joined with its registry entry
+    Map<List<Object>, DiagnosisKey> distinctKeys = new LinkedHashMap<>();
+    for (DiagnosisKey diagnosisKey : diagnosisKeys) {
+      distinctKeys.putIfAbsent(
+          List.of(ByteBuffer.wrap(diagnosisKey.getKeyData()), diagnosisKey.getSubmissionType()), diagnosisKey);
+    }
+    int numberOfInsertedKeys = 0;
+    for (List<DiagnosisKey> chunk : chunked(new ArrayList<>(distinctKeys.values()))) {
+      String sql = INSERT_PREFIX
+          + IntStream.range(0, chunk.size()).mapToObj(i -> INSERT_VALUES).collect(Collectors.joining(", "))
+          + INSERT_SUFFIX;
+      numberOfInsertedKeys += jdbcOperations.getJdbcOperations().update(sql, ps -> setValues(ps, chunk));
+    }
+    return numberOfInsertedKeys;
+  }
+
+  private static void setValues(PreparedStatement ps, List<DiagnosisKey> diagnosisKeys) throws SQLException {
+    int index = 1;
+    for (DiagnosisKey diagnosisKey : diagnosisKeys) {
+      ps.setBytes(index++, diagnosisKey.getKeyData());
+      ps.setInt(index++, diagnosisKey.getRollingStartIntervalNumber());
+      ps.setInt(index++, diagnosisKey.getRollingPeriod());
+      ps.setLong(index++, diagnosisKey.getSubmissionTimestamp());
+      ps.setInt(index++, diagnosisKey.getTransmissionRiskLevel());
+      ps.setString(index++, diagnosisKey.getOriginCountry());
+      ps.setArray(index++, ps.getConnection()
+          .createArrayOf("varchar", diagnosisKey.getVisitedCountries().toArray(new String[0])));
+      ps.setString(index++, diagnosisKey.getReportType().name());
+      ps.setInt(index++, diagnosisKey.getDaysSinceOnsetOfSymptoms());
+      ps.setBoolean(index++, diagnosisKey.isConsentToFederation());
+      ps.setString(index++, diagnosisKey.getSubmissionType().name());
+    }
+  }
+
+  /**
+   * {@inheritDoc} Each call maps its rows with a new {@link DiagnosisKeyRowMapper}, so the streamed keys share their
+   * origin country and visited countries with the other keys of the same result.
+   */
+  @Override
+  public Stream<DiagnosisKey> streamAllWithTrlGreaterThanOrEqual(int minTrl, long submissionTimestamp) {
+    return jdbcOperations.getJdbcOperations().queryForStream(connection -> {
+      PreparedStatement ps = connection.prepareStatement("SELECT * FROM diagnosis_key "
+          + "WHERE submission_timestamp>=? AND transmission_risk_level>=? ORDER BY submission_timestamp");
+      ps.setFetchSize(FETCH_SIZE);
+      ps.setLong(1, submissionTimestamp);
+      ps.setInt(2, minTrl);
+      return ps;
+    }, new DiagnosisKeyRowMapper());
+  }
+
+  private static <T> List<List<T>> chunked(List<T> elements) {
+    List<List<T>> chunks = new ArrayList<>();
+    for (int i = 0; i < elements.size(); i += CHUNK_SIZE) {
+      chunks.add(elements.subList(i, Math.min(elements.size(), i + CHUNK_SIZE)));
+    }
+    return chunks;
+  }
+}
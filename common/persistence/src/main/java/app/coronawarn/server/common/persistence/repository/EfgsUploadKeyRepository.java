@@ -16,7 +16,8 @@ import org.springframework.stereotype.Repository;
 @Profile("connect-efgs")
 public interface EfgsUploadKeyRepository extends FederationUploadKeyRepository {
 
-  @Query("SELECT * FROM federation_upload_key WHERE (batch_tag is null or batch_tag = '')")
+  @Query("SELECT * FROM federation_upload_key WHERE (batch_tag is null or batch_tag = '')"
+      + " ORDER BY submission_timestamp")
   Collection<FederationUploadKey> findAllUploadableKeys();
 
   /**
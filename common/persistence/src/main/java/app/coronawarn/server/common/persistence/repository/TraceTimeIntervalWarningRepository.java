@@ -28,20 +28,15 @@ public interface TraceTimeIntervalWarningRepository
       @Param("submission_type") String submissionType);
 
   /**
-   * Counts all entries that have a submission timestamp older than the specified one.
-   *
-   * @param submissionTimestamp The submission timestamp up to which entries will be expired.
-   * @return The number of expired trace time warnings.
-   */
-  @Query("SELECT COUNT(*) FROM trace_time_interval_warning WHERE submission_timestamp<:threshold")
-  int countOlderThan(@Param("threshold") long submissionTimestamp);
-
-  /**
-   * Deletes all entries that have a submission timestamp older than the specified one.
+   * Deletes at most {@code limit} entries that have a submission timestamp older than the specified one. The
+   * retention policy calls this repeatedly, so that each chunk is deleted (and committed) in its own statement.
    *
    * @param submissionTimestamp The submission timestamp up to which entries will be deleted.
+   * @param limit               The maximum number of entries to delete.
+   * @return The number of deleted trace time warnings.
    */
   @Modifying
-  @Query("DELETE FROM trace_time_interval_warning WHERE submission_timestamp<:threshold")
-  void deleteOlderThan(@Param("threshold") long submissionTimestamp);
+  @Query("DELETE FROM trace_time_interval_warning WHERE submission_timestamp<:threshold AND id IN ("
+      + "SELECT id FROM trace_time_interval_warning WHERE submission_timestamp<:threshold LIMIT :limit)")
+  int deleteOlderThan(@Param("threshold") long submissionTimestamp, @Param("limit") int limit);
 }
@@ -0,0 +1,95 @@
+package app.coronawarn.server.common.persistence.service;
+
+import static app.coronawarn.server.common.shared.util.HashUtils.Algorithms.SHA_256;
+import static java.time.ZoneOffset.UTC;
+
+import app.coronawarn.server.common.persistence.domain.DccContent;
+import app.coronawarn.server.common.persistence.repository.DccContentRepository;
+import app.coronawarn.server.common.shared.util.HashUtils;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Content-addressed store for the content fetched from the DCC server. As the content for a given type and hash never
+ * changes, entries are never updated: they are only added, and removed again by the retention policy or when their
+ * checksum does not match.
+ */
+@Component
+public class DccContentService {
+
+  private static final Logger logger = LoggerFactory.getLogger(DccContentService.class);
+
+  private final DccContentRepository repository;
+
+  public DccContentService(final DccContentRepository repository) {
+    this.repository = repository;
+  }
+
+  /**
+   * Retrieves the stored content of the given type for the given hashes. Content which does not match the checksum it
+   * was stored with is deleted and treated as not stored.
+   *
+   * @param type   the type of the content
+   * @param hashes the hashes to look up
+   * @return the serialized content of all stored hashes, mapped by hash. Hashes which are not stored are missing.
+   */
+  public Map<String, byte[]> getContents(final String type, final Collection<String> hashes) {
+    if (hashes.isEmpty()) {
+      return Map.of();
+    }
+    Map<String, byte[]> contents = new HashMap<>();
+    for (DccContent dccContent : repository.findAllByTypeAndHashIn(type, hashes)) {
+      if (Arrays.equals(dccContent.getChecksum(), HashUtils.byteStringDigest(dccContent.getContent(), SHA_256))) {
+        contents.put(dccContent.getHash(), dccContent.getContent());
+      } else {
+        logger.warn("Deleting stored DCC content of type {} with hash {}, because its checksum does not match.", type,
+            dccContent.getHash());
+        repository.deleteByTypeAndHash(type, dccContent.getHash());
+      }
+    }
+    return contents;
+  }
+
+  /**
+   * Stores the given content together with its checksum, unless content of the same type is already stored for the
+   * hash.
+   *
+   * @param type    the type of the content
+   * @param hash    the hash of the content
+   * @param content the serialized content
+   */
+  public void store(final String type, final String hash, final byte[] content) {
+    repository.saveDoNothingOnConflict(type, hash, content, HashUtils.byteStringDigest(content, SHA_256),
+        Instant.now().getEpochSecond());
+  }
+
+  /**
+   * Deletes all content which was fetched before the configured retention period, so that content which is no longer
+   * provided by the DCC server does not pile up. Content which is still in use is fetched and stored again.
+   *
+   * @param retentionDays the number of days the content is retained
+   * @throws IllegalArgumentException if {@code retentionDays} is negative
+   */
+  @Transactional
+  public void applyRetentionPolicy(final int retentionDays) {
+    if (retentionDays < 0) {
+      throw new IllegalArgumentException("Number of days to retain must be greater or equal to 0.");
+    }
+    long threshold = LocalDateTime
+        .ofInstant(Instant.now(), UTC)
+        .minusDays(retentionDays)
+        .toEpochSecond(UTC);
+    int numberOfDeletions = repository.countOlderThan(threshold);
+    logger.info("Deleting {} DCC content record(s) fetched more than {} day(s) ago.", numberOfDeletions,
+        retentionDays);
+    repository.deleteOlderThan(threshold);
+  }
+}
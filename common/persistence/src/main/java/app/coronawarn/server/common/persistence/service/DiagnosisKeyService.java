@@ -6,14 +6,21 @@ import static org.springframework.data.util.StreamUtils.createStreamFromIterator
 
 import app.coronawarn.server.common.persistence.domain.DiagnosisKey;
 import app.coronawarn.server.common.persistence.repository.DiagnosisKeyRepository;
+import app.coronawarn.server.common.persistence.service.common.ChunkedDeletion;
 import app.coronawarn.server.common.persistence.service.common.ValidDiagnosisKeyFilter;
 import app.coronawarn.server.common.protocols.internal.SubmissionPayload.SubmissionType;
 import io.micrometer.core.annotation.Timed;
+import java.nio.ByteBuffer;
 import java.time.Instant;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Set;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.data.domain.Sort;
@@ -27,6 +34,7 @@ public class DiagnosisKeyService {
   private static final Logger logger = LoggerFactory.getLogger(DiagnosisKeyService.class);
   private final DiagnosisKeyRepository keyRepository;
   private final ValidDiagnosisKeyFilter validationFilter;
+  private final ChunkedDeletion chunkedDeletion = ChunkedDeletion.withDefaults();
 
   public DiagnosisKeyService(DiagnosisKeyRepository keyRepository, ValidDiagnosisKeyFilter filter) {
     this.keyRepository = keyRepository;
@@ -37,7 +45,8 @@ public class DiagnosisKeyService {
    * Persists the specified collection of {@link DiagnosisKey} instances and returns the number of inserted diagnosis
    * keys. If the key data of a particular diagnosis key already exists in the database and is of a submission type that
    * can not be overwritten with the new submission type (e.g. overwriting PCR with RAPID is not possible), this
-   * diagnosis key is not persisted.
+   * diagnosis key is not persisted. The existence check and the inserts are executed set-based (in chunks), so that
+   * the number of DB round-trips does not grow with the number of keys.
    *
    * @param diagnosisKeys must not contain {@literal null}.
    * @return Number of successfully inserted diagnosis keys.
@@ -46,26 +55,25 @@ public class DiagnosisKeyService {
   @Timed
   @Transactional
   public int saveDiagnosisKeys(Collection<DiagnosisKey> diagnosisKeys) {
-    int numberOfInsertedKeys = 0;
+    final Set<ByteBuffer> pcrKeyData = keyRepository.findExistingKeyData(
+        diagnosisKeys.stream().map(DiagnosisKey::getKeyData).collect(Collectors.toList()),
+        SubmissionType.SUBMISSION_TYPE_PCR_TEST.name());
 
+    final List<DiagnosisKey> keysToInsert = new ArrayList<>(diagnosisKeys.size());
     for (DiagnosisKey diagnosisKey : diagnosisKeys) {
-
-      if (keyRepository.exists(diagnosisKey.getKeyData(), SubmissionType.SUBMISSION_TYPE_PCR_TEST.name())) {
+      ByteBuffer keyData = ByteBuffer.wrap(diagnosisKey.getKeyData());
+      if (pcrKeyData.contains(keyData)) {
         continue;
       }
-
-      boolean keyInsertedSuccessfully = keyRepository.saveDoNothingOnConflict(
-          diagnosisKey.getKeyData(), diagnosisKey.getRollingStartIntervalNumber(), diagnosisKey.getRollingPeriod(),
-          diagnosisKey.getSubmissionTimestamp(), diagnosisKey.getTransmissionRiskLevel(),
-          diagnosisKey.getOriginCountry(), diagnosisKey.getVisitedCountries().toArray(new String[0]),
-          diagnosisKey.getReportType().name(), diagnosisKey.getDaysSinceOnsetOfSymptoms(),
-          diagnosisKey.isConsentToFederation(), diagnosisKey.getSubmissionType().name());
-
-      if (keyInsertedSuccessfully) {
-        numberOfInsertedKeys++;
+      // a PCR key earlier in the same collection takes precedence over later keys with the same key data
+      if (SubmissionType.SUBMISSION_TYPE_PCR_TEST.equals(diagnosisKey.getSubmissionType())) {
+        pcrKeyData.add(keyData);
       }
+      keysToInsert.add(diagnosisKey);
     }
 
+    int numberOfInsertedKeys = keysToInsert.isEmpty() ? 0 : keyRepository.saveAllDoNothingOnConflict(keysToInsert);
+
     int conflictingKeys = diagnosisKeys.size() - numberOfInsertedKeys;
     if (conflictingKeys > 0) {
       logger.warn("{} out of {} diagnosis keys conflicted with existing database entries and were ignored.",
@@ -87,32 +95,49 @@ public class DiagnosisKeyService {
   }
 
   /**
-   * Fetches {@link DiagnosisKey}s from DB with TRL greater or equal than the given value.
-   * 
+   * Streams {@link DiagnosisKey}s with TRL greater or equal than the given value from the DB to the given consumer.
+   * The keys are read through a server-side cursor and validated one by one, so neither the whole result set nor a
+   * filtered copy of it is ever held in memory.
+   *
    * @param minTrl      Minimum Transmission-Risk-Level to fetch.
    * @param daysToFetch time in days, that should be published
-   * @return List of {@link DiagnosisKey}s filtered by {@link #validationFilter}.
+   * @param consumer    receives each {@link DiagnosisKey} that passed the {@link #validationFilter}.
    */
-  public List<DiagnosisKey> getDiagnosisKeysWithMinTrl(final int minTrl, final int daysToFetch) {
-    final List<DiagnosisKey> diagnosisKeys = keyRepository.findAllWithTrlGreaterThanOrEqual(minTrl,
-        daysToSeconds(daysToFetch));
-    return validationFilter.filter(diagnosisKeys);
+  @Transactional(readOnly = true)
+  public void streamDiagnosisKeysWithMinTrl(final int minTrl, final int daysToFetch,
+      final Consumer<DiagnosisKey> consumer) {
+    int numberOfKeys = 0;
+    int numberOfDiscardedKeys = 0;
+    try (Stream<DiagnosisKey> diagnosisKeys = keyRepository.streamAllWithTrlGreaterThanOrEqual(minTrl,
+        daysToSeconds(daysToFetch))) {
+      Iterator<DiagnosisKey> iterator = diagnosisKeys.iterator();
+      while (iterator.hasNext()) {
+        DiagnosisKey diagnosisKey = iterator.next();
+        numberOfKeys++;
+        if (validationFilter.isDiagnosisKeyValid(diagnosisKey)) {
+          consumer.accept(diagnosisKey);
+        } else {
+          numberOfDiscardedKeys++;
+        }
+      }
+    }
+    logger.info("Retrieved {} diagnosis key(s). Discarded {} diagnosis key(s) from the result as invalid.",
+        numberOfKeys, numberOfDiscardedKeys);
   }
 
   /**
    * Deletes all diagnosis key entries which have a submission timestamp that is older than the specified number of
-   * days.
+   * days. The entries are deleted in chunks, each of which is committed on its own (see {@link ChunkedDeletion}).
    *
    * @param daysToRetain the number of days until which diagnosis keys will be retained.
    * @throws IllegalArgumentException if {@code daysToRetain} is negative.
    */
-  @Transactional
   public void applyRetentionPolicy(int daysToRetain) {
     final long threshold = daysToSeconds(daysToRetain);
-    int numberOfDeletions = keyRepository.countOlderThan(threshold);
-    logger.info("Deleting {} diagnosis key(s) with a submission timestamp older than {} day(s) ago.",
+    logger.info("Deleting diagnosis key(s) with a submission timestamp older than {} day(s) ago.", daysToRetain);
+    int numberOfDeletions = chunkedDeletion.deleteAll(limit -> keyRepository.deleteOlderThan(threshold, limit));
+    logger.info("Deleted {} diagnosis key(s) with a submission timestamp older than {} day(s) ago.",
         numberOfDeletions, daysToRetain);
-    keyRepository.deleteOlderThan(threshold);
   }
 
   /**
@@ -0,0 +1,65 @@
+package app.coronawarn.server.common.persistence.service;
+
+import static app.coronawarn.server.common.persistence.service.DiagnosisKeyService.daysToSeconds;
+import static java.time.ZoneOffset.UTC;
+
+import java.time.LocalDate;
+import java.util.Map;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcOperations;
+import org.springframework.stereotype.Component;
+
+/**
+ * Manages the daily partitions of the submission tables ({@code diagnosis_key}, {@code trace_time_interval_warning}
+ * and {@code check_in_protected_reports}), which are range partitioned by the day of their submission timestamp.
+ * Partitions for upcoming days are created ahead of time, partitions of expired days are dropped as a whole. Both
+ * operations are executed by database functions, which run with the privileges of the table owner.
+ */
+@Component
+public class SubmissionPartitionService {
+
+  /**
+   * Number of days for which partitions are created in advance. Submissions for days without partition end up in the
+   * default partition, from which they can only be removed row by row.
+   */
+  public static final int DAYS_AHEAD = 7;
+
+  private static final Logger logger = LoggerFactory.getLogger(SubmissionPartitionService.class);
+
+  private final NamedParameterJdbcOperations jdbcOperations;
+
+  public SubmissionPartitionService(NamedParameterJdbcOperations jdbcOperations) {
+    this.jdbcOperations = jdbcOperations;
+  }
+
+  /**
+   * Creates the missing daily partitions from today up to {@link #DAYS_AHEAD} days ahead.
+   *
+   * @return the number of created partitions.
+   */
+  public int createUpcomingPartitions() {
+    LocalDate today = LocalDate.now(UTC);
+    Integer created = jdbcOperations.queryForObject("SELECT create_submission_partitions(:from_day, :to_day)",
+        Map.of("from_day", today, "to_day", today.plusDays(DAYS_AHEAD)), Integer.class);
+    logger.info("Created {} submission partition(s) for the upcoming {} day(s).", created, DAYS_AHEAD);
+    return created == null ? 0 : created;
+  }
+
+  /**
+   * Drops all daily partitions which only contain submissions older than the specified number of days, including the
+   * federation upload keys mirrored from their diagnosis keys. Remaining expired entries of the partially expired day
+   * (and of the default partition) have to be deleted row by row by the respective services.
+   *
+   * @param daysToRetain the number of days until which submissions will be retained.
+   * @return the number of dropped partitions.
+   * @throws IllegalArgumentException if {@code daysToRetain} is negative.
+   */
+  public int applyRetentionPolicy(int daysToRetain) {
+    long threshold = daysToSeconds(daysToRetain);
+    Integer dropped = jdbcOperations.queryForObject("SELECT drop_expired_submission_partitions(:threshold)",
+        Map.of("threshold", threshold), Integer.class);
+    logger.info("Dropped {} submission partition(s) older than {} day(s) ago.", dropped, daysToRetain);
+    return dropped == null ? 0 : dropped;
+  }
+}
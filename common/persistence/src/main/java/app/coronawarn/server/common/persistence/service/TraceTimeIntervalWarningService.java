@@ -8,6 +8,7 @@ import app.coronawarn.server.common.persistence.domain.CheckInProtectedReports;
 import app.coronawarn.server.common.persistence.domain.TraceTimeIntervalWarning;
 import app.coronawarn.server.common.persistence.repository.CheckInProtectedReportsRepository;
 import app.coronawarn.server.common.persistence.repository.TraceTimeIntervalWarningRepository;
+import app.coronawarn.server.common.persistence.service.common.ChunkedDeletion;
 import app.coronawarn.server.common.protocols.internal.SubmissionPayload.SubmissionType;
 import app.coronawarn.server.common.protocols.internal.pt.CheckIn;
 import app.coronawarn.server.common.protocols.internal.pt.CheckInProtectedReport;
@@ -18,8 +19,10 @@ import java.time.Instant;
 import java.time.LocalDateTime;
 import java.util.Collection;
 import java.util.List;
+import java.util.function.Consumer;
 import java.util.function.Function;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.data.domain.Sort;
@@ -38,6 +41,7 @@ public class TraceTimeIntervalWarningService {
   @Deprecated(since = "2.8", forRemoval = false)
   private final TraceTimeIntervalWarningRepository traceTimeIntervalWarningRepo;
   private final CheckInProtectedReportsRepository checkInProtectedReportsRepository;
+  private final ChunkedDeletion chunkedDeletion = ChunkedDeletion.withDefaults();
   @Deprecated(since = "2.8", forRemoval = false)
   private final MessageDigest hashAlgorithm;
 
@@ -139,13 +143,21 @@ public class TraceTimeIntervalWarningService {
   }
 
   /**
-   * Returns all available {@link CheckInProtectedReports}s sorted by their submissionTimestamp.
+   * Streams the {@link CheckInProtectedReports}s with a submission timestamp strictly between the given hours since
+   * epoch from the DB to the given consumer, ordered by their submission timestamp. Only the reports of the requested
+   * window are read, so reports outside of it never have to be loaded and filtered.
+   *
+   * @param afterHour  the hour since epoch after which reports are streamed (exclusive).
+   * @param beforeHour the hour since epoch before which reports are streamed (exclusive).
+   * @param consumer   receives each matching {@link CheckInProtectedReports}.
    */
-  public Collection<CheckInProtectedReports> getCheckInProtectedReports() {
-    return StreamUtils
-        .createStreamFromIterator(checkInProtectedReportsRepository
-            .findAll(Sort.by(Direction.ASC, "submissionTimestamp")).iterator())
-        .collect(Collectors.toList());
+  @Transactional(readOnly = true)
+  public void streamCheckInProtectedReports(long afterHour, long beforeHour,
+      Consumer<CheckInProtectedReports> consumer) {
+    try (Stream<CheckInProtectedReports> checkInProtectedReports = checkInProtectedReportsRepository
+        .streamAllSubmittedBetween(afterHour, beforeHour)) {
+      checkInProtectedReports.forEachOrdered(consumer);
+    }
   }
 
   @Deprecated(since = "2.8", forRemoval = false)
@@ -155,29 +167,28 @@ public class TraceTimeIntervalWarningService {
 
   /**
    * Deletes all trace time warning entries which have a submission timestamp that is older than the specified number of
-   * days.
+   * days. The entries are deleted in chunks, each of which is committed on its own (see {@link ChunkedDeletion}).
    *
    * @param daysToRetain the number of days until which trace time warnings will be retained.
    * @throws IllegalArgumentException if {@code daysToRetain} is negative.
    */
-  @Transactional
   public void applyRetentionPolicy(int daysToRetain) {
     if (daysToRetain < 0) {
       throw new IllegalArgumentException("Number of days to retain must be greater or equal to 0.");
     }
 
-    long threshold = LocalDateTime
+    final long threshold = LocalDateTime
         .ofInstant(Instant.now(), UTC)
         .minusDays(daysToRetain)
         .toEpochSecond(UTC) / SECONDS_PER_HOUR;
-    int numberOfDeletions = traceTimeIntervalWarningRepo.countOlderThan(threshold);
-    logger.info("Deleting {} trace time warning(s) with a submission timestamp older than {} day(s) ago.",
+    int numberOfDeletions = chunkedDeletion
+        .deleteAll(limit -> traceTimeIntervalWarningRepo.deleteOlderThan(threshold, limit));
+    logger.info("Deleted {} trace time warning(s) with a submission timestamp older than {} day(s) ago.",
         numberOfDeletions, daysToRetain);
-    traceTimeIntervalWarningRepo.deleteOlderThan(threshold);
 
-    numberOfDeletions = checkInProtectedReportsRepository.countOlderThan(threshold);
-    logger.info("Deleting {} encrypted trace time warning(s) with a submission timestamp older than {} day(s) ago.",
+    numberOfDeletions = chunkedDeletion
+        .deleteAll(limit -> checkInProtectedReportsRepository.deleteOlderThan(threshold, limit));
+    logger.info("Deleted {} encrypted trace time warning(s) with a submission timestamp older than {} day(s) ago.",
         numberOfDeletions, daysToRetain);
-    checkInProtectedReportsRepository.deleteOlderThan(threshold);
   }
 }
@@ -0,0 +1,74 @@
+package app.coronawarn.server.common.persistence.service.common;
+
+import java.time.Duration;
+import java.util.function.IntUnaryOperator;
+
+/**
+ * Deletes expired entries in bounded chunks instead of one unbounded statement. Each chunk is executed (and committed)
+ * on its own, so that locks are only held for the duration of a chunk and the WAL is not flooded by one huge
+ * transaction. Between two chunks the deletion pauses to leave room for concurrent submissions.
+ */
+public final class ChunkedDeletion {
+
+  public static final int DEFAULT_CHUNK_SIZE = 10_000;
+  public static final Duration DEFAULT_PAUSE = Duration.ofMillis(100);
+
+  private final int chunkSize;
+  private final Duration pause;
+
+  /**
+   * Creates a new chunked deletion.
+   *
+   * @param chunkSize the maximum number of entries deleted per chunk
+   * @param pause     the pause between two chunks
+   * @throws IllegalArgumentException if {@code chunkSize} is not positive or {@code pause} is negative.
+   */
+  public ChunkedDeletion(int chunkSize, Duration pause) {
+    if (chunkSize <= 0) {
+      throw new IllegalArgumentException("Chunk size must be greater than 0.");
+    }
+    if (pause.isNegative()) {
+      throw new IllegalArgumentException("Pause between chunks must not be negative.");
+    }
+    this.chunkSize = chunkSize;
+    this.pause = pause;
+  }
+
+  /**
+   * Creates a new chunked deletion with {@link #DEFAULT_CHUNK_SIZE} and {@link #DEFAULT_PAUSE}.
+   *
+   * @return the chunked deletion
+   */
+  public static ChunkedDeletion withDefaults() {
+    return new ChunkedDeletion(DEFAULT_CHUNK_SIZE, DEFAULT_PAUSE);
+  }
+
+  /**
+   * Calls the given chunk deletion until it deletes less entries than the chunk size.
+   *
+   * @param deleteChunk deletes at most the given number of entries and returns the number of deleted entries
+   * @return the total number of deleted entries
+   */
+  public int deleteAll(IntUnaryOperator deleteChunk) {
+    int total = 0;
+    int deleted;
+    do {
+      deleted = deleteChunk.applyAsInt(chunkSize);
+      total += deleted;
+    } while (deleted >= chunkSize && pause());
+    return total;
+  }
+
+  private boolean pause() {
+    if (pause.isZero()) {
+      return true;
+    }
+    try {
+      Thread.sleep(pause.toMillis());
+      return true;
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      return false;
+    }
+  }
+}
@@ -63,8 +63,25 @@ public class KeySharingPoliciesChecker {
    * @return {@link LocalDateTime} at which the specified {@link DiagnosisKey} can be shared.
    */
   public LocalDateTime getEarliestTimeForSharingKey(DiagnosisKey diagnosisKey, ExpirationPolicy policy) {
-    LocalDateTime submissionDateTime = getSubmissionDateTime(diagnosisKey);
-    LocalDateTime expiryDateTime = getRollingPeriodExpiryTime(diagnosisKey);
+    return getEarliestTimeForSharingKey(diagnosisKey.getRollingStartIntervalNumber(), diagnosisKey.getRollingPeriod(),
+        diagnosisKey.getSubmissionTimestamp(), policy);
+  }
+
+  /**
+   * Calculates the earliest point in time at which a key with the specified properties can be shared with external
+   * systems, see {@link #getEarliestTimeForSharingKey(DiagnosisKey, ExpirationPolicy)}. This variant works on the plain
+   * key properties, so that keys do not have to be held as {@link DiagnosisKey} instances.
+   *
+   * @param rollingStartIntervalNumber the rolling start interval number of the key
+   * @param rollingPeriod the rolling period of the key
+   * @param submissionTimestamp the submission timestamp of the key in hours since epoch
+   * @param policy when the key expires {@link ExpirationPolicy}
+   * @return {@link LocalDateTime} at which the key can be shared.
+   */
+  public LocalDateTime getEarliestTimeForSharingKey(int rollingStartIntervalNumber, int rollingPeriod,
+      long submissionTimestamp, ExpirationPolicy policy) {
+    LocalDateTime submissionDateTime = getSubmissionDateTime(submissionTimestamp);
+    LocalDateTime expiryDateTime = getRollingPeriodExpiryTime(rollingStartIntervalNumber, rollingPeriod);
     long timeBetweenExpiryAndSubmission = TIME_CONVERTERS.get(policy.getTimeUnit())
         .apply(Duration.between(expiryDateTime, submissionDateTime));
     if (timeBetweenExpiryAndSubmission <= policy.getExpirationTime()) {
@@ -76,22 +93,23 @@ public class KeySharingPoliciesChecker {
   }
 
   /**
-   * Returns the end of the rolling time window that a {@link DiagnosisKey} was active for as a {@link LocalDateTime}.
+   * Returns the end of the rolling time window that a key was active for as a {@link LocalDateTime}.
    * The ".plusDays(1L)" is used as there can be now diagnosis keys with rollingPeriod set to less than 1 day.
    *
-   * @param diagnosisKey key {@link DiagnosisKey}
+   * @param rollingStartIntervalNumber the rolling start interval number of the key
+   * @param rollingPeriod the rolling period of the key
    * @return when the period expires {@link LocalDateTime}
    */
-  private LocalDateTime getRollingPeriodExpiryTime(DiagnosisKey diagnosisKey) {
+  private LocalDateTime getRollingPeriodExpiryTime(int rollingStartIntervalNumber, int rollingPeriod) {
     return LocalDateTime
-        .ofEpochSecond(diagnosisKey.getRollingStartIntervalNumber() * TEN_MINUTES_INTERVAL_SECONDS, 0, UTC)
-        .plusMinutes((long) diagnosisKey.getRollingPeriod() * DiagnosisKey.ROLLING_PERIOD_MINUTES_INTERVAL);
+        .ofEpochSecond(rollingStartIntervalNumber * TEN_MINUTES_INTERVAL_SECONDS, 0, UTC)
+        .plusMinutes((long) rollingPeriod * DiagnosisKey.ROLLING_PERIOD_MINUTES_INTERVAL);
   }
 
   /**
-   * Returns the submission timestamp of a {@link DiagnosisKey} as a {@link LocalDateTime}.
+   * Returns the submission timestamp of a key as a {@link LocalDateTime}.
    */
-  private LocalDateTime getSubmissionDateTime(DiagnosisKey diagnosisKey) {
-    return LocalDateTime.ofEpochSecond(diagnosisKey.getSubmissionTimestamp() * ONE_HOUR_INTERVAL_SECONDS, 0, UTC);
+  private LocalDateTime getSubmissionDateTime(long submissionTimestamp) {
+    return LocalDateTime.ofEpochSecond(submissionTimestamp * ONE_HOUR_INTERVAL_SECONDS, 0, UTC);
   }
 }
@@ -4,6 +4,7 @@ package app.coronawarn.server.common.persistence.service.common;
 
 
 import app.coronawarn.server.common.persistence.domain.DiagnosisKey;
+import app.coronawarn.server.common.persistence.domain.validation.DiagnosisKeyValidator;
 import java.util.Collection;
 import java.util.List;
 import java.util.stream.Collectors;
@@ -36,22 +37,22 @@ public class ValidDiagnosisKeyFilter {
   }
 
   /**
-   * Returns true if the given diagnosis key has passed the default entity validation.
+   * Returns true if the given diagnosis key has passed the default entity validation. The constraints are checked by
+   * the {@link DiagnosisKeyValidator}, the default entity validation only runs for invalid keys to log the violations.
    *
    * @param diagnosisKey a DiagnosisKey
    * @return boolean value to indicate if the DiagnosisKey is valid
    */
   public boolean isDiagnosisKeyValid(DiagnosisKey diagnosisKey) {
-    Collection<ConstraintViolation<DiagnosisKey>> violations = diagnosisKey.validate();
-    boolean isValid = violations.isEmpty();
-
-    if (!isValid) {
-      List<String> violationMessages =
-          violations.stream().map(ConstraintViolation::getMessage).collect(Collectors.toList());
-      logger.warn("Validation failed for diagnosis key from database. Violations: {}", violationMessages);
+    if (DiagnosisKeyValidator.isValid(diagnosisKey)) {
+      return true;
     }
 
-    return isValid;
+    Collection<ConstraintViolation<DiagnosisKey>> violations = diagnosisKey.validate();
+    List<String> violationMessages =
+        violations.stream().map(ConstraintViolation::getMessage).collect(Collectors.toList());
+    logger.warn("Validation failed for diagnosis key from database. Violations: {}", violationMessages);
+    return false;
   }
 
 }
@@ -0,0 +1,25 @@
+-- Indexes for the submission timestamp based queries of the distribution and the retention policies.
+-- B-tree indexes are used instead of BRIN indexes, because the distribution reads the rows ordered by their
+-- submission timestamp, which a BRIN index cannot provide.
+-- The indexes are built concurrently, so that the tables stay writable while they are built. This requires the
+-- migration to run outside of a transaction (see the accompanying .conf file).
+
+-- Distribution query (submission_timestamp>=:threshold AND transmission_risk_level>=:minTrl ORDER BY
+-- submission_timestamp) as well as countOlderThan/deleteOlderThan of the retention policy.
+CREATE INDEX CONCURRENTLY IF NOT EXISTS diagnosis_key_submission_timestamp_trl_idx
+    ON diagnosis_key (submission_timestamp, transmission_risk_level);
+
+CREATE INDEX CONCURRENTLY IF NOT EXISTS trace_time_interval_warning_submission_timestamp_idx
+    ON trace_time_interval_warning (submission_timestamp);
+
+CREATE INDEX CONCURRENTLY IF NOT EXISTS check_in_protected_reports_submission_timestamp_idx
+    ON check_in_protected_reports (submission_timestamp);
+
+-- Only keys without batch tag are read by the upload service, all others are just kept until they expire.
+CREATE INDEX CONCURRENTLY IF NOT EXISTS federation_upload_key_pending_submission_timestamp_idx
+    ON federation_upload_key (submission_timestamp)
+    WHERE batch_tag IS NULL OR batch_tag = '';
+
+CREATE INDEX CONCURRENTLY IF NOT EXISTS chgs_upload_key_pending_submission_timestamp_idx
+    ON chgs_upload_key (submission_timestamp)
+    WHERE batch_tag IS NULL OR batch_tag = '';
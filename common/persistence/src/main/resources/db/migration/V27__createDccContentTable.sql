@@ -0,0 +1,10 @@
+-- Business rules and value sets of the DCC server are immutable per hash, so the distribution keeps the ones it has
+-- already fetched and only downloads those with new hashes.
+CREATE TABLE dcc_content (
+    type varchar(32) NOT NULL,
+    hash varchar(255) NOT NULL,
+    content bytea NOT NULL,
+    PRIMARY KEY(type, hash)
+);
+
+GRANT SELECT, INSERT ON TABLE dcc_content TO "cwa_distribution";
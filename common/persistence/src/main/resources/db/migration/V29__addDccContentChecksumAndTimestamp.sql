@@ -0,0 +1,8 @@
+-- The cached DCC content is verified against its checksum when it is read back, and expires after the retention
+-- period. Content cached before has neither, so it is dropped and will be downloaded again.
+DELETE FROM dcc_content;
+
+ALTER TABLE dcc_content ADD COLUMN checksum bytea NOT NULL;
+ALTER TABLE dcc_content ADD COLUMN fetched_timestamp bigint NOT NULL;
+
+GRANT DELETE ON TABLE dcc_content TO "cwa_distribution";
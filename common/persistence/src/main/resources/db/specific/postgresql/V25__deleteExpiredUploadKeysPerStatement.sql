@@ -0,0 +1,39 @@
+-- The retention policy deletes the expired diagnosis keys in chunks. Instead of deleting the mirrored upload keys
+-- row by row, the triggers below delete them once per statement, joined against the transition table of the chunk.
+
+DROP TRIGGER IF EXISTS remove_expired_uploadable_keys_trigger ON diagnosis_key;
+DROP TRIGGER IF EXISTS remove_expired_uploadable_swiss_keys_trigger ON diagnosis_key;
+
+CREATE OR REPLACE FUNCTION remove_expired_uploadable_keys()
+RETURNS TRIGGER AS $$
+BEGIN
+    DELETE FROM federation_upload_key u
+        USING expired_keys e
+        WHERE u.key_data = e.key_data
+        AND u.submission_type = e.submission_type;
+    RETURN NULL;
+END;
+$$
+LANGUAGE plpgsql;
+
+CREATE OR REPLACE FUNCTION remove_expired_swiss_uploadable_keys()
+RETURNS TRIGGER AS $$
+BEGIN
+    DELETE FROM chgs_upload_key u
+        USING expired_keys e
+        WHERE u.key_data = e.key_data
+        AND u.submission_type = e.submission_type;
+    RETURN NULL;
+END;
+$$
+LANGUAGE plpgsql;
+
+CREATE TRIGGER remove_expired_uploadable_keys_trigger
+    AFTER DELETE ON diagnosis_key
+    REFERENCING OLD TABLE AS expired_keys
+    FOR EACH STATEMENT EXECUTE PROCEDURE remove_expired_uploadable_keys();
+
+CREATE TRIGGER remove_expired_uploadable_swiss_keys_trigger
+    AFTER DELETE ON diagnosis_key
+    REFERENCING OLD TABLE AS expired_keys
+    FOR EACH STATEMENT EXECUTE PROCEDURE remove_expired_swiss_uploadable_keys();
@@ -0,0 +1,221 @@
+-- The submission tables are range partitioned by the day of their submission timestamp (hours since epoch), so that
+-- the retention policy can drop the partitions of expired days instead of deleting their rows one by one. Each table
+-- gets a partition per day (<table>_pYYYYMMDD) and a default partition, which catches submissions for which no daily
+-- partition has been created (yet). The partitions are maintained through the functions below, which are executed
+-- with the privileges of the table owner.
+-- As the primary key of a partitioned table has to contain the partition key, the uniqueness of (key_data,
+-- submission_type) of the diagnosis keys is checked by the insert statement itself from now on.
+
+CREATE OR REPLACE FUNCTION create_submission_partitions(from_day DATE, to_day DATE)
+RETURNS INTEGER
+SECURITY DEFINER
+SET search_path FROM CURRENT
+AS $$
+DECLARE
+    parent TEXT;
+    day DATE;
+    partition_name TEXT;
+    lower_bound BIGINT;
+    upper_bound BIGINT;
+    occupied BOOLEAN;
+    created INTEGER := 0;
+BEGIN
+    FOREACH parent IN ARRAY ARRAY['diagnosis_key', 'trace_time_interval_warning', 'check_in_protected_reports'] LOOP
+        day := from_day;
+        WHILE day <= to_day LOOP
+            partition_name := parent || '_p' || to_char(day, 'YYYYMMDD');
+            lower_bound := (day - DATE '1970-01-01') * 24;
+            upper_bound := lower_bound + 24;
+            IF to_regclass(partition_name) IS NULL THEN
+                -- rows of this day in the default partition would prevent the creation of the partition, they are
+                -- left where they are and expire through the row based retention
+                EXECUTE format('SELECT EXISTS (SELECT 1 FROM %I WHERE submission_timestamp >= %s'
+                    || ' AND submission_timestamp < %s)', parent || '_default', lower_bound, upper_bound)
+                    INTO occupied;
+                IF NOT occupied THEN
+                    EXECUTE format('CREATE TABLE %I PARTITION OF %I FOR VALUES FROM (%s) TO (%s)',
+                        partition_name, parent, lower_bound, upper_bound);
+                    created := created + 1;
+                END IF;
+            END IF;
+            day := day + 1;
+        END LOOP;
+    END LOOP;
+    RETURN created;
+END;
+$$
+LANGUAGE plpgsql;
+
+CREATE OR REPLACE FUNCTION drop_expired_submission_partitions(threshold BIGINT)
+RETURNS INTEGER
+SECURITY DEFINER
+SET search_path FROM CURRENT
+AS $$
+DECLARE
+    expired RECORD;
+    dropped INTEGER := 0;
+BEGIN
+    FOR expired IN
+        SELECT parent.relname AS parent_name, child.relname AS partition_name
+        FROM pg_inherits
+        JOIN pg_class parent ON parent.oid = pg_inherits.inhparent
+        JOIN pg_class child ON child.oid = pg_inherits.inhrelid
+        WHERE parent.oid IN (to_regclass('diagnosis_key'), to_regclass('trace_time_interval_warning'),
+            to_regclass('check_in_protected_reports'))
+        AND CASE WHEN child.relname ~ '_p[0-9]{8}$'
+            THEN (to_date(right(child.relname, 8), 'YYYYMMDD') - DATE '1970-01-01' + 1) * 24 <= threshold
+            ELSE FALSE END
+    LOOP
+        EXECUTE format('ALTER TABLE %I DETACH PARTITION %I', expired.parent_name, expired.partition_name);
+        -- dropping a partition does not fire the delete triggers, so the mirrored upload keys are removed here
+        IF expired.parent_name = 'diagnosis_key' THEN
+            EXECUTE format('DELETE FROM federation_upload_key u USING %I e'
+                || ' WHERE u.key_data = e.key_data AND u.submission_type = e.submission_type',
+                expired.partition_name);
+            EXECUTE format('DELETE FROM chgs_upload_key u USING %I e'
+                || ' WHERE u.key_data = e.key_data AND u.submission_type = e.submission_type',
+                expired.partition_name);
+        END IF;
+        EXECUTE format('DROP TABLE %I', expired.partition_name);
+        dropped := dropped + 1;
+    END LOOP;
+    RETURN dropped;
+END;
+$$
+LANGUAGE plpgsql;
+
+REVOKE ALL ON FUNCTION create_submission_partitions(DATE, DATE) FROM PUBLIC;
+REVOKE ALL ON FUNCTION drop_expired_submission_partitions(BIGINT) FROM PUBLIC;
+GRANT EXECUTE ON FUNCTION create_submission_partitions(DATE, DATE) TO "cwa_distribution";
+GRANT EXECUTE ON FUNCTION drop_expired_submission_partitions(BIGINT) TO "cwa_distribution";
+
+-- Move the existing tables out of the way, so that the partitioned tables can take over their names.
+
+DROP INDEX IF EXISTS diagnosis_key_submission_timestamp_trl_idx;
+DROP INDEX IF EXISTS trace_time_interval_warning_submission_timestamp_idx;
+DROP INDEX IF EXISTS check_in_protected_reports_submission_timestamp_idx;
+
+ALTER TABLE diagnosis_key RENAME TO diagnosis_key_unpartitioned;
+ALTER TABLE diagnosis_key_unpartitioned RENAME CONSTRAINT diagnosis_key_pkey TO diagnosis_key_unpartitioned_pkey;
+ALTER TABLE trace_time_interval_warning RENAME TO trace_time_interval_warning_unpartitioned;
+ALTER TABLE trace_time_interval_warning_unpartitioned
+    RENAME CONSTRAINT trace_time_interval_warning_pkey TO trace_time_interval_warning_unpartitioned_pkey;
+ALTER TABLE check_in_protected_reports RENAME TO check_in_protected_reports_unpartitioned;
+ALTER TABLE check_in_protected_reports_unpartitioned
+    RENAME CONSTRAINT check_in_protected_reports_pkey TO check_in_protected_reports_unpartitioned_pkey;
+
+ALTER SEQUENCE trace_time_interval_warning_id_seq OWNED BY NONE;
+ALTER SEQUENCE check_in_protected_reports_id_seq OWNED BY NONE;
+
+CREATE TABLE diagnosis_key (
+    key_data BYTEA NOT NULL,
+    rolling_period INTEGER NOT NULL,
+    rolling_start_interval_number INTEGER NOT NULL,
+    submission_timestamp BIGINT NOT NULL,
+    transmission_risk_level INTEGER NOT NULL,
+    consent_to_federation BOOLEAN NOT NULL DEFAULT FALSE,
+    origin_country VARCHAR(2) DEFAULT 'DE',
+    visited_countries VARCHAR(2)[],
+    report_type VARCHAR(30),
+    days_since_onset_of_symptoms INTEGER,
+    submission_type VARCHAR(30) NOT NULL,
+    CONSTRAINT diagnosis_key_pkey PRIMARY KEY (key_data, submission_type, submission_timestamp)
+) PARTITION BY RANGE (submission_timestamp);
+
+CREATE TABLE trace_time_interval_warning (
+    id INTEGER NOT NULL DEFAULT nextval('trace_time_interval_warning_id_seq'),
+    trace_location_id BYTEA NOT NULL,
+    start_interval_number INTEGER NOT NULL,
+    period INTEGER NOT NULL,
+    transmission_risk_level INTEGER NOT NULL,
+    submission_timestamp BIGINT NOT NULL,
+    submission_type VARCHAR(30) NOT NULL,
+    CONSTRAINT trace_time_interval_warning_pkey PRIMARY KEY (id, submission_timestamp)
+) PARTITION BY RANGE (submission_timestamp);
+
+CREATE TABLE check_in_protected_reports (
+    id INTEGER NOT NULL DEFAULT nextval('check_in_protected_reports_id_seq'),
+    trace_location_id_hash BYTEA NOT NULL,
+    initialization_vector BYTEA NOT NULL,
+    encrypted_check_in_record BYTEA NOT NULL,
+    submission_timestamp BIGINT NOT NULL,
+    mac BYTEA,
+    CONSTRAINT check_in_protected_reports_pkey PRIMARY KEY (id, submission_timestamp)
+) PARTITION BY RANGE (submission_timestamp);
+
+ALTER SEQUENCE trace_time_interval_warning_id_seq OWNED BY trace_time_interval_warning.id;
+ALTER SEQUENCE check_in_protected_reports_id_seq OWNED BY check_in_protected_reports.id;
+
+CREATE TABLE diagnosis_key_default PARTITION OF diagnosis_key DEFAULT;
+CREATE TABLE trace_time_interval_warning_default PARTITION OF trace_time_interval_warning DEFAULT;
+CREATE TABLE check_in_protected_reports_default PARTITION OF check_in_protected_reports DEFAULT;
+
+-- Daily partitions for all retained submissions and the upcoming week, the following ones are created by the
+-- distribution service.
+SELECT create_submission_partitions(
+    LEAST(current_date,
+        (SELECT DATE '1970-01-01' + CAST(MIN(submission_timestamp) / 24 AS INTEGER) FROM diagnosis_key_unpartitioned),
+        (SELECT DATE '1970-01-01' + CAST(MIN(submission_timestamp) / 24 AS INTEGER)
+            FROM trace_time_interval_warning_unpartitioned),
+        (SELECT DATE '1970-01-01' + CAST(MIN(submission_timestamp) / 24 AS INTEGER)
+            FROM check_in_protected_reports_unpartitioned)),
+    current_date + 7);
+
+INSERT INTO diagnosis_key (key_data, rolling_period, rolling_start_interval_number, submission_timestamp,
+        transmission_risk_level, consent_to_federation, origin_country, visited_countries, report_type,
+        days_since_onset_of_symptoms, submission_type)
+    SELECT key_data, rolling_period, rolling_start_interval_number, submission_timestamp, transmission_risk_level,
+        consent_to_federation, origin_country, visited_countries, report_type, days_since_onset_of_symptoms,
+        submission_type
+    FROM diagnosis_key_unpartitioned;
+
+INSERT INTO trace_time_interval_warning (id, trace_location_id, start_interval_number, period,
+        transmission_risk_level, submission_timestamp, submission_type)
+    SELECT id, trace_location_id, start_interval_number, period, transmission_risk_level, submission_timestamp,
+        submission_type
+    FROM trace_time_interval_warning_unpartitioned;
+
+INSERT INTO check_in_protected_reports (id, trace_location_id_hash, initialization_vector,
+        encrypted_check_in_record, submission_timestamp, mac)
+    SELECT id, trace_location_id_hash, initialization_vector, encrypted_check_in_record, submission_timestamp, mac
+    FROM check_in_protected_reports_unpartitioned;
+
+-- Dropping the old diagnosis key table drops its triggers as well, the mirrored upload keys are not touched.
+DROP TABLE diagnosis_key_unpartitioned;
+DROP TABLE trace_time_interval_warning_unpartitioned;
+DROP TABLE check_in_protected_reports_unpartitioned;
+
+CREATE INDEX diagnosis_key_submission_timestamp_trl_idx
+    ON diagnosis_key (submission_timestamp, transmission_risk_level);
+CREATE INDEX trace_time_interval_warning_submission_timestamp_idx
+    ON trace_time_interval_warning (submission_timestamp);
+CREATE INDEX check_in_protected_reports_submission_timestamp_idx
+    ON check_in_protected_reports (submission_timestamp);
+
+CREATE TRIGGER mirror_uploadable_keys_trigger
+    AFTER INSERT ON diagnosis_key
+    FOR EACH ROW EXECUTE PROCEDURE mirror_uploadable_keys();
+
+CREATE TRIGGER mirror_uploadable_swiss_keys_trigger
+    AFTER INSERT ON diagnosis_key
+    FOR EACH ROW EXECUTE PROCEDURE mirror_uploadable_swiss_keys();
+
+CREATE TRIGGER remove_expired_uploadable_keys_trigger
+    AFTER DELETE ON diagnosis_key
+    REFERENCING OLD TABLE AS expired_keys
+    FOR EACH STATEMENT EXECUTE PROCEDURE remove_expired_uploadable_keys();
+
+CREATE TRIGGER remove_expired_uploadable_swiss_keys_trigger
+    AFTER DELETE ON diagnosis_key
+    REFERENCING OLD TABLE AS expired_keys
+    FOR EACH STATEMENT EXECUTE PROCEDURE remove_expired_swiss_uploadable_keys();
+
+GRANT SELECT, DELETE ON TABLE diagnosis_key TO "cwa_distribution";
+GRANT SELECT, INSERT ON TABLE diagnosis_key TO "cwa_submission";
+GRANT SELECT, INSERT ON TABLE diagnosis_key TO "cwa_federation_download";
+
+GRANT SELECT, DELETE ON TABLE trace_time_interval_warning TO "cwa_distribution";
+GRANT INSERT ON TABLE trace_time_interval_warning TO "cwa_submission";
+
+GRANT SELECT, DELETE ON TABLE check_in_protected_reports TO "cwa_distribution";
+GRANT INSERT ON TABLE check_in_protected_reports TO "cwa_submission";
@@ -0,0 +1,84 @@
+-- The primary key of the partitioned diagnosis key table has to contain the submission timestamp, so it does not
+-- enforce the uniqueness of (key_data, submission_type) anymore. This (unpartitioned) registry takes over that role:
+-- a diagnosis key is only inserted, if its registry entry could be inserted in the same statement. Concurrent inserts
+-- of the same key thereby wait for each other on the primary key of the registry, instead of both passing an
+-- existence check.
+
+CREATE TABLE diagnosis_key_registry (
+    key_data BYTEA NOT NULL,
+    submission_type VARCHAR(30) NOT NULL,
+    submission_timestamp BIGINT NOT NULL,
+    CONSTRAINT diagnosis_key_registry_pkey PRIMARY KEY (key_data, submission_type)
+);
+
+INSERT INTO diagnosis_key_registry (key_data, submission_type, submission_timestamp)
+    SELECT DISTINCT ON (key_data, submission_type) key_data, submission_type, submission_timestamp
+    FROM diagnosis_key
+    ORDER BY key_data, submission_type, submission_timestamp;
+
+-- Registry entries are removed together with their diagnosis keys, so that the retention of both stays in sync.
+
+CREATE OR REPLACE FUNCTION remove_expired_diagnosis_key_registrations()
+RETURNS TRIGGER AS $$
+BEGIN
+    DELETE FROM diagnosis_key_registry r
+        USING expired_keys e
+        WHERE r.key_data = e.key_data
+        AND r.submission_type = e.submission_type;
+    RETURN NULL;
+END;
+$$
+LANGUAGE plpgsql;
+
+CREATE TRIGGER remove_expired_diagnosis_key_registrations_trigger
+    AFTER DELETE ON diagnosis_key
+    REFERENCING OLD TABLE AS expired_keys
+    FOR EACH STATEMENT EXECUTE PROCEDURE remove_expired_diagnosis_key_registrations();
+
+-- Dropping a partition does not fire the delete triggers, so the registry entries are removed here as well.
+
+CREATE OR REPLACE FUNCTION drop_expired_submission_partitions(threshold BIGINT)
+RETURNS INTEGER
+SECURITY DEFINER
+SET search_path FROM CURRENT
+AS $$
+DECLARE
+    expired RECORD;
+    dropped INTEGER := 0;
+BEGIN
+    FOR expired IN
+        SELECT parent.relname AS parent_name, child.relname AS partition_name
+        FROM pg_inherits
+        JOIN pg_class parent ON parent.oid = pg_inherits.inhparent
+        JOIN pg_class child ON child.oid = pg_inherits.inhrelid
+        WHERE parent.oid IN (to_regclass('diagnosis_key'), to_regclass('trace_time_interval_warning'),
+            to_regclass('check_in_protected_reports'))
+        AND CASE WHEN child.relname ~ '_p[0-9]{8}$'
+            THEN (to_date(right(child.relname, 8), 'YYYYMMDD') - DATE '1970-01-01' + 1) * 24 <= threshold
+            ELSE FALSE END
+    LOOP
+        EXECUTE format('ALTER TABLE %I DETACH PARTITION %I', expired.parent_name, expired.partition_name);
+        -- dropping a partition does not fire the delete triggers, so the mirrored upload keys and the registry
+        -- entries are removed here
+        IF expired.parent_name = 'diagnosis_key' THEN
+            EXECUTE format('DELETE FROM federation_upload_key u USING %I e'
+                || ' WHERE u.key_data = e.key_data AND u.submission_type = e.submission_type',
+                expired.partition_name);
+            EXECUTE format('DELETE FROM chgs_upload_key u USING %I e'
+                || ' WHERE u.key_data = e.key_data AND u.submission_type = e.submission_type',
+                expired.partition_name);
+            EXECUTE format('DELETE FROM diagnosis_key_registry r USING %I e'
+                || ' WHERE r.key_data = e.key_data AND r.submission_type = e.submission_type',
+                expired.partition_name);
+        END IF;
+        EXECUTE format('DROP TABLE %I', expired.partition_name);
+        dropped := dropped + 1;
+    END LOOP;
+    RETURN dropped;
+END;
+$$
+LANGUAGE plpgsql;
+
+GRANT SELECT, DELETE ON TABLE diagnosis_key_registry TO "cwa_distribution";
+GRANT SELECT, INSERT ON TABLE diagnosis_key_registry TO "cwa_submission";
+GRANT SELECT, INSERT ON TABLE diagnosis_key_registry TO "cwa_federation_download";
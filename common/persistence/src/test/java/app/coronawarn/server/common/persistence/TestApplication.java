@@ -14,6 +14,7 @@ import app.coronawarn.server.common.persistence.service.DiagnosisKeyService;
 import app.coronawarn.server.common.persistence.service.FederationBatchInfoService;
 import app.coronawarn.server.common.persistence.service.FederationUploadKeyService;
 import app.coronawarn.server.common.persistence.service.StatisticsDownloadService;
+import app.coronawarn.server.common.persistence.service.SubmissionPartitionService;
 import app.coronawarn.server.common.persistence.service.TraceTimeIntervalWarningService;
 import app.coronawarn.server.common.persistence.service.common.KeySharingPoliciesChecker;
 import app.coronawarn.server.common.persistence.service.common.ValidDiagnosisKeyFilter;
@@ -24,6 +25,7 @@ import org.mockito.Mockito;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcOperations;
 
 @SuppressWarnings("deprecation")
 @SpringBootApplication
@@ -63,6 +65,11 @@ public class TestApplication {
     return new StatisticsDownloadService(repository);
   }
 
+  @Bean
+  SubmissionPartitionService createSubmissionPartitionService(final NamedParameterJdbcOperations jdbcOperations) {
+    return new SubmissionPartitionService(jdbcOperations);
+  }
+
   @Bean
   KeySharingPoliciesChecker keySharingPoliciesChecker() {
     return new KeySharingPoliciesChecker();
@@ -0,0 +1,32 @@
+package app.coronawarn.server.common.persistence.domain;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import org.junit.jupiter.api.Test;
+
+class CheckInProtectedReportsRowMapperTest {
+
+  @Test
+  void mapsAllColumns() throws SQLException {
+    ResultSet rs = mock(ResultSet.class);
+    when(rs.getLong("id")).thenReturn(42L);
+    when(rs.getBytes("trace_location_id_hash")).thenReturn(new byte[]{1});
+    when(rs.getBytes("initialization_vector")).thenReturn(new byte[]{2});
+    when(rs.getBytes("encrypted_check_in_record")).thenReturn(new byte[]{3});
+    when(rs.getBytes("mac")).thenReturn(new byte[]{4});
+    when(rs.getLong("submission_timestamp")).thenReturn(450000L);
+
+    CheckInProtectedReports report = new CheckInProtectedReportsRowMapper().mapRow(rs, 0);
+
+    assertThat(report.getId()).isEqualTo(42L);
+    assertThat(report.getTraceLocationIdHash()).containsExactly(1);
+    assertThat(report.getInitializationVector()).containsExactly(2);
+    assertThat(report.getEncryptedCheckInRecord()).containsExactly(3);
+    assertThat(report.getMac()).containsExactly(4);
+    assertThat(report.getSubmissionTimestamp()).isEqualTo(450000L);
+  }
+}
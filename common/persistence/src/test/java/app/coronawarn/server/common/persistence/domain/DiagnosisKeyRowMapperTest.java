@@ -0,0 +1,79 @@
+package app.coronawarn.server.common.persistence.domain;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import app.coronawarn.server.common.protocols.external.exposurenotification.ReportType;
+import app.coronawarn.server.common.protocols.internal.SubmissionPayload.SubmissionType;
+import java.nio.charset.StandardCharsets;
+import java.sql.Array;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Set;
+import org.junit.jupiter.api.Test;
+
+class DiagnosisKeyRowMapperTest {
+
+  private static final byte[] KEY_DATA = "testKey111111111".getBytes(StandardCharsets.US_ASCII);
+
+  @Test
+  void mapsAllColumns() throws SQLException {
+    DiagnosisKey diagnosisKey = new DiagnosisKeyRowMapper().mapRow(mockRow("DE", "FR", "DE"), 0);
+
+    assertThat(diagnosisKey.getKeyData()).isEqualTo(KEY_DATA);
+    assertThat(diagnosisKey.getSubmissionType()).isEqualTo(SubmissionType.SUBMISSION_TYPE_RAPID_TEST);
+    assertThat(diagnosisKey.getRollingStartIntervalNumber()).isEqualTo(600);
+    assertThat(diagnosisKey.getRollingPeriod()).isEqualTo(144);
+    assertThat(diagnosisKey.getTransmissionRiskLevel()).isEqualTo(6);
+    assertThat(diagnosisKey.getSubmissionTimestamp()).isEqualTo(450000L);
+    assertThat(diagnosisKey.isConsentToFederation()).isTrue();
+    assertThat(diagnosisKey.getOriginCountry()).isEqualTo("DE");
+    assertThat(diagnosisKey.getVisitedCountries()).containsExactlyInAnyOrder("DE", "FR");
+    assertThat(diagnosisKey.getReportType()).isEqualTo(ReportType.CONFIRMED_TEST);
+    assertThat(diagnosisKey.getDaysSinceOnsetOfSymptoms()).isEqualTo(-3);
+  }
+
+  @Test
+  void sharesEqualCountriesBetweenMappedKeys() throws SQLException {
+    DiagnosisKeyRowMapper rowMapper = new DiagnosisKeyRowMapper();
+
+    DiagnosisKey first = rowMapper.mapRow(mockRow(new String("DE"), "DE", "FR"), 0);
+    DiagnosisKey second = rowMapper.mapRow(mockRow(new String("DE"), "FR", "DE"), 1);
+    DiagnosisKey third = rowMapper.mapRow(mockRow("FR", "DE"), 2);
+
+    assertThat(second.getOriginCountry()).isSameAs(first.getOriginCountry());
+    assertThat(second.getVisitedCountries()).isSameAs(first.getVisitedCountries());
+    assertThat(third.getVisitedCountries()).isNotSameAs(first.getVisitedCountries()).isEqualTo(Set.of("DE"));
+  }
+
+  @Test
+  void mapsMissingOptionalColumns() throws SQLException {
+    ResultSet rs = mockRow("DE");
+    when(rs.getString("report_type")).thenReturn(null);
+    when(rs.getArray("visited_countries")).thenReturn(null);
+
+    DiagnosisKey diagnosisKey = new DiagnosisKeyRowMapper().mapRow(rs, 0);
+
+    assertThat(diagnosisKey.getReportType()).isNull();
+    assertThat(diagnosisKey.getVisitedCountries()).isEmpty();
+  }
+
+  private static ResultSet mockRow(String originCountry, String... visitedCountries) throws SQLException {
+    ResultSet rs = mock(ResultSet.class);
+    Array array = mock(Array.class);
+    when(array.getArray()).thenReturn(visitedCountries);
+    when(rs.getBytes("key_data")).thenReturn(KEY_DATA);
+    when(rs.getString("submission_type")).thenReturn(SubmissionType.SUBMISSION_TYPE_RAPID_TEST.name());
+    when(rs.getInt("rolling_start_interval_number")).thenReturn(600);
+    when(rs.getInt("rolling_period")).thenReturn(144);
+    when(rs.getInt("transmission_risk_level")).thenReturn(6);
+    when(rs.getLong("submission_timestamp")).thenReturn(450000L);
+    when(rs.getBoolean("consent_to_federation")).thenReturn(true);
+    when(rs.getString("origin_country")).thenReturn(originCountry);
+    when(rs.getArray("visited_countries")).thenReturn(array);
+    when(rs.getString("report_type")).thenReturn(ReportType.CONFIRMED_TEST.name());
+    when(rs.getInt("days_since_onset_of_symptoms")).thenReturn(-3);
+    return rs;
+  }
+}
@@ -0,0 +1,106 @@
+package app.coronawarn.server.common.persistence.domain;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+
+import app.coronawarn.server.common.protocols.external.exposurenotification.ReportType;
+import app.coronawarn.server.common.protocols.internal.SubmissionPayload.SubmissionType;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.Test;
+
+class DiagnosisKeyStoreTest {
+
+  @Test
+  void storesAllProperties() {
+    DiagnosisKey diagnosisKey = new DiagnosisKey(keyData(0xff), SubmissionType.SUBMISSION_TYPE_RAPID_TEST, 2_700_000,
+        144, 8, 450_000L, true, "DE", Set.of("DE", "FR", "IT"), ReportType.CONFIRMED_TEST, -15);
+    DiagnosisKeyStore store = new DiagnosisKeyStore();
+
+    int index = store.add(diagnosisKey);
+
+    assertThat(store.size()).isEqualTo(1);
+    assertThat(store.getKeyData(index)).isEqualTo(diagnosisKey.getKeyData());
+    assertThat(store.getSubmissionType(index)).isEqualTo(SubmissionType.SUBMISSION_TYPE_RAPID_TEST);
+    assertThat(store.getRollingStartIntervalNumber(index)).isEqualTo(2_700_000);
+    assertThat(store.getRollingPeriod(index)).isEqualTo(144);
+    assertThat(store.getTransmissionRiskLevel(index)).isEqualTo(8);
+    assertThat(store.getSubmissionTimestamp(index)).isEqualTo(450_000L);
+    assertThat(store.isConsentToFederation(index)).isTrue();
+    assertThat(store.getOriginCountry(index)).isEqualTo("DE");
+    assertThat(store.getVisitedCountries(index)).containsExactlyInAnyOrder("DE", "FR", "IT");
+    assertThat(store.getReportType(index)).isEqualTo(ReportType.CONFIRMED_TEST);
+    assertThat(store.getDaysSinceOnsetOfSymptoms(index)).isEqualTo(-15);
+    assertThat(store.get(index)).isEqualTo(diagnosisKey).isNotSameAs(diagnosisKey);
+  }
+
+  @Test
+  void storesMissingOptionalProperties() {
+    DiagnosisKey diagnosisKey = new DiagnosisKey(keyData(1), SubmissionType.SUBMISSION_TYPE_PCR_TEST, 600, 1, 1, 1L,
+        false, null, null, null, 4000);
+
+    DiagnosisKey storedKey = DiagnosisKeyStore.copyOf(List.of(diagnosisKey)).get(0);
+
+    assertThat(storedKey).isEqualTo(diagnosisKey);
+    assertThat(storedKey.getOriginCountry()).isNull();
+    assertThat(storedKey.getVisitedCountries()).isEmpty();
+    assertThat(storedKey.getReportType()).isNull();
+  }
+
+  @Test
+  void growsAndSelectsKeys() {
+    List<DiagnosisKey> diagnosisKeys = IntStream.range(0, 100)
+        .mapToObj(i -> new DiagnosisKey(keyData(i), SubmissionType.SUBMISSION_TYPE_PCR_TEST, 600 + i, 144, 1 + i % 8,
+            i, i % 2 == 0, "DE", Set.of(i % 3 == 0 ? "DE" : "FR"), ReportType.CONFIRMED_TEST, i))
+        .collect(Collectors.toList());
+
+    DiagnosisKeyStore.Selection all = DiagnosisKeyStore.copyOf(diagnosisKeys);
+    DiagnosisKeyStore.Selection selection = all.getStore().select(new int[] {99, 3, 42});
+
+    assertThat(all).containsExactlyElementsOf(diagnosisKeys);
+    assertThat(selection).containsExactly(diagnosisKeys.get(99), diagnosisKeys.get(3), diagnosisKeys.get(42));
+    assertThat(selection.indices()).containsExactly(99, 3, 42);
+    assertThat(selection.getIndex(1)).isEqualTo(3);
+  }
+
+  @Test
+  void comparesKeyDataAsUnsignedBytes() {
+    DiagnosisKeyStore store = DiagnosisKeyStore.copyOf(List.of(
+        new DiagnosisKey(keyData(0x7f), SubmissionType.SUBMISSION_TYPE_PCR_TEST, 600, 144, 1, 1L, false, "DE", null,
+            ReportType.CONFIRMED_TEST, 0),
+        new DiagnosisKey(keyData(0x80), SubmissionType.SUBMISSION_TYPE_PCR_TEST, 600, 144, 1, 1L, false, "DE", null,
+            ReportType.CONFIRMED_TEST, 0))).getStore();
+
+    assertThat(store.compareKeyData(0, 1)).isNegative();
+    assertThat(store.compareKeyData(1, 0)).isPositive();
+    assertThat(store.compareKeyData(1, 1)).isZero();
+  }
+
+  @Test
+  void rejectsMoreCountriesThanTheBitmaskCanHold() {
+    DiagnosisKeyStore store = new DiagnosisKeyStore();
+    IntStream.range(1, DiagnosisKeyStore.MAX_NUMBER_OF_COUNTRIES).forEach(i -> store.add(
+        new DiagnosisKey(keyData(i), SubmissionType.SUBMISSION_TYPE_PCR_TEST, 600, 144, 1, 1L, false, "DE",
+            Set.of("DE", "C" + i), ReportType.CONFIRMED_TEST, 0)));
+
+    DiagnosisKey diagnosisKey = new DiagnosisKey(keyData(1), SubmissionType.SUBMISSION_TYPE_PCR_TEST, 600, 144, 1, 1L,
+        false, "DE", Set.of("XX"), ReportType.CONFIRMED_TEST, 0);
+    assertThatIllegalArgumentException().isThrownBy(() -> store.add(diagnosisKey));
+  }
+
+  @Test
+  void rejectsKeyDataOfInvalidLength() {
+    DiagnosisKey diagnosisKey = new DiagnosisKey(new byte[15], SubmissionType.SUBMISSION_TYPE_PCR_TEST, 600, 144, 1,
+        1L, false, "DE", null, ReportType.CONFIRMED_TEST, 0);
+
+    assertThatIllegalArgumentException().isThrownBy(() -> new DiagnosisKeyStore().add(diagnosisKey));
+  }
+
+  private static byte[] keyData(int lastByte) {
+    byte[] keyData = new byte[DiagnosisKey.KEY_DATA_LENGTH];
+    keyData[DiagnosisKey.KEY_DATA_LENGTH - 1] = (byte) lastByte;
+    return keyData;
+  }
+}
@@ -0,0 +1,67 @@
+package app.coronawarn.server.common.persistence.domain;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import app.coronawarn.server.common.persistence.domain.validation.DiagnosisKeyValidator;
+import app.coronawarn.server.common.protocols.external.exposurenotification.ReportType;
+import app.coronawarn.server.common.protocols.internal.SubmissionPayload.SubmissionType;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Set;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+
+class DiagnosisKeyValidatorTest {
+
+  private static final byte[] KEY_DATA = "testKey111111111".getBytes(StandardCharsets.US_ASCII);
+  private static final long NOW = Instant.now().getEpochSecond();
+  private static final int CURRENT_INTERVAL = (int) (NOW / 600);
+  private static final int CURRENT_HOUR = (int) (NOW / 3600);
+
+  @Test
+  void acceptsValidKey() {
+    DiagnosisKey diagnosisKey = key(KEY_DATA, SubmissionType.SUBMISSION_TYPE_PCR_TEST, CURRENT_INTERVAL - 144, 144,
+        8, CURRENT_HOUR, "DE", Set.of("DE", "FR"), -15);
+
+    assertThat(DiagnosisKeyValidator.isValid(diagnosisKey)).isTrue();
+    assertThat(diagnosisKey.validate()).isEmpty();
+  }
+
+  @ParameterizedTest
+  @MethodSource("invalidKeys")
+  void rejectsKeysWithConstraintViolations(DiagnosisKey diagnosisKey) {
+    assertThat(DiagnosisKeyValidator.isValid(diagnosisKey)).isFalse();
+    assertThat(diagnosisKey.validate()).hasSize(1);
+  }
+
+  private static Stream<Arguments> invalidKeys() {
+    return Stream.of(
+        key(new byte[15], SubmissionType.SUBMISSION_TYPE_PCR_TEST, 1, 144, 1, 0, "DE", Set.of("DE"), 0),
+        key(KEY_DATA, SubmissionType.SUBMISSION_TYPE_HOST_WARNING, 1, 144, 1, 0, "DE", Set.of("DE"), 0),
+        key(KEY_DATA, SubmissionType.SUBMISSION_TYPE_RAPID_TEST, 0, 144, 1, 0, "DE", Set.of("DE"), 0),
+        key(KEY_DATA, SubmissionType.SUBMISSION_TYPE_RAPID_TEST, CURRENT_INTERVAL + 1, 144, 1, 0, "DE", Set.of("DE"),
+            0),
+        key(KEY_DATA, SubmissionType.SUBMISSION_TYPE_RAPID_TEST, 1, 0, 1, 0, "DE", Set.of("DE"), 0),
+        key(KEY_DATA, SubmissionType.SUBMISSION_TYPE_RAPID_TEST, 1, 145, 1, 0, "DE", Set.of("DE"), 0),
+        key(KEY_DATA, SubmissionType.SUBMISSION_TYPE_RAPID_TEST, 1, 144, 0, 0, "DE", Set.of("DE"), 0),
+        key(KEY_DATA, SubmissionType.SUBMISSION_TYPE_RAPID_TEST, 1, 144, 9, 0, "DE", Set.of("DE"), 0),
+        key(KEY_DATA, SubmissionType.SUBMISSION_TYPE_RAPID_TEST, 1, 144, 1, -1, "DE", Set.of("DE"), 0),
+        key(KEY_DATA, SubmissionType.SUBMISSION_TYPE_RAPID_TEST, 1, 144, 1, CURRENT_HOUR + 2, "DE", Set.of("DE"), 0),
+        key(KEY_DATA, SubmissionType.SUBMISSION_TYPE_RAPID_TEST, 1, 144, 1, 0, "XX", Set.of("DE"), 0),
+        key(KEY_DATA, SubmissionType.SUBMISSION_TYPE_RAPID_TEST, 1, 144, 1, 0, "DE", Set.of("DE", "XX"), 0),
+        key(KEY_DATA, SubmissionType.SUBMISSION_TYPE_RAPID_TEST, 1, 144, 1, 0, "DE", Set.of("DE"), -16),
+        key(KEY_DATA, SubmissionType.SUBMISSION_TYPE_RAPID_TEST, 1, 144, 1, 0, "DE", Set.of("DE"), 4001))
+        .map(Arguments::of);
+  }
+
+  private static DiagnosisKey key(byte[] keyData, SubmissionType submissionType, int rollingStartIntervalNumber,
+      int rollingPeriod, int transmissionRiskLevel, long submissionTimestamp, String originCountry,
+      Set<String> visitedCountries, int daysSinceOnsetOfSymptoms) {
+    return new DiagnosisKey(keyData, submissionType, rollingStartIntervalNumber, rollingPeriod, transmissionRiskLevel,
+        submissionTimestamp, false, originCountry, visitedCountries, ReportType.CONFIRMED_TEST,
+        daysSinceOnsetOfSymptoms);
+  }
+}
@@ -1,24 +1,39 @@
 package app.coronawarn.server.common.persistence.repository;
 
-import static org.junit.jupiter.api.Assertions.assertFalse;
-import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.assertj.core.api.Assertions.assertThat;
 
 import app.coronawarn.server.common.persistence.domain.DiagnosisKey;
 import app.coronawarn.server.common.protocols.external.exposurenotification.ReportType;
 import app.coronawarn.server.common.protocols.internal.SubmissionPayload.SubmissionType;
+import java.nio.ByteBuffer;
+import java.util.List;
 import java.util.Random;
 import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.data.jdbc.DataJdbcTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 @DataJdbcTest
 class DiagnosisKeyRepositoryTest {
 
+  private static final SubmissionType TYPE = SubmissionType.SUBMISSION_TYPE_PCR_TEST;
+
   @Autowired
   private DiagnosisKeyRepository repository;
 
+  @Autowired
+  private PlatformTransactionManager transactionManager;
+
   @AfterEach
   void tearDown() {
     repository.deleteAll();
@@ -26,30 +41,72 @@ class DiagnosisKeyRepositoryTest {
 
   @Test
   void shouldCheckExistence() {
+    byte[] id = randomKeyData();
+
+    assertThat(repository.findExistingKeyData(List.of(id), TYPE.name())).isEmpty();
+
+    assertThat(repository.saveAllDoNothingOnConflict(List.of(buildKey(id, 0L)))).isEqualTo(1);
+
+    assertThat(repository.findExistingKeyData(List.of(id), TYPE.name())).containsExactly(ByteBuffer.wrap(id));
+    assertThat(repository.findExistingKeyData(List.of(id), SubmissionType.SUBMISSION_TYPE_RAPID_TEST.name()))
+        .isEmpty();
+  }
+
+  @Test
+  void shouldNotInsertKeyTwiceWithDifferentSubmissionTimestamps() {
+    byte[] id = randomKeyData();
 
-    SubmissionType type = SubmissionType.SUBMISSION_TYPE_PCR_TEST;
+    assertThat(repository.saveAllDoNothingOnConflict(List.of(buildKey(id, 0L), buildKey(id, 1L)))).isEqualTo(1);
+    assertThat(repository.saveAllDoNothingOnConflict(List.of(buildKey(id, 2L)))).isZero();
+    assertThat(repository.count()).isEqualTo(1);
+  }
+
+  @Test
+  @Transactional(propagation = Propagation.NOT_SUPPORTED)
+  void shouldNotInsertKeyTwiceFromConcurrentTransactions() throws Exception {
+    byte[] id = randomKeyData();
+    TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+    ExecutorService executor = Executors.newSingleThreadExecutor();
+    AtomicReference<Future<Integer>> concurrentInsert = new AtomicReference<>();
+    try {
+      Integer inserted = transaction.execute(status -> {
+        int count = repository.saveAllDoNothingOnConflict(List.of(buildKey(id, 0L)));
+        concurrentInsert.set(executor.submit(() -> transaction.execute(
+            concurrentStatus -> repository.saveAllDoNothingOnConflict(List.of(buildKey(id, 1L))))));
+        try {
+          // the concurrent insert has to wait for the registry entry of this transaction
+          TimeUnit.MILLISECONDS.sleep(500);
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+        }
+        assertThat(concurrentInsert.get()).isNotDone();
+        return count;
+      });
+
+      assertThat(inserted).isEqualTo(1);
+      assertThat(concurrentInsert.get().get(10, TimeUnit.SECONDS)).isZero();
+      assertThat(repository.count()).isEqualTo(1);
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  private static byte[] randomKeyData() {
     byte[] id = new byte[16];
     new Random().nextBytes(id);
+    return id;
+  }
 
-    assertFalse(repository.exists(id, type.name()));
-
-    DiagnosisKey key = DiagnosisKey.builder()
-        .withKeyDataAndSubmissionType(id, type)
+  private static DiagnosisKey buildKey(byte[] id, long submissionTimestamp) {
+    return DiagnosisKey.builder()
+        .withKeyDataAndSubmissionType(id, TYPE)
         .withRollingStartIntervalNumber(600)
         .withTransmissionRiskLevel(2)
         .withRollingPeriod(1)
         .withCountryCode("DE")
         .withVisitedCountries(Set.of("DE"))
-        .withSubmissionTimestamp(0L)
+        .withSubmissionTimestamp(submissionTimestamp)
         .withReportType(ReportType.CONFIRMED_TEST)
         .build();
-    repository.saveDoNothingOnConflict(
-        key.getKeyData(), key.getRollingStartIntervalNumber(), key.getRollingPeriod(),
-        key.getSubmissionTimestamp(), key.getTransmissionRiskLevel(),
-        key.getOriginCountry(), key.getVisitedCountries().toArray(new String[0]),
-        key.getReportType().name(), key.getDaysSinceOnsetOfSymptoms(),
-        key.isConsentToFederation(), key.getSubmissionType().name());
-
-    assertTrue(repository.exists(id, type.name()));
   }
 }
@@ -0,0 +1,49 @@
+package app.coronawarn.server.common.persistence.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.data.jdbc.DataJdbcTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+/**
+ * Verifies that the query plans of the submission timestamp based queries use the indexes instead of sequential scans.
+ * Sequential scans are disabled for the test transaction, because the planner would prefer them for the small test
+ * tables anyway. The submission tables are partitioned, so their plans contain the indexes of the individual
+ * partitions, which are named after the partition and the indexed columns.
+ */
+@DataJdbcTest
+class SubmissionTimestampIndexTest {
+
+  @Autowired
+  private JdbcTemplate jdbcTemplate;
+
+  @BeforeEach
+  void disableSequentialScans() {
+    jdbcTemplate.execute("SET LOCAL enable_seqscan = off");
+  }
+
+  @ParameterizedTest
+  @CsvSource(delimiter = '|', quoteCharacter = '"', value = {
+      "SELECT * FROM diagnosis_key WHERE submission_timestamp>=1 AND transmission_risk_level>=3"
+          + " ORDER BY submission_timestamp | _submission_timestamp_",
+      "SELECT COUNT(*) FROM diagnosis_key WHERE submission_timestamp<1 | _submission_timestamp_",
+      "DELETE FROM diagnosis_key WHERE submission_timestamp<1 | _submission_timestamp_",
+      "SELECT * FROM trace_time_interval_warning ORDER BY submission_timestamp | _submission_timestamp_",
+      "DELETE FROM trace_time_interval_warning WHERE submission_timestamp<1 | _submission_timestamp_",
+      "SELECT * FROM check_in_protected_reports ORDER BY submission_timestamp | _submission_timestamp_",
+      "DELETE FROM check_in_protected_reports WHERE submission_timestamp<1 | _submission_timestamp_",
+      "SELECT * FROM federation_upload_key WHERE (batch_tag is null or batch_tag = '') ORDER BY submission_timestamp"
+          + " | federation_upload_key_pending_submission_timestamp_idx",
+      "SELECT * FROM chgs_upload_key WHERE (batch_tag is null or batch_tag = '') ORDER BY submission_timestamp"
+          + " | chgs_upload_key_pending_submission_timestamp_idx"
+  })
+  void queryPlanUsesIndex(String query, String index) {
+    String plan = String.join("\n", jdbcTemplate.queryForList("EXPLAIN " + query, String.class));
+
+    assertThat(plan).contains(index).doesNotContain("Seq Scan");
+  }
+}
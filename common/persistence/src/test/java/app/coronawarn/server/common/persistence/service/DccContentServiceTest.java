@@ -0,0 +1,76 @@
+package app.coronawarn.server.common.persistence.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+
+import app.coronawarn.server.common.persistence.domain.DccContent;
+import app.coronawarn.server.common.persistence.repository.DccContentRepository;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.data.jdbc.DataJdbcTest;
+
+@DataJdbcTest
+class DccContentServiceTest {
+
+  @Autowired
+  private DccContentService service;
+
+  @Autowired
+  private DccContentRepository repository;
+
+  @Test
+  void testStoreAndGetContents() {
+    service.store("rule", "a", "foo".getBytes());
+    service.store("rule", "b", "bar".getBytes());
+    service.store("value-set", "a", "baz".getBytes());
+
+    Map<String, byte[]> contents = service.getContents("rule", List.of("a", "c"));
+
+    assertThat(contents).containsOnlyKeys("a");
+    assertThat(contents.get("a")).isEqualTo("foo".getBytes());
+  }
+
+  @Test
+  void testStoreKeepsExistingContent() {
+    service.store("rule", "a", "foo".getBytes());
+    service.store("rule", "a", "bar".getBytes());
+
+    assertThat(service.getContents("rule", List.of("a")).get("a")).isEqualTo("foo".getBytes());
+  }
+
+  @Test
+  void testGetContentsWithoutHashes() {
+    assertThat(service.getContents("rule", List.of())).isEmpty();
+  }
+
+  @Test
+  void testGetContentsDeletesContentWithMismatchingChecksum() {
+    service.store("rule", "a", "foo".getBytes());
+    repository.saveDoNothingOnConflict("rule", "b", "bar".getBytes(), "baz".getBytes(),
+        Instant.now().getEpochSecond());
+
+    assertThat(service.getContents("rule", List.of("a", "b"))).containsOnlyKeys("a");
+    assertThat(repository.findAllByTypeAndHashIn("rule", List.of("a", "b"))).hasSize(1);
+  }
+
+  @Test
+  void testApplyRetentionPolicy() {
+    service.store("rule", "a", "foo".getBytes());
+    repository.saveDoNothingOnConflict("rule", "b", "bar".getBytes(), new byte[0],
+        Instant.now().minus(3, ChronoUnit.DAYS).getEpochSecond());
+
+    service.applyRetentionPolicy(2);
+
+    assertThat(repository.findAllByTypeAndHashIn("rule", List.of("a", "b")))
+        .extracting(DccContent::getHash).containsExactly("a");
+  }
+
+  @Test
+  void testApplyRetentionPolicyForNegativeNumberOfDays() {
+    assertThatIllegalArgumentException().isThrownBy(() -> service.applyRetentionPolicy(-1));
+  }
+}
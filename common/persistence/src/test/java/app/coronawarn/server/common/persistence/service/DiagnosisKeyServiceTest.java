@@ -19,10 +19,13 @@ import app.coronawarn.server.common.persistence.repository.DiagnosisKeyRepositor
 import app.coronawarn.server.common.protocols.external.exposurenotification.ReportType;
 import app.coronawarn.server.common.protocols.internal.SubmissionPayload.SubmissionType;
 import java.time.OffsetDateTime;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
 import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -95,7 +98,8 @@ class DiagnosisKeyServiceTest {
     diagnosisKeyService.saveDiagnosisKeys(oldKeys);
     diagnosisKeyService.saveDiagnosisKeys(expKeys);
 
-    var actKeys = diagnosisKeyService.getDiagnosisKeysWithMinTrl(MIN_TRL, 10);
+    List<DiagnosisKey> actKeys = new ArrayList<>();
+    diagnosisKeyService.streamDiagnosisKeysWithMinTrl(MIN_TRL, 10, actKeys::add);
 
     assertEquals(2, actKeys.size());
     assertDiagnosisKeysEqual(expKeys, actKeys);
@@ -204,6 +208,41 @@ class DiagnosisKeyServiceTest {
     assertThat(actKeys).hasSize(2);
   }
 
+  @Test
+  void testReturnedNumberOfInsertedKeysForMultipleChunks() {
+    var keys = IntStream.range(0, 2500)
+        .mapToObj(i -> DiagnosisKeyServiceTestHelper.generateRandomDiagnosisKey(false, 1,
+            SubmissionType.SUBMISSION_TYPE_PCR_TEST))
+        .collect(Collectors.toList());
+
+    assertThat(diagnosisKeyService.saveDiagnosisKeys(keys)).isEqualTo(2500);
+    assertThat(diagnosisKeyService.saveDiagnosisKeys(keys.subList(0, 1500))).isZero();
+    assertThat(diagnosisKeyService.getDiagnosisKeys()).hasSize(2500);
+  }
+
+  @Test
+  void ignoresRapidTestDiagnosisKeysWhenPcrTestIsPresentInSameCollection() {
+    DiagnosisKey pcrKey = DiagnosisKeyServiceTestHelper
+        .generateRandomDiagnosisKey(true, 1, SubmissionType.SUBMISSION_TYPE_PCR_TEST);
+    DiagnosisKey rapidKey = DiagnosisKey.builder()
+        .withKeyDataAndSubmissionType(pcrKey.getKeyData(), SubmissionType.SUBMISSION_TYPE_RAPID_TEST)
+        .withRollingStartIntervalNumber(pcrKey.getRollingStartIntervalNumber())
+        .withTransmissionRiskLevel(pcrKey.getTransmissionRiskLevel())
+        .withConsentToFederation(pcrKey.isConsentToFederation())
+        .withCountryCode(pcrKey.getOriginCountry())
+        .withDaysSinceOnsetOfSymptoms(pcrKey.getDaysSinceOnsetOfSymptoms())
+        .withReportType(pcrKey.getReportType())
+        .withRollingPeriod(pcrKey.getRollingPeriod())
+        .withSubmissionTimestamp(pcrKey.getSubmissionTimestamp())
+        .withVisitedCountries(pcrKey.getVisitedCountries())
+        .build();
+
+    assertEquals(1, diagnosisKeyService.saveDiagnosisKeys(List.of(pcrKey, rapidKey)));
+    Collection<DiagnosisKey> storedKeys = diagnosisKeyService.getDiagnosisKeys();
+    assertEquals(1, storedKeys.size());
+    assertTrue(storedKeys.contains(pcrKey));
+  }
+
   @Test
   void insertsPcrTestDiagnosisKeysWhenRapidTestIsPresent() {
     DiagnosisKey pcrKey = DiagnosisKeyServiceTestHelper
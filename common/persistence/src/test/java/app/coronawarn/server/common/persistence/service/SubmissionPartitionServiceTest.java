@@ -0,0 +1,128 @@
+package app.coronawarn.server.common.persistence.service;
+
+import static java.time.ZoneOffset.UTC;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import app.coronawarn.server.common.persistence.domain.DiagnosisKey;
+import app.coronawarn.server.common.persistence.repository.DiagnosisKeyRepository;
+import app.coronawarn.server.common.protocols.external.exposurenotification.ReportType;
+import app.coronawarn.server.common.protocols.internal.SubmissionPayload.SubmissionType;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.data.jdbc.DataJdbcTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+@DataJdbcTest
+class SubmissionPartitionServiceTest {
+
+  private static final LocalDate TODAY = LocalDate.now(UTC);
+
+  @Autowired
+  private SubmissionPartitionService partitionService;
+
+  @Autowired
+  private DiagnosisKeyService diagnosisKeyService;
+
+  @Autowired
+  private DiagnosisKeyRepository keyRepository;
+
+  @Autowired
+  private JdbcTemplate jdbcTemplate;
+
+  @AfterEach
+  void tearDown() {
+    keyRepository.deleteAll();
+  }
+
+  @Test
+  void upcomingPartitionsAreOnlyCreatedOnce() {
+    partitionService.createUpcomingPartitions();
+
+    assertThat(partitionService.createUpcomingPartitions()).isZero();
+    assertThat(partitionExists("diagnosis_key", TODAY.plusDays(SubmissionPartitionService.DAYS_AHEAD))).isTrue();
+    assertThat(partitionExists("check_in_protected_reports", TODAY)).isTrue();
+    assertThat(partitionExists("trace_time_interval_warning", TODAY)).isTrue();
+  }
+
+  @Test
+  void expiredPartitionsAreDropped() {
+    LocalDate expiredDay = TODAY.minusDays(20);
+    createPartitions(expiredDay, expiredDay);
+    diagnosisKeyService.saveDiagnosisKeys(List.of(buildKey(randomKeyData(), hoursSinceEpoch(expiredDay) + 1,
+        SubmissionType.SUBMISSION_TYPE_PCR_TEST)));
+    assertThat(keyRepository.count()).isEqualTo(1);
+
+    assertThat(partitionService.applyRetentionPolicy(14)).isEqualTo(3);
+
+    assertThat(partitionExists("diagnosis_key", expiredDay)).isFalse();
+    assertThat(partitionExists("diagnosis_key", TODAY)).isTrue();
+    assertThat(keyRepository.count()).isZero();
+  }
+
+  @Test
+  void distributionQueryIsPrunedToRetainedPartitions() {
+    LocalDate expiredDay = TODAY.minusDays(20);
+    createPartitions(expiredDay, expiredDay);
+
+    String plan = String.join("\n", jdbcTemplate.queryForList("EXPLAIN SELECT * FROM diagnosis_key"
+        + " WHERE submission_timestamp>=" + hoursSinceEpoch(TODAY) + " AND transmission_risk_level>=3", String.class));
+
+    assertThat(plan).contains(partitionName("diagnosis_key", TODAY))
+        .doesNotContain(partitionName("diagnosis_key", expiredDay));
+  }
+
+  @Test
+  void keysAreUniqueAcrossPartitions() {
+    byte[] keyData = randomKeyData();
+    DiagnosisKey key = buildKey(keyData, hoursSinceEpoch(TODAY), SubmissionType.SUBMISSION_TYPE_RAPID_TEST);
+    DiagnosisKey resubmittedKey = buildKey(keyData, hoursSinceEpoch(TODAY.plusDays(1)),
+        SubmissionType.SUBMISSION_TYPE_RAPID_TEST);
+
+    assertThat(diagnosisKeyService.saveDiagnosisKeys(List.of(key))).isEqualTo(1);
+    assertThat(diagnosisKeyService.saveDiagnosisKeys(List.of(resubmittedKey))).isZero();
+    assertThat(keyRepository.count()).isEqualTo(1);
+  }
+
+  private void createPartitions(LocalDate from, LocalDate to) {
+    jdbcTemplate.queryForObject("SELECT create_submission_partitions(?, ?)", Integer.class, from, to);
+  }
+
+  private boolean partitionExists(String table, LocalDate day) {
+    return Boolean.TRUE.equals(jdbcTemplate.queryForObject("SELECT to_regclass(?) IS NOT NULL", Boolean.class,
+        partitionName(table, day)));
+  }
+
+  private static String partitionName(String table, LocalDate day) {
+    return table + "_p" + day.format(DateTimeFormatter.BASIC_ISO_DATE);
+  }
+
+  private static long hoursSinceEpoch(LocalDate day) {
+    return ChronoUnit.HOURS.between(LocalDate.EPOCH.atStartOfDay(), day.atStartOfDay());
+  }
+
+  private static byte[] randomKeyData() {
+    byte[] keyData = new byte[16];
+    new Random().nextBytes(keyData);
+    return keyData;
+  }
+
+  private static DiagnosisKey buildKey(byte[] keyData, long submissionTimestamp, SubmissionType submissionType) {
+    return DiagnosisKey.builder()
+        .withKeyDataAndSubmissionType(keyData, submissionType)
+        .withRollingStartIntervalNumber(600)
+        .withTransmissionRiskLevel(2)
+        .withRollingPeriod(1)
+        .withCountryCode("DE")
+        .withVisitedCountries(Set.of("DE"))
+        .withSubmissionTimestamp(submissionTimestamp)
+        .withReportType(ReportType.CONFIRMED_TEST)
+        .build();
+  }
+}
@@ -198,18 +198,33 @@ class TraceTimeIntervalWarningServiceTest {
   }
 
   @Test
-  void testGetCheckInProtectedReports() {
+  void testStreamCheckInProtectedReportsInSubmissionOrder() {
     final byte[] data = {1};
 
     protectedReportsRepository.saveDoNothingOnConflict(data, data, data, data,100);
     protectedReportsRepository.saveDoNothingOnConflict(data, data, data, data,5);
     protectedReportsRepository.saveDoNothingOnConflict(data, data, data, data,800);
 
-    final Collection<CheckInProtectedReports> checkInProtectedReports = traceWarningsService
-        .getCheckInProtectedReports();
+    final List<CheckInProtectedReports> checkInProtectedReports = new ArrayList<>();
+    traceWarningsService.streamCheckInProtectedReports(Long.MIN_VALUE, Long.MAX_VALUE, checkInProtectedReports::add);
     assertThat(checkInProtectedReports).flatExtracting(CheckInProtectedReports::getSubmissionTimestamp)
         .containsExactly(5L, 100L, 800L);
+  }
+
+  @Test
+  void testStreamCheckInProtectedReports() {
+    final byte[] data = {1};
+
+    protectedReportsRepository.saveDoNothingOnConflict(data, data, data, data, 100);
+    protectedReportsRepository.saveDoNothingOnConflict(data, data, data, data, 5);
+    protectedReportsRepository.saveDoNothingOnConflict(data, data, data, data, 800);
+    protectedReportsRepository.saveDoNothingOnConflict(data, data, data, data, 6);
+    protectedReportsRepository.saveDoNothingOnConflict(data, data, data, data, 799);
 
+    final List<CheckInProtectedReports> checkInProtectedReports = new ArrayList<>();
+    traceWarningsService.streamCheckInProtectedReports(5, 800, checkInProtectedReports::add);
+    assertThat(checkInProtectedReports).flatExtracting(CheckInProtectedReports::getSubmissionTimestamp)
+        .containsExactly(6L, 100L, 799L);
   }
 
   private List<CheckIn> getRandomTestData() {
@@ -0,0 +1,58 @@
+package app.coronawarn.server.common.persistence.service.common;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+class ChunkedDeletionTest {
+
+  @ParameterizedTest
+  @CsvSource({"0,1", "9,1", "10,2", "25,3", "30,4"})
+  void deletesAllEntriesInChunks(int entries, int expectedChunks) {
+    AtomicInteger remaining = new AtomicInteger(entries);
+    List<Integer> limits = new ArrayList<>();
+
+    int deleted = new ChunkedDeletion(10, Duration.ZERO).deleteAll(limit -> {
+      limits.add(limit);
+      int chunk = Math.min(limit, remaining.get());
+      remaining.addAndGet(-chunk);
+      return chunk;
+    });
+
+    assertThat(deleted).isEqualTo(entries);
+    assertThat(remaining).hasValue(0);
+    assertThat(limits).hasSize(expectedChunks).containsOnly(10);
+  }
+
+  @Test
+  void stopsWhenInterrupted() {
+    AtomicInteger chunks = new AtomicInteger();
+    Thread.currentThread().interrupt();
+    try {
+      int deleted = new ChunkedDeletion(10, Duration.ofMillis(1)).deleteAll(limit -> {
+        chunks.incrementAndGet();
+        return limit;
+      });
+
+      assertThat(deleted).isEqualTo(10);
+      assertThat(chunks).hasValue(1);
+      assertThat(Thread.currentThread().isInterrupted()).isTrue();
+    } finally {
+      Thread.interrupted();
+    }
+  }
+
+  @Test
+  void rejectsInvalidArguments() {
+    assertThatThrownBy(() -> new ChunkedDeletion(0, Duration.ZERO)).isInstanceOf(IllegalArgumentException.class);
+    assertThatThrownBy(() -> new ChunkedDeletion(1, Duration.ofMillis(-1)))
+        .isInstanceOf(IllegalArgumentException.class);
+  }
+}
@@ -63,25 +63,37 @@ public class IoUtils {
    * @param outputFile The file to write the content into.
    */
   public static void writeBytesToFile(byte[] bytes, File outputFile) {
-    if (bytes.length > MAXIMUM_FILE_SIZE) {
+    checkFileSize(bytes.length, outputFile);
+
+    try (FileOutputStream outputFileStream = new FileOutputStream(outputFile)) {
+      outputFileStream.write(bytes);
+    } catch (IOException e) {
+      throw new UncheckedIOException("Could not write file " + outputFile, e);
+    }
+  }
+
+  /**
+   * Checks the size of a file, which is about to be written or has been written. Files reaching 75% or 90% of the
+   * specified maximum file size are logged, files exceeding it are rejected.
+   *
+   * @param length     The size of the file in bytes
+   * @param outputFile The file to check
+   * @throws UncheckedIOException if the size exceeds {@link #MAXIMUM_FILE_SIZE}
+   */
+  public static void checkFileSize(long length, File outputFile) {
+    if (length > MAXIMUM_FILE_SIZE) {
       String fileName = outputFile.getName();
       throw new UncheckedIOException(
           new IOException(
-              "File size of " + bytes.length + " bytes exceeds the maximum file size. Deleting" + fileName));
+              "File size of " + length + " bytes exceeds the maximum file size. Deleting" + fileName));
     }
 
-    if (bytes.length >= MAXIMUM_FILE_SIZE * 0.75 && bytes.length <= MAXIMUM_FILE_SIZE * 0.9) {
+    if (length >= MAXIMUM_FILE_SIZE * 0.75 && length <= MAXIMUM_FILE_SIZE * 0.9) {
       logger.warn("File '{}' ({} MB) reaches 75% of {} MB limit!", outputFile.getAbsolutePath(),
-          bytes.length / MB_FAKTOR, MAXIMUM_FILE_SIZE / MB_FAKTOR);
-    } else if (bytes.length >= MAXIMUM_FILE_SIZE * 0.9) {
+          length / MB_FAKTOR, MAXIMUM_FILE_SIZE / MB_FAKTOR);
+    } else if (length >= MAXIMUM_FILE_SIZE * 0.9) {
       logger.error("File '{}' ({} MB) reaches 90% of {} MB limit!", outputFile.getAbsolutePath(),
-          bytes.length / MB_FAKTOR, MAXIMUM_FILE_SIZE / MB_FAKTOR);
-    }
-
-    try (FileOutputStream outputFileStream = new FileOutputStream(outputFile)) {
-      outputFileStream.write(bytes);
-    } catch (IOException e) {
-      throw new UncheckedIOException("Could not write file " + outputFile, e);
+          length / MB_FAKTOR, MAXIMUM_FILE_SIZE / MB_FAKTOR);
     }
   }
 }
@@ -0,0 +1,139 @@
+package app.coronawarn.server.common.shared.util;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.util.TokenBuffer;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.stream.IntStream;
+import org.everit.json.schema.Schema;
+import org.everit.json.schema.ValidationException;
+import org.everit.json.schema.loader.SchemaClient;
+import org.everit.json.schema.loader.SchemaLoader;
+import org.json.JSONArray;
+import org.json.JSONObject;
+import org.json.JSONTokener;
+
+/**
+ * Validates objects (JSON) against a schema, which is loaded and compiled only once. The objects are converted to the
+ * JSON representation of the schema library directly from their Jackson tree, instead of being serialized to a string
+ * and parsed again. Instances are immutable and can be shared between threads.
+ */
+public final class JsonSchemaValidator {
+
+  private final Schema schema;
+
+  private JsonSchemaValidator(Schema schema) {
+    this.schema = schema;
+  }
+
+  /**
+   * Loads and compiles the given schema.
+   *
+   * @param schemaValidationJson - validation schema
+   * @return - validator for the schema
+   */
+  public static JsonSchemaValidator load(InputStream schemaValidationJson) {
+    return load(schemaValidationJson, null);
+  }
+
+  /**
+   * Loads and compiles the given schema, resolving referenced schemas with the given client.
+   *
+   * @param schemaValidationJson - validation schema
+   * @param schemaClient         - client to load referenced schemas with, or {@code null} for the default client
+   * @return - validator for the schema
+   */
+  public static JsonSchemaValidator load(InputStream schemaValidationJson, SchemaClient schemaClient) {
+    JSONObject jsonSchema = new JSONObject(new JSONTokener(schemaValidationJson));
+    return new JsonSchemaValidator(
+        schemaClient == null ? SchemaLoader.load(jsonSchema) : SchemaLoader.load(jsonSchema, schemaClient));
+  }
+
+  /**
+   * Validates an object (JSON) against the schema.
+   *
+   * @param validateObject - object to be validated
+   * @throws JsonProcessingException - if object to be validated fails on JSON processing
+   * @throws ValidationException     - if the validation of the object based on validation schema fails.
+   */
+  public void validate(Object validateObject) throws JsonProcessingException, ValidationException {
+    schema.validate(toJson(toTree(validateObject)));
+  }
+
+  /**
+   * Validates the given objects (JSON) against the schema in parallel.
+   *
+   * @param validateObjects - objects to be validated
+   * @param <T>             - type of the objects
+   * @return - the objects which are not valid, in their given order, mapped to the {@link JsonProcessingException} or
+   *         {@link ValidationException} describing why.
+   */
+  public <T> Map<T, Exception> validateAll(List<T> validateObjects) {
+    Exception[] failures = new Exception[validateObjects.size()];
+    IntStream.range(0, validateObjects.size()).parallel().forEach(i -> {
+      try {
+        validate(validateObjects.get(i));
+      } catch (JsonProcessingException | ValidationException e) {
+        failures[i] = e;
+      }
+    });
+    Map<T, Exception> invalidObjects = new LinkedHashMap<>();
+    for (int i = 0; i < failures.length; i++) {
+      if (failures[i] != null) {
+        invalidObjects.putIfAbsent(validateObjects.get(i), failures[i]);
+      }
+    }
+    return invalidObjects;
+  }
+
+  private static JsonNode toTree(Object validateObject) throws JsonProcessingException {
+    ObjectMapper mapper = SerializationUtils.jsonMapper();
+    try (TokenBuffer buffer = new TokenBuffer(mapper, false)) {
+      mapper.writeValue(buffer, validateObject);
+      return mapper.readTree(buffer.asParser());
+    } catch (JsonProcessingException e) {
+      throw e;
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  /**
+   * Converts a Jackson tree to the equivalent org.json value, as {@link JSONObject#JSONObject(String)} would parse it
+   * from the serialized tree.
+   */
+  private static Object toJson(JsonNode node) {
+    if (node.isObject()) {
+      JSONObject object = new JSONObject();
+      Iterator<Entry<String, JsonNode>> fields = node.fields();
+      while (fields.hasNext()) {
+        Entry<String, JsonNode> field = fields.next();
+        object.put(field.getKey(), toJson(field.getValue()));
+      }
+      return object;
+    }
+    if (node.isArray()) {
+      JSONArray array = new JSONArray();
+      node.forEach(element -> array.put(toJson(element)));
+      return array;
+    }
+    if (node.isNumber()) {
+      return node.numberValue();
+    }
+    if (node.isBoolean()) {
+      return node.booleanValue();
+    }
+    if (node.isNull() || node.isMissingNode()) {
+      return JSONObject.NULL;
+    }
+    return node.asText();
+  }
+}
@@ -1,11 +1,16 @@
 package app.coronawarn.server.common.shared.util;
 
 import app.coronawarn.server.common.shared.exception.UnableToLoadFileException;
+import com.fasterxml.jackson.core.JsonParser;
 import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
 import com.fasterxml.jackson.core.json.JsonReadFeature;
 import com.fasterxml.jackson.databind.JavaType;
 import com.fasterxml.jackson.databind.MapperFeature;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.exc.MismatchedInputException;
 import com.fasterxml.jackson.databind.json.JsonMapper;
 import com.fasterxml.jackson.databind.type.TypeFactory;
 import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
@@ -16,14 +21,12 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
 import java.util.function.Function;
 import java.util.stream.Collectors;
-import org.everit.json.schema.Schema;
 import org.everit.json.schema.ValidationException;
 import org.everit.json.schema.loader.SchemaClient;
-import org.everit.json.schema.loader.SchemaLoader;
-import org.json.JSONObject;
-import org.json.JSONTokener;
 import org.json.simple.parser.ParseException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -34,6 +37,24 @@ public final class SerializationUtils {
 
   private static final Logger logger = LoggerFactory.getLogger(SerializationUtils.class);
 
+  /*
+   * Mappers are thread-safe once configured and cache the (de)serializers they build, so they are shared instead of
+   * being created for every call.
+   */
+  private static final ObjectMapper JSON_MAPPER = new ObjectMapper();
+  private static final ObjectMapper NON_NUMERIC_JSON_MAPPER = JsonMapper.builder()
+      .enable(JsonReadFeature.ALLOW_NON_NUMERIC_NUMBERS).build();
+  private static final ObjectMapper LENIENT_JSON_MAPPER = JsonMapper.builder()
+      .enable(JsonReadFeature.ALLOW_NON_NUMERIC_NUMBERS)
+      .enable(MapperFeature.ACCEPT_CASE_INSENSITIVE_ENUMS).build();
+  private static final ObjectMapper CBOR_MAPPER = new CBORMapper();
+  private static final ObjectWriter JSON_WRITER = JSON_MAPPER.writer();
+  private static final ObjectWriter CBOR_WRITER = CBOR_MAPPER.writer();
+
+  private static final Map<JavaType, ObjectReader> JSON_READERS = new ConcurrentHashMap<>();
+  private static final Map<JavaType, ObjectReader> NON_NUMERIC_JSON_READERS = new ConcurrentHashMap<>();
+  private static final Map<JavaType, ObjectReader> LENIENT_JSON_READERS = new ConcurrentHashMap<>();
+
   /**
    * Deserialize json string into an object of type T. The type must also be provided to the underlying Jackson library
    * in the form of a JavaType supplied by the function parameter.
@@ -45,10 +66,8 @@ public final class SerializationUtils {
    */
   public static <T> T deserializeJson(final String jsonString,
       final Function<TypeFactory, JavaType> typeProviderFunction) {
-    final ObjectMapper mapper = new ObjectMapper();
     try {
-      return mapper.enable(JsonReadFeature.ALLOW_NON_NUMERIC_NUMBERS.mappedFeature()).readValue(jsonString,
-          typeProviderFunction.apply(mapper.getTypeFactory()));
+      return reader(NON_NUMERIC_JSON_MAPPER, NON_NUMERIC_JSON_READERS, typeProviderFunction).readValue(jsonString);
     } catch (final JsonProcessingException e) {
       throw new IllegalStateException("Json configuration could not be deserialized", e);
     }
@@ -64,10 +83,49 @@ public final class SerializationUtils {
    */
   public static <T> T deserializeJson(final InputStream jsonStream,
       final Function<TypeFactory, JavaType> typeProviderFunction) throws IOException {
-    final ObjectMapper mapper = JsonMapper.builder()
-        .enable(JsonReadFeature.ALLOW_NON_NUMERIC_NUMBERS.mappedFeature())
-        .enable(MapperFeature.ACCEPT_CASE_INSENSITIVE_ENUMS).build();
-    return mapper.readValue(jsonStream, typeProviderFunction.apply(mapper.getTypeFactory()));
+    return reader(LENIENT_JSON_MAPPER, LENIENT_JSON_READERS, typeProviderFunction).readValue(jsonStream);
+  }
+
+  /**
+   * Deserializes JSON bytes, e.g. written by {@link #serializeJson(Object)}, into an object of the given type.
+   *
+   * @param json    UTF-8 encoded JSON.
+   * @param rawType type to deserialize to.
+   * @param <T>     generic type
+   * @return deserialized object.
+   * @throws IOException if the bytes cannot be deserialized into the given type.
+   */
+  public static <T> T deserializeJson(final byte[] json, final Class<T> rawType) throws IOException {
+    return reader(JSON_MAPPER, JSON_READERS, typeFactory -> typeFactory.constructType(rawType)).readValue(json);
+  }
+
+  /**
+   * Parse a json array from stream element by element, so that the whole array never has to be held in memory. The
+   * elements are deserialized like {@link #deserializeJson(InputStream, Function)} does and handed to the consumer in
+   * the order of the array.
+   *
+   * @param jsonStream  stream to read the json array from
+   * @param elementType type of the array elements
+   * @param consumer    consumer of the deserialized elements
+   * @param <T>         generic type of the array elements
+   * @throws IOException if the stream cannot be read or does not contain a json array of the given type.
+   */
+  public static <T> void deserializeJsonArray(final InputStream jsonStream, final Class<T> elementType,
+      final Consumer<? super T> consumer) throws IOException {
+    ObjectReader elementReader = reader(LENIENT_JSON_MAPPER, LENIENT_JSON_READERS,
+        typeFactory -> typeFactory.constructType(elementType));
+    try (JsonParser parser = elementReader.getFactory().createParser(jsonStream)) {
+      if (parser.nextToken() != JsonToken.START_ARRAY) {
+        throw MismatchedInputException.from(parser, elementType, "Expected a json array");
+      }
+      JsonToken token;
+      while ((token = parser.nextToken()) != JsonToken.END_ARRAY) {
+        if (token == null) {
+          throw MismatchedInputException.from(parser, elementType, "Unexpected end of json array");
+        }
+        consumer.accept(elementReader.readValue(parser));
+      }
+    }
   }
 
   /**
@@ -79,14 +137,24 @@ public final class SerializationUtils {
    * @return String encoded JSON.
    */
   public static <T> String stringifyObject(final T object) {
-    final ObjectMapper mapper = new ObjectMapper();
     try {
-      return mapper.writeValueAsString(object);
+      return JSON_WRITER.writeValueAsString(object);
     } catch (final JsonProcessingException e) {
       throw new IllegalStateException("Object could not be converted into JSON", e);
     }
   }
 
+  /**
+   * Serializes an object to JSON bytes, which can be read again with {@link #deserializeJson(byte[], Class)}.
+   *
+   * @param object Jackson object.
+   * @return UTF-8 encoded JSON.
+   * @throws JsonProcessingException if the object cannot be serialized.
+   */
+  public static byte[] serializeJson(final Object object) throws JsonProcessingException {
+    return JSON_WRITER.writeValueAsBytes(object);
+  }
+
   public static <T> Optional<T> deserializeJsonToSimpleType(InputStream jsonStream, Class<T> rawType)
       throws IOException {
     return Optional.of(deserializeJson(jsonStream,
@@ -157,12 +225,12 @@ public final class SerializationUtils {
    * @throws JsonProcessingException - if JSON processing of the object fails.
    */
   public static byte[] cborEncode(Object object) throws JsonProcessingException {
-    ObjectMapper cborMapper = new CBORMapper();
-    return cborMapper.writeValueAsBytes(object);
+    return CBOR_WRITER.writeValueAsBytes(object);
   }
 
   /**
-   * Validates an object (JSON) based on a provided schema containing validation rules.
+   * Validates an object (JSON) based on a provided schema containing validation rules. The schema is loaded for this
+   * single validation, use a {@link JsonSchemaValidator} to validate several objects against the same schema.
    *
    * @param validateObject       - object to be validated
    * @param schemaValidationJson - validation schema
@@ -172,13 +240,7 @@ public final class SerializationUtils {
   public static void validateJsonSchema(Object validateObject, InputStream schemaValidationJson,
       final SchemaClient schemaClient)
       throws JsonProcessingException, ValidationException {
-    ObjectMapper objectMapper = new ObjectMapper();
-    JSONObject jsonSchema = new JSONObject(new JSONTokener(schemaValidationJson));
-    String businessRuleJson = objectMapper.writeValueAsString(validateObject);
-
-    JSONObject jsonSubject = new JSONObject(businessRuleJson);
-    Schema schema = schemaClient == null ? SchemaLoader.load(jsonSchema) : SchemaLoader.load(jsonSchema, schemaClient);
-    schema.validate(jsonSubject);
+    JsonSchemaValidator.load(schemaValidationJson, schemaClient).validate(validateObject);
   }
 
   public static void validateJsonSchema(Object validateObject, InputStream schemaValidationJson)
@@ -186,6 +248,19 @@ public final class SerializationUtils {
     validateJsonSchema(validateObject, schemaValidationJson, null);
   }
 
+  /**
+   * Returns the shared mapper with the default configuration, for the JSON processing of this package which is not
+   * covered by the methods above.
+   */
+  static ObjectMapper jsonMapper() {
+    return JSON_MAPPER;
+  }
+
+  private static ObjectReader reader(ObjectMapper mapper, Map<JavaType, ObjectReader> readers,
+      Function<TypeFactory, JavaType> typeProviderFunction) {
+    return readers.computeIfAbsent(typeProviderFunction.apply(mapper.getTypeFactory()), mapper::readerFor);
+  }
+
   private SerializationUtils() {
   }
 
@@ -0,0 +1,76 @@
+package app.coronawarn.server.common.shared.util;
+
+import static app.coronawarn.server.common.shared.util.SerializationUtilsTest.VALIDATION_SCHEMA_JSON;
+import static app.coronawarn.server.common.shared.util.SerializationUtilsTest.VALIDATION_SCHEMA_NOT_OKAY;
+import static app.coronawarn.server.common.shared.util.SerializationUtilsTest.VALIDATION_SCHEMA_OK;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+
+import app.coronawarn.server.common.shared.util.SerializationUtilsTest.TestObject;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import org.everit.json.schema.ValidationException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class JsonSchemaValidatorTest {
+
+  private JsonSchemaValidator validator;
+
+  @BeforeEach
+  void setup() throws IOException {
+    try (InputStream validationSchema = getClass().getClassLoader().getResourceAsStream(VALIDATION_SCHEMA_JSON)) {
+      validator = JsonSchemaValidator.load(validationSchema);
+    }
+  }
+
+  @Test
+  void shouldValidateSeveralObjectsAgainstSameSchema() throws Exception {
+    validator.validate(testObject(VALIDATION_SCHEMA_OK));
+    validator.validate(testObject("TEST-DE"));
+    assertThatExceptionOfType(ValidationException.class)
+        .isThrownBy(() -> validator.validate(testObject(VALIDATION_SCHEMA_NOT_OKAY)));
+  }
+
+  @Test
+  void shouldReturnInvalidObjectsInOrder() {
+    List<TestObject> subjects = IntStream.range(0, 100)
+        .mapToObj(i -> testObject(i % 10 == 3 ? VALIDATION_SCHEMA_NOT_OKAY + i : VALIDATION_SCHEMA_OK))
+        .collect(Collectors.toList());
+
+    Map<TestObject, Exception> invalidObjects = validator.validateAll(subjects);
+
+    assertThat(invalidObjects.keySet()).extracting(TestObject::getTestAttribute)
+        .containsExactly(IntStream.range(0, 10).mapToObj(i -> VALIDATION_SCHEMA_NOT_OKAY + (i * 10 + 3))
+            .toArray(String[]::new));
+    assertThat(invalidObjects.values()).allMatch(ValidationException.class::isInstance);
+  }
+
+  @Test
+  void shouldValidateNestedValuesLikeParsedJson() {
+    String schema = "{\"type\": \"object\", \"properties\": {\"values\": {\"type\": \"array\","
+        + " \"items\": {\"type\": [\"integer\", \"null\"]}}, \"nested\": {\"type\": \"object\","
+        + " \"required\": [\"flag\"], \"properties\": {\"flag\": {\"type\": \"boolean\"}}}}}";
+    JsonSchemaValidator nestedValidator = JsonSchemaValidator.load(
+        new ByteArrayInputStream(schema.getBytes(StandardCharsets.UTF_8)));
+
+    assertThat(nestedValidator.validateAll(List.of(
+        Map.of("values", new ArrayList<>(Arrays.asList(1, null, 3)), "nested", Map.of("flag", true)),
+        Map.of("values", List.of(1.5)),
+        Map.of("nested", Map.of("flag", "true"))))).hasSize(2);
+  }
+
+  private static TestObject testObject(String testAttribute) {
+    TestObject testObject = new TestObject();
+    testObject.setTestAttribute(testAttribute);
+    return testObject;
+  }
+}
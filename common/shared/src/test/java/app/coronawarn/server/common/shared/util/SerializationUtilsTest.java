@@ -2,7 +2,9 @@ package app.coronawarn.server.common.shared.util;
 
 import static app.coronawarn.server.common.shared.util.SerializationUtils.cborEncode;
 import static app.coronawarn.server.common.shared.util.SerializationUtils.deserializeJson;
+import static app.coronawarn.server.common.shared.util.SerializationUtils.deserializeJsonArray;
 import static app.coronawarn.server.common.shared.util.SerializationUtils.jsonExtractCosePayload;
+import static app.coronawarn.server.common.shared.util.SerializationUtils.serializeJson;
 import static app.coronawarn.server.common.shared.util.SerializationUtils.stringifyObject;
 import static app.coronawarn.server.common.shared.util.SerializationUtils.validateJsonSchema;
 import static org.assertj.core.api.Assertions.assertThat;
@@ -16,6 +18,8 @@ import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
 import org.everit.json.schema.ValidationException;
 import org.json.JSONException;
 import org.junit.jupiter.api.Test;
@@ -42,6 +46,28 @@ class SerializationUtilsTest {
     assertEquals(TEST_ATTRIBUTE_VALUE, testObject.getTestAttribute());
   }
 
+  @Test
+  void testDeserializeJsonArray() throws IOException {
+    List<TestObject> testObjects = new ArrayList<>();
+    InputStream is = new ByteArrayInputStream(
+        ("[" + TEST_OBJECT_SERIALIZED + ", {\"testAttribute\":\"" + VALIDATION_SCHEMA_OK + "\"}]").getBytes());
+    deserializeJsonArray(is, TestObject.class, testObjects::add);
+
+    assertThat(testObjects).extracting(TestObject::getTestAttribute)
+        .containsExactly(TEST_ATTRIBUTE_VALUE, VALIDATION_SCHEMA_OK);
+  }
+
+  @Test
+  void testDeserializeJsonArrayAndExpectException() {
+    List<TestObject> testObjects = new ArrayList<>();
+
+    assertThatExceptionOfType(IOException.class).isThrownBy(() -> deserializeJsonArray(
+        new ByteArrayInputStream(TEST_OBJECT_SERIALIZED.getBytes()), TestObject.class, testObjects::add));
+    assertThatExceptionOfType(IOException.class).isThrownBy(() -> deserializeJsonArray(
+        new ByteArrayInputStream(("[" + TEST_OBJECT_SERIALIZED).getBytes()), TestObject.class, testObjects::add));
+    assertThat(testObjects).hasSize(1);
+  }
+
   @Test
   void testDeserializeJson() {
     TestObject testObject = deserializeJson(TEST_OBJECT_SERIALIZED,
@@ -57,6 +83,17 @@ class SerializationUtilsTest {
             typeFactory -> typeFactory.constructType(TestObject.class)));
   }
 
+  @Test
+  void testSerializeAndDeserializeJsonBytes() throws IOException {
+    TestObject testObject = new TestObject();
+    testObject.setTestAttribute(TEST_ATTRIBUTE_VALUE);
+
+    assertThat(deserializeJson(serializeJson(testObject), TestObject.class).getTestAttribute())
+        .isEqualTo(TEST_ATTRIBUTE_VALUE);
+    assertThatExceptionOfType(IOException.class)
+        .isThrownBy(() -> deserializeJson(TEST_OBJECT_SERIALIZED_WRONG_FORMAT.getBytes(), TestObject.class));
+  }
+
   @Test
   void testStringifyObject() {
     TestObject testObject = new TestObject();
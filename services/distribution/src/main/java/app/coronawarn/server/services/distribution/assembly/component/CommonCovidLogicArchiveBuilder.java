@@ -1,8 +1,8 @@
 package app.coronawarn.server.services.distribution.assembly.component;
 
 import static app.coronawarn.server.common.shared.util.SerializationUtils.cborEncode;
-import static app.coronawarn.server.common.shared.util.SerializationUtils.validateJsonSchema;
 
+import app.coronawarn.server.common.shared.util.JsonSchemaValidator;
 import app.coronawarn.server.common.shared.util.ResourceSchemaClient;
 import app.coronawarn.server.services.distribution.assembly.structure.Writable;
 import app.coronawarn.server.services.distribution.assembly.structure.WritableOnDisk;
@@ -24,11 +24,11 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.stream.Collectors;
-import org.everit.json.schema.ValidationException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.context.annotation.Scope;
@@ -113,7 +113,8 @@ public class CommonCovidLogicArchiveBuilder {
   }
 
   private Collection<BusinessRule> getValidBusinessRules(Collection<BusinessRuleItem> businessRulesItems) {
-    Collection<BusinessRule> businessRules = new ArrayList<>();
+    List<BusinessRule> businessRules = new ArrayList<>();
+    Map<BusinessRule, BusinessRuleItem> businessRuleItems = new IdentityHashMap<>();
     for (BusinessRuleItem businessRuleItem : businessRulesItems) {
       BusinessRule businessRule = null;
       try {
@@ -123,18 +124,30 @@ public class CommonCovidLogicArchiveBuilder {
       }
 
       if (businessRule != null && businessRule.getType().equalsIgnoreCase(ruleType.getType())) {
-        try (final InputStream in = resourceLoader.getResource(CCL_JSON_SCHEMA).getInputStream()) {
-          validateJsonSchema(businessRule, in, new ResourceSchemaClient(resourceLoader, JSON_SCHEMA_PATH));
-          businessRules.add(businessRule);
-        } catch (JsonProcessingException | ValidationException e) {
-          logger.error(String.format("Rule for country %s having hash %s is not valid.",
-              businessRuleItem.getCountry(), businessRuleItem.getHash()), e);
-        } catch (IOException e) {
-          logger.error(String.format("Validation rules schema found at: %s could not be found.",
-              CCL_JSON_SCHEMA), e);
-        }
+        businessRules.add(businessRule);
+        businessRuleItems.put(businessRule, businessRuleItem);
       }
     }
+    if (businessRules.isEmpty()) {
+      return businessRules;
+    }
+
+    JsonSchemaValidator schemaValidator;
+    try (final InputStream in = resourceLoader.getResource(CCL_JSON_SCHEMA).getInputStream()) {
+      schemaValidator = JsonSchemaValidator.load(in, new ResourceSchemaClient(resourceLoader, JSON_SCHEMA_PATH));
+    } catch (IOException e) {
+      logger.error(String.format("Validation rules schema found at: %s could not be found.",
+          CCL_JSON_SCHEMA), e);
+      return new ArrayList<>();
+    }
+
+    Map<BusinessRule, Exception> invalidBusinessRules = schemaValidator.validateAll(businessRules);
+    invalidBusinessRules.forEach((businessRule, e) -> {
+      BusinessRuleItem businessRuleItem = businessRuleItems.get(businessRule);
+      logger.error(String.format("Rule for country %s having hash %s is not valid.",
+          businessRuleItem.getCountry(), businessRuleItem.getHash()), e);
+    });
+    businessRules.removeIf(invalidBusinessRules::containsKey);
     return businessRules;
   }
 
@@ -1,16 +1,16 @@
 package app.coronawarn.server.services.distribution.assembly.component;
 
 import static app.coronawarn.server.common.shared.util.TimeUtils.getCurrentUtcHour;
+import static app.coronawarn.server.common.shared.util.TimeUtils.getNow;
 
-import app.coronawarn.server.common.persistence.domain.DiagnosisKey;
 import app.coronawarn.server.common.persistence.service.DiagnosisKeyService;
+import app.coronawarn.server.services.distribution.assembly.diagnosiskeys.DiagnosisKeyArchiveFingerprints;
 import app.coronawarn.server.services.distribution.assembly.diagnosiskeys.DiagnosisKeyBundler;
 import app.coronawarn.server.services.distribution.assembly.diagnosiskeys.structure.directory.DiagnosisKeysDirectory;
 import app.coronawarn.server.services.distribution.assembly.structure.WritableOnDisk;
 import app.coronawarn.server.services.distribution.assembly.structure.directory.Directory;
 import app.coronawarn.server.services.distribution.assembly.transformation.EnfParameterAdapter;
 import app.coronawarn.server.services.distribution.config.DistributionServiceConfig;
-import java.util.Collection;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Component;
@@ -25,6 +25,7 @@ public class DiagnosisKeysStructureProvider {
       .getLogger(DiagnosisKeysStructureProvider.class);
 
   private final DiagnosisKeyBundler diagnosisKeyBundler;
+  private final DiagnosisKeyArchiveFingerprints archiveFingerprints;
   private final DiagnosisKeyService diagnosisKeyService;
   private final CryptoProvider cryptoProvider;
   private final DistributionServiceConfig distributionServiceConfig;
@@ -35,12 +36,13 @@ public class DiagnosisKeysStructureProvider {
    */
   DiagnosisKeysStructureProvider(DiagnosisKeyService diagnosisKeyService, CryptoProvider cryptoProvider,
       DistributionServiceConfig distributionServiceConfig, DiagnosisKeyBundler diagnosisKeyBundler,
-      EnfParameterAdapter enfParameterEncoder) {
+      EnfParameterAdapter enfParameterEncoder, DiagnosisKeyArchiveFingerprints archiveFingerprints) {
     this.diagnosisKeyService = diagnosisKeyService;
     this.cryptoProvider = cryptoProvider;
     this.distributionServiceConfig = distributionServiceConfig;
     this.diagnosisKeyBundler = diagnosisKeyBundler;
     this.enfParameterEncoder = enfParameterEncoder;
+    this.archiveFingerprints = archiveFingerprints;
   }
 
   /**
@@ -49,11 +51,14 @@ public class DiagnosisKeysStructureProvider {
    * @return the directory
    */
   public Directory<WritableOnDisk> getDiagnosisKeys() {
-    logger.debug("Querying diagnosis keys from the database...");
-    Collection<DiagnosisKey> diagnosisKeys = diagnosisKeyService
-        .getDiagnosisKeysWithMinTrl(distributionServiceConfig.getMinimumTrlValueAllowed(),
-            distributionServiceConfig.getDaysToPublish());
-    diagnosisKeyBundler.setDiagnosisKeys(enfParameterEncoder.adaptKeys(diagnosisKeys), getCurrentUtcHour());
-    return new DiagnosisKeysDirectory(diagnosisKeyBundler, cryptoProvider, distributionServiceConfig);
+    logger.debug("Streaming diagnosis keys from the database...");
+    diagnosisKeyBundler.setDiagnosisKeys(bundlerConsumer -> diagnosisKeyService
+        .streamDiagnosisKeysWithMinTrl(distributionServiceConfig.getMinimumTrlValueAllowed(),
+            distributionServiceConfig.getDaysToPublish(),
+            diagnosisKey -> bundlerConsumer.accept(enfParameterEncoder.adaptKey(diagnosisKey))),
+        getCurrentUtcHour());
+    archiveFingerprints.load(getNow());
+    return new DiagnosisKeysDirectory(diagnosisKeyBundler, archiveFingerprints, cryptoProvider,
+        distributionServiceConfig);
   }
 }
@@ -2,7 +2,6 @@ package app.coronawarn.server.services.distribution.assembly.component;
 
 import static app.coronawarn.server.common.shared.util.TimeUtils.getCurrentUtcHour;
 
-import app.coronawarn.server.common.persistence.domain.CheckInProtectedReports;
 import app.coronawarn.server.common.persistence.domain.TraceTimeIntervalWarning;
 import app.coronawarn.server.common.persistence.service.TraceTimeIntervalWarningService;
 import app.coronawarn.server.services.distribution.assembly.structure.WritableOnDisk;
@@ -63,9 +62,8 @@ public class TraceTimeIntervalWarningsStructureProvider {
    */
   public Directory<WritableOnDisk> getCheckInProtectedReportsDirectory() {
     logger.debug("Querying check in protected reports from the database...");
-    Collection<CheckInProtectedReports> checkInProtectedReports =
-        traceWarningsService.getCheckInProtectedReports();
-    traceWarningsBundler.setCheckInProtectedReports(checkInProtectedReports, getCurrentUtcHour());
+    traceWarningsBundler.setCheckInProtectedReports(traceWarningsService::streamCheckInProtectedReports,
+        getCurrentUtcHour());
     return new TraceTimeIntervalWarningsDirectory(traceWarningsBundler, cryptoProvider,
         distributionServiceConfig);
   }
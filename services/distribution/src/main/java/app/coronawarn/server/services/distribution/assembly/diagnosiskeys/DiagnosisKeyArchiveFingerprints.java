@@ -0,0 +1,243 @@
+package app.coronawarn.server.services.distribution.assembly.diagnosiskeys;
+
+import app.coronawarn.server.common.persistence.domain.DiagnosisKey;
+import app.coronawarn.server.common.persistence.domain.DiagnosisKeyStore;
+import app.coronawarn.server.common.persistence.domain.DiagnosisKeyStore.Selection;
+import app.coronawarn.server.common.shared.util.HashUtils;
+import app.coronawarn.server.common.shared.util.HashUtils.Algorithms;
+import app.coronawarn.server.services.distribution.config.DistributionServiceConfig;
+import app.coronawarn.server.services.distribution.config.DistributionServiceConfig.Api;
+import app.coronawarn.server.services.distribution.objectstore.FailedObjectStoreOperationsCounter;
+import app.coronawarn.server.services.distribution.objectstore.ObjectStoreAccess;
+import app.coronawarn.server.services.distribution.objectstore.PrivateTsvObject;
+import app.coronawarn.server.services.distribution.objectstore.PrivateTsvObject.Content;
+import app.coronawarn.server.services.distribution.objectstore.client.ObjectStoreOperationFailedException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+import org.bouncycastle.util.encoders.Hex;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+/**
+ * Remembers a fingerprint of the diagnosis keys of every date and hour archive, so that the assembly can skip the
+ * archives whose keys did not change since the last successful distribution. Those archives have already been
+ * published and would not be re-published anyway (#650).<br>
+ * The fingerprints of the previous distribution are {@link #load(Instant) loaded} from the object store before the
+ * assembly and the fingerprints of all archives of the current distribution are {@link #store() stored} after the
+ * files have been published without any failed object store operation. All fingerprints are discarded once they are
+ * older than the configured fingerprint expiry, so that all archives are rebuilt from time to time.
+ */
+@Component
+public class DiagnosisKeyArchiveFingerprints {
+
+  /**
+   * The S3 key of the stored fingerprints, see {@link PrivateTsvObject}.
+   */
+  public static final String S3_KEY = "cwa-assembly-fingerprints";
+
+  private static final Logger logger = LoggerFactory.getLogger(DiagnosisKeyArchiveFingerprints.class);
+
+  private static final PrivateTsvObject TSV_OBJECT = new PrivateTsvObject(S3_KEY, "cwa-assembly-fingerprints-v1", 1, 2);
+  private static final String SEPARATOR = "\t";
+
+  private final ObjectStoreAccess objectStoreAccess;
+  private final FailedObjectStoreOperationsCounter failedOperationsCounter;
+  private final DistributionServiceConfig distributionServiceConfig;
+
+  /**
+   * The fingerprints of the previous distribution by the S3 key prefix of the respective archive.
+   */
+  private final Map<String, String> previousFingerprints = new ConcurrentHashMap<>();
+
+  /**
+   * The fingerprints of all archives of the current distribution, including the ones which have been skipped.
+   */
+  private final Map<String, String> currentFingerprints = new ConcurrentHashMap<>();
+
+  private boolean enabled;
+  private Instant createdAt;
+
+  /**
+   * Creates a new {@link DiagnosisKeyArchiveFingerprints} instance.
+   *
+   * @param objectStoreAccess         used to load and store the fingerprints
+   * @param failedOperationsCounter   used to check whether all files have been published successfully
+   * @param distributionServiceConfig the distribution configuration
+   */
+  public DiagnosisKeyArchiveFingerprints(ObjectStoreAccess objectStoreAccess,
+      FailedObjectStoreOperationsCounter failedOperationsCounter, DistributionServiceConfig distributionServiceConfig) {
+    this.objectStoreAccess = objectStoreAccess;
+    this.failedOperationsCounter = failedOperationsCounter;
+    this.distributionServiceConfig = distributionServiceConfig;
+  }
+
+  /**
+   * Loads the fingerprints of the previous distribution, if the incremental assembly is enabled and key files are not
+   * forced to be re-published. Fingerprints of archives, which have been deleted in the meantime (e.g. by the retention
+   * policy), are dropped, so that these archives are rebuilt.
+   *
+   * @param now the time of the current distribution
+   */
+  public void load(Instant now) {
+    previousFingerprints.clear();
+    currentFingerprints.clear();
+    createdAt = now;
+    enabled = Boolean.TRUE.equals(distributionServiceConfig.getIncrementalAssembly())
+        && !Boolean.TRUE.equals(distributionServiceConfig.getObjectStore().getForceUpdateKeyfiles());
+    if (!enabled) {
+      return;
+    }
+    try {
+      Optional<Content> content = TSV_OBJECT.load(objectStoreAccess);
+      if (content.isEmpty()) {
+        logger.info("No diagnosis key archive fingerprints found, all archives will be assembled.");
+        return;
+      }
+      read(content.get(), now);
+      removeDeletedArchives(objectStoreAccess.getDeletedObjectNames());
+      logger.info("Loaded {} diagnosis key archive fingerprints.", previousFingerprints.size());
+    } catch (IOException | ObjectStoreOperationFailedException e) {
+      logger.warn("Unable to read the diagnosis key archive fingerprints, all archives will be assembled.", e);
+      previousFingerprints.clear();
+      createdAt = now;
+    }
+  }
+
+  private void read(Content content, Instant now) throws IOException {
+    Instant storedCreatedAt;
+    try {
+      storedCreatedAt = Instant.ofEpochSecond(Long.parseLong(content.getHeader().get(0)));
+    } catch (NumberFormatException e) {
+      throw new IOException("Invalid fingerprints", e);
+    }
+    int expiryHours = distributionServiceConfig.getFingerprintExpiryHours();
+    if (storedCreatedAt.plus(expiryHours, ChronoUnit.HOURS).isBefore(now)) {
+      logger.info("Diagnosis key archive fingerprints are outdated, all archives will be assembled.");
+      return;
+    }
+    content.getRows().forEach(row -> previousFingerprints.put(row.get(0), row.get(1)));
+    createdAt = storedCreatedAt;
+  }
+
+  private void removeDeletedArchives(Set<String> deletedObjectNames) {
+    previousFingerprints.keySet()
+        .removeIf(archiveKey -> deletedObjectNames.contains(getArchiveObjectName(archiveKey)));
+  }
+
+  /**
+   * Records the fingerprint of the given date archive and checks whether it is unchanged.
+   *
+   * @param country       the country of the archive
+   * @param date          the date of the archive
+   * @param diagnosisKeys the diagnosis keys contained in the archive
+   * @return {@code true} if the archive has been published with the same diagnosis keys before and can be skipped
+   */
+  public boolean isUnchanged(String country, LocalDate date, Selection diagnosisKeys) {
+    return isUnchanged(getDateArchiveKey(country, date), diagnosisKeys);
+  }
+
+  /**
+   * Records the fingerprint of the given hour archive and checks whether it is unchanged.
+   *
+   * @param country       the country of the archive
+   * @param hour          the hour of the archive
+   * @param diagnosisKeys the diagnosis keys contained in the archive
+   * @return {@code true} if the archive has been published with the same diagnosis keys before and can be skipped
+   */
+  public boolean isUnchanged(String country, LocalDateTime hour, Selection diagnosisKeys) {
+    return isUnchanged(String.join("/", getDateArchiveKey(country, hour.toLocalDate()),
+        distributionServiceConfig.getApi().getHourPath(), String.valueOf(hour.getHour())), diagnosisKeys);
+  }
+
+  private boolean isUnchanged(String archiveKey, Selection diagnosisKeys) {
+    if (!enabled) {
+      return false;
+    }
+    String fingerprint = computeFingerprint(archiveKey, diagnosisKeys);
+    currentFingerprints.put(archiveKey, fingerprint);
+    return fingerprint.equals(previousFingerprints.get(archiveKey));
+  }
+
+  /**
+   * Stores the fingerprints of the current distribution on the object store, unless an object store operation has
+   * failed. In that case the fingerprints of the previous distribution are kept, so that the next assembly rebuilds all
+   * archives which have changed since then. A failure to store the fingerprints is not critical either.
+   */
+  public void store() {
+    if (!enabled) {
+      return;
+    }
+    if (failedOperationsCounter.hasFailedOperations()) {
+      logger.warn("Not storing the diagnosis key archive fingerprints, because object store operations failed.");
+      return;
+    }
+    List<List<String>> rows = new TreeMap<>(currentFingerprints).entrySet().stream()
+        .map(fingerprint -> List.of(fingerprint.getKey(), fingerprint.getValue()))
+        .collect(Collectors.toList());
+    try {
+      TSV_OBJECT.store(objectStoreAccess, new Content(List.of(String.valueOf(createdAt.getEpochSecond())), rows));
+    } catch (IOException | ObjectStoreOperationFailedException e) {
+      logger.warn("Unable to store the diagnosis key archive fingerprints.", e);
+    }
+  }
+
+  /**
+   * Computes the fingerprint of an archive from everything that ends up in its export file: the archive location (and
+   * thus country and time range), the file header, the signature info and the order independent set of keys. The keys
+   * are read directly from the columns of their {@link DiagnosisKeyStore}.
+   */
+  private String computeFingerprint(String archiveKey, Selection diagnosisKeys) {
+    DiagnosisKeyStore store = diagnosisKeys.getStore();
+    byte[][] keyDigests = diagnosisKeys.indices()
+        .mapToObj(diagnosisKey -> digest(store, diagnosisKey))
+        .sorted(Arrays::compare)
+        .toArray(byte[][]::new);
+    ByteBuffer buffer = ByteBuffer.allocate(keyDigests.length * 32);
+    Arrays.stream(keyDigests).forEach(buffer::put);
+
+    String header = String.join(SEPARATOR, archiveKey,
+        distributionServiceConfig.getTekExport().getFileHeader(),
+        Hex.toHexString(distributionServiceConfig.getSignature().getSignatureInfo().toByteArray()));
+    return Hex.toHexString(HashUtils.byteStringDigest(concat(header.getBytes(StandardCharsets.UTF_8),
+        buffer.array()), Algorithms.SHA_256));
+  }
+
+  private static byte[] digest(DiagnosisKeyStore store, int diagnosisKey) {
+    ByteBuffer fields = ByteBuffer.allocate(DiagnosisKey.KEY_DATA_LENGTH + 5 * Integer.BYTES)
+        .put(store.getKeyData(diagnosisKey))
+        .putInt(store.getRollingStartIntervalNumber(diagnosisKey))
+        .putInt(store.getRollingPeriod(diagnosisKey))
+        .putInt(store.getTransmissionRiskLevel(diagnosisKey))
+        .putInt(store.getReportType(diagnosisKey).getNumber())
+        .putInt(store.getDaysSinceOnsetOfSymptoms(diagnosisKey));
+    return HashUtils.byteStringDigest(fields.array(), Algorithms.SHA_256);
+  }
+
+  private static byte[] concat(byte[] first, byte[] second) {
+    return ByteBuffer.allocate(first.length + second.length).put(first).put(second).array();
+  }
+
+  private String getDateArchiveKey(String country, LocalDate date) {
+    Api api = distributionServiceConfig.getApi();
+    return String.join("/", api.getVersionPath(), api.getVersionV1(), api.getDiagnosisKeysPath(),
+        api.getCountryPath(), country, api.getDatePath(), date.toString());
+  }
+
+  private String getArchiveObjectName(String archiveKey) {
+    return archiveKey + "/" + distributionServiceConfig.getOutputFileName();
+  }
+}
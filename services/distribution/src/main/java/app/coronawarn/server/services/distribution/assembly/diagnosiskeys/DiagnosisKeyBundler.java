@@ -3,10 +3,16 @@
 package app.coronawarn.server.services.distribution.assembly.diagnosiskeys;
 
 import static java.time.ZoneOffset.UTC;
-import static java.util.Collections.emptyList;
+import static java.util.Collections.emptyMap;
 import static java.util.Collections.emptySet;
+import static java.util.Collections.emptySortedMap;
+import static java.util.Collections.unmodifiableSet;
+import static java.util.Collections.unmodifiableSortedMap;
 
 import app.coronawarn.server.common.persistence.domain.DiagnosisKey;
+import app.coronawarn.server.common.persistence.domain.DiagnosisKeyStore;
+import app.coronawarn.server.common.persistence.domain.DiagnosisKeyStore.Selection;
+import app.coronawarn.server.services.distribution.assembly.diagnosiskeys.structure.file.EncodedTemporaryExposureKeys;
 import app.coronawarn.server.services.distribution.config.DistributionServiceConfig;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
@@ -17,15 +23,22 @@ import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
-import java.util.Optional;
+import java.util.Map.Entry;
 import java.util.Set;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.IntFunction;
 import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 /**
- * An instance of this class contains a collection of {@link DiagnosisKey DiagnosisKeys}.
+ * An instance of this class contains a collection of {@link DiagnosisKey DiagnosisKeys}. The keys are held in a compact
+ * {@link DiagnosisKeyStore} and are grouped and bundled by their indices within the store.
  */
 public abstract class DiagnosisKeyBundler {
 
@@ -54,15 +67,32 @@ public abstract class DiagnosisKeyBundler {
   protected LocalDateTime distributionTime;
 
   /**
-   * A map containing diagnosis keys, grouped by country and mapped by the LocalDateTime on which they may be
-   * distributed.
+   * The store of all diagnosis keys, which are distributed to at least one supported country.
    */
-  protected final Map<String, Map<LocalDateTime, List<DiagnosisKey>>> distributableDiagnosisKeys = new HashMap<>();
+  protected DiagnosisKeyStore diagnosisKeyStore = new DiagnosisKeyStore();
 
   /**
-   * A map containing diagnosis keys, grouped by country code.
+   * A map containing the store indices of the diagnosis keys, grouped by country and mapped by the LocalDateTime on
+   * which they may be distributed.
    */
-  protected Map<String, List<DiagnosisKey>> groupedDiagnosisKeys = new HashMap<>();
+  protected final Map<String, Map<LocalDateTime, int[]>> distributableDiagnosisKeys = new HashMap<>();
+
+  /**
+   * A map containing the store indices of the diagnosis keys, grouped by country code.
+   */
+  protected Map<String, int[]> groupedDiagnosisKeys = new HashMap<>();
+
+  /**
+   * The immutable index of the distributable diagnosis keys by country, date and hour, which is built once from
+   * {@link #distributableDiagnosisKeys} after each {@link #createDiagnosisKeyDistributionMap()}.
+   */
+  private Map<String, CountryIndex> index = emptyMap();
+
+  /**
+   * The sorted and encoded diagnosis keys by country and hour, which are shared by the hour and date archives.
+   */
+  private final Map<Entry<String, LocalDateTime>, EncodedTemporaryExposureKeys> encodedDiagnosisKeys =
+      new ConcurrentHashMap<>();
 
   /**
    * Constructs a DiagnosisKeyBundler based on the specified service configuration.
@@ -86,8 +116,27 @@ public abstract class DiagnosisKeyBundler {
    * @param distributionTime The {@link LocalDateTime} at which the distribution runs.
    */
   public void setDiagnosisKeys(Collection<DiagnosisKey> diagnosisKeys, LocalDateTime distributionTime) {
+    this.setDiagnosisKeys(diagnosisKeys::forEach, distributionTime);
+  }
+
+  /**
+   * Streaming variant of {@link #setDiagnosisKeys(Collection, LocalDateTime)}. The given source is called once and is
+   * expected to pass all {@link DiagnosisKey DiagnosisKeys} one by one to the consumer it is called with. Each key is
+   * added directly to the {@link DiagnosisKeyStore} and assigned to the buckets of its visited countries, so no
+   * {@link DiagnosisKey} instances are retained.
+   *
+   * @param diagnosisKeySource The source of the {@link DiagnosisKey DiagnosisKeys} contained by this
+   *                           {@link DiagnosisKeyBundler}.
+   * @param distributionTime   The {@link LocalDateTime} at which the distribution runs.
+   */
+  public void setDiagnosisKeys(Consumer<Consumer<DiagnosisKey>> diagnosisKeySource, LocalDateTime distributionTime) {
     this.distributionTime = distributionTime;
-    this.createDiagnosisKeyDistributionMap(diagnosisKeys);
+    Map<String, IntStream.Builder> keysByCountry = initializeMappings();
+    diagnosisKeySource.accept(diagnosisKey -> this.addKeyToMap(diagnosisKey, keysByCountry));
+    diagnosisKeyStore.trimToSize();
+    keysByCountry.forEach((country, keys) -> groupedDiagnosisKeys.put(country, keys.build().toArray()));
+    this.createDiagnosisKeyDistributionMap();
+    this.index = buildIndex();
   }
 
   /**
@@ -105,21 +154,18 @@ public abstract class DiagnosisKeyBundler {
    * @param country to obtain keys for
    * @return list of all DiagnosisKey entries for specified country
    */
-  public List<DiagnosisKey> getAllDiagnosisKeys(String country) {
+  public Selection getAllDiagnosisKeys(String country) {
     if (isCountrySupported(country)) {
-      return this.distributableDiagnosisKeys.get(country).values()
-          .stream().flatMap(Collection::stream).collect(Collectors.toList());
+      return getCountryIndex(country).keys;
     }
-    return emptyList();
+    return DiagnosisKeyStore.emptySelection();
   }
 
   /**
-   * Initializes the internal {@code distributableDiagnosisKeys} map, which should contain all diagnosis keys, grouped
-   * by the LocalDateTime on which they may be distributed.
-   *
-   * @param diagnosisKeys collection of DiagnosisKey entries
+   * Initializes the internal {@code distributableDiagnosisKeys} map from the {@code groupedDiagnosisKeys} map, which
+   * should contain all diagnosis keys, grouped by the LocalDateTime on which they may be distributed.
    */
-  protected abstract void createDiagnosisKeyDistributionMap(Collection<DiagnosisKey> diagnosisKeys);
+  protected abstract void createDiagnosisKeyDistributionMap();
 
   /**
    * Returns a set of all {@link LocalDate dates} on which {@link DiagnosisKey diagnosis keys} shall be distributed
@@ -130,16 +176,13 @@ public abstract class DiagnosisKeyBundler {
    */
   public Set<LocalDate> getDatesWithDistributableDiagnosisKeys(String country) {
     if (isCountrySupported(country)) {
-      return this.distributableDiagnosisKeys.get(country).keySet().stream()
-          .map(LocalDateTime::toLocalDate)
-          .filter(date -> numberOfKeysForDateBelowMaximum(date, country))
-          .collect(Collectors.toSet());
+      return getCountryIndex(country).distributableDates;
     }
     return emptySet();
   }
 
   public boolean numberOfKeysForDateBelowMaximum(LocalDate date, String country) {
-    return numberOfKeysBelowMaximum(getDiagnosisKeysForDate(date, country).size(), date);
+    return getCountryIndex(country).getDateIndex(date).keys.size() <= maxNumberOfKeysPerBundle;
   }
 
   /**
@@ -151,14 +194,7 @@ public abstract class DiagnosisKeyBundler {
    * @return Set of LocalDateTime entries for specified Country at specified time
    */
   public Set<LocalDateTime> getHoursWithDistributableDiagnosisKeys(LocalDate currentDate, String country) {
-    return this.distributableDiagnosisKeys.get(country).keySet().stream()
-        .filter(dateTime -> dateTime.toLocalDate().equals(currentDate))
-        .filter(dateTime -> numberOfKeysForHourBelowMaximum(dateTime, country))
-        .collect(Collectors.toSet());
-  }
-
-  private boolean numberOfKeysForHourBelowMaximum(LocalDateTime hour, String country) {
-    return numberOfKeysBelowMaximum(getDiagnosisKeysForHour(hour, country).size(), hour);
+    return getCountryIndex(country).getDateIndex(currentDate).distributableHours;
   }
 
   private boolean numberOfKeysBelowMaximum(int numberOfKeys, Temporal time) {
@@ -171,13 +207,31 @@ public abstract class DiagnosisKeyBundler {
   }
 
   /**
-   * Returns the submission timestamp of a {@link DiagnosisKey} as a {@link LocalDateTime}.
+   * Returns the submission timestamp of a stored {@link DiagnosisKey} as a {@link LocalDateTime}.
    *
-   * @param diagnosisKey key to search
+   * @param diagnosisKey index of the key within the {@link #diagnosisKeyStore}
    * @return time the specified key was submitted
    */
-  protected LocalDateTime getSubmissionDateTime(DiagnosisKey diagnosisKey) {
-    return LocalDateTime.ofEpochSecond(diagnosisKey.getSubmissionTimestamp() * ONE_HOUR_INTERVAL_SECONDS, 0, UTC);
+  protected LocalDateTime getSubmissionDateTime(int diagnosisKey) {
+    return LocalDateTime.ofEpochSecond(diagnosisKeyStore.getSubmissionTimestamp(diagnosisKey)
+        * ONE_HOUR_INTERVAL_SECONDS, 0, UTC);
+  }
+
+  /**
+   * Groups the given stored keys by the hour returned for each of them, keeping the order of the keys of each hour.
+   *
+   * @param diagnosisKeys indices of the keys within the {@link #diagnosisKeyStore}
+   * @param hourOfKey     returns the hour of a key by its index
+   * @return the key indices by hour
+   */
+  protected static Map<LocalDateTime, int[]> groupByHour(int[] diagnosisKeys, IntFunction<LocalDateTime> hourOfKey) {
+    Map<LocalDateTime, IntStream.Builder> keysByHour = new HashMap<>();
+    for (int diagnosisKey : diagnosisKeys) {
+      keysByHour.computeIfAbsent(hourOfKey.apply(diagnosisKey), hour -> IntStream.builder()).add(diagnosisKey);
+    }
+    Map<LocalDateTime, int[]> groupedKeys = new HashMap<>();
+    keysByHour.forEach((hour, keys) -> groupedKeys.put(hour, keys.build().toArray()));
+    return groupedKeys;
   }
 
   /**
@@ -187,15 +241,11 @@ public abstract class DiagnosisKeyBundler {
    * @param country country to search
    * @return list of DiagnosisKey entries submitted from specified Country on the specified day
    */
-  public List<DiagnosisKey> getDiagnosisKeysForDate(LocalDate date, String country) {
+  public Selection getDiagnosisKeysForDate(LocalDate date, String country) {
     if (isCountrySupported(country)) {
-      return this.distributableDiagnosisKeys.get(country).keySet().stream()
-          .filter(dateTime -> dateTime.toLocalDate().equals(date))
-          .map(dateTime -> getDiagnosisKeysForHour(dateTime, country))
-          .flatMap(List::stream)
-          .collect(Collectors.toList());
+      return getCountryIndex(country).getDateIndex(date).keys;
     }
-    return emptyList();
+    return DiagnosisKeyStore.emptySelection();
   }
 
   /**
@@ -205,13 +255,85 @@ public abstract class DiagnosisKeyBundler {
    * @param country Country to search
    * @return list of DiagnosisKey entries matching the specified hour and specified Country
    */
-  public List<DiagnosisKey> getDiagnosisKeysForHour(LocalDateTime hour, String country) {
+  public Selection getDiagnosisKeysForHour(LocalDateTime hour, String country) {
     if (isCountrySupported(country)) {
-      return Optional
-          .ofNullable(this.distributableDiagnosisKeys.get(country).get(hour))
-          .orElse(emptyList());
+      return getCountryIndex(country).getDateIndex(hour.toLocalDate()).hours
+          .getOrDefault(hour, DiagnosisKeyStore.emptySelection());
     }
-    return emptyList();
+    return DiagnosisKeyStore.emptySelection();
+  }
+
+  /**
+   * Returns the sorted and encoded diagnosis keys that should be distributed in a specific hour for a specific country.
+   * The keys of each hour are encoded only once and shared by the hour archive and the date archive.
+   *
+   * @param hour hour to search
+   * @param country Country to search
+   * @return the encoded keys of the specified hour and country
+   */
+  public EncodedTemporaryExposureKeys getEncodedDiagnosisKeysForHour(LocalDateTime hour, String country) {
+    return encodedDiagnosisKeys.computeIfAbsent(Map.entry(country, hour),
+        key -> EncodedTemporaryExposureKeys.fromDiagnosisKeys(getDiagnosisKeysForHour(hour, country)));
+  }
+
+  /**
+   * Returns the sorted and encoded diagnosis keys that should be distributed on a specific date for a specific country,
+   * merged from the {@link #getEncodedDiagnosisKeysForHour encoded keys} of its hours.
+   *
+   * @param date date to search
+   * @param country country to search
+   * @return the encoded keys of the specified date and country
+   */
+  public EncodedTemporaryExposureKeys getEncodedDiagnosisKeysForDate(LocalDate date, String country) {
+    if (isCountrySupported(country)) {
+      return EncodedTemporaryExposureKeys.merge(getCountryIndex(country).getDateIndex(date).hours.keySet().stream()
+          .map(dateTime -> getEncodedDiagnosisKeysForHour(dateTime, country))
+          .collect(Collectors.toList()));
+    }
+    return EncodedTemporaryExposureKeys.fromDiagnosisKeys(DiagnosisKeyStore.emptySelection());
+  }
+
+  private CountryIndex getCountryIndex(String country) {
+    return index.getOrDefault(country, CountryIndex.EMPTY);
+  }
+
+  /**
+   * Builds the index of the distributable diagnosis keys, including the keys and hours of each date as well as the
+   * dates and hours whose number of keys does not exceed the configured maximum.
+   */
+  private Map<String, CountryIndex> buildIndex() {
+    Map<String, CountryIndex> countryIndices = new HashMap<>();
+    distributableDiagnosisKeys.forEach((country, keysByHour) -> {
+      Map<LocalDate, SortedMap<LocalDateTime, Selection>> hoursByDate = new TreeMap<>();
+      keysByHour.forEach((hour, keys) -> hoursByDate.computeIfAbsent(hour.toLocalDate(), date -> new TreeMap<>())
+          .put(hour, diagnosisKeyStore.select(keys)));
+
+      Map<LocalDate, DateIndex> dateIndices = new HashMap<>();
+      List<Selection> countryKeys = new ArrayList<>();
+      hoursByDate.forEach((date, hours) -> {
+        Selection dateKeys = concat(hours.values());
+        Set<LocalDateTime> distributableHours = new HashSet<>();
+        hours.forEach((hour, keys) -> {
+          if (numberOfKeysBelowMaximum(keys.size(), hour)) {
+            distributableHours.add(hour);
+          }
+        });
+        countryKeys.add(dateKeys);
+        dateIndices.put(date, new DateIndex(dateKeys, unmodifiableSortedMap(hours),
+            unmodifiableSet(distributableHours)));
+      });
+
+      Set<LocalDate> distributableDates = dateIndices.entrySet().stream()
+          .filter(date -> numberOfKeysBelowMaximum(date.getValue().keys.size(), date.getKey()))
+          .map(Entry::getKey)
+          .collect(Collectors.toUnmodifiableSet());
+      countryIndices.put(country, new CountryIndex(concat(countryKeys), dateIndices, distributableDates));
+    });
+    return countryIndices;
+  }
+
+  private Selection concat(Collection<Selection> selections) {
+    return diagnosisKeyStore.select(selections.stream().flatMapToInt(Selection::indices).toArray());
   }
 
   private boolean isCountrySupported(String country) {
@@ -222,11 +344,12 @@ public abstract class DiagnosisKeyBundler {
     return true;
   }
 
-  private void addKeyToMap(DiagnosisKey key, Map<String, List<DiagnosisKey>> keysByCountry) {
+  private void addKeyToMap(DiagnosisKey key, Map<String, IntStream.Builder> keysByCountry) {
+    List<String> countries = new ArrayList<>();
     // Prior to 1.5 version the already stored keys have no visited countries, thus we default the target bucket
     // to origin country, as these keys were originated in CWA and should still be distributed.
     if (key.getVisitedCountries().isEmpty()) {
-      keysByCountry.get(this.originCountry).add(key);
+      countries.add(this.originCountry);
     } else {
       key.getVisitedCountries().stream()
           .filter(supportedCountries::contains)
@@ -237,9 +360,13 @@ public abstract class DiagnosisKeyBundler {
             if (isEfgsKeyWithOriginInVisitedCountriesAndNotVisitedCountry(key, visitedCountry)) {
               return;
             }
-            keysByCountry.get(visitedCountry).add(key);
+            countries.add(visitedCountry);
           });
     }
+    if (!countries.isEmpty()) {
+      int index = diagnosisKeyStore.add(key);
+      countries.forEach(country -> keysByCountry.get(country).add(index));
+    }
   }
 
   /**
@@ -273,40 +400,74 @@ public abstract class DiagnosisKeyBundler {
         && key.getVisitedCountries().contains(originCountry);
   }
 
-  protected Map<String, List<DiagnosisKey>> mapDiagnosisKeysPerVisitedCountries(
-      Collection<DiagnosisKey> diagnosisKeys) {
-    initializeMappings();
+  protected void populateEuPackageWithDistributableDiagnosisKeys() {
+    Map<LocalDateTime, List<int[]>> euPackage = new HashMap<>();
+
+    distributableDiagnosisKeys
+        .forEach((country, diagnosisKeyMap) -> diagnosisKeyMap.forEach((distributionDateTime, diagnosisKeys) ->
+            euPackage.computeIfAbsent(distributionDateTime, hour -> new ArrayList<>()).add(diagnosisKeys)));
+
+    Map<LocalDateTime, int[]> euPackageKeys = new HashMap<>();
+    euPackage.forEach((distributionDateTime, diagnosisKeys) -> euPackageKeys.put(distributionDateTime,
+        diagnosisKeys.stream().flatMapToInt(IntStream::of).distinct().toArray()));
+    distributableDiagnosisKeys.put(euPackageName, euPackageKeys);
+  }
+
+  /**
+   * The distributable diagnosis keys of a country.
+   */
+  private static final class CountryIndex {
+
+    private static final CountryIndex EMPTY = new CountryIndex(DiagnosisKeyStore.emptySelection(), emptyMap(),
+        emptySet());
+
+    private final Selection keys;
+    private final Map<LocalDate, DateIndex> dates;
+    private final Set<LocalDate> distributableDates;
+
+    private CountryIndex(Selection keys, Map<LocalDate, DateIndex> dates, Set<LocalDate> distributableDates) {
+      this.keys = keys;
+      this.dates = dates;
+      this.distributableDates = distributableDates;
+    }
 
-    diagnosisKeys
-        .forEach(diagnosisKey -> this.addKeyToMap(diagnosisKey, groupedDiagnosisKeys));
-    return groupedDiagnosisKeys;
+    private DateIndex getDateIndex(LocalDate date) {
+      return dates.getOrDefault(date, DateIndex.EMPTY);
+    }
   }
 
-  protected void populateEuPackageWithDistributableDiagnosisKeys() {
-    Map<LocalDateTime, Set<DiagnosisKey>> euPackage = new HashMap<>();
+  /**
+   * The distributable diagnosis keys of a country on a date, mapped by the hours of the date in ascending order.
+   */
+  private static final class DateIndex {
 
-    distributableDiagnosisKeys
-        .forEach((country, diagnosisKeyMap) -> diagnosisKeyMap.forEach((distributionDateTime, diagnosisKeys) -> {
-          Set<DiagnosisKey> currentHourDiagnosisKeys = Optional
-              .ofNullable(euPackage.get(distributionDateTime))
-              .orElse(new HashSet<>());
-          currentHourDiagnosisKeys.addAll(diagnosisKeys);
-          euPackage.put(distributionDateTime, currentHourDiagnosisKeys);
-        }));
-
-    Map<LocalDateTime, List<DiagnosisKey>> euPackageList = new HashMap<>();
-    euPackage.forEach((distributionDateTime, diagnosisKeys) ->
-        euPackageList.put(distributionDateTime, new ArrayList<>(diagnosisKeys)));
-    distributableDiagnosisKeys.put(euPackageName, euPackageList);
+    private static final DateIndex EMPTY = new DateIndex(DiagnosisKeyStore.emptySelection(), emptySortedMap(),
+        emptySet());
+
+    private final Selection keys;
+    private final SortedMap<LocalDateTime, Selection> hours;
+    private final Set<LocalDateTime> distributableHours;
+
+    private DateIndex(Selection keys, SortedMap<LocalDateTime, Selection> hours,
+        Set<LocalDateTime> distributableHours) {
+      this.keys = keys;
+      this.hours = hours;
+      this.distributableHours = distributableHours;
+    }
   }
 
-  private void initializeMappings() {
+  private Map<String, IntStream.Builder> initializeMappings() {
+    diagnosisKeyStore = new DiagnosisKeyStore();
     groupedDiagnosisKeys.clear();
     distributableDiagnosisKeys.clear();
+    encodedDiagnosisKeys.clear();
+    index = emptyMap();
 
+    Map<String, IntStream.Builder> keysByCountry = new HashMap<>();
     supportedCountries.forEach(supportedCountry -> {
-      groupedDiagnosisKeys.put(supportedCountry, new ArrayList<>());
+      keysByCountry.put(supportedCountry, IntStream.builder());
       this.distributableDiagnosisKeys.put(supportedCountry, new HashMap<>());
     });
+    return keysByCountry;
   }
 }
@@ -2,9 +2,6 @@
 
 package app.coronawarn.server.services.distribution.assembly.diagnosiskeys;
 
-import static java.util.Collections.emptyList;
-import static java.util.stream.Collectors.groupingBy;
-
 import app.coronawarn.server.common.persistence.domain.DiagnosisKey;
 import app.coronawarn.server.common.persistence.service.common.ExpirationPolicy;
 import app.coronawarn.server.common.persistence.service.common.KeySharingPoliciesChecker;
@@ -12,12 +9,10 @@ import app.coronawarn.server.services.distribution.config.DistributionServiceCon
 import java.time.LocalDateTime;
 import java.time.temporal.ChronoUnit;
 import java.util.ArrayList;
-import java.util.Collection;
-import java.util.Collections;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.stream.IntStream;
 import java.util.stream.LongStream;
 import org.springframework.context.annotation.Profile;
 import org.springframework.stereotype.Component;
@@ -32,6 +27,8 @@ import org.springframework.stereotype.Component;
 @Component
 public class ProdDiagnosisKeyBundler extends DiagnosisKeyBundler {
 
+  private static final int[] NO_DIAGNOSIS_KEYS = new int[0];
+
   private KeySharingPoliciesChecker sharingPoliciesChecker;
   private String originCountry;
   private boolean applyPoliciesForAllCountries;
@@ -55,8 +52,8 @@ public class ProdDiagnosisKeyBundler extends DiagnosisKeyBundler {
    * and by the date on which they may be distributed, while respecting the expiry and shifting policies.
    */
   @Override
-  protected void createDiagnosisKeyDistributionMap(Collection<DiagnosisKey> diagnosisKeys) {
-    mapDiagnosisKeysPerVisitedCountries(diagnosisKeys).keySet().forEach(country -> {
+  protected void createDiagnosisKeyDistributionMap() {
+    groupedDiagnosisKeys.keySet().forEach(country -> {
       if (!country.equals(originCountry) && !applyPoliciesForAllCountries) {
         populateDistributableDiagnosisKeysWithoutPolicies(country);
       } else {
@@ -68,8 +65,8 @@ public class ProdDiagnosisKeyBundler extends DiagnosisKeyBundler {
 
   private void populateDistributableDiagnosisKeysWithPolicies(String country) {
 
-    Map<LocalDateTime, List<DiagnosisKey>> distributableDiagnosisKeysGroupedByExpiryPolicy = new HashMap<>(
-        groupedDiagnosisKeys.get(country).stream().collect(groupingBy(this::getDistributionDateTimeByExpiryPolicy)));
+    Map<LocalDateTime, int[]> distributableDiagnosisKeysGroupedByExpiryPolicy =
+        groupByHour(groupedDiagnosisKeys.get(country), this::getDistributionDateTimeByExpiryPolicy);
 
     if (distributableDiagnosisKeysGroupedByExpiryPolicy.isEmpty()) {
       return;
@@ -79,32 +76,33 @@ public class ProdDiagnosisKeyBundler extends DiagnosisKeyBundler {
         getEarliestDistributableTimestamp(distributableDiagnosisKeysGroupedByExpiryPolicy).orElseThrow();
     LocalDateTime latestDistributableTimestamp = distributionTime;
 
-    List<DiagnosisKey> diagnosisKeyAccumulator = new ArrayList<>();
+    List<int[]> diagnosisKeyAccumulator = new ArrayList<>();
     LongStream.range(0, earliestDistributableTimestamp.until(latestDistributableTimestamp, ChronoUnit.HOURS))
         .forEach(hourCounter -> {
           LocalDateTime currentHour = earliestDistributableTimestamp.plusHours(hourCounter);
-          Collection<DiagnosisKey> currentHourDiagnosisKeys = Optional
-              .ofNullable(distributableDiagnosisKeysGroupedByExpiryPolicy.get(currentHour))
-              .orElse(emptyList());
-          diagnosisKeyAccumulator.addAll(currentHourDiagnosisKeys);
-          if (diagnosisKeyAccumulator.size() >= minNumberOfKeysPerBundle) {
-            distributableDiagnosisKeys.get(country).put(currentHour, new ArrayList<>(diagnosisKeyAccumulator));
+          diagnosisKeyAccumulator.add(
+              distributableDiagnosisKeysGroupedByExpiryPolicy.getOrDefault(currentHour, NO_DIAGNOSIS_KEYS));
+          if (diagnosisKeyAccumulator.stream().mapToInt(keys -> keys.length).sum() >= minNumberOfKeysPerBundle) {
+            distributableDiagnosisKeys.get(country).put(currentHour,
+                diagnosisKeyAccumulator.stream().flatMapToInt(IntStream::of).toArray());
             diagnosisKeyAccumulator.clear();
           } else {
             // placeholder list is needed to be able to generate empty file - see issue #650
-            distributableDiagnosisKeys.get(country).put(currentHour, Collections.emptyList());
+            distributableDiagnosisKeys.get(country).put(currentHour, NO_DIAGNOSIS_KEYS);
           }
         });
   }
 
   private void populateDistributableDiagnosisKeysWithoutPolicies(String country) {
-    distributableDiagnosisKeys.get(country).putAll(groupedDiagnosisKeys.get(country).stream()
-        .filter(diagnosisKey -> getSubmissionDateTime(diagnosisKey).isBefore(distributionTime))
-        .collect(groupingBy(this::getSubmissionDateTime)));
+    groupByHour(groupedDiagnosisKeys.get(country), this::getSubmissionDateTime).forEach((hour, diagnosisKeys) -> {
+      if (hour.isBefore(distributionTime)) {
+        distributableDiagnosisKeys.get(country).put(hour, diagnosisKeys);
+      }
+    });
   }
 
   private static Optional<LocalDateTime> getEarliestDistributableTimestamp(
-      Map<LocalDateTime, List<DiagnosisKey>> distributableDiagnosisKeys) {
+      Map<LocalDateTime, int[]> distributableDiagnosisKeys) {
     return distributableDiagnosisKeys.keySet().stream().min(LocalDateTime::compareTo);
   }
 
@@ -115,8 +113,10 @@ public class ProdDiagnosisKeyBundler extends DiagnosisKeyBundler {
    *
    * @return {@link LocalDateTime} at which the specified {@link DiagnosisKey} can be distributed.
    */
-  private LocalDateTime getDistributionDateTimeByExpiryPolicy(DiagnosisKey diagnosisKey) {
-    return sharingPoliciesChecker.getEarliestTimeForSharingKey(diagnosisKey,
+  private LocalDateTime getDistributionDateTimeByExpiryPolicy(int diagnosisKey) {
+    return sharingPoliciesChecker.getEarliestTimeForSharingKey(
+        diagnosisKeyStore.getRollingStartIntervalNumber(diagnosisKey), diagnosisKeyStore.getRollingPeriod(diagnosisKey),
+        diagnosisKeyStore.getSubmissionTimestamp(diagnosisKey),
         ExpirationPolicy.of(expiryPolicyMinutes, ChronoUnit.MINUTES));
   }
 }
@@ -5,6 +5,7 @@ package app.coronawarn.server.services.distribution.assembly.diagnosiskeys.struc
 import app.coronawarn.server.common.persistence.domain.DiagnosisKey;
 import app.coronawarn.server.common.shared.collection.ImmutableStack;
 import app.coronawarn.server.services.distribution.assembly.component.CryptoProvider;
+import app.coronawarn.server.services.distribution.assembly.diagnosiskeys.DiagnosisKeyArchiveFingerprints;
 import app.coronawarn.server.services.distribution.assembly.diagnosiskeys.DiagnosisKeyBundler;
 import app.coronawarn.server.services.distribution.assembly.diagnosiskeys.structure.directory.decorator.DateIndexingDecorator;
 import app.coronawarn.server.services.distribution.assembly.structure.WritableOnDisk;
@@ -18,6 +19,7 @@ import java.util.Set;
 public class DiagnosisKeysCountryDirectory extends IndexDirectoryOnDisk<String> {
 
   private final DiagnosisKeyBundler diagnosisKeyBundler;
+  private final DiagnosisKeyArchiveFingerprints archiveFingerprints;
   private final CryptoProvider cryptoProvider;
   private final DistributionServiceConfig distributionServiceConfig;
 
@@ -26,15 +28,18 @@ public class DiagnosisKeysCountryDirectory extends IndexDirectoryOnDisk<String>
    * portion of the diagnosis key directory structure.
    *
    * @param diagnosisKeyBundler A {@link DiagnosisKeyBundler} containing the {@link DiagnosisKey DiagnosisKeys}.
+   * @param archiveFingerprints The {@link DiagnosisKeyArchiveFingerprints} used to skip unchanged archives.
    * @param cryptoProvider      The {@link CryptoProvider} used for payload signing.
    * @param distributionServiceConfig The {@link DistributionServiceConfig} config attributes
    */
   public DiagnosisKeysCountryDirectory(DiagnosisKeyBundler diagnosisKeyBundler,
-      CryptoProvider cryptoProvider, DistributionServiceConfig distributionServiceConfig) {
+      DiagnosisKeyArchiveFingerprints archiveFingerprints, CryptoProvider cryptoProvider,
+      DistributionServiceConfig distributionServiceConfig) {
     super(distributionServiceConfig.getApi().getCountryPath(), ignoredValue -> Set
             .of(distributionServiceConfig.getApi().getOriginCountry(), distributionServiceConfig.getEuPackageName()),
         Object::toString);
     this.diagnosisKeyBundler = diagnosisKeyBundler;
+    this.archiveFingerprints = archiveFingerprints;
     this.cryptoProvider = cryptoProvider;
     this.distributionServiceConfig = distributionServiceConfig;
   }
@@ -42,7 +47,8 @@ public class DiagnosisKeysCountryDirectory extends IndexDirectoryOnDisk<String>
   @Override
   public void prepare(ImmutableStack<Object> indices) {
     this.addWritableToAll(ignoredValue -> Optional.of(decorateDateDirectory(
-        new DiagnosisKeysDateDirectory(diagnosisKeyBundler, cryptoProvider, distributionServiceConfig))));
+        new DiagnosisKeysDateDirectory(diagnosisKeyBundler, archiveFingerprints, cryptoProvider,
+            distributionServiceConfig))));
     super.prepare(indices);
   }
 
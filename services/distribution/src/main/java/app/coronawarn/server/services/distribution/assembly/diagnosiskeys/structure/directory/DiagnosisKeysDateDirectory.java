@@ -6,8 +6,10 @@ import static app.coronawarn.server.common.shared.util.TimeUtils.getUtcDate;
 import static java.lang.Boolean.FALSE;
 
 import app.coronawarn.server.common.persistence.domain.DiagnosisKey;
+import app.coronawarn.server.common.persistence.domain.DiagnosisKeyStore.Selection;
 import app.coronawarn.server.common.shared.collection.ImmutableStack;
 import app.coronawarn.server.services.distribution.assembly.component.CryptoProvider;
+import app.coronawarn.server.services.distribution.assembly.diagnosiskeys.DiagnosisKeyArchiveFingerprints;
 import app.coronawarn.server.services.distribution.assembly.diagnosiskeys.DiagnosisKeyBundler;
 import app.coronawarn.server.services.distribution.assembly.diagnosiskeys.structure.directory.decorator.HourIndexingDecorator;
 import app.coronawarn.server.services.distribution.assembly.diagnosiskeys.structure.file.TemporaryExposureKeyExportFile;
@@ -23,7 +25,6 @@ import app.coronawarn.server.services.distribution.config.DistributionServiceCon
 import java.time.LocalDate;
 import java.time.ZoneOffset;
 import java.time.format.DateTimeFormatter;
-import java.util.List;
 import java.util.Optional;
 
 public class DiagnosisKeysDateDirectory extends IndexDirectoryOnDisk<LocalDate> {
@@ -31,6 +32,7 @@ public class DiagnosisKeysDateDirectory extends IndexDirectoryOnDisk<LocalDate>
   private static final DateTimeFormatter ISO8601 = DateTimeFormatter.ofPattern("yyyy-MM-dd");
 
   private final DiagnosisKeyBundler diagnosisKeyBundler;
+  private final DiagnosisKeyArchiveFingerprints archiveFingerprints;
   private final CryptoProvider cryptoProvider;
   private final DistributionServiceConfig distributionServiceConfig;
   private final LocalDate cutOffDate;
@@ -40,11 +42,13 @@ public class DiagnosisKeysDateDirectory extends IndexDirectoryOnDisk<LocalDate>
    * collection. Payload signing is be performed according to the specified {@link CryptoProvider}.
    *
    * @param diagnosisKeyBundler A {@link DiagnosisKeyBundler} containing the {@link DiagnosisKey DiagnosisKeys}.
+   * @param archiveFingerprints The {@link DiagnosisKeyArchiveFingerprints} used to skip unchanged archives.
    * @param cryptoProvider      The {@link CryptoProvider} used for payload signing.
    * @param distributionServiceConfig The {@link DistributionServiceConfig} config attributes
    */
   public DiagnosisKeysDateDirectory(DiagnosisKeyBundler diagnosisKeyBundler,
-      CryptoProvider cryptoProvider, DistributionServiceConfig distributionServiceConfig) {
+      DiagnosisKeyArchiveFingerprints archiveFingerprints, CryptoProvider cryptoProvider,
+      DistributionServiceConfig distributionServiceConfig) {
     super(distributionServiceConfig.getApi().getDatePath(),
         indices -> {
           String country = (String) indices.peek();
@@ -52,6 +56,7 @@ public class DiagnosisKeysDateDirectory extends IndexDirectoryOnDisk<LocalDate>
         }, ISO8601::format);
     this.cryptoProvider = cryptoProvider;
     this.diagnosisKeyBundler = diagnosisKeyBundler;
+    this.archiveFingerprints = archiveFingerprints;
     this.distributionServiceConfig = distributionServiceConfig;
 
     int hourRetentionDays = distributionServiceConfig.getObjectStore().getHourFileRetentionDays();
@@ -61,8 +66,8 @@ public class DiagnosisKeysDateDirectory extends IndexDirectoryOnDisk<LocalDate>
   private Optional<Writable<WritableOnDisk>> addHourDirectoryWritable(ImmutableStack<Object> indices) {
     LocalDate currentDate = (LocalDate) indices.peek();
     if (currentDate.isAfter(cutOffDate)) {
-      DiagnosisKeysHourDirectory hourDirectory =
-          new DiagnosisKeysHourDirectory(diagnosisKeyBundler, cryptoProvider, distributionServiceConfig);
+      DiagnosisKeysHourDirectory hourDirectory = new DiagnosisKeysHourDirectory(diagnosisKeyBundler,
+          archiveFingerprints, cryptoProvider, distributionServiceConfig);
       return Optional.of(decorateHourDirectory(hourDirectory));
     } else {
       return Optional.empty();
@@ -83,14 +88,18 @@ public class DiagnosisKeysDateDirectory extends IndexDirectoryOnDisk<LocalDate>
     }
     String country = (String) currentIndices.pop().peek();
 
-    List<DiagnosisKey> diagnosisKeysForCurrentHour =
+    Selection diagnosisKeysForCurrentHour =
         this.diagnosisKeyBundler.getDiagnosisKeysForDate(currentDate, country);
+    if (archiveFingerprints.isUnchanged(country, currentDate, diagnosisKeysForCurrentHour)) {
+      return Optional.empty();
+    }
 
     long startTimestamp = currentDate.atStartOfDay().toEpochSecond(ZoneOffset.UTC);
     long endTimestamp = currentDate.plusDays(1).atStartOfDay().toEpochSecond(ZoneOffset.UTC);
 
-    File<WritableOnDisk> temporaryExposureKeyExportFile = TemporaryExposureKeyExportFile.fromDiagnosisKeys(
-        diagnosisKeysForCurrentHour, country, startTimestamp, endTimestamp, distributionServiceConfig);
+    File<WritableOnDisk> temporaryExposureKeyExportFile = TemporaryExposureKeyExportFile
+        .fromEncodedTemporaryExposureKeys(diagnosisKeyBundler.getEncodedDiagnosisKeysForDate(currentDate, country),
+            country, startTimestamp, endTimestamp, distributionServiceConfig);
 
     Archive<WritableOnDisk> dateArchive = new ArchiveOnDisk(distributionServiceConfig.getOutputFileName());
     dateArchive.addWritable(temporaryExposureKeyExportFile);
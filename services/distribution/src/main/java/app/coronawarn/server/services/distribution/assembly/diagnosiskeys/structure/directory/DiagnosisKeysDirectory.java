@@ -5,6 +5,7 @@ package app.coronawarn.server.services.distribution.assembly.diagnosiskeys.struc
 import app.coronawarn.server.common.persistence.domain.DiagnosisKey;
 import app.coronawarn.server.common.shared.collection.ImmutableStack;
 import app.coronawarn.server.services.distribution.assembly.component.CryptoProvider;
+import app.coronawarn.server.services.distribution.assembly.diagnosiskeys.DiagnosisKeyArchiveFingerprints;
 import app.coronawarn.server.services.distribution.assembly.diagnosiskeys.DiagnosisKeyBundler;
 import app.coronawarn.server.services.distribution.assembly.structure.WritableOnDisk;
 import app.coronawarn.server.services.distribution.assembly.structure.directory.Directory;
@@ -24,6 +25,7 @@ import app.coronawarn.server.services.distribution.config.DistributionServiceCon
 public class DiagnosisKeysDirectory extends DirectoryOnDisk {
 
   private final DiagnosisKeyBundler diagnosisKeyBundler;
+  private final DiagnosisKeyArchiveFingerprints archiveFingerprints;
   private final CryptoProvider cryptoProvider;
   private final DistributionServiceConfig distributionServiceConfig;
 
@@ -32,13 +34,16 @@ public class DiagnosisKeysDirectory extends DirectoryOnDisk {
    * signing is performed using the specified {@link CryptoProvider}.
    *
    * @param diagnosisKeyBundler A {@link DiagnosisKeyBundler} containing the {@link DiagnosisKey DiagnosisKeys}.
+   * @param archiveFingerprints The {@link DiagnosisKeyArchiveFingerprints} used to skip unchanged archives.
    * @param cryptoProvider      The {@link CryptoProvider} used for payload signing.
    * @param distributionServiceConfig The {@link DistributionServiceConfig} config attributes
    */
-  public DiagnosisKeysDirectory(DiagnosisKeyBundler diagnosisKeyBundler, CryptoProvider cryptoProvider,
+  public DiagnosisKeysDirectory(DiagnosisKeyBundler diagnosisKeyBundler,
+      DiagnosisKeyArchiveFingerprints archiveFingerprints, CryptoProvider cryptoProvider,
       DistributionServiceConfig distributionServiceConfig) {
     super(distributionServiceConfig.getApi().getDiagnosisKeysPath());
     this.diagnosisKeyBundler = diagnosisKeyBundler;
+    this.archiveFingerprints = archiveFingerprints;
     this.cryptoProvider = cryptoProvider;
     this.distributionServiceConfig = distributionServiceConfig;
   }
@@ -46,7 +51,8 @@ public class DiagnosisKeysDirectory extends DirectoryOnDisk {
   @Override
   public void prepare(ImmutableStack<Object> indices) {
     this.addWritable(decorateCountryDirectory(
-        new DiagnosisKeysCountryDirectory(diagnosisKeyBundler, cryptoProvider, distributionServiceConfig)));
+        new DiagnosisKeysCountryDirectory(diagnosisKeyBundler, archiveFingerprints, cryptoProvider,
+            distributionServiceConfig)));
     super.prepare(indices);
   }
 
@@ -1,8 +1,10 @@
 package app.coronawarn.server.services.distribution.assembly.diagnosiskeys.structure.directory;
 
 import app.coronawarn.server.common.persistence.domain.DiagnosisKey;
+import app.coronawarn.server.common.persistence.domain.DiagnosisKeyStore.Selection;
 import app.coronawarn.server.common.shared.collection.ImmutableStack;
 import app.coronawarn.server.services.distribution.assembly.component.CryptoProvider;
+import app.coronawarn.server.services.distribution.assembly.diagnosiskeys.DiagnosisKeyArchiveFingerprints;
 import app.coronawarn.server.services.distribution.assembly.diagnosiskeys.DiagnosisKeyBundler;
 import app.coronawarn.server.services.distribution.assembly.diagnosiskeys.structure.file.TemporaryExposureKeyExportFile;
 import app.coronawarn.server.services.distribution.assembly.structure.WritableOnDisk;
@@ -16,12 +18,12 @@ import app.coronawarn.server.services.distribution.config.DistributionServiceCon
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.ZoneOffset;
-import java.util.List;
 import java.util.Optional;
 
 public class DiagnosisKeysHourDirectory extends IndexDirectoryOnDisk<LocalDateTime> {
 
   private final DiagnosisKeyBundler diagnosisKeyBundler;
+  private final DiagnosisKeyArchiveFingerprints archiveFingerprints;
   private final CryptoProvider cryptoProvider;
   private final DistributionServiceConfig distributionServiceConfig;
 
@@ -29,10 +31,12 @@ public class DiagnosisKeysHourDirectory extends IndexDirectoryOnDisk<LocalDateTi
    * Constructs a {@link DiagnosisKeysHourDirectory} instance for the specified date.
    *
    * @param diagnosisKeyBundler A {@link DiagnosisKeyBundler} containing the {@link DiagnosisKey DiagnosisKeys}.
+   * @param archiveFingerprints The {@link DiagnosisKeyArchiveFingerprints} used to skip unchanged archives.
    * @param cryptoProvider      The {@link CryptoProvider} used for cryptographic signing.
    * @param distributionServiceConfig The configuration to set {@link DistributionServiceConfig}
    */
-  public DiagnosisKeysHourDirectory(DiagnosisKeyBundler diagnosisKeyBundler, CryptoProvider cryptoProvider,
+  public DiagnosisKeysHourDirectory(DiagnosisKeyBundler diagnosisKeyBundler,
+      DiagnosisKeyArchiveFingerprints archiveFingerprints, CryptoProvider cryptoProvider,
       DistributionServiceConfig distributionServiceConfig) {
     super(distributionServiceConfig.getApi().getHourPath(),
         indices -> {
@@ -42,6 +46,7 @@ public class DiagnosisKeysHourDirectory extends IndexDirectoryOnDisk<LocalDateTi
         LocalDateTime::getHour);
 
     this.diagnosisKeyBundler = diagnosisKeyBundler;
+    this.archiveFingerprints = archiveFingerprints;
     this.cryptoProvider = cryptoProvider;
     this.distributionServiceConfig = distributionServiceConfig;
   }
@@ -55,13 +60,17 @@ public class DiagnosisKeysHourDirectory extends IndexDirectoryOnDisk<LocalDateTi
       // IndexDirectory.
       String country = (String) currentIndices.pop().pop().peek();
 
-      List<DiagnosisKey> diagnosisKeysForCurrentHour =
+      Selection diagnosisKeysForCurrentHour =
           this.diagnosisKeyBundler.getDiagnosisKeysForHour(currentHour, country);
+      if (archiveFingerprints.isUnchanged(country, currentHour, diagnosisKeysForCurrentHour)) {
+        return Optional.empty();
+      }
 
       long startTimestamp = currentHour.toEpochSecond(ZoneOffset.UTC);
       long endTimestamp = currentHour.plusHours(1).toEpochSecond(ZoneOffset.UTC);
-      File<WritableOnDisk> temporaryExposureKeyExportFile = TemporaryExposureKeyExportFile.fromDiagnosisKeys(
-          diagnosisKeysForCurrentHour, country, startTimestamp, endTimestamp, distributionServiceConfig);
+      File<WritableOnDisk> temporaryExposureKeyExportFile = TemporaryExposureKeyExportFile
+          .fromEncodedTemporaryExposureKeys(diagnosisKeyBundler.getEncodedDiagnosisKeysForHour(currentHour, country),
+              country, startTimestamp, endTimestamp, distributionServiceConfig);
 
       Archive<WritableOnDisk> hourArchive = new ArchiveOnDisk(distributionServiceConfig.getOutputFileName());
       hourArchive.addWritable(temporaryExposureKeyExportFile);
@@ -0,0 +1,283 @@
+package app.coronawarn.server.services.distribution.assembly.diagnosiskeys.structure.file;
+
+import static app.coronawarn.server.common.protocols.external.exposurenotification.TemporaryExposureKey.DAYS_SINCE_ONSET_OF_SYMPTOMS_FIELD_NUMBER;
+import static app.coronawarn.server.common.protocols.external.exposurenotification.TemporaryExposureKey.KEY_DATA_FIELD_NUMBER;
+import static app.coronawarn.server.common.protocols.external.exposurenotification.TemporaryExposureKey.REPORT_TYPE_FIELD_NUMBER;
+import static app.coronawarn.server.common.protocols.external.exposurenotification.TemporaryExposureKey.ROLLING_PERIOD_FIELD_NUMBER;
+import static app.coronawarn.server.common.protocols.external.exposurenotification.TemporaryExposureKey.ROLLING_START_INTERVAL_NUMBER_FIELD_NUMBER;
+import static app.coronawarn.server.common.protocols.external.exposurenotification.TemporaryExposureKey.TRANSMISSION_RISK_LEVEL_FIELD_NUMBER;
+import static app.coronawarn.server.common.protocols.external.exposurenotification.TemporaryExposureKeyExport.KEYS_FIELD_NUMBER;
+
+import app.coronawarn.server.common.persistence.domain.DiagnosisKey;
+import app.coronawarn.server.common.persistence.domain.DiagnosisKeyStore;
+import app.coronawarn.server.common.persistence.domain.DiagnosisKeyStore.Selection;
+import app.coronawarn.server.common.protocols.external.exposurenotification.TemporaryExposureKey;
+import app.coronawarn.server.common.protocols.external.exposurenotification.TemporaryExposureKeyExport;
+import com.google.protobuf.CodedInputStream;
+import com.google.protobuf.CodedOutputStream;
+import com.google.protobuf.WireFormat;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.stream.Collectors;
+
+/**
+ * A run of {@link TemporaryExposureKey TemporaryExposureKeys}, which is sorted by the {@link
+ * TemporaryExposureKeyComparator} and already encoded as the repeated <code>keys</code> field of a {@link
+ * TemporaryExposureKeyExport}. Since this field is the last field of the export, the encoded run can simply be appended
+ * to an encoded export without keys. Sorted runs are merged on the encoded bytes, without decoding and encoding the
+ * contained keys again. The key data used for sorting is read from the encoded keys as well, so a run does not hold
+ * any objects per key.
+ */
+public final class EncodedTemporaryExposureKeys {
+
+  private static final EncodedTemporaryExposureKeys EMPTY = new EncodedTemporaryExposureKeys(new int[1], new byte[0]);
+
+  /**
+   * The start offsets of the encoded keys in {@link #bytes}, followed by the total length.
+   */
+  private final int[] offsets;
+
+  private final byte[] bytes;
+
+  private EncodedTemporaryExposureKeys(int[] offsets, byte[] bytes) {
+    this.offsets = offsets;
+    this.bytes = bytes;
+  }
+
+  /**
+   * Sorts and encodes the given {@link TemporaryExposureKey TemporaryExposureKeys}.
+   *
+   * @param temporaryExposureKeys the keys to encode
+   * @return the encoded run of keys
+   */
+  public static EncodedTemporaryExposureKeys of(List<TemporaryExposureKey> temporaryExposureKeys) {
+    if (temporaryExposureKeys.isEmpty()) {
+      return EMPTY;
+    }
+    List<TemporaryExposureKey> sortedKeys = temporaryExposureKeys.stream()
+        .sorted(new TemporaryExposureKeyComparator())
+        .collect(Collectors.toList());
+
+    int[] offsets = new int[sortedKeys.size() + 1];
+    for (int i = 0; i < sortedKeys.size(); i++) {
+      offsets[i + 1] = offsets[i] + CodedOutputStream.computeMessageSize(KEYS_FIELD_NUMBER, sortedKeys.get(i));
+    }
+
+    byte[] bytes = new byte[offsets[sortedKeys.size()]];
+    CodedOutputStream output = CodedOutputStream.newInstance(bytes);
+    try {
+      for (TemporaryExposureKey key : sortedKeys) {
+        output.writeMessage(KEYS_FIELD_NUMBER, key);
+      }
+      output.checkNoSpaceLeft();
+    } catch (IOException e) {
+      throw new UncheckedIOException("Failed to encode temporary exposure keys.", e);
+    }
+    return new EncodedTemporaryExposureKeys(offsets, bytes);
+  }
+
+  /**
+   * Converts, sorts and encodes the given {@link DiagnosisKey DiagnosisKeys}, see
+   * {@link #fromDiagnosisKeys(Selection)}.
+   *
+   * @param diagnosisKeys the keys to encode
+   * @return the encoded run of keys
+   */
+  public static EncodedTemporaryExposureKeys fromDiagnosisKeys(List<DiagnosisKey> diagnosisKeys) {
+    return fromDiagnosisKeys(diagnosisKeys instanceof Selection ? (Selection) diagnosisKeys
+        : DiagnosisKeyStore.copyOf(diagnosisKeys));
+  }
+
+  /**
+   * Sorts and encodes the given keys directly from the columns of their {@link DiagnosisKeyStore}, without creating
+   * {@link DiagnosisKey} or {@link TemporaryExposureKey} instances. The encoding is the same as the one of the
+   * respective {@link TemporaryExposureKey TemporaryExposureKeys} by {@link #of(List)}.
+   *
+   * @param diagnosisKeys the keys to encode
+   * @return the encoded run of keys
+   */
+  public static EncodedTemporaryExposureKeys fromDiagnosisKeys(Selection diagnosisKeys) {
+    if (diagnosisKeys.isEmpty()) {
+      return EMPTY;
+    }
+    DiagnosisKeyStore store = diagnosisKeys.getStore();
+    int[] sortedKeys = diagnosisKeys.indices().boxed()
+        .sorted(store::compareKeyData)
+        .mapToInt(Integer::intValue)
+        .toArray();
+
+    int[] messageSizes = new int[sortedKeys.length];
+    int[] offsets = new int[sortedKeys.length + 1];
+    for (int i = 0; i < sortedKeys.length; i++) {
+      messageSizes[i] = computeMessageSize(store, sortedKeys[i]);
+      offsets[i + 1] = offsets[i] + CodedOutputStream.computeTagSize(KEYS_FIELD_NUMBER)
+          + CodedOutputStream.computeUInt32SizeNoTag(messageSizes[i]) + messageSizes[i];
+    }
+
+    byte[] bytes = new byte[offsets[sortedKeys.length]];
+    byte[] keyData = new byte[DiagnosisKey.KEY_DATA_LENGTH];
+    CodedOutputStream output = CodedOutputStream.newInstance(bytes);
+    try {
+      for (int i = 0; i < sortedKeys.length; i++) {
+        int key = sortedKeys[i];
+        store.copyKeyData(key, keyData);
+        output.writeTag(KEYS_FIELD_NUMBER, WireFormat.WIRETYPE_LENGTH_DELIMITED);
+        output.writeUInt32NoTag(messageSizes[i]);
+        output.writeByteArray(KEY_DATA_FIELD_NUMBER, keyData);
+        output.writeInt32(TRANSMISSION_RISK_LEVEL_FIELD_NUMBER, store.getTransmissionRiskLevel(key));
+        output.writeInt32(ROLLING_START_INTERVAL_NUMBER_FIELD_NUMBER, store.getRollingStartIntervalNumber(key));
+        output.writeInt32(ROLLING_PERIOD_FIELD_NUMBER, store.getRollingPeriod(key));
+        output.writeEnum(REPORT_TYPE_FIELD_NUMBER, store.getReportType(key).getNumber());
+        output.writeSInt32(DAYS_SINCE_ONSET_OF_SYMPTOMS_FIELD_NUMBER, store.getDaysSinceOnsetOfSymptoms(key));
+      }
+      output.checkNoSpaceLeft();
+    } catch (IOException e) {
+      throw new UncheckedIOException("Failed to encode temporary exposure keys.", e);
+    }
+    return new EncodedTemporaryExposureKeys(offsets, bytes);
+  }
+
+  /**
+   * Computes the size of the encoded {@link TemporaryExposureKey} message of the given key, whose fields are written in
+   * the order of their field numbers.
+   */
+  private static int computeMessageSize(DiagnosisKeyStore store, int key) {
+    return CodedOutputStream.computeTagSize(KEY_DATA_FIELD_NUMBER)
+        + CodedOutputStream.computeUInt32SizeNoTag(DiagnosisKey.KEY_DATA_LENGTH) + DiagnosisKey.KEY_DATA_LENGTH
+        + CodedOutputStream.computeInt32Size(TRANSMISSION_RISK_LEVEL_FIELD_NUMBER, store.getTransmissionRiskLevel(key))
+        + CodedOutputStream.computeInt32Size(ROLLING_START_INTERVAL_NUMBER_FIELD_NUMBER,
+            store.getRollingStartIntervalNumber(key))
+        + CodedOutputStream.computeInt32Size(ROLLING_PERIOD_FIELD_NUMBER, store.getRollingPeriod(key))
+        + CodedOutputStream.computeEnumSize(REPORT_TYPE_FIELD_NUMBER, store.getReportType(key).getNumber())
+        + CodedOutputStream.computeSInt32Size(DAYS_SINCE_ONSET_OF_SYMPTOMS_FIELD_NUMBER,
+            store.getDaysSinceOnsetOfSymptoms(key));
+  }
+
+  /**
+   * Merges the given sorted runs into a single sorted run with a k-way merge of the encoded keys. Keys with equal key
+   * data keep the order of the runs they are taken from.
+   *
+   * @param runs the runs to merge
+   * @return the merged run of keys
+   */
+  public static EncodedTemporaryExposureKeys merge(List<EncodedTemporaryExposureKeys> runs) {
+    if (runs.size() == 1) {
+      return runs.get(0);
+    }
+    int numberOfKeys = runs.stream().mapToInt(EncodedTemporaryExposureKeys::size).sum();
+    if (numberOfKeys == 0) {
+      return EMPTY;
+    }
+
+    PriorityQueue<Cursor> cursors = new PriorityQueue<>(runs.size());
+    for (int i = 0; i < runs.size(); i++) {
+      if (runs.get(i).size() > 0) {
+        cursors.add(new Cursor(runs.get(i), i));
+      }
+    }
+
+    int[] offsets = new int[numberOfKeys + 1];
+    byte[] bytes = new byte[runs.stream().mapToInt(EncodedTemporaryExposureKeys::getSerializedSize).sum()];
+    for (int i = 0; i < numberOfKeys; i++) {
+      Cursor cursor = cursors.poll();
+      EncodedTemporaryExposureKeys run = cursor.run;
+      int length = run.offsets[cursor.position + 1] - run.offsets[cursor.position];
+      System.arraycopy(run.bytes, run.offsets[cursor.position], bytes, offsets[i], length);
+      offsets[i + 1] = offsets[i] + length;
+      if (cursor.advance()) {
+        cursors.add(cursor);
+      }
+    }
+    return new EncodedTemporaryExposureKeys(offsets, bytes);
+  }
+
+  /**
+   * Returns the number of contained keys.
+   *
+   * @return the number of keys
+   */
+  public int size() {
+    return offsets.length - 1;
+  }
+
+  /**
+   * Returns the length of the encoded keys in bytes.
+   *
+   * @return the serialized size
+   */
+  public int getSerializedSize() {
+    return bytes.length;
+  }
+
+  /**
+   * Appends the encoded keys to the given, encoded {@link TemporaryExposureKeyExport} without keys.
+   *
+   * @param exportWithoutKeys the encoded export
+   * @return the encoded export including the keys
+   */
+  public byte[] appendTo(byte[] exportWithoutKeys) {
+    byte[] export = new byte[exportWithoutKeys.length + bytes.length];
+    System.arraycopy(exportWithoutKeys, 0, export, 0, exportWithoutKeys.length);
+    System.arraycopy(bytes, 0, export, exportWithoutKeys.length, bytes.length);
+    return export;
+  }
+
+  /**
+   * The position of a k-way merge within one of the merged runs, including the location of the key data of the encoded
+   * key at that position.
+   */
+  private static final class Cursor implements Comparable<Cursor> {
+
+    private final EncodedTemporaryExposureKeys run;
+    private final int runIndex;
+    private int position;
+    private int keyDataFrom;
+    private int keyDataTo;
+
+    private Cursor(EncodedTemporaryExposureKeys run, int runIndex) {
+      this.run = run;
+      this.runIndex = runIndex;
+      locateKeyData();
+    }
+
+    private boolean advance() {
+      if (++position < run.size()) {
+        locateKeyData();
+        return true;
+      }
+      return false;
+    }
+
+    /**
+     * Locates the key data within the encoded key, which is its first field, if present.
+     */
+    private void locateKeyData() {
+      int offset = run.offsets[position];
+      CodedInputStream input = CodedInputStream.newInstance(run.bytes, offset, run.offsets[position + 1] - offset);
+      try {
+        input.readTag();
+        input.readRawVarint32();
+        int tag = input.readTag();
+        int length = 0;
+        if (WireFormat.getTagFieldNumber(tag) == KEY_DATA_FIELD_NUMBER
+            && WireFormat.getTagWireType(tag) == WireFormat.WIRETYPE_LENGTH_DELIMITED) {
+          length = input.readRawVarint32();
+        }
+        keyDataFrom = offset + input.getTotalBytesRead();
+        keyDataTo = keyDataFrom + length;
+      } catch (IOException e) {
+        throw new UncheckedIOException("Failed to read encoded temporary exposure key.", e);
+      }
+    }
+
+    @Override
+    public int compareTo(Cursor other) {
+      int result = Arrays.compareUnsigned(run.bytes, keyDataFrom, keyDataTo,
+          other.run.bytes, other.keyDataFrom, other.keyDataTo);
+      return result != 0 ? result : Integer.compare(runIndex, other.runIndex);
+    }
+  }
+}
@@ -8,12 +8,10 @@ import app.coronawarn.server.common.protocols.external.exposurenotification.Temp
 import app.coronawarn.server.common.shared.collection.ImmutableStack;
 import app.coronawarn.server.services.distribution.assembly.structure.file.FileOnDiskWithChecksum;
 import app.coronawarn.server.services.distribution.config.DistributionServiceConfig;
-import com.google.protobuf.ByteString;
 import java.nio.charset.StandardCharsets;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Set;
-import java.util.stream.Collectors;
 
 /**
  * A {@link app.coronawarn.server.services.distribution.assembly.structure.file.File} containing a {@link
@@ -21,24 +19,20 @@ import java.util.stream.Collectors;
  */
 public class TemporaryExposureKeyExportFile extends FileOnDiskWithChecksum {
 
-  private final List<TemporaryExposureKey> temporaryExposureKeys;
+  private final EncodedTemporaryExposureKeys temporaryExposureKeys;
   private final String region;
   private final long startTimestamp;
   private final long endTimestamp;
   private final DistributionServiceConfig distributionServiceConfig;
 
-  private TemporaryExposureKeyExportFile(List<TemporaryExposureKey> temporaryExposureKeys, String region,
+  private TemporaryExposureKeyExportFile(EncodedTemporaryExposureKeys temporaryExposureKeys, String region,
       long startTimestamp, long endTimestamp, DistributionServiceConfig distributionServiceConfig) {
     super(distributionServiceConfig.getTekExport().getFileName(), new byte[0]);
     this.region = region;
     this.startTimestamp = startTimestamp;
     this.endTimestamp = endTimestamp;
     this.distributionServiceConfig = distributionServiceConfig;
-
-    this.temporaryExposureKeys = temporaryExposureKeys
-        .stream()
-        .sorted(new TemporaryExposureKeyComparator())
-        .collect(Collectors.toList());
+    this.temporaryExposureKeys = temporaryExposureKeys;
   }
 
   /**
@@ -57,6 +51,27 @@ public class TemporaryExposureKeyExportFile extends FileOnDiskWithChecksum {
   public static TemporaryExposureKeyExportFile fromTemporaryExposureKeys(
       List<TemporaryExposureKey> temporaryExposureKeys, String region, long startTimestamp, long endTimestamp,
       DistributionServiceConfig distributionServiceConfig) {
+    return new TemporaryExposureKeyExportFile(EncodedTemporaryExposureKeys.of(temporaryExposureKeys), region,
+        startTimestamp, endTimestamp, distributionServiceConfig);
+  }
+
+  /**
+   * Constructs a {@link TemporaryExposureKeyExportFile} from already sorted and encoded {@link TemporaryExposureKey
+   * TemporaryExposureKeys}, e.g. from the merged keys of several hours.
+   *
+   * @param temporaryExposureKeys The {@link EncodedTemporaryExposureKeys} to bundle into the {@link
+   *                              TemporaryExposureKeyExport}.
+   * @param region                The region that the {@link TemporaryExposureKey TemporaryExposureKeys} are from.
+   * @param startTimestamp        The start of the time window covered by the {@link TemporaryExposureKeyExport}, in UTC
+   *                              seconds since epoch.
+   * @param endTimestamp          The end of the time window covered by the {@link TemporaryExposureKeyExport}, in UTC *
+   *                              seconds since epoch.
+   * @param distributionServiceConfig The distribution service configuration {@link DistributionServiceConfig}
+   * @return A new {@link TemporaryExposureKeyExportFile}.
+   */
+  public static TemporaryExposureKeyExportFile fromEncodedTemporaryExposureKeys(
+      EncodedTemporaryExposureKeys temporaryExposureKeys, String region, long startTimestamp, long endTimestamp,
+      DistributionServiceConfig distributionServiceConfig) {
     return new TemporaryExposureKeyExportFile(temporaryExposureKeys, region, startTimestamp, endTimestamp,
         distributionServiceConfig);
   }
@@ -76,7 +91,7 @@ public class TemporaryExposureKeyExportFile extends FileOnDiskWithChecksum {
    */
   public static TemporaryExposureKeyExportFile fromDiagnosisKeys(List<DiagnosisKey> diagnosisKeys, String region,
       long startTimestamp, long endTimestamp, DistributionServiceConfig distributionServiceConfig) {
-    return new TemporaryExposureKeyExportFile(getTemporaryExposureKeysFromDiagnosisKeys(diagnosisKeys), region,
+    return new TemporaryExposureKeyExportFile(EncodedTemporaryExposureKeys.fromDiagnosisKeys(diagnosisKeys), region,
         startTimestamp, endTimestamp, distributionServiceConfig);
   }
 
@@ -98,30 +113,20 @@ public class TemporaryExposureKeyExportFile extends FileOnDiskWithChecksum {
     return concatenatedBytes;
   }
 
+  /**
+   * Encodes the export without its keys and appends the already encoded keys, which results in the same bytes as
+   * encoding the export including its keys.
+   */
   private byte[] createTemporaryExposureKeyExportBytes() {
-    return TemporaryExposureKeyExport.newBuilder()
+    return temporaryExposureKeys.appendTo(TemporaryExposureKeyExport.newBuilder()
         .setStartTimestamp(this.startTimestamp)
         .setEndTimestamp(this.endTimestamp)
         .setRegion(this.region)
         .setBatchNum(1)
         .setBatchSize(1)
         .addAllSignatureInfos(Set.of(distributionServiceConfig.getSignature().getSignatureInfo()))
-        .addAllKeys(this.temporaryExposureKeys)
         .build()
-        .toByteArray();
-  }
-
-  private static List<TemporaryExposureKey> getTemporaryExposureKeysFromDiagnosisKeys(
-      List<DiagnosisKey> diagnosisKeys) {
-    return diagnosisKeys.stream().map(diagnosisKey -> TemporaryExposureKey.newBuilder()
-        .setKeyData(ByteString.copyFrom(diagnosisKey.getKeyData()))
-        .setTransmissionRiskLevel(diagnosisKey.getTransmissionRiskLevel())
-        .setRollingStartIntervalNumber(diagnosisKey.getRollingStartIntervalNumber())
-        .setRollingPeriod(diagnosisKey.getRollingPeriod())
-        .setReportType(diagnosisKey.getReportType())
-        .setDaysSinceOnsetOfSymptoms(diagnosisKey.getDaysSinceOnsetOfSymptoms())
-        .build())
-        .collect(Collectors.toList());
+        .toByteArray());
   }
 
   private byte[] getHeaderBytes() {
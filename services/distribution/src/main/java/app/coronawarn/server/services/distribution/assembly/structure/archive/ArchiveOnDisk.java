@@ -5,6 +5,7 @@ package app.coronawarn.server.services.distribution.assembly.structure.archive;
 import static app.coronawarn.server.common.shared.functional.CheckedConsumer.uncheckedConsumer;
 
 import app.coronawarn.server.common.shared.collection.ImmutableStack;
+import app.coronawarn.server.common.shared.util.IoUtils;
 import app.coronawarn.server.services.distribution.assembly.structure.Writable;
 import app.coronawarn.server.services.distribution.assembly.structure.WritableOnDisk;
 import app.coronawarn.server.services.distribution.assembly.structure.directory.Directory;
@@ -12,8 +13,11 @@ import app.coronawarn.server.services.distribution.assembly.structure.directory.
 import app.coronawarn.server.services.distribution.assembly.structure.file.File;
 import app.coronawarn.server.services.distribution.assembly.structure.file.FileOnDisk;
 import app.coronawarn.server.services.distribution.assembly.structure.file.FileOnDiskWithChecksum;
+import java.io.BufferedOutputStream;
 import java.io.ByteArrayOutputStream;
+import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.OutputStream;
 import java.io.UncheckedIOException;
 import java.nio.file.Files;
 import java.util.Set;
@@ -21,11 +25,15 @@ import java.util.zip.ZipEntry;
 import java.util.zip.ZipOutputStream;
 
 /**
- * An {@link Archive} that can be written to disk as a ZIP archive.
+ * An {@link Archive} that can be written to disk as a ZIP archive. The contained writables are only held in memory,
+ * the ZIP archive is encoded once while it is streamed into its file on disk.
  */
 public class ArchiveOnDisk extends FileOnDiskWithChecksum implements Archive<WritableOnDisk> {
 
-  private DirectoryOnDisk tempDirectory;
+  /**
+   * The in-memory directory holding the writables of this archive. It is never written to disk itself.
+   */
+  private final DirectoryOnDisk contents;
 
   /**
    * The checksum-relevant content of this {@link ArchiveOnDisk}.
@@ -33,38 +41,34 @@ public class ArchiveOnDisk extends FileOnDiskWithChecksum implements Archive<Wri
   private byte[] bytesForChecksum;
 
   /**
-   * Constructs an {@link Archive} with an internal, temporary directory to store writables in.
+   * Constructs an {@link Archive} with an internal, in-memory directory to store writables in.
    *
    * @param name name of directory
    */
   public ArchiveOnDisk(String name) {
     super(name, new byte[0]);
-    try {
-      tempDirectory = new DirectoryOnDisk(Files.createTempDirectory("temporary").toFile());
-    } catch (IOException e) {
-      throw new UncheckedIOException("Failed to create temporary directory for zip archive " + this.getFileOnDisk(), e);
-    }
+    contents = new DirectoryOnDisk(name);
   }
 
   @Override
   public void setParent(Directory<WritableOnDisk> parent) {
     super.setParent(parent);
-    tempDirectory.setParent(parent);
+    contents.setParent(parent);
   }
 
   @Override
   public void addWritable(Writable<WritableOnDisk> writable) {
-    this.tempDirectory.addWritable(writable);
+    this.contents.addWritable(writable);
   }
 
   @Override
   public Set<Writable<WritableOnDisk>> getWritables() {
-    return this.tempDirectory.getWritables();
+    return this.contents.getWritables();
   }
 
   @Override
   public void prepare(ImmutableStack<Object> indices) {
-    this.tempDirectory.prepare(indices);
+    this.contents.prepare(indices);
 
     updateBytesForChecksum();
   }
@@ -72,8 +76,40 @@ public class ArchiveOnDisk extends FileOnDiskWithChecksum implements Archive<Wri
   @Override
   public byte[] getBytes() {
     ByteArrayOutputStream byteArrayOutputStream = new ByteArrayOutputStream();
+    try {
+      writeZip(byteArrayOutputStream);
+    } catch (IOException e) {
+      throw new UncheckedIOException("Failed to close zip archive output stream.", e);
+    }
+    return byteArrayOutputStream.toByteArray();
+  }
+
+  /**
+   * Streams the ZIP archive directly into the given file, without encoding it into memory first. A file exceeding
+   * the {@link IoUtils#MAXIMUM_FILE_SIZE maximum file size} is deleted again.
+   */
+  @Override
+  protected void writeContent(java.io.File file) {
+    try (OutputStream outputStream = new BufferedOutputStream(new FileOutputStream(file))) {
+      writeZip(outputStream);
+    } catch (IOException e) {
+      throw new UncheckedIOException("Could not write zip archive " + file, e);
+    }
+
+    try {
+      IoUtils.checkFileSize(file.length(), file);
+    } catch (UncheckedIOException e) {
+      try {
+        Files.deleteIfExists(file.toPath());
+      } catch (IOException deletionFailure) {
+        e.addSuppressed(deletionFailure);
+      }
+      throw e;
+    }
+  }
 
-    try (ZipOutputStream zipOutputStream = new ZipOutputStream(byteArrayOutputStream)) {
+  private void writeZip(OutputStream outputStream) throws IOException {
+    try (ZipOutputStream zipOutputStream = new ZipOutputStream(outputStream)) {
       this.getWritables().stream()
           .filter(writable -> writable instanceof File)
           .map(FileOnDisk.class::cast)
@@ -83,10 +119,7 @@ public class ArchiveOnDisk extends FileOnDiskWithChecksum implements Archive<Wri
             byte[] bytes = file.getBytes();
             zipOutputStream.write(bytes, 0, bytes.length);
           }));
-    } catch (IOException e) {
-      throw new UncheckedIOException("Failed to close zip archive output stream.", e);
     }
-    return byteArrayOutputStream.toByteArray();
   }
 
   @Override
@@ -8,15 +8,16 @@ import app.coronawarn.server.common.shared.collection.ImmutableStack;
 import app.coronawarn.server.services.distribution.assembly.structure.Writable;
 import app.coronawarn.server.services.distribution.assembly.structure.WritableOnDisk;
 import app.coronawarn.server.services.distribution.assembly.structure.file.File;
-import java.util.HashSet;
+import app.coronawarn.server.services.distribution.assembly.structure.util.ParallelAssembly;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * A {@link Directory} that can be written to disk.
  */
 public class DirectoryOnDisk extends WritableOnDisk implements Directory<WritableOnDisk> {
 
-  private final Set<Writable<WritableOnDisk>> writables = new HashSet<>();
+  private final Set<Writable<WritableOnDisk>> writables = ConcurrentHashMap.newKeySet();
 
   /**
    * A root {@link DirectoryOnDisk} representing an already existing directory on disk.
@@ -50,11 +51,12 @@ public class DirectoryOnDisk extends WritableOnDisk implements Directory<Writabl
   }
 
   /**
-   * Delegates the {@link Writable#prepare} call to all contained {@link DirectoryOnDisk#getWritables()} writables}.
+   * Delegates the {@link Writable#prepare} call to all contained {@link DirectoryOnDisk#getWritables()} writables},
+   * which are prepared concurrently during a {@link ParallelAssembly parallel assembly}.
    */
   @Override
   public void prepare(ImmutableStack<Object> indices) {
-    this.getWritables().forEach(writable -> writable.prepare(indices));
+    ParallelAssembly.forEach(this.getWritables(), writable -> writable.prepare(indices));
   }
 
   /**
@@ -72,6 +74,6 @@ public class DirectoryOnDisk extends WritableOnDisk implements Directory<Writabl
   }
 
   private void writeContainedWritables() {
-    this.getWritables().forEach(uncheckedConsumer(Writable::write));
+    ParallelAssembly.forEach(this.getWritables(), uncheckedConsumer(Writable::write));
   }
 }
@@ -5,6 +5,7 @@ import app.coronawarn.server.common.shared.functional.Formatter;
 import app.coronawarn.server.common.shared.functional.IndexFunction;
 import app.coronawarn.server.services.distribution.assembly.structure.Writable;
 import app.coronawarn.server.services.distribution.assembly.structure.WritableOnDisk;
+import app.coronawarn.server.services.distribution.assembly.structure.util.ParallelAssembly;
 import app.coronawarn.server.services.distribution.assembly.structure.util.functional.WritableFunction;
 import java.util.HashSet;
 import java.util.Optional;
@@ -70,7 +71,7 @@ public class IndexDirectoryOnDisk<T> extends DirectoryOnDisk implements IndexDir
   }
 
   private void prepareIndex(ImmutableStack<Object> indices) {
-    this.getIndex(indices).forEach(currentIndex -> {
+    ParallelAssembly.forEach(this.getIndex(indices), currentIndex -> {
       ImmutableStack<Object> newIndices = indices.push(currentIndex);
       DirectoryOnDisk subDirectory = makeSubDirectory(currentIndex);
       prepareMetaWritables(newIndices, subDirectory);
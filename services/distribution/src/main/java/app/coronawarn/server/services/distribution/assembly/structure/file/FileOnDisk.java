@@ -27,7 +27,16 @@ public class FileOnDisk extends WritableOnDisk implements File<WritableOnDisk> {
   @Override
   public void write() {
     IoUtils.makeNewFile(getRoot(), this.getName());
-    IoUtils.writeBytesToFile(this.getBytes(), this.getFileOnDisk());
+    this.writeContent(this.getFileOnDisk());
+  }
+
+  /**
+   * Writes the content of this {@link File} into the given, already existing {@link java.io.File}.
+   *
+   * @param file the file on disk
+   */
+  protected void writeContent(java.io.File file) {
+    IoUtils.writeBytesToFile(this.getBytes(), file);
   }
 
   protected java.io.File getRoot() {
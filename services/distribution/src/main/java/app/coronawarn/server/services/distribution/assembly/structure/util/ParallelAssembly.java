@@ -0,0 +1,69 @@
+package app.coronawarn.server.services.distribution.assembly.structure.util;
+
+import app.coronawarn.server.services.distribution.assembly.structure.Writable;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+/**
+ * Fork-join support for the {@link Writable} tree. Sibling subtrees of the tree are independent of each other, so
+ * they can be prepared and written concurrently. This only happens when the traversal is started through
+ * {@link #invoke(int, Runnable)}, otherwise {@link #forEach(Collection, Consumer)} processes the elements sequentially
+ * in the calling thread.
+ */
+public final class ParallelAssembly {
+
+  private ParallelAssembly() {
+  }
+
+  /**
+   * Runs the given assembly step (e.g. the {@link Writable#prepare} call on the root directory) in a new fork-join pool
+   * with the given parallelism and waits for its completion.
+   *
+   * @param parallelism  the maximum number of threads used for the assembly
+   * @param assemblyStep the assembly step
+   * @throws RuntimeException any unchecked exception thrown by the assembly step
+   */
+  public static void invoke(int parallelism, Runnable assemblyStep) {
+    AssemblyPool pool = new AssemblyPool(parallelism);
+    try {
+      pool.invoke(ForkJoinTask.adapt(assemblyStep));
+    } finally {
+      pool.shutdown();
+    }
+  }
+
+  /**
+   * Performs the given action for each element. Within an assembly step started through {@link #invoke(int,
+   * Runnable)}, the action is forked for each element and this method returns once all of them have completed.
+   *
+   * @param elements the elements, e.g. the {@link Writable writables} of a directory
+   * @param action   the action to perform for each element
+   * @param <T>      the type of the elements
+   * @throws RuntimeException any unchecked exception thrown by one of the actions
+   */
+  public static <T> void forEach(Collection<T> elements, Consumer<? super T> action) {
+    List<T> snapshot = new ArrayList<>(elements);
+    if (snapshot.size() < 2 || !(ForkJoinTask.getPool() instanceof AssemblyPool)) {
+      snapshot.forEach(action);
+      return;
+    }
+    ForkJoinTask.invokeAll(snapshot.stream()
+        .map(element -> ForkJoinTask.adapt(() -> action.accept(element)))
+        .collect(Collectors.toList()));
+  }
+
+  /**
+   * Marks the fork-join pools used for the assembly.
+   */
+  private static class AssemblyPool extends ForkJoinPool {
+
+    AssemblyPool(int parallelism) {
+      super(parallelism);
+    }
+  }
+}
@@ -1,7 +1,6 @@
 package app.coronawarn.server.services.distribution.assembly.tracewarnings;
 
 
-import app.coronawarn.server.common.persistence.domain.CheckInProtectedReports;
 import app.coronawarn.server.common.persistence.domain.TraceTimeIntervalWarning;
 import app.coronawarn.server.services.distribution.config.DistributionServiceConfig;
 import java.util.Collection;
@@ -45,11 +44,12 @@ public class DemoTraceTimeIntervalWarningsPackageBundler extends TraceTimeInterv
   }
 
   @Override
-  protected void createCheckInProtectedReportsMap(Collection<CheckInProtectedReports> checkInProtectedReports) {
-    distributableCheckInProtectedReports.putAll(
-        checkInProtectedReports.stream()
-            .collect(Collectors
-                .groupingBy(checkInProtectedReport ->
-                    (int) checkInProtectedReport.getSubmissionTimestamp(), Collectors.toList())));
+  protected long getHourBeforeDistributionWindow() {
+    return Long.MIN_VALUE;
+  }
+
+  @Override
+  protected long getHourAfterDistributionWindow() {
+    return Long.MAX_VALUE;
   }
 }
@@ -2,7 +2,6 @@ package app.coronawarn.server.services.distribution.assembly.tracewarnings;
 
 import static app.coronawarn.server.common.persistence.service.utils.checkins.CheckinsDateSpecification.HOUR_SINCE_EPOCH_DERIVATION;
 
-import app.coronawarn.server.common.persistence.domain.CheckInProtectedReports;
 import app.coronawarn.server.common.persistence.domain.TraceTimeIntervalWarning;
 import app.coronawarn.server.services.distribution.config.DistributionServiceConfig;
 import java.time.LocalDateTime;
@@ -46,20 +45,6 @@ public class ProdTraceTimeIntervalWarningsPackageBundler extends TraceTimeInterv
     createTraceWarningsDistributionMap(traceTimeIntervalWarnings);
   }
 
-  /**
-   * Sets the {@link CheckInProtectedReports}s to package.
-   *
-   * @param checkInProtectedReports The {@link CheckInProtectedReports traceTimeIntervalWarnings} contained by this
-   *                                {@link ProdTraceTimeIntervalWarningsPackageBundler}.
-   * @param distributionTime        The {@link LocalDateTime} at which the distribution runs.
-   */
-  public void setCheckInProtectedReports(
-      Collection<CheckInProtectedReports> checkInProtectedReports,
-      LocalDateTime distributionTime) {
-    this.distributionTime = distributionTime;
-    createCheckInProtectedReportsMap(checkInProtectedReports);
-  }
-
   /**
    * Create distribution map.
    *
@@ -75,12 +60,14 @@ public class ProdTraceTimeIntervalWarningsPackageBundler extends TraceTimeInterv
             .collect(Collectors.groupingBy(warning -> (int) warning.getSubmissionTimestamp(), Collectors.toList())));
   }
 
-  protected void createCheckInProtectedReportsMap(
-      Collection<CheckInProtectedReports> checkInProtectedReports) {
-    distributableCheckInProtectedReports.putAll(
-        checkInProtectedReports.stream()
-            .filter(this::filterByDistributionTime)
-            .collect(Collectors.groupingBy(checkIn -> (int) checkIn.getSubmissionTimestamp(), Collectors.toList())));
+  @Override
+  protected long getHourBeforeDistributionWindow() {
+    return HOUR_SINCE_EPOCH_DERIVATION.apply(distributionTime.minusDays(daysInThePast).toEpochSecond(ZoneOffset.UTC));
+  }
+
+  @Override
+  protected long getHourAfterDistributionWindow() {
+    return HOUR_SINCE_EPOCH_DERIVATION.apply(distributionTime.toEpochSecond(ZoneOffset.UTC));
   }
 
   /**
@@ -97,13 +84,4 @@ public class ProdTraceTimeIntervalWarningsPackageBundler extends TraceTimeInterv
     return warningSubmissionTime > HOUR_SINCE_EPOCH_DERIVATION.apply(oldestDateForCheckins)
         && warningSubmissionTime < HOUR_SINCE_EPOCH_DERIVATION.apply(latestDateForCheckins);
   }
-
-  private boolean filterByDistributionTime(CheckInProtectedReports checkInProtectedReports) {
-    long oldestDateForCheckInProtectedReports =
-        distributionTime.minusDays(daysInThePast).toEpochSecond(ZoneOffset.UTC);
-    long latestDateForCheckInProtectedReports = distributionTime.toEpochSecond(ZoneOffset.UTC);
-    long checkInSubmissionTime = checkInProtectedReports.getSubmissionTimestamp();
-    return checkInSubmissionTime > HOUR_SINCE_EPOCH_DERIVATION.apply(oldestDateForCheckInProtectedReports)
-        && checkInSubmissionTime < HOUR_SINCE_EPOCH_DERIVATION.apply(latestDateForCheckInProtectedReports);
-  }
 }
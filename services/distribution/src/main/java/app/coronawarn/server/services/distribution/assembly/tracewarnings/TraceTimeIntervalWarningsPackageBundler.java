@@ -5,6 +5,7 @@ import app.coronawarn.server.common.persistence.domain.TraceTimeIntervalWarning;
 import app.coronawarn.server.common.persistence.service.utils.checkins.CheckinsDateSpecification;
 import app.coronawarn.server.services.distribution.config.DistributionServiceConfig;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
@@ -12,6 +13,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 import java.util.stream.IntStream;
 import org.slf4j.Logger;
@@ -87,17 +89,22 @@ public abstract class TraceTimeIntervalWarningsPackageBundler {
   }
 
   /**
-   * Sets the {@link CheckInProtectedReports}s to package.
+   * Sets the {@link CheckInProtectedReports}s to package. The given source is called once with the bounds of the
+   * distribution window and is expected to pass all {@link CheckInProtectedReports} of that window one by one to the
+   * consumer it is called with. Each report is assigned directly to the hour of its
+   * submission, so no intermediate collection of all reports is needed.
    *
-   * @param checkInProtectedReports The {@link CheckInProtectedReports traceTimeIntervalWarnings} contained by this
-   *                                {@link TraceTimeIntervalWarningsPackageBundler}.
-   * @param distributionTime        The {@link LocalDateTime} at which the distribution runs.
+   * @param checkInProtectedReportsSource The source of the {@link CheckInProtectedReports} contained by this
+   *                                      {@link TraceTimeIntervalWarningsPackageBundler}.
+   * @param distributionTime              The {@link LocalDateTime} at which the distribution runs.
    */
-  public void setCheckInProtectedReports(
-      Collection<CheckInProtectedReports> checkInProtectedReports,
+  public void setCheckInProtectedReports(CheckInProtectedReportsSource checkInProtectedReportsSource,
       LocalDateTime distributionTime) {
     this.distributionTime = distributionTime;
-    createCheckInProtectedReportsMap(checkInProtectedReports);
+    checkInProtectedReportsSource.stream(getHourBeforeDistributionWindow(), getHourAfterDistributionWindow(),
+        checkInProtectedReport -> distributableCheckInProtectedReports
+            .computeIfAbsent((int) checkInProtectedReport.getSubmissionTimestamp(), hour -> new ArrayList<>())
+            .add(checkInProtectedReport));
   }
 
   /**
@@ -226,6 +233,37 @@ public abstract class TraceTimeIntervalWarningsPackageBundler {
   protected abstract void createTraceWarningsDistributionMap(
       Collection<TraceTimeIntervalWarning> traceTimeIntervalWarnings);
 
-  protected abstract void createCheckInProtectedReportsMap(
-      Collection<CheckInProtectedReports> traceTimeIntervalWarnings);
+  /**
+   * Returns the last hour since epoch before the distribution window. Reports submitted at or before this hour are not
+   * distributed.
+   *
+   * @return the exclusive lower bound of the distribution window.
+   */
+  protected abstract long getHourBeforeDistributionWindow();
+
+  /**
+   * Returns the first hour since epoch after the distribution window. Reports submitted at or after this hour are not
+   * distributed.
+   *
+   * @return the exclusive upper bound of the distribution window.
+   */
+  protected abstract long getHourAfterDistributionWindow();
+
+  /**
+   * Source of {@link CheckInProtectedReports}, e.g. a database query, which passes the reports submitted strictly
+   * between two hours since epoch to a consumer.
+   */
+  @FunctionalInterface
+  public interface CheckInProtectedReportsSource {
+
+    /**
+     * Passes all {@link CheckInProtectedReports} submitted strictly between the given hours since epoch to the given
+     * consumer.
+     *
+     * @param afterHour  the hour since epoch after which reports are passed (exclusive).
+     * @param beforeHour the hour since epoch before which reports are passed (exclusive).
+     * @param consumer   receives each matching {@link CheckInProtectedReports}.
+     */
+    void stream(long afterHour, long beforeHour, Consumer<CheckInProtectedReports> consumer);
+  }
 }
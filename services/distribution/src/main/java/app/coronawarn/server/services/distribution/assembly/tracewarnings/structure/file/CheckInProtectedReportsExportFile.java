@@ -4,6 +4,7 @@ import app.coronawarn.server.common.persistence.domain.CheckInProtectedReports;
 import app.coronawarn.server.common.protocols.internal.pt.TraceWarningPackage;
 import app.coronawarn.server.services.distribution.config.DistributionServiceConfig;
 import com.google.protobuf.ByteString;
+import com.google.protobuf.UnsafeByteOperations;
 import java.util.Comparator;
 import java.util.List;
 import java.util.stream.Collectors;
@@ -41,6 +42,10 @@ public class CheckInProtectedReportsExportFile extends AbstractCheckInExportFile
         intervalNumber, distributionServiceConfig);
   }
 
+  /**
+   * Converts the given reports to their proto structures. The byte arrays of the reports are wrapped instead of copied,
+   * as they are never modified after being read from the database, so the encrypted records are held only once.
+   */
   private static List<app.coronawarn.server.common.protocols.internal.pt.CheckInProtectedReport>
       getCheckInProtectedReportFromCheckInProtectedReports(
       List<CheckInProtectedReports> traceTimeIntervalWarnings) {
@@ -51,13 +56,14 @@ public class CheckInProtectedReportsExportFile extends AbstractCheckInExportFile
             checkInReports -> app.coronawarn.server.common.protocols.internal.pt.CheckInProtectedReport
                 .newBuilder()
                 .setMac(getMacValue(checkInReports))
-                .setLocationIdHash(ByteString.copyFrom(checkInReports.getTraceLocationIdHash()))
-                .setEncryptedCheckInRecord(ByteString.copyFrom(checkInReports.getEncryptedCheckInRecord()))
-                .setIv(ByteString.copyFrom(checkInReports.getInitializationVector())).build())
+                .setLocationIdHash(UnsafeByteOperations.unsafeWrap(checkInReports.getTraceLocationIdHash()))
+                .setEncryptedCheckInRecord(UnsafeByteOperations.unsafeWrap(checkInReports.getEncryptedCheckInRecord()))
+                .setIv(UnsafeByteOperations.unsafeWrap(checkInReports.getInitializationVector())).build())
         .collect(Collectors.toList());
   }
 
   private static ByteString getMacValue(CheckInProtectedReports checkInReports) {
-    return checkInReports.getMac() == null ? ByteString.EMPTY : ByteString.copyFrom(checkInReports.getMac());
+    return checkInReports.getMac() == null ? ByteString.EMPTY
+        : UnsafeByteOperations.unsafeWrap(checkInReports.getMac());
   }
 }
@@ -31,12 +31,22 @@ public class EnfParameterAdapter {
    * @return updated collection of DiagnosisKey
    */
   public Collection<DiagnosisKey> adaptKeys(Collection<DiagnosisKey> diagnosisKeys) {
-    diagnosisKeys.forEach(k -> {
-      k.setReportType(trlEncoding.getReportTypeForTransmissionRiskLevel(k.getTransmissionRiskLevel()));
-      k.setDaysSinceOnsetOfSymptoms(
-          trlEncoding.getDaysSinceSymptomsForTransmissionRiskLevel(k.getTransmissionRiskLevel()));
-    });
+    diagnosisKeys.forEach(this::adaptKey);
 
     return diagnosisKeys;
   }
+
+  /**
+   * Applies the ENF related content transformations to the given key.
+   *
+   * @param diagnosisKey DiagnosisKey to adapt
+   * @return the same, updated DiagnosisKey
+   */
+  public DiagnosisKey adaptKey(DiagnosisKey diagnosisKey) {
+    diagnosisKey.setReportType(
+        trlEncoding.getReportTypeForTransmissionRiskLevel(diagnosisKey.getTransmissionRiskLevel()));
+    diagnosisKey.setDaysSinceOnsetOfSymptoms(
+        trlEncoding.getDaysSinceSymptomsForTransmissionRiskLevel(diagnosisKey.getTransmissionRiskLevel()));
+    return diagnosisKey;
+  }
 }
@@ -60,6 +60,10 @@ public class DistributionServiceConfig {
   private String outputFileNameV2;
   private Boolean includeIncompleteDays;
   private Boolean includeIncompleteHours;
+  private Boolean incrementalAssembly;
+  @Min(1)
+  @Max(8760)
+  private Integer fingerprintExpiryHours;
   private String euPackageName;
   private Boolean applyPoliciesForAllCountries;
   private String cardIdSequence;
@@ -171,6 +175,22 @@ public class DistributionServiceConfig {
     this.includeIncompleteHours = includeIncompleteHours;
   }
 
+  public Boolean getIncrementalAssembly() {
+    return incrementalAssembly;
+  }
+
+  public void setIncrementalAssembly(Boolean incrementalAssembly) {
+    this.incrementalAssembly = incrementalAssembly;
+  }
+
+  public Integer getFingerprintExpiryHours() {
+    return fingerprintExpiryHours;
+  }
+
+  public void setFingerprintExpiryHours(Integer fingerprintExpiryHours) {
+    this.fingerprintExpiryHours = fingerprintExpiryHours;
+  }
+
   public String getEuPackageName() {
     return euPackageName;
   }
@@ -953,6 +973,8 @@ public class DistributionServiceConfig {
     private Boolean forceUpdateKeyfiles;
     @Max(Integer.MAX_VALUE)
     private Integer hourFileRetentionDays;
+    @Min(0)
+    private Integer manifestReconciliationHours;
 
     public String getAccessKey() {
       return accessKey;
@@ -1033,6 +1055,14 @@ public class DistributionServiceConfig {
     public void setHourFileRetentionDays(Integer hourFileRetentionDays) {
       this.hourFileRetentionDays = hourFileRetentionDays;
     }
+
+    public Integer getManifestReconciliationHours() {
+      return manifestReconciliationHours;
+    }
+
+    public void setManifestReconciliationHours(Integer manifestReconciliationHours) {
+      this.manifestReconciliationHours = manifestReconciliationHours;
+    }
   }
 
   public static class Client {
@@ -1049,6 +1079,10 @@ public class DistributionServiceConfig {
 
     private int maxRetryAttempts;
 
+    @Min(1)
+    @Max(32)
+    private int maxConcurrentRequests = 1;
+
     public String getPublicKey() {
       return publicKey;
     }
@@ -1097,6 +1131,14 @@ public class DistributionServiceConfig {
       this.maxRetryAttempts = maxRetryAttempts;
     }
 
+    public int getMaxConcurrentRequests() {
+      return maxConcurrentRequests;
+    }
+
+    public void setMaxConcurrentRequests(int maxConcurrentRequests) {
+      this.maxConcurrentRequests = maxConcurrentRequests;
+    }
+
     public static class Ssl {
 
       private File trustStore;
@@ -1,9 +1,9 @@
 package app.coronawarn.server.services.distribution.dgc;
 
 import static app.coronawarn.server.common.shared.util.SerializationUtils.cborEncode;
-import static app.coronawarn.server.common.shared.util.SerializationUtils.validateJsonSchema;
 import static java.util.function.Predicate.not;
 
+import app.coronawarn.server.common.shared.util.JsonSchemaValidator;
 import app.coronawarn.server.services.distribution.dgc.BusinessRule.RuleType;
 import app.coronawarn.server.services.distribution.dgc.client.DigitalCovidCertificateClient;
 import app.coronawarn.server.services.distribution.dgc.exception.DigitalCovidCertificateException;
@@ -14,9 +14,11 @@ import com.fasterxml.jackson.core.JsonProcessingException;
 import java.io.IOException;
 import java.io.InputStream;
 import java.util.ArrayList;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
 import java.util.stream.Collectors;
-import org.everit.json.schema.ValidationException;
 import org.springframework.core.io.ResourceLoader;
 import org.springframework.stereotype.Component;
 
@@ -28,6 +30,8 @@ public class DigitalGreenCertificateToCborMapping {
 
   private final ResourceLoader resourceLoader;
 
+  private JsonSchemaValidator validationRuleSchema;
+
   public DigitalGreenCertificateToCborMapping(DigitalCovidCertificateClient digitalCovidCertificateClient,
       ResourceLoader resourceLoader) {
     this.digitalCovidCertificateClient = digitalCovidCertificateClient;
@@ -64,27 +68,46 @@ public class DigitalGreenCertificateToCborMapping {
     List<BusinessRuleItem> businessRulesItems = businessRuleItemSupplier.get();
 
     List<BusinessRule> businessRules = new ArrayList<>();
+    Map<BusinessRule, BusinessRuleItem> businessRuleItems = new IdentityHashMap<>();
     for (BusinessRuleItem businessRuleItem : businessRulesItems) {
       BusinessRule businessRule =
           businessRuleSupplier.get(businessRuleItem.getCountry(), businessRuleItem.getHash());
 
       if (businessRule.getType().equalsIgnoreCase(ruleType.getType())) {
-        try (final InputStream in = resourceLoader.getResource(DCC_VALIDATION_RULE_JSON_CLASSPATH).getInputStream()) {
-          validateJsonSchema(businessRule, in);
-          businessRules.add(businessRule);
-        } catch (JsonProcessingException | ValidationException e) {
-          throw new DigitalCovidCertificateException(
-              "Rule for country '" + businessRuleItem.getCountry() + "' having hash '" + businessRuleItem.getHash()
-                  + "' is not valid", e);
-        } catch (IOException e) {
-          throw new DigitalCovidCertificateException(
-              "Validation rules schema found at: " + DCC_VALIDATION_RULE_JSON_CLASSPATH + "could not be found", e);
-        }
+        businessRules.add(businessRule);
+        businessRuleItems.put(businessRule, businessRuleItem);
       }
     }
+    if (businessRules.isEmpty()) {
+      return businessRules;
+    }
+
+    Map<BusinessRule, Exception> invalidBusinessRules = getValidationRuleSchema().validateAll(businessRules);
+    if (!invalidBusinessRules.isEmpty()) {
+      Entry<BusinessRule, Exception> invalidBusinessRule = invalidBusinessRules.entrySet().iterator().next();
+      BusinessRuleItem businessRuleItem = businessRuleItems.get(invalidBusinessRule.getKey());
+      throw new DigitalCovidCertificateException(
+          "Rule for country '" + businessRuleItem.getCountry() + "' having hash '" + businessRuleItem.getHash()
+              + "' is not valid", invalidBusinessRule.getValue());
+    }
     return businessRules;
   }
 
+  /**
+   * Loads and compiles the validation rules schema on first use, so that it is not parsed again for every rule.
+   */
+  private synchronized JsonSchemaValidator getValidationRuleSchema() throws DigitalCovidCertificateException {
+    if (validationRuleSchema == null) {
+      try (final InputStream in = resourceLoader.getResource(DCC_VALIDATION_RULE_JSON_CLASSPATH).getInputStream()) {
+        validationRuleSchema = JsonSchemaValidator.load(in);
+      } catch (IOException e) {
+        throw new DigitalCovidCertificateException(
+            "Validation rules schema found at: " + DCC_VALIDATION_RULE_JSON_CLASSPATH + "could not be found", e);
+      }
+    }
+    return validationRuleSchema;
+  }
+
   /**
    * CBOR encoding of {@code constructCountryList}.
    */
@@ -0,0 +1,149 @@
+package app.coronawarn.server.services.distribution.dgc.client;
+
+import static app.coronawarn.server.common.shared.util.SerializationUtils.deserializeJson;
+import static app.coronawarn.server.common.shared.util.SerializationUtils.serializeJson;
+
+import app.coronawarn.server.common.persistence.service.DccContentService;
+import app.coronawarn.server.services.distribution.dgc.exception.ThirdPartyServiceException;
+import java.io.IOException;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.Collectors;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Content-addressed cache for the business rules and value sets of the DCC server, which never change for a given
+ * hash. Content is looked up in memory first, then in the database, and is only fetched from the DCC server if it is
+ * missing in both. Fetched content is stored in the database, so that later distribution runs do not have to download
+ * it again.
+ */
+class DccContentCache {
+
+  private static final Logger logger = LoggerFactory.getLogger(DccContentCache.class);
+
+  private final DccContentService dccContentService;
+  private final int maxConcurrentRequests;
+  private final Map<String, Object> contents = new ConcurrentHashMap<>();
+
+  DccContentCache(DccContentService dccContentService, int maxConcurrentRequests) {
+    this.dccContentService = dccContentService;
+    this.maxConcurrentRequests = maxConcurrentRequests;
+  }
+
+  /**
+   * Returns the content of the given type and hash, fetching it from the DCC server only if it is not cached.
+   *
+   * @param type         the type of the content
+   * @param hash         the hash of the content
+   * @param contentClass the class of the content
+   * @param fetcher      fetches the content from the DCC server
+   * @return the content
+   * @throws E if the content is not cached and could not be fetched
+   */
+  <T, E extends ThirdPartyServiceException> T get(String type, String hash, Class<T> contentClass,
+      Fetcher<T, E> fetcher) throws E {
+    if (hash == null) {
+      return fetcher.fetch();
+    }
+    Object content = contents.get(key(type, hash));
+    if (content == null) {
+      load(type, List.of(hash), contentClass);
+      content = contents.get(key(type, hash));
+    }
+    if (content == null) {
+      T fetchedContent = fetcher.fetch();
+      put(type, hash, fetchedContent);
+      return fetchedContent;
+    }
+    return contentClass.cast(content);
+  }
+
+  /**
+   * Makes sure that the content of the given type is cached for all given hashes. Missing content is loaded from the
+   * database with a single query, and what is still missing afterwards is fetched from the DCC server concurrently, if
+   * more than one concurrent request is allowed. Content which cannot be prefetched is fetched (and its failure
+   * reported) by the subsequent {@link #get} call.
+   *
+   * @param type         the type of the content
+   * @param contentClass the class of the content
+   * @param fetchers     fetchers for the content, mapped by hash
+   */
+  <T> void prefetch(String type, Class<T> contentClass, Map<String, Fetcher<T, ?>> fetchers) {
+    List<String> missingHashes = missingHashes(type, fetchers.keySet());
+    if (missingHashes.isEmpty()) {
+      return;
+    }
+    load(type, missingHashes, contentClass);
+    missingHashes = missingHashes(type, missingHashes);
+    if (missingHashes.isEmpty() || maxConcurrentRequests <= 1) {
+      return;
+    }
+    List<Callable<Void>> fetches = missingHashes.stream()
+        .map(hash -> (Callable<Void>) () -> {
+          put(type, hash, fetchers.get(hash).fetch());
+          return null;
+        })
+        .collect(Collectors.toList());
+    ExecutorService executor = Executors.newFixedThreadPool(Math.min(maxConcurrentRequests, fetches.size()));
+    try {
+      executor.invokeAll(fetches);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    } finally {
+      executor.shutdown();
+    }
+  }
+
+  private List<String> missingHashes(String type, Collection<String> hashes) {
+    return hashes.stream()
+        .filter(hash -> hash != null && !contents.containsKey(key(type, hash)))
+        .distinct()
+        .collect(Collectors.toList());
+  }
+
+  private <T> void load(String type, List<String> hashes, Class<T> contentClass) {
+    Map<String, byte[]> storedContents;
+    try {
+      storedContents = dccContentService.getContents(type, hashes);
+    } catch (RuntimeException e) {
+      logger.warn("Cached DCC content of type {} could not be loaded", type, e);
+      return;
+    }
+    for (Entry<String, byte[]> storedContent : storedContents.entrySet()) {
+      try {
+        contents.put(key(type, storedContent.getKey()), deserializeJson(storedContent.getValue(), contentClass));
+      } catch (IOException e) {
+        logger.warn("Cached DCC content of type {} with hash {} could not be read", type, storedContent.getKey(), e);
+      }
+    }
+  }
+
+  private void put(String type, String hash, Object content) {
+    contents.put(key(type, hash), content);
+    try {
+      dccContentService.store(type, hash, serializeJson(content));
+    } catch (IOException | RuntimeException e) {
+      logger.warn("DCC content of type {} with hash {} could not be cached", type, hash, e);
+    }
+  }
+
+  private static String key(String type, String hash) {
+    return type + '/' + hash;
+  }
+
+  /**
+   * Fetches content from the DCC server.
+   */
+  @FunctionalInterface
+  interface Fetcher<T, E extends ThirdPartyServiceException> {
+
+    T fetch() throws E;
+  }
+}
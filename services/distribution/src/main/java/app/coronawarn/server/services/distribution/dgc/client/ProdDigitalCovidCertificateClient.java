@@ -3,6 +3,8 @@ package app.coronawarn.server.services.distribution.dgc.client;
 import static app.coronawarn.server.common.shared.util.SerializationUtils.stringifyObject;
 import static java.util.function.Predicate.not;
 
+import app.coronawarn.server.common.persistence.service.DccContentService;
+import app.coronawarn.server.services.distribution.config.DistributionServiceConfig;
 import app.coronawarn.server.services.distribution.dgc.BusinessRule;
 import app.coronawarn.server.services.distribution.dgc.BusinessRuleItem;
 import app.coronawarn.server.services.distribution.dgc.ValueSet;
@@ -12,6 +14,7 @@ import app.coronawarn.server.services.distribution.dgc.exception.FetchValueSetsE
 import app.coronawarn.server.services.distribution.dgc.exception.ThirdPartyServiceException;
 import java.util.List;
 import java.util.function.BiFunction;
+import java.util.function.Function;
 import java.util.function.Supplier;
 import java.util.stream.Collectors;
 import org.slf4j.Logger;
@@ -34,10 +37,24 @@ public class ProdDigitalCovidCertificateClient implements DigitalCovidCertificat
 
   public static final Marker AUDIT = MarkerFactory.getMarker("AUDIT");
 
+  static final String COUNTRY_RULE = "country-rule";
+  static final String BOOSTER_NOTIFICATION_RULE = "bn-rule";
+  static final String COMMON_COVID_LOGIC_RULE = "ccl-rule";
+  static final String VALUE_SET = "value-set";
+
   private final DigitalCovidCertificateFeignClient digitalCovidCertificateClient;
 
-  public ProdDigitalCovidCertificateClient(DigitalCovidCertificateFeignClient digitalCovidCertificateFeignClient) {
+  private final DccContentCache dccContentCache;
+
+  /**
+   * Creates a new {@link ProdDigitalCovidCertificateClient}. Business rules and value sets are cached by their hash in
+   * the given {@link DccContentService}, so that only new ones are fetched from the DCC server.
+   */
+  public ProdDigitalCovidCertificateClient(DigitalCovidCertificateFeignClient digitalCovidCertificateFeignClient,
+      DccContentService dccContentService, DistributionServiceConfig distributionServiceConfig) {
     this.digitalCovidCertificateClient = digitalCovidCertificateFeignClient;
+    this.dccContentCache = new DccContentCache(dccContentService,
+        distributionServiceConfig.getDigitalGreenCertificate().getClient().getMaxConcurrentRequests());
   }
 
   @Override
@@ -62,13 +79,22 @@ public class ProdDigitalCovidCertificateClient implements DigitalCovidCertificat
 
   @Override
   public List<ValueSetMetadata> getValueSets() throws FetchValueSetsException {
-    return getResponseAndTreatExceptions(digitalCovidCertificateClient::getValueSets,
+    List<ValueSetMetadata> valueSets = getResponseAndTreatExceptions(digitalCovidCertificateClient::getValueSets,
         "value sets",
         FetchValueSetsException::new);
+    dccContentCache.prefetch(VALUE_SET, ValueSet.class, valueSets.stream()
+        .filter(valueSet -> valueSet.getHash() != null)
+        .collect(Collectors.toMap(ValueSetMetadata::getHash, valueSet -> () -> fetchValueSet(valueSet.getHash()),
+            (fetcher, duplicate) -> fetcher)));
+    return valueSets;
   }
 
   @Override
   public ValueSet getValueSet(String hash) throws FetchValueSetsException {
+    return dccContentCache.get(VALUE_SET, hash, ValueSet.class, () -> fetchValueSet(hash));
+  }
+
+  private ValueSet fetchValueSet(String hash) throws FetchValueSetsException {
     return getResponseAndTreatExceptions(
         () -> digitalCovidCertificateClient.getValueSet(hash),
         "value set",
@@ -77,49 +103,78 @@ public class ProdDigitalCovidCertificateClient implements DigitalCovidCertificat
 
   @Override
   public List<BusinessRuleItem> getRules() throws FetchBusinessRulesException {
-    return getResponseAndTreatExceptions(digitalCovidCertificateClient::getRules,
+    List<BusinessRuleItem> rules = getResponseAndTreatExceptions(digitalCovidCertificateClient::getRules,
         "business rules",
         FetchBusinessRulesException::new);
+    prefetchRules(COUNTRY_RULE, rules, rule -> () -> fetchCountryRule(rule.getCountry(), rule.getHash()));
+    return rules;
   }
 
   @Override
   public List<BusinessRuleItem> getBoosterNotificationRules() throws FetchBusinessRulesException {
-    return getResponseAndTreatExceptions(digitalCovidCertificateClient::getBoosterNotificationRules,
+    List<BusinessRuleItem> rules = getResponseAndTreatExceptions(
+        digitalCovidCertificateClient::getBoosterNotificationRules,
         "booster notification business rules",
         FetchBusinessRulesException::new);
+    prefetchRules(BOOSTER_NOTIFICATION_RULE, rules, rule -> () -> fetchBoosterNotificationRule(rule.getHash()));
+    return rules;
   }
 
   @Override
   public List<BusinessRuleItem> getCommonCovidLogicRules() throws FetchBusinessRulesException {
-    return getResponseAndTreatExceptions(digitalCovidCertificateClient::getCommonCovidLogicRules,
+    List<BusinessRuleItem> rules = getResponseAndTreatExceptions(
+        digitalCovidCertificateClient::getCommonCovidLogicRules,
         "common covid logic rules",
         FetchBusinessRulesException::new);
+    prefetchRules(COMMON_COVID_LOGIC_RULE, rules, rule -> () -> fetchCommonCovidLogicRule(rule.getHash()));
+    return rules;
   }
 
   @Override
   public BusinessRule getCountryRuleByHash(String country, String hash) throws FetchBusinessRulesException {
+    return dccContentCache.get(COUNTRY_RULE, hash, BusinessRule.class, () -> fetchCountryRule(country, hash));
+  }
+
+  @Override
+  public BusinessRule getBoosterNotificationRuleByHash(String country, String hash) throws FetchBusinessRulesException {
+    return dccContentCache.get(BOOSTER_NOTIFICATION_RULE, hash, BusinessRule.class,
+        () -> fetchBoosterNotificationRule(hash));
+  }
+
+  @Override
+  public BusinessRule getCommonCovidLogicRuleByHash(String country, String hash) throws FetchBusinessRulesException {
+    return dccContentCache.get(COMMON_COVID_LOGIC_RULE, hash, BusinessRule.class,
+        () -> fetchCommonCovidLogicRule(hash));
+  }
+
+  private BusinessRule fetchCountryRule(String country, String hash) throws FetchBusinessRulesException {
     return getResponseAndTreatExceptions(
         () -> digitalCovidCertificateClient.getCountryRule(country, hash),
         "country rule",
         FetchBusinessRulesException::new);
   }
 
-  @Override
-  public BusinessRule getBoosterNotificationRuleByHash(String country, String hash) throws FetchBusinessRulesException {
+  private BusinessRule fetchBoosterNotificationRule(String hash) throws FetchBusinessRulesException {
     return getResponseAndTreatExceptions(
         () -> digitalCovidCertificateClient.getBoosterNotificationRule(hash),
         "bn rule",
         FetchBusinessRulesException::new);
   }
 
-  @Override
-  public BusinessRule getCommonCovidLogicRuleByHash(String country, String hash) throws FetchBusinessRulesException {
+  private BusinessRule fetchCommonCovidLogicRule(String hash) throws FetchBusinessRulesException {
     return getResponseAndTreatExceptions(
         () -> digitalCovidCertificateClient.getCommonCovidLogicRule(hash),
         "ccl rule",
         FetchBusinessRulesException::new);
   }
 
+  private void prefetchRules(String type, List<BusinessRuleItem> rules,
+      Function<BusinessRuleItem, DccContentCache.Fetcher<BusinessRule, FetchBusinessRulesException>> fetchers) {
+    dccContentCache.prefetch(type, BusinessRule.class, rules.stream()
+        .filter(rule -> rule.getHash() != null)
+        .collect(Collectors.toMap(BusinessRuleItem::getHash, fetchers, (fetcher, duplicate) -> fetcher)));
+  }
+
   private <T, E extends ThirdPartyServiceException> T getResponseAndTreatExceptions(
       Supplier<ResponseEntity<T>> responseSupplier,
       String fetchEntityName,
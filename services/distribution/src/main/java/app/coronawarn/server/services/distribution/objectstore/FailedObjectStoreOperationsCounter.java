@@ -37,4 +37,13 @@ public class FailedObjectStoreOperationsCounter {
       throw cause;
     }
   }
+
+  /**
+   * Indicates whether any object store operation has failed so far, even if the threshold has not been exceeded.
+   *
+   * @return {@code true} if at least one operation has failed
+   */
+  public boolean hasFailedOperations() {
+    return failedOperationsCounter.get() > 0;
+  }
 }
@@ -5,10 +5,15 @@ import app.coronawarn.server.services.distribution.objectstore.client.ObjectStor
 import app.coronawarn.server.services.distribution.objectstore.client.ObjectStoreClient.HeaderKey;
 import app.coronawarn.server.services.distribution.objectstore.client.S3Object;
 import app.coronawarn.server.services.distribution.objectstore.publish.LocalFile;
+import java.io.InputStream;
+import java.nio.file.Path;
 import java.util.Collections;
 import java.util.EnumMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Collectors;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -46,6 +51,11 @@ public class ObjectStoreAccess {
 
   private final ObjectStoreClient client;
 
+  /**
+   * The names of all objects, which have been deleted through this instance.
+   */
+  private final Set<String> deletedObjectNames = ConcurrentHashMap.newKeySet();
+
   /**
    * Constructs an {@link ObjectStoreAccess} instance for communication with the specified object store endpoint and
    * bucket.
@@ -88,6 +98,31 @@ public class ObjectStoreAccess {
     this.client.putObject(bucket, s3Key, localFile.getFile(), headers);
   }
 
+  /**
+   * Stores the target file on the S3 as a private object, which is not meant to be cached or read by clients.
+   *
+   * @param s3Key       The S3 key of the object.
+   * @param file        The file to be stored.
+   * @param contentType The value of the <code>content-type</code> header.
+   */
+  public void putPrivateObject(String s3Key, Path file, String contentType) {
+    logger.info("... uploading {}", s3Key);
+    this.client.putObject(bucket, s3Key, file,
+        Map.of(HeaderKey.CACHE_CONTROL, "no-store", HeaderKey.CONTENT_TYPE, contentType));
+  }
+
+  /**
+   * Downloads the content of the object with the given key.
+   *
+   * @param s3Key The S3 key of the object.
+   * @return the content of the object, or {@link Optional#empty()} if there is no such object.
+   */
+  public Optional<InputStream> getObjectContent(String s3Key) {
+    boolean exists = client.getObjects(bucket, s3Key).stream()
+        .anyMatch(s3Object -> s3Key.equals(s3Object.getObjectName()));
+    return exists ? Optional.of(client.getSingleObjectContent(bucket, s3Key).getContent()) : Optional.empty();
+  }
+
   /**
    * Deletes objects in the object store, based on the given prefix (folder structure).
    *
@@ -103,11 +138,39 @@ public class ObjectStoreAccess {
 
     logger.info("Deleting {} entries with prefix {}", toDelete.size(), prefix);
     this.client.removeObjects(bucket, toDelete);
+    deletedObjectNames.addAll(toDelete);
+  }
+
+  /**
+   * Deletes exactly the given objects in the object store. In contrast to {@link #deleteObjectsWithPrefix(String)},
+   * the object store is not listed beforehand.
+   *
+   * @param objectNames the names of the objects to delete
+   */
+  public void deleteObjects(List<String> objectNames) {
+    logger.debug("Deleting {} entries", objectNames.size());
+    this.client.removeObjects(bucket, objectNames);
+    deletedObjectNames.addAll(objectNames);
   }
 
+  /**
+   * Deletes the given object in the object store.
+   *
+   * @param toDelete the object to delete
+   */
   public void deleteObject(S3Object toDelete) {
     logger.info("Deleting {}", toDelete);
     this.client.removeObjects(bucket, Collections.singletonList(toDelete.getObjectName()));
+    deletedObjectNames.add(toDelete.getObjectName());
+  }
+
+  /**
+   * Returns the names of all objects, which have been deleted through this instance, e.g. by the retention policy.
+   *
+   * @return the names of the deleted objects
+   */
+  public Set<String> getDeletedObjectNames() {
+    return Collections.unmodifiableSet(deletedObjectNames);
   }
 
   /**
@@ -120,6 +183,16 @@ public class ObjectStoreAccess {
     return client.getObjects(bucket, prefix);
   }
 
+  /**
+   * Fetches the CWA hash of the given object from its metadata.
+   *
+   * @param s3Object the object, as returned by {@link #getObjectsWithPrefix(String)}
+   * @return the CWA hash, or {@code null} if the object has no CWA hash
+   */
+  public String getCwaHash(S3Object s3Object) {
+    return client.getCwaHash(bucket, s3Object.getObjectName());
+  }
+
   public List<S3Object> getAllObjectsWithPrefix(String prefix) {
     return client.getObjects(bucket, prefix, null);
   }
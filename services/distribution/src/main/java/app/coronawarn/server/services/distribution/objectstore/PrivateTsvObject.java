@@ -0,0 +1,189 @@
+package app.coronawarn.server.services.distribution.objectstore;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A private object, which the distribution keeps on the object store for its own bookkeeping. It is stored as a gzip
+ * compressed text object of tab separated values. The first line contains the format version, the format specific
+ * header values and the number of rows, each following line contains one row.<br>
+ * The S3 key of a private object is not located below the version path, so it is neither part of the published API
+ * nor of the object store listings used for publishing and retention.
+ */
+public class PrivateTsvObject {
+
+  private static final Logger logger = LoggerFactory.getLogger(PrivateTsvObject.class);
+
+  private static final String SEPARATOR = "\t";
+  private static final String CONTENT_TYPE = "application/gzip";
+
+  private final String s3Key;
+  private final String formatVersion;
+  private final int headerColumns;
+  private final int rowColumns;
+
+  /**
+   * Creates a new {@link PrivateTsvObject}.
+   *
+   * @param s3Key         the S3 key of the object, which must not be located below the version path
+   * @param formatVersion the format version written to and expected in the first line
+   * @param headerColumns the number of format specific header values
+   * @param rowColumns    the number of values of each row
+   */
+  public PrivateTsvObject(String s3Key, String formatVersion, int headerColumns, int rowColumns) {
+    this.s3Key = s3Key;
+    this.formatVersion = formatVersion;
+    this.headerColumns = headerColumns;
+    this.rowColumns = rowColumns;
+  }
+
+  public String getS3Key() {
+    return s3Key;
+  }
+
+  /**
+   * Downloads and reads the object from the object store.
+   *
+   * @param objectStoreAccess used to download the object
+   * @return the content of the object, or {@link Optional#empty()} if there is no such object
+   * @throws IOException if the object could not be read or does not have the expected format
+   */
+  public Optional<Content> load(ObjectStoreAccess objectStoreAccess) throws IOException {
+    Optional<InputStream> content = objectStoreAccess.getObjectContent(s3Key);
+    if (content.isEmpty()) {
+      return Optional.empty();
+    }
+    try (InputStream in = content.get()) {
+      return Optional.of(read(in));
+    }
+  }
+
+  /**
+   * Writes the given content to a temporary file and uploads it as private object to the object store.
+   *
+   * @param objectStoreAccess used to upload the object
+   * @param content           the content to store
+   * @throws IOException if the temporary file could not be written
+   */
+  public void store(ObjectStoreAccess objectStoreAccess, Content content) throws IOException {
+    Path file = null;
+    try {
+      file = Files.createTempFile(s3Key, null);
+      try (OutputStream out = Files.newOutputStream(file)) {
+        write(out, content);
+      }
+      objectStoreAccess.putPrivateObject(s3Key, file, CONTENT_TYPE);
+    } finally {
+      deleteQuietly(file);
+    }
+  }
+
+  /**
+   * Reads content, which has been written by {@link #write(OutputStream, Content)}.
+   *
+   * @param in the stream to read from
+   * @return the content
+   * @throws IOException if the content could not be read, does not have the expected format or is incomplete
+   */
+  public Content read(InputStream in) throws IOException {
+    try (BufferedReader reader = new BufferedReader(
+        new InputStreamReader(new GZIPInputStream(in), StandardCharsets.UTF_8))) {
+      String[] header = Optional.ofNullable(reader.readLine()).orElse("").split(SEPARATOR, -1);
+      if (header.length != headerColumns + 2 || !formatVersion.equals(header[0])) {
+        throw new IOException("Unsupported format of " + s3Key);
+      }
+      List<List<String>> rows = new ArrayList<>();
+      String line;
+      while ((line = reader.readLine()) != null) {
+        String[] columns = line.split(SEPARATOR, -1);
+        if (columns.length != rowColumns) {
+          throw new IOException("Invalid row of " + s3Key + ": " + line);
+        }
+        rows.add(Arrays.asList(columns));
+      }
+      if (rows.size() != Integer.parseInt(header[header.length - 1])) {
+        throw new IOException("Incomplete " + s3Key);
+      }
+      return new Content(Arrays.asList(header).subList(1, header.length - 1), rows);
+    } catch (NumberFormatException e) {
+      throw new IOException("Invalid " + s3Key, e);
+    }
+  }
+
+  /**
+   * Writes the given content in the format expected by {@link #read(InputStream)}.
+   *
+   * @param out     the stream to write to
+   * @param content the content to write
+   * @throws IOException if the content could not be written
+   */
+  public void write(OutputStream out, Content content) throws IOException {
+    try (Writer writer = new OutputStreamWriter(new GZIPOutputStream(out), StandardCharsets.UTF_8)) {
+      List<String> header = new ArrayList<>();
+      header.add(formatVersion);
+      header.addAll(content.getHeader());
+      header.add(String.valueOf(content.getRows().size()));
+      writer.write(String.join(SEPARATOR, header));
+      writer.write('\n');
+      for (List<String> row : content.getRows()) {
+        writer.write(String.join(SEPARATOR, row));
+        writer.write('\n');
+      }
+    }
+  }
+
+  private static void deleteQuietly(Path file) {
+    if (file == null) {
+      return;
+    }
+    try {
+      Files.deleteIfExists(file);
+    } catch (IOException e) {
+      logger.debug("Unable to delete {}", file, e);
+    }
+  }
+
+  /**
+   * The content of a {@link PrivateTsvObject}.
+   */
+  public static class Content {
+
+    private final List<String> header;
+    private final List<List<String>> rows;
+
+    /**
+     * Creates a new {@link Content}.
+     *
+     * @param header the format specific header values
+     * @param rows   the rows
+     */
+    public Content(List<String> header, List<List<String>> rows) {
+      this.header = header;
+      this.rows = rows;
+    }
+
+    public List<String> getHeader() {
+      return header;
+    }
+
+    public List<List<String>> getRows() {
+      return rows;
+    }
+  }
+}
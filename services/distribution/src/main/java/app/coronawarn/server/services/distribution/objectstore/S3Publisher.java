@@ -4,17 +4,42 @@ package app.coronawarn.server.services.distribution.objectstore;
 
 import app.coronawarn.server.services.distribution.config.DistributionServiceConfig;
 import app.coronawarn.server.services.distribution.objectstore.client.ObjectStoreOperationFailedException;
+import app.coronawarn.server.services.distribution.objectstore.client.S3Object;
 import app.coronawarn.server.services.distribution.objectstore.publish.LocalFile;
+import app.coronawarn.server.services.distribution.objectstore.publish.LocalIndexFile;
 import app.coronawarn.server.services.distribution.objectstore.publish.PublishFileSet;
 import app.coronawarn.server.services.distribution.objectstore.publish.PublishedFileSet;
+import app.coronawarn.server.services.distribution.objectstore.publish.PublishedManifest;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import java.io.IOException;
+import java.nio.file.Files;
 import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 import org.springframework.stereotype.Component;
 
@@ -29,8 +54,10 @@ import org.springframework.stereotype.Component;
  *   <li>Only performs the upload for files, which do not yet exist on the object store, and
  *   checks whether the existing files hash differ from the to-be-uploaded files hash. Only if the
  *   hash differs, the file will ultimately be uploaded</li>
- *   <li>Currently not implemented: Set cache control headers</li>
- *   <li>Currently not implemented: Supports multi threaded upload of files.</li>
+ *   <li>Keeps a {@link PublishedManifest} of all published objects on the object store, so that the object store
+ *   only has to be listed for the periodic reconciliation of the manifest.</li>
+ *   <li>Sets the cache control headers of the uploaded files, see {@link ObjectStoreAccess#putObject(LocalFile)}.</li>
+ *   <li>Uploads the files in parallel, index files last and depth by depth.</li>
  * </ul>
  */
 @Component
@@ -38,14 +65,20 @@ public class S3Publisher {
 
   private static final Logger logger = LoggerFactory.getLogger(S3Publisher.class);
 
+  private static final String UPLOAD_TIMER_NAME = "object_store.uploads";
+  private static final String UPLOAD_SIZE_SUMMARY_NAME = "object_store.upload_size";
+
   private final ObjectStoreAccess objectStoreAccess;
   private final FailedObjectStoreOperationsCounter failedOperationsCounter;
   private final ThreadPoolTaskExecutor executor;
   private final DistributionServiceConfig distributionServiceConfig;
+  private final Timer uploadTimer;
+  private final DistributionSummary uploadSize;
 
   /**
    * Creates an {@link S3Publisher} instance that attempts to publish the files at the specified location to an object
-   * store. Object store operations are performed through the specified {@link ObjectStoreAccess} instance.
+   * store. Object store operations are performed through the specified {@link ObjectStoreAccess} instance. Upload
+   * metrics are only logged.
    *
    * @param objectStoreAccess         The {@link ObjectStoreAccess} used to communicate with the object store.
    * @param failedOperationsCounter   The {@link FailedObjectStoreOperationsCounter} that is used to monitor the number
@@ -56,10 +89,46 @@ public class S3Publisher {
    */
   public S3Publisher(ObjectStoreAccess objectStoreAccess, FailedObjectStoreOperationsCounter failedOperationsCounter,
       ThreadPoolTaskExecutor executor, DistributionServiceConfig distributionServiceConfig) {
+    this(objectStoreAccess, failedOperationsCounter, executor, distributionServiceConfig, new SimpleMeterRegistry());
+  }
+
+  /**
+   * Creates an {@link S3Publisher} instance that attempts to publish the files at the specified location to an object
+   * store. Object store operations are performed through the specified {@link ObjectStoreAccess} instance.
+   *
+   * @param objectStoreAccess         The {@link ObjectStoreAccess} used to communicate with the object store.
+   * @param failedOperationsCounter   The {@link FailedObjectStoreOperationsCounter} that is used to monitor the number
+   *                                  of failed operations.
+   * @param executor                  The executor that manages the upload task submission. It is not shut down, so
+   *                                  that it can be used for several publishing runs.
+   * @param distributionServiceConfig The {@link DistributionServiceConfig} used for distribution service
+   *                                  configuration.
+   * @param meterRegistry             The {@link MeterRegistry} to which the upload metrics are published. If there is
+   *                                  none, the metrics are only logged.
+   */
+  @Autowired
+  public S3Publisher(ObjectStoreAccess objectStoreAccess, FailedObjectStoreOperationsCounter failedOperationsCounter,
+      ThreadPoolTaskExecutor executor, DistributionServiceConfig distributionServiceConfig,
+      ObjectProvider<MeterRegistry> meterRegistry) {
+    this(objectStoreAccess, failedOperationsCounter, executor, distributionServiceConfig,
+        meterRegistry.getIfAvailable(SimpleMeterRegistry::new));
+  }
+
+  private S3Publisher(ObjectStoreAccess objectStoreAccess, FailedObjectStoreOperationsCounter failedOperationsCounter,
+      ThreadPoolTaskExecutor executor, DistributionServiceConfig distributionServiceConfig,
+      MeterRegistry meterRegistry) {
     this.objectStoreAccess = objectStoreAccess;
     this.failedOperationsCounter = failedOperationsCounter;
     this.executor = executor;
     this.distributionServiceConfig = distributionServiceConfig;
+    this.uploadTimer = Timer.builder(UPLOAD_TIMER_NAME)
+        .description("Duration of the object store uploads.")
+        .publishPercentiles(0.5, 0.95, 0.99)
+        .register(meterRegistry);
+    this.uploadSize = DistributionSummary.builder(UPLOAD_SIZE_SUMMARY_NAME)
+        .description("Size of the files uploaded to the object store.")
+        .baseUnit("bytes")
+        .register(meterRegistry);
   }
 
   /**
@@ -67,7 +136,13 @@ public class S3Publisher {
    * published on S3, even if the retention and shifting policies cause a diff between subsequent distribution runs.
    * Thus, by default distribution will only add new key files, but still modify indexes. This behaviour can however
    * be controlled through the configuration parameter <code>DistributionServiceConfig.forceUpdateKeyFiles</code>
-   * Related to GitHub issue 650
+   * Related to GitHub issue 650<br>
+   * The published objects are taken from the {@link PublishedManifest}, which is rewritten after the upload. The object
+   * store is only listed if there is no manifest yet or if it is due for reconciliation.<br>
+   * The files are uploaded in parallel with at most as many uploads in flight as the executor has threads. Index files
+   * are uploaded last, one depth after the other starting with the deepest, and the uploads of a depth are only started
+   * once all uploads below have finished. An index is not uploaded at all if an upload below it has failed, so that an
+   * index never refers to an object, which has not been uploaded.
    *
    * @param root The path of the directory that shall be published.
    * @throws IOException in case there were problems reading files from the disk.
@@ -75,33 +150,238 @@ public class S3Publisher {
   public void publish(Path root) throws IOException {
     List<LocalFile> toPublish = new PublishFileSet(root).getFiles();
 
-    PublishedFileSet published = new PublishedFileSet(
-        objectStoreAccess.getObjectsWithPrefix(distributionServiceConfig.getApi().getVersionPath()),
-        distributionServiceConfig.getObjectStore().getForceUpdateKeyfiles());
-    List<LocalFile> diff = toPublish
-        .stream()
-        .filter(published::shouldPublish)
+    Instant now = Instant.now();
+    PublishedManifest manifest = loadManifest(now).orElse(null);
+    List<S3Object> publishedObjects;
+    if (manifest == null) {
+      logger.info("Reconciling the publishing manifest with the object store listing.");
+      publishedObjects = objectStoreAccess.getObjectsWithPrefix(distributionServiceConfig.getApi().getVersionPath());
+      manifest = PublishedManifest.fromListing(publishedObjects, now);
+    } else {
+      publishedObjects = manifest.getS3Objects();
+    }
+    PublishedFileSet published = new PublishedFileSet(publishedObjects,
+        distributionServiceConfig.getObjectStore().getForceUpdateKeyfiles(),
+        objectStoreAccess::getCwaHash);
+    List<LocalFile> diff = getFilesToPublish(toPublish, published);
+    logger.info("Beginning upload of {} files... ", diff.size());
+    final long uploadedFilesBefore = uploadTimer.count();
+    final double uploadedBytesBefore = uploadSize.totalAmount();
+    final long start = System.nanoTime();
+    Set<String> failedS3Keys = upload(
+        diff.stream().filter(file -> !(file instanceof LocalIndexFile)).collect(Collectors.toList()), manifest, now);
+    uploadIndexFiles(diff.stream().filter(LocalIndexFile.class::isInstance).collect(Collectors.toList()),
+        failedS3Keys, manifest, now);
+    updateComparedEntries(manifest, toPublish, diff);
+    logUploadStatistics(uploadTimer.count() - uploadedFilesBefore, uploadSize.totalAmount() - uploadedBytesBefore,
+        Duration.ofNanos(System.nanoTime() - start));
+    logger.info("Upload completed.");
+    storeManifest(manifest);
+  }
+
+  /**
+   * Loads the publishing manifest from the object store, unless it is due for reconciliation with the object store
+   * listing. Objects, which have been deleted in the meantime (e.g. by the retention policy), are removed from it.
+   */
+  private Optional<PublishedManifest> loadManifest(Instant now) {
+    int reconciliationHours = distributionServiceConfig.getObjectStore().getManifestReconciliationHours();
+    if (reconciliationHours == 0) {
+      return Optional.empty();
+    }
+    try {
+      Optional<PublishedManifest> loaded = PublishedManifest.load(objectStoreAccess);
+      if (loaded.isEmpty()) {
+        return Optional.empty();
+      }
+      PublishedManifest manifest = loaded.get();
+      if (manifest.getReconciledAt().plus(reconciliationHours, ChronoUnit.HOURS).isBefore(now)) {
+        return Optional.empty();
+      }
+      manifest.removeAll(objectStoreAccess.getDeletedObjectNames());
+      return Optional.of(manifest);
+    } catch (IOException | ObjectStoreOperationFailedException e) {
+      logger.warn("Unable to read the publishing manifest, falling back to the object store listing.", e);
+      return Optional.empty();
+    }
+  }
+
+  /**
+   * Stores the given manifest on the object store. A failure is not critical, since the next publishing will then
+   * either re-upload the files published in this run or reconcile the manifest with the object store listing.
+   */
+  private void storeManifest(PublishedManifest manifest) {
+    try {
+      manifest.store(objectStoreAccess);
+    } catch (IOException | ObjectStoreOperationFailedException e) {
+      logger.warn("Unable to store the publishing manifest.", e);
+    }
+  }
+
+  /**
+   * Records the CWA-hash of all files, which have not been uploaded, because their content has been compared to the
+   * published object and found to be unchanged.
+   */
+  private void updateComparedEntries(PublishedManifest manifest, List<LocalFile> toPublish, List<LocalFile> diff) {
+    boolean keyFilesCompared = distributionServiceConfig.getObjectStore().getForceUpdateKeyfiles();
+    Set<LocalFile> uploaded = new HashSet<>(diff);
+    toPublish.stream()
+        .filter(file -> !uploaded.contains(file))
+        .filter(file -> keyFilesCompared || !file.isKeyFile())
+        .forEach(file -> manifest.get(file.getS3Key()).ifPresent(entry -> manifest.put(file.getS3Key(),
+            new PublishedManifest.Entry(file.getChecksum(), sizeOf(file), entry.getPublishedAt()))));
+  }
+
+  private static PublishedManifest.Entry createManifestEntry(LocalFile file, Instant publishedAt) {
+    return new PublishedManifest.Entry(file.getChecksum(), sizeOf(file), publishedAt);
+  }
+
+  private static long sizeOf(LocalFile file) {
+    try {
+      return Files.size(file.getFile());
+    } catch (IOException e) {
+      return PublishedManifest.Entry.UNKNOWN_SIZE;
+    }
+  }
+
+  /**
+   * Determines the files that have to be uploaded. The checks are performed on the executor, because the CWA hash of
+   * published objects, which can not be derived from the listing, is fetched on demand from the object store.
+   */
+  private List<LocalFile> getFilesToPublish(List<LocalFile> toPublish, PublishedFileSet published) {
+    List<Future<Boolean>> checks = toPublish.stream()
+        .map(file -> executor.submit(() -> published.shouldPublish(file)))
         .collect(Collectors.toList());
+    List<LocalFile> diff = new ArrayList<>();
+    for (int i = 0; i < toPublish.size(); i++) {
+      if (awaitCheck(checks.get(i), toPublish.get(i))) {
+        diff.add(toPublish.get(i));
+      }
+    }
+    return diff;
+  }
 
-    logger.info("Beginning upload of {} files... ", diff.size());
+  private boolean awaitCheck(Future<Boolean> check, LocalFile file) {
     try {
-      diff.stream()
-          .map(file -> executor.submit(() -> objectStoreAccess.putObject(file)))
-          .forEach(this::awaitThread);
-    } finally {
-      executor.shutdown();
+      return check.get();
+    } catch (ExecutionException e) {
+      logger.warn("Unable to compare {} with the published object, it will be uploaded.", file.getS3Key(), e);
+      return true;
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new ObjectStoreOperationFailedException(e.getMessage(), e);
+    }
+  }
+
+  /**
+   * Uploads the given index files grouped by their depth, the deepest first. All uploads of a depth have finished
+   * before the uploads of the next depth are started. Index files, below which an upload has failed or an index file
+   * has been skipped, are skipped as well.
+   */
+  private void uploadIndexFiles(List<LocalFile> indexFiles, Set<String> failedS3Keys, PublishedManifest manifest,
+      Instant publishedAt) {
+    Map<Long, List<LocalFile>> indexFilesByDepth = indexFiles.stream()
+        .collect(Collectors.groupingBy(S3Publisher::depthOf, () -> new TreeMap<>(Comparator.reverseOrder()),
+            Collectors.toList()));
+    for (List<LocalFile> indexFilesOfDepth : indexFilesByDepth.values()) {
+      List<LocalFile> toUpload = new ArrayList<>();
+      for (LocalFile indexFile : indexFilesOfDepth) {
+        if (hasFailureBelow(indexFile, failedS3Keys)) {
+          logger.warn("Skipping the upload of index {}, because an upload below it has failed.",
+              indexFile.getS3Key());
+          failedS3Keys.add(indexFile.getS3Key());
+        } else {
+          toUpload.add(indexFile);
+        }
+      }
+      failedS3Keys.addAll(upload(toUpload, manifest, publishedAt));
     }
-    logger.info("Upload completed.");
   }
 
-  private void awaitThread(Future<?> result) {
+  private static boolean hasFailureBelow(LocalFile indexFile, Set<String> failedS3Keys) {
+    String prefix = indexFile.getS3Key() + "/";
+    return failedS3Keys.stream().anyMatch(failedS3Key -> failedS3Key.startsWith(prefix));
+  }
+
+  /**
+   * Uploads the given files in the given order. Only a bounded number of uploads is submitted to the executor at any
+   * time, so the caller waits for the oldest upload before submitting the next one. Returns once all uploads have
+   * finished.
+   *
+   * @return the S3 keys of the files, which could not be uploaded.
+   */
+  private Set<String> upload(List<LocalFile> files, PublishedManifest manifest, Instant publishedAt) {
+    Set<String> failedS3Keys = new HashSet<>();
+    Deque<Upload> inFlight = new ArrayDeque<>();
+    int maxInFlight = Math.max(1, executor.getMaxPoolSize());
+    for (LocalFile file : files) {
+      if (inFlight.size() >= maxInFlight) {
+        awaitUpload(inFlight.poll(), manifest, publishedAt, failedS3Keys);
+      }
+      inFlight.add(new Upload(file, executor.submit(() -> upload(file))));
+    }
+    while (!inFlight.isEmpty()) {
+      awaitUpload(inFlight.poll(), manifest, publishedAt, failedS3Keys);
+    }
+    return failedS3Keys;
+  }
+
+  private void upload(LocalFile file) {
+    long size = sizeOf(file);
+    long start = System.nanoTime();
+    objectStoreAccess.putObject(file);
+    uploadTimer.record(Duration.ofNanos(System.nanoTime() - start));
+    if (size != PublishedManifest.Entry.UNKNOWN_SIZE) {
+      uploadSize.record(size);
+    }
+  }
+
+  private void awaitUpload(Upload upload, PublishedManifest manifest, Instant publishedAt, Set<String> failedS3Keys) {
+    if (awaitThread(upload.result)) {
+      manifest.put(upload.file.getS3Key(), createManifestEntry(upload.file, publishedAt));
+    } else {
+      failedS3Keys.add(upload.file.getS3Key());
+    }
+  }
+
+  private void logUploadStatistics(long files, double bytes, Duration duration) {
+    double seconds = Math.max(duration.toMillis(), 1) / 1000.0;
+    String percentiles = Arrays.stream(uploadTimer.takeSnapshot().percentileValues())
+        .map(value -> String.format(Locale.ROOT, "p%.0f=%.0fms", value.percentile() * 100,
+            value.value(TimeUnit.MILLISECONDS)))
+        .collect(Collectors.joining(", "));
+    logger.info("Uploaded {} files ({} bytes) in {} ms ({} files/s, {} bytes/s). Upload latency: {}.", files,
+        (long) bytes, duration.toMillis(), String.format(Locale.ROOT, "%.1f", files / seconds),
+        (long) (bytes / seconds), percentiles);
+  }
+
+  private static long depthOf(LocalFile file) {
+    return file.getS3Key().chars().filter(c -> c == '/').count();
+  }
+
+  private boolean awaitThread(Future<?> result) {
     try {
       result.get();
+      return true;
     } catch (ExecutionException e) {
       failedOperationsCounter.incrementAndCheckThreshold(new ObjectStoreOperationFailedException(e.getMessage(), e));
+      return false;
     } catch (InterruptedException e) {
       Thread.currentThread().interrupt();
       throw new ObjectStoreOperationFailedException(e.getMessage(), e);
     }
   }
+
+  /**
+   * An upload, which has been submitted to the executor.
+   */
+  private static class Upload {
+
+    private final LocalFile file;
+    private final Future<?> result;
+
+    Upload(LocalFile file, Future<?> result) {
+      this.file = file;
+      this.result = result;
+    }
+  }
 }
@@ -10,21 +10,26 @@ import app.coronawarn.server.services.distribution.objectstore.client.S3Object;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.ZoneOffset;
-import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 import java.util.stream.Collectors;
-import java.util.stream.Stream;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 import org.springframework.stereotype.Component;
 
 /**
- * Creates an S3RetentionPolicy object, which applies the retention policy to the S3 compatible storage.
+ * Creates an S3RetentionPolicy object, which applies the retention policy to the S3 compatible storage. The expired
+ * objects are determined from a single listing per prefix and country, parsing each object name once, and deleted in
+ * chunks of {@link #DELETE_CHUNK_SIZE} objects, which are deleted in parallel and retried independently of each other.
  */
 @Component
 public class S3RetentionPolicy {
@@ -32,15 +37,29 @@ public class S3RetentionPolicy {
   private final ObjectStoreAccess objectStoreAccess;
   private final Api api;
   private final FailedObjectStoreOperationsCounter failedObjectStoreOperationsCounter;
+  private final ThreadPoolTaskExecutor executor;
   private final String originCountry;
   private final String euPackageName;
 
   public static final String DATE_REGEX = ".*([0-9]{4}-[0-9]{2}-[0-9]{2}).*";
   public static final String EPOCH_HOUR_REGEX = ".*([0-9]{6,7})";
   public static final String HOUR_PATH_REGEX = ".*(hour).*";
-  private final Pattern datePattern = Pattern.compile(DATE_REGEX);
-  private final Pattern epochHourPattern = Pattern.compile(EPOCH_HOUR_REGEX);
-  private final Pattern hourPathPattern = Pattern.compile(HOUR_PATH_REGEX);
+
+  /**
+   * Matches the date folder of a diagnosis key object (group 1) and, if present, its hour folder (group 2). Objects
+   * below an expired folder match as well, so that they are deleted together with it.
+   */
+  private final Pattern diagnosisKeyPathPattern;
+
+  /**
+   * Matches the epoch hour folder of a trace time warning object (group 1), including the objects below it.
+   */
+  private final Pattern traceTimeWarningPathPattern;
+
+  /**
+   * Maximum number of objects, which can be deleted with a single DeleteObjects request.
+   */
+  public static final int DELETE_CHUNK_SIZE = 1000;
 
   private static final Logger logger = LoggerFactory.getLogger(S3RetentionPolicy.class);
 
@@ -55,132 +74,118 @@ public class S3RetentionPolicy {
    * @param objectStoreAccess         ObjectStoreAccess
    * @param distributionServiceConfig config containing the API, origin Country and origin country
    * @param failedOperationsCounter   FailedObjectStoreOperationsCounter
+   * @param executor                  the executor, on which the chunks of expired objects are deleted
    */
   public S3RetentionPolicy(ObjectStoreAccess objectStoreAccess, DistributionServiceConfig distributionServiceConfig,
-      FailedObjectStoreOperationsCounter failedOperationsCounter) {
+      FailedObjectStoreOperationsCounter failedOperationsCounter, ThreadPoolTaskExecutor executor) {
     this.objectStoreAccess = objectStoreAccess;
     this.api = distributionServiceConfig.getApi();
     this.failedObjectStoreOperationsCounter = failedOperationsCounter;
+    this.executor = executor;
     this.originCountry = distributionServiceConfig.getApi().getOriginCountry();
     this.euPackageName = distributionServiceConfig.getEuPackageName();
+    diagnosisKeyPathPattern = Pattern.compile("/" + Pattern.quote(api.getDatePath())
+        + "/([0-9]{4}-[0-9]{2}-[0-9]{2})(?:(/" + Pattern.quote(api.getHourPath()) + ")(?:/|$)|/|$)");
+    traceTimeWarningPathPattern = Pattern.compile("/" + Pattern.quote(api.getHourPath()) + "/([0-9]{6,7})(?:/|$)");
     dccRevocationDirectory = api.getVersionPath() + "/" + api.getVersionV1() + "/"
         + distributionServiceConfig.getDccRevocation().getDccRevocationDirectory();
   }
 
   /**
-   * Deletes all diagnosis-key day files from S3 that are older than retentionDays.
+   * Applies all retention rules for the S3 compatible storage in one go. Each prefix is listed only once and each
+   * listed object is parsed only once, the expired objects of all rules are deleted together afterwards.
    *
-   * @param retentionDays the number of days, that files should be retained on S3.
+   * @param retentionDays         the number of days, that diagnosis key day files and trace time warning hour files
+   *                              should be retained on S3.
+   * @param hourFileRetentionDays the number of days, that diagnosis key hour files should be retained on S3.
    */
-  public void applyDiagnosisKeyDayRetentionPolicy(int retentionDays) {
-    Set<String> countries = Set.of(originCountry, euPackageName);
-    countries.forEach(country -> {
-      List<S3Object> diagnosisKeysObjects = objectStoreAccess.getObjectsWithPrefix(getDiagnosisKeyPrefix(country));
-      final LocalDate cutOffDate = getUtcDate().minusDays(retentionDays);
-      diagnosisKeysObjects.stream()
-          .filter(diagnosisKeysObject -> isDiagnosisKeyFilePathOlderThan(diagnosisKeysObject, cutOffDate))
-          .forEach(this::deleteS3Object);
-    });
+  public void applyRetentionPolicies(int retentionDays, int hourFileRetentionDays) {
+    final Set<String> deletableKeys = new LinkedHashSet<>();
+    planDiagnosisKeyRetention(deletableKeys, getUtcDate().minusDays(retentionDays),
+        getUtcDate().minusDays(hourFileRetentionDays - 1L));
+    planTraceTimeWarningRetention(deletableKeys, getCurrentUtcHour().minusDays(retentionDays));
+    deleteObjects(new ArrayList<>(deletableKeys));
   }
 
   /**
-   * Deletes all diagnosis-key hour files from S3 that are older than retentionDays.
+   * Adds the names of all expired diagnosis key objects of all countries to the given plan. Each country is listed
+   * once for both rules. ISO dates are compared as strings, since their lexicographic order is their chronological
+   * order.
    *
-   * @param retentionDays number of days back where hourly files should be deleted
+   * @param plan           the names of the objects to delete
+   * @param dayCutOffDate  all objects of days before this date are expired
+   * @param hourCutOffDate all hour objects of days before this date are expired
    */
-  public void applyDiagnosisKeyHourRetentionPolicy(long retentionDays) {
-    Set<String> countries = Set.of(originCountry, euPackageName);
-    countries.forEach(country -> {
-      List<S3Object> diagnosisKeysObjects = objectStoreAccess.getObjectsWithPrefix(getDiagnosisKeyPrefix(country));
-      final LocalDate cutOffDate = getUtcDate().minusDays(retentionDays - 1L);
-      var deletableKeys = diagnosisKeysObjects.stream()
-          .filter(diagnosisKeysObject -> isDiagnosisKeyFilePathOlderThan(diagnosisKeysObject, cutOffDate))
-          .filter(this::isDiagnosisKeyFilePathOnHourFolder)
-          .collect(Collectors.toList());
-
-      logger.info("Deleting {} diagnosis key files from hourly folders older than {}", deletableKeys.size(),
-          cutOffDate);
-      deletableKeys.forEach(this::deleteS3Object);
-    });
+  private void planDiagnosisKeyRetention(Set<String> plan, LocalDate dayCutOffDate, LocalDate hourCutOffDate) {
+    final String dayCutOff = dayCutOffDate.toString();
+    final String hourCutOff = hourCutOffDate.toString();
+    for (String country : Set.of(originCountry, euPackageName)) {
+      int days = 0;
+      int hours = 0;
+      for (S3Object s3Object : objectStoreAccess.getObjectsWithPrefix(getDiagnosisKeyPrefix(country))) {
+        final Matcher matcher = diagnosisKeyPathPattern.matcher(s3Object.getObjectName());
+        if (!matcher.find()) {
+          continue;
+        }
+        final String date = matcher.group(1);
+        if (date.compareTo(dayCutOff) < 0) {
+          days += plan.add(s3Object.getObjectName()) ? 1 : 0;
+        } else if (matcher.group(2) != null && date.compareTo(hourCutOff) < 0) {
+          hours += plan.add(s3Object.getObjectName()) ? 1 : 0;
+        }
+      }
+      logger.info("Deleting {} diagnosis key files of {} older than {} and {} files from hourly folders older than {}",
+          days, country, dayCutOffDate, hours, hourCutOffDate);
+    }
   }
 
   /**
-   * Deletes all trace time warning hour files from S3 that are older than retentionDays.
+   * Adds the names of all expired trace time warning objects of all countries to the given plan.
    *
-   * @param retentionDays number of days back where hourly files should be deleted
+   * @param plan       the names of the objects to delete
+   * @param cutOffTime all objects of hours before this time are expired
    */
-  public void applyTraceTimeWarningHourRetentionPolicy(long retentionDays) {
-    Set<String> countries = Set.of(originCountry, euPackageName);
-    countries.forEach(country -> {
-      List<S3Object> traceTimeWarningsObjects = objectStoreAccess
-          .getObjectsWithPrefix(getTraceTimeWarningPrefix(country));
-      final LocalDateTime cutOffTime = getCurrentUtcHour().minusDays(retentionDays);
-      final LocalDate cutOffDate = getUtcDate().minusDays(retentionDays - 1L);
-      var deletableTraceTimeWarnings = traceTimeWarningsObjects.stream()
-          .filter(traceTimeWarningsObject -> isTraceTimeWarningFilePathOlderThan(traceTimeWarningsObject, cutOffTime))
-          .collect(Collectors.toList());
-
-      logger.info("Deleting {} trace time warning files older than {}", deletableTraceTimeWarnings.size(), cutOffDate);
-      deletableTraceTimeWarnings.forEach(this::deleteS3Object);
-    });
+  private void planTraceTimeWarningRetention(Set<String> plan, LocalDateTime cutOffTime) {
+    final long cutOffHour = TimeUnit.SECONDS.toHours(cutOffTime.toEpochSecond(ZoneOffset.UTC));
+    for (String country : Set.of(originCountry, euPackageName)) {
+      int hours = 0;
+      for (S3Object s3Object : objectStoreAccess.getObjectsWithPrefix(getTraceTimeWarningPrefix(country))) {
+        final Matcher matcher = traceTimeWarningPathPattern.matcher(s3Object.getObjectName());
+        if (matcher.find() && Long.parseLong(matcher.group(1)) < cutOffHour) {
+          hours += plan.add(s3Object.getObjectName()) ? 1 : 0;
+        }
+      }
+      logger.info("Deleting {} trace time warning files of {} older than {}", hours, country, cutOffTime);
+    }
   }
 
   /**
-   * Java stream do not support checked exceptions within streams. This helper method rethrows them as unchecked
-   * expressions, so they can be passed up to the Retention Policy.<br />
-   * <strong>Attention:</strong> this first queries all the objects from S3 with the same prefix!
-   *
-   * @param s3Object the S3 object, that should be deleted.
-   * 
-   * @see ObjectStoreAccess#deleteObjectsWithPrefix(String)
+   * Deletes the given objects in chunks of {@link #DELETE_CHUNK_SIZE} in parallel. Each chunk is retried on its own
+   * by the object store client, a chunk that still fails is accounted as one failed object store operation.
    */
-  public void deleteS3Object(S3Object s3Object) {
-    try {
-      objectStoreAccess.deleteObjectsWithPrefix(s3Object.getObjectName());
-    } catch (ObjectStoreOperationFailedException e) {
-      failedObjectStoreOperationsCounter.incrementAndCheckThreshold(e);
+  private void deleteObjects(List<String> objectNames) {
+    List<Future<?>> deletions = new ArrayList<>();
+    for (int i = 0; i < objectNames.size(); i += DELETE_CHUNK_SIZE) {
+      List<String> chunk = objectNames.subList(i, Math.min(objectNames.size(), i + DELETE_CHUNK_SIZE));
+      deletions.add(executor.submit(() -> objectStoreAccess.deleteObjects(chunk)));
     }
+    deletions.forEach(this::awaitDeletion);
   }
 
-  /**
-   * Java stream do not support checked exceptions within streams. This helper method rethrows them as unchecked
-   * expressions, so they can be passed up to the Retention Policy.
-   *
-   * @param s3Object the S3 object, that should be deleted.
-   */
-  public void deleteSingleS3Object(S3Object s3Object) {
+  private void awaitDeletion(Future<?> deletion) {
     try {
-      objectStoreAccess.deleteObject(s3Object);
-    } catch (ObjectStoreOperationFailedException e) {
-      failedObjectStoreOperationsCounter.incrementAndCheckThreshold(e);
+      deletion.get();
+    } catch (ExecutionException e) {
+      failedObjectStoreOperationsCounter.incrementAndCheckThreshold(
+          e.getCause() instanceof ObjectStoreOperationFailedException
+              ? (ObjectStoreOperationFailedException) e.getCause()
+              : new ObjectStoreOperationFailedException(e.getMessage(), e.getCause()));
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new ObjectStoreOperationFailedException(e.getMessage(), e);
     }
   }
 
-  private boolean isDiagnosisKeyFilePathOnHourFolder(S3Object s3Object) {
-    Matcher matcher = hourPathPattern.matcher(s3Object.getObjectName());
-    return matcher.matches();
-  }
-
-  private boolean isDiagnosisKeyFilePathOlderThan(S3Object s3Object, LocalDate cutOffDate) {
-    Matcher matcher = datePattern.matcher(s3Object.getObjectName());
-    return matcher.matches() && LocalDate.parse(matcher.group(1), DateTimeFormatter.ISO_LOCAL_DATE)
-        .isBefore(cutOffDate);
-  }
-
-  private boolean isTraceTimeWarningFilePathOlderThan(S3Object s3Object, LocalDateTime cutOffTime) {
-    return Stream.of(s3Object)
-        .map(S3Object::getObjectName)
-        .map(epochHourPattern::matcher)
-        .filter(Matcher::matches)
-        .map(match -> match.group(1))
-        .map(Integer::parseInt)
-        .map(TimeUnit.HOURS::toSeconds)
-        .map(epochSeconds -> LocalDateTime.ofEpochSecond(epochSeconds, 0, ZoneOffset.UTC))
-        .map(packageHour -> packageHour.isBefore(cutOffTime))
-        .findFirst()
-        .orElse(false);
-  }
-
   private String getDiagnosisKeyPrefix(String country) {
     return api.getVersionPath() + "/" + api.getVersionV1() + "/" + api.getDiagnosisKeysPath() + "/"
         + api.getCountryPath() + "/" + country + "/" + api.getDatePath() + "/";
@@ -197,6 +202,6 @@ public class S3RetentionPolicy {
   public void deleteDccRevocationDir() {
     final Collection<S3Object> s3Objects = objectStoreAccess.getAllObjectsWithPrefix(dccRevocationDirectory);
     logger.info("Deleting {} dccRevocationDirectory files", s3Objects.size());
-    s3Objects.forEach(this::deleteSingleS3Object);
+    deleteObjects(s3Objects.stream().map(S3Object::getObjectName).collect(Collectors.toList()));
   }
 }
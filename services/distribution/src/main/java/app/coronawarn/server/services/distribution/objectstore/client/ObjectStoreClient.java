@@ -27,6 +27,16 @@ public interface ObjectStoreClient {
 
   JsonFile getSingleObjectContent(String bucket, String key, String ifNotETag) throws NotModifiedException;
 
+  /**
+   * Fetches the CWA hash from the metadata of the specified object.
+   *
+   * @param bucket     The name of the object store bucket.
+   * @param objectName The name of the object.
+   * @return The CWA hash of the object, or {@code null} if the object has no CWA hash.
+   * @throws ObjectStoreOperationFailedException if the operation could not be performed.
+   */
+  String getCwaHash(String bucket, String objectName);
+
   /**
    * Uploads data from the specified file to an object with the specified name.
    *
@@ -45,7 +45,9 @@ public class ObjectStorePublishingConfig {
   }
 
   /**
-   * Creates a {@link ThreadPoolTaskExecutor}, which is used to submit object store upload tasks.
+   * Creates a {@link ThreadPoolTaskExecutor}, which is used to submit object store upload tasks. The executor is
+   * shared by all publishing runs and therefore not shut down after each of them. Its threads are daemon threads, so
+   * they do not keep the application alive once all runners have completed.
    *
    * @param distributionServiceConfig DistributionServiceConfig containing object store attributes
    * @return ThreadPoolTaskExecutor
@@ -56,6 +58,7 @@ public class ObjectStorePublishingConfig {
     executor.setCorePoolSize(distributionServiceConfig.getObjectStore().getMaxNumberOfS3Threads());
     executor.setMaxPoolSize(distributionServiceConfig.getObjectStore().getMaxNumberOfS3Threads());
     executor.setThreadNamePrefix("object-store-operation-worker-");
+    executor.setDaemon(true);
     executor.initialize();
     return executor;
   }
@@ -172,7 +172,7 @@ public class S3ClientWrapper implements ObjectStoreClient {
         return tryWithV2(bucket, prefix, delimiter);
       }
       response.contents().stream()
-          .map(s3Object -> buildS3Object(s3Object, bucket))
+          .map(this::buildS3Object)
           .forEach(allS3Objects::add);
     } while (marker != null);
 
@@ -189,7 +189,7 @@ public class S3ClientWrapper implements ObjectStoreClient {
           .build();
       final ListObjectsV2Response response = s3Client.listObjectsV2(request);
       continuationToken = TRUE.equals(response.isTruncated()) ? response.nextContinuationToken() : null;
-      response.contents().stream().map(s3Object -> buildS3Object(s3Object, bucket)).forEach(allS3Objects::add);
+      response.contents().stream().map(this::buildS3Object).forEach(allS3Objects::add);
     } while (continuationToken != null);
 
     return allS3Objects;
@@ -205,7 +205,9 @@ public class S3ClientWrapper implements ObjectStoreClient {
       value = SdkException.class,
       maxAttemptsExpression = "${services.distribution.objectstore.retry-attempts}",
       backoff = @Backoff(
-          delayExpression = "${services.distribution.objectstore.retry-backoff}"))
+          delayExpression = "${services.distribution.objectstore.retry-backoff}",
+          multiplier = 2,
+          random = true))
   public void putObject(String bucket, String objectName, Path filePath, Map<HeaderKey, String> headers) {
     logRetryStatus("object upload");
     var requestBuilder = PutObjectRequest.builder().bucket(bucket).key(objectName);
@@ -271,21 +273,37 @@ public class S3ClientWrapper implements ObjectStoreClient {
   }
 
   /**
-   * Fetches the CWA Hash for the given S3Object. Unfortunately, this is necessary for the AWS SDK, as it does not
-   * support fetching metadata within the {@link ListObjectsRequest}.
+   * Fetches the CWA Hash for the given object. Unfortunately, this is necessary for the AWS SDK, as it does not support
+   * fetching metadata within the {@link ListObjectsRequest}.
    *
-   * @param s3Object the S3Object to fetch the CWA hash for
-   * @param bucket   the target bucket
+   * @param bucket     the target bucket
+   * @param objectName the name of the object to fetch the CWA hash for
    * @return the CWA hash as a String, or null, if there is no CWA hash available on that object.
    */
-  private String fetchCwaHash(software.amazon.awssdk.services.s3.model.S3Object s3Object, String bucket) {
-    var result = this.s3Client.headObject(HeadObjectRequest.builder().bucket(bucket).key(s3Object.key()).build());
+  @Override
+  @Retryable(
+      value = SdkException.class,
+      maxAttemptsExpression = "${services.distribution.objectstore.retry-attempts}",
+      backoff = @Backoff(
+          delayExpression = "${services.distribution.objectstore.retry-backoff}"))
+  public String getCwaHash(String bucket, String objectName) {
+    logRetryStatus("object metadata download");
+    var result = this.s3Client.headObject(HeadObjectRequest.builder().bucket(bucket).key(objectName).build());
     return result.metadata().get(HeaderKey.CWA_HASH.keyValue);
   }
 
-  private S3Object buildS3Object(software.amazon.awssdk.services.s3.model.S3Object s3Object, String bucket) {
-    String cwaHash = fetchCwaHash(s3Object, bucket);
-    return new S3Object(s3Object.key(), cwaHash);
+  @Recover
+  public String skipMetadataReadOperation(Throwable cause) {
+    throw new ObjectStoreOperationFailedException("Failed to get object metadata from object store", cause);
+  }
+
+  /**
+   * Builds the {@link S3Object} from the listing result only. The CWA hash is not fetched here (which would require
+   * one HEAD request per object), but can be derived from the ETag in most cases, see
+   * {@link S3Object#getCwaHashFromEtag()}, or fetched on demand through {@link #getCwaHash(String, String)}.
+   */
+  private S3Object buildS3Object(software.amazon.awssdk.services.s3.model.S3Object s3Object) {
+    return new S3Object(s3Object.key(), null, s3Object.eTag());
   }
 
   private void logRetryStatus(String action) {
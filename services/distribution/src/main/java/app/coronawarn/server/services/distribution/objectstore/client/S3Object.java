@@ -1,6 +1,10 @@
 package app.coronawarn.server.services.distribution.objectstore.client;
 
 import java.util.Objects;
+import java.util.Optional;
+import java.util.regex.Pattern;
+import org.bouncycastle.util.encoders.Hex;
+import org.springframework.util.DigestUtils;
 
 /**
  * Represents an object as discovered on S3.
@@ -12,9 +16,17 @@ public class S3Object {
    */
   private final String objectName;
 
+  /**
+   * The ETag of a single part upload is the hex encoded MD5 of the object content.
+   */
+  private static final Pattern SINGLE_PART_ETAG = Pattern.compile("[0-9a-fA-F]{32}");
+
   /** The cwaHash of this S3 Object. */
   private String cwaHash;
 
+  /** The ETag of this S3 Object, as returned by the object listing (without quotes). */
+  private String etag;
+
   /**
    * Constructs a new S3Object for the given object name.
    *
@@ -35,6 +47,18 @@ public class S3Object {
     this.cwaHash = cwaHash;
   }
 
+  /**
+   * Constructs a new S3Object for the given object name.
+   *
+   * @param objectName the target object name
+   * @param cwaHash    the checksum for that file, or {@code null} if it has not been fetched
+   * @param etag       the ETag of that file, as returned by the object listing
+   */
+  public S3Object(String objectName, String cwaHash, String etag) {
+    this(objectName, cwaHash);
+    this.etag = etag == null ? null : etag.replace("\"", "");
+  }
+
   public String getObjectName() {
     return objectName;
   }
@@ -43,6 +67,25 @@ public class S3Object {
     return cwaHash;
   }
 
+  public String getEtag() {
+    return etag;
+  }
+
+  /**
+   * Derives the <a href="https://github.com/corona-warn-app/cwa-server/blob/HEAD/docs/DISTRIBUTION.md#cwa-hash">CWA-hash</a>
+   * from the ETag of this object. For objects which were uploaded in a single part, the ETag is the MD5 of the object
+   * content, so the CWA-hash (which mimics the multi-part ETag algorithm) of the object content can be computed without
+   * fetching the object metadata.
+   *
+   * @return the CWA-hash of the object content, or {@link Optional#empty()} if the ETag is not a plain MD5 value.
+   */
+  public Optional<String> getCwaHashFromEtag() {
+    if (etag == null || !SINGLE_PART_ETAG.matcher(etag).matches()) {
+      return Optional.empty();
+    }
+    return Optional.of(DigestUtils.md5DigestAsHex(Hex.decode(etag)));
+  }
+
   /**
    * Indicates if the S3 object is a file with diagnosis key content.
    * The evaluation is based on the distribution logic which implies that such files are generated
@@ -63,12 +106,13 @@ public class S3Object {
       return false;
     }
     S3Object s3Object = (S3Object) o;
-    return Objects.equals(objectName, s3Object.objectName) && Objects.equals(cwaHash, s3Object.cwaHash);
+    return Objects.equals(objectName, s3Object.objectName) && Objects.equals(cwaHash, s3Object.cwaHash)
+        && Objects.equals(etag, s3Object.etag);
   }
 
   @Override
   public int hashCode() {
-    return Objects.hash(objectName, cwaHash);
+    return Objects.hash(objectName, cwaHash, etag);
   }
 
   @Override
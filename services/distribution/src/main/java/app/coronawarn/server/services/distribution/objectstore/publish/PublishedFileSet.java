@@ -5,6 +5,7 @@ package app.coronawarn.server.services.distribution.objectstore.publish;
 import app.coronawarn.server.services.distribution.objectstore.client.S3Object;
 import java.util.List;
 import java.util.Map;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 /**
@@ -15,7 +16,8 @@ public class PublishedFileSet {
   /** ta map of S3 objects with the S3 object name as the key component of the map. */
   private Map<String, S3Object> s3Objects;
   private boolean isKeyFilePublishingAllowed;
-
+  /** fetches the CWA hash of S3 objects, for which it is neither known nor derivable from the ETag. */
+  private final Function<S3Object, String> cwaHashLoader;
 
   /**
    * Creates a new PublishedFileSet for the given S3 objects with the help of the
@@ -27,9 +29,25 @@ public class PublishedFileSet {
    *                                   to allow diagnosis key file updates on S3
    */
   public PublishedFileSet(List<S3Object> s3Objects, boolean isKeyFilePublishingAllowed) {
+    this(s3Objects, isKeyFilePublishingAllowed, S3Object::getCwaHash);
+  }
+
+  /**
+   * Creates a new PublishedFileSet for the given S3 objects, which may have been listed without their metadata. The
+   * CWA hash of such an object is derived from its ETag if possible, and only otherwise fetched through the given
+   * loader. The loader is only called for objects whose content has to be compared to a local file.
+   *
+   * @param s3Objects                  the list of s3 objects.
+   * @param isKeyFilePublishingAllowed whether the system is currently configured
+   *                                   to allow diagnosis key file updates on S3
+   * @param cwaHashLoader              fetches the CWA hash of an S3 object on demand
+   */
+  public PublishedFileSet(List<S3Object> s3Objects, boolean isKeyFilePublishingAllowed,
+      Function<S3Object, String> cwaHashLoader) {
     this.s3Objects = s3Objects.stream()
         .collect(Collectors.toMap(S3Object::getObjectName, s3object -> s3object));
     this.isKeyFilePublishingAllowed = isKeyFilePublishingAllowed;
+    this.cwaHashLoader = cwaHashLoader;
   }
 
   /**
@@ -60,7 +78,13 @@ public class PublishedFileSet {
   }
 
   private boolean contentChanged(LocalFile file, S3Object published) {
-    return !file.getChecksum().equals(published.getCwaHash());
+    if (published.getCwaHash() != null) {
+      return !file.getChecksum().equals(published.getCwaHash());
+    }
+    if (published.getCwaHashFromEtag().filter(file.getChecksum()::equals).isPresent()) {
+      return false;
+    }
+    return !file.getChecksum().equals(cwaHashLoader.apply(published));
   }
 
 }
@@ -0,0 +1,203 @@
+package app.coronawarn.server.services.distribution.objectstore.publish;
+
+import app.coronawarn.server.services.distribution.objectstore.ObjectStoreAccess;
+import app.coronawarn.server.services.distribution.objectstore.PrivateTsvObject;
+import app.coronawarn.server.services.distribution.objectstore.PrivateTsvObject.Content;
+import app.coronawarn.server.services.distribution.objectstore.client.S3Object;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+
+/**
+ * Keeps track of all objects, which have been published to the object store, so that the diff between the local files
+ * and the object store can be computed without listing (and requesting the metadata of) all published objects.<br>
+ * The manifest is stored as {@link PrivateTsvObject}. Its header contains the time of the last reconciliation with the
+ * object store listing, each row contains the S3 key, the
+ * <a href="https://github.com/corona-warn-app/cwa-server/blob/HEAD/docs/DISTRIBUTION.md#cwa-hash">CWA-hash</a>, the size
+ * and the publishing time of a single object.
+ */
+public class PublishedManifest {
+
+  /**
+   * The S3 key of the manifest, see {@link PrivateTsvObject}.
+   */
+  public static final String S3_KEY = "cwa-publish-manifest";
+
+  private static final PrivateTsvObject TSV_OBJECT = new PrivateTsvObject(S3_KEY, "cwa-publish-manifest-v1", 1, 4);
+
+  /**
+   * The time of the last reconciliation of the manifest with the object store listing.
+   */
+  private final Instant reconciledAt;
+
+  /**
+   * The manifest entries, sorted by their S3 key.
+   */
+  private final Map<String, Entry> entries = new TreeMap<>();
+
+  /**
+   * Creates an empty manifest.
+   *
+   * @param reconciledAt the time of the last reconciliation with the object store listing
+   */
+  public PublishedManifest(Instant reconciledAt) {
+    this.reconciledAt = reconciledAt;
+  }
+
+  /**
+   * Creates a manifest from an object store listing. The CWA-hash and size of the listed objects is not known, so they
+   * will be compared by their ETag or their metadata on the next publishing.
+   *
+   * @param s3Objects    the objects currently available on the object store
+   * @param reconciledAt the time of the listing
+   * @return the manifest
+   */
+  public static PublishedManifest fromListing(Collection<S3Object> s3Objects, Instant reconciledAt) {
+    PublishedManifest manifest = new PublishedManifest(reconciledAt);
+    s3Objects.forEach(s3Object -> manifest.put(s3Object.getObjectName(),
+        new Entry(s3Object.getCwaHash(), Entry.UNKNOWN_SIZE, reconciledAt)));
+    return manifest;
+  }
+
+  /**
+   * Loads the manifest from the object store.
+   *
+   * @param objectStoreAccess used to download the manifest
+   * @return the manifest, or {@link Optional#empty()} if no manifest has been stored yet
+   * @throws IOException if the manifest could not be read or is not a valid manifest
+   */
+  public static Optional<PublishedManifest> load(ObjectStoreAccess objectStoreAccess) throws IOException {
+    Optional<Content> content = TSV_OBJECT.load(objectStoreAccess);
+    return content.isEmpty() ? Optional.empty() : Optional.of(fromContent(content.get()));
+  }
+
+  /**
+   * Reads a manifest, which has been written by {@link #write(OutputStream)}.
+   *
+   * @param content the manifest content
+   * @return the manifest
+   * @throws IOException if the content could not be read or is not a valid manifest
+   */
+  public static PublishedManifest read(InputStream content) throws IOException {
+    return fromContent(TSV_OBJECT.read(content));
+  }
+
+  private static PublishedManifest fromContent(Content content) throws IOException {
+    try {
+      PublishedManifest manifest = new PublishedManifest(
+          Instant.ofEpochSecond(Long.parseLong(content.getHeader().get(0))));
+      for (List<String> row : content.getRows()) {
+        manifest.put(row.get(0), new Entry(row.get(1).isEmpty() ? null : row.get(1), Long.parseLong(row.get(2)),
+            Instant.ofEpochSecond(Long.parseLong(row.get(3)))));
+      }
+      return manifest;
+    } catch (NumberFormatException e) {
+      throw new IOException("Invalid manifest", e);
+    }
+  }
+
+  /**
+   * Stores this manifest on the object store.
+   *
+   * @param objectStoreAccess used to upload the manifest
+   * @throws IOException if the manifest could not be written
+   */
+  public void store(ObjectStoreAccess objectStoreAccess) throws IOException {
+    TSV_OBJECT.store(objectStoreAccess, toContent());
+  }
+
+  /**
+   * Writes this manifest in the format expected by {@link #read(InputStream)}.
+   *
+   * @param target the stream to write to
+   * @throws IOException if the manifest could not be written
+   */
+  public void write(OutputStream target) throws IOException {
+    TSV_OBJECT.write(target, toContent());
+  }
+
+  private Content toContent() {
+    List<List<String>> rows = entries.entrySet().stream()
+        .map(entry -> List.of(entry.getKey(),
+            Optional.ofNullable(entry.getValue().getCwaHash()).orElse(""),
+            String.valueOf(entry.getValue().getSize()),
+            String.valueOf(entry.getValue().getPublishedAt().getEpochSecond())))
+        .collect(Collectors.toList());
+    return new Content(List.of(String.valueOf(reconciledAt.getEpochSecond())), rows);
+  }
+
+  public Instant getReconciledAt() {
+    return reconciledAt;
+  }
+
+  public Optional<Entry> get(String s3Key) {
+    return Optional.ofNullable(entries.get(s3Key));
+  }
+
+  public void put(String s3Key, Entry entry) {
+    entries.put(s3Key, entry);
+  }
+
+  public void removeAll(Collection<String> s3Keys) {
+    s3Keys.forEach(entries::remove);
+  }
+
+  /**
+   * Returns the published objects as they would have been returned by an object store listing, but with the known
+   * CWA-hash.
+   *
+   * @return the published objects
+   */
+  public List<S3Object> getS3Objects() {
+    return entries.entrySet().stream()
+        .map(entry -> new S3Object(entry.getKey(), entry.getValue().getCwaHash()))
+        .collect(Collectors.toList());
+  }
+
+  /**
+   * A published object.
+   */
+  public static class Entry {
+
+    /**
+     * Size of objects, which have been taken over from an object store listing.
+     */
+    public static final long UNKNOWN_SIZE = -1;
+
+    private final String cwaHash;
+    private final long size;
+    private final Instant publishedAt;
+
+    /**
+     * Creates a new manifest entry.
+     *
+     * @param cwaHash     the CWA-hash of the published object, or {@code null} if it is not known
+     * @param size        the size of the published object in bytes
+     * @param publishedAt the time the object has been published
+     */
+    public Entry(String cwaHash, long size, Instant publishedAt) {
+      this.cwaHash = cwaHash;
+      this.size = size;
+      this.publishedAt = publishedAt;
+    }
+
+    public String getCwaHash() {
+      return cwaHash;
+    }
+
+    public long getSize() {
+      return size;
+    }
+
+    public Instant getPublishedAt() {
+      return publishedAt;
+    }
+  }
+}
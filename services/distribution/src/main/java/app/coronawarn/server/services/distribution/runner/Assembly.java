@@ -7,6 +7,7 @@ import app.coronawarn.server.services.distribution.assembly.component.DccRevocat
 import app.coronawarn.server.services.distribution.assembly.component.OutputDirectoryProvider;
 import app.coronawarn.server.services.distribution.assembly.structure.WritableOnDisk;
 import app.coronawarn.server.services.distribution.assembly.structure.directory.Directory;
+import app.coronawarn.server.services.distribution.assembly.structure.util.ParallelAssembly;
 import java.util.Arrays;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -58,21 +59,13 @@ public class Assembly implements ApplicationRunner {
         dccRevocationListStructureProvider.fetchDccRevocationList();
         outputDirectory.addWritable(dccRevocationListStructureProvider.getDccRevocationDirectory());
         outputDirectoryProvider.clear();
-        logger.debug("Preparing files...");
-        logger.info("Start signing...");
-        outputDirectory.prepare(new ImmutableStack<>());
-        logger.debug("Writing files...");
-        outputDirectory.write();
+        assemble(outputDirectory);
         logger.info("DCC Revocation data assembled successfully.");
       } else {
         outputDirectory.addWritable(cwaApiStructureProvider.getDirectory());
         outputDirectory.addWritable(cwaApiStructureProvider.getDirectoryV2());
         outputDirectoryProvider.clear();
-        logger.debug("Preparing files...");
-        logger.info("Start signing...");
-        outputDirectory.prepare(new ImmutableStack<>());
-        logger.debug("Writing files...");
-        outputDirectory.write();
+        assemble(outputDirectory);
         logger.info("Distribution data assembled successfully.");
       }
     } catch (final Exception e) {
@@ -81,6 +74,21 @@ public class Assembly implements ApplicationRunner {
     }
   }
 
+  /**
+   * Prepares and writes the given directory. Independent subtrees are processed concurrently, using at most one thread
+   * per available processor.
+   *
+   * @param outputDirectory the directory to assemble
+   */
+  private void assemble(final Directory<WritableOnDisk> outputDirectory) {
+    final int parallelism = Runtime.getRuntime().availableProcessors();
+    logger.debug("Preparing files...");
+    logger.info("Start signing...");
+    ParallelAssembly.invoke(parallelism, () -> outputDirectory.prepare(new ImmutableStack<>()));
+    logger.debug("Writing files...");
+    ParallelAssembly.invoke(parallelism, outputDirectory::write);
+  }
+
   public boolean isDccRevocation() {
     return Arrays.stream(environment.getActiveProfiles()).anyMatch(env -> env.equalsIgnoreCase("revocation"));
   }
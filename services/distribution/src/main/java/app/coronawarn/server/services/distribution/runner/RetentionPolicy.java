@@ -1,8 +1,10 @@
 package app.coronawarn.server.services.distribution.runner;
 
+import app.coronawarn.server.common.persistence.service.DccContentService;
 import app.coronawarn.server.common.persistence.service.DccRevocationListService;
 import app.coronawarn.server.common.persistence.service.DiagnosisKeyService;
 import app.coronawarn.server.common.persistence.service.StatisticsDownloadService;
+import app.coronawarn.server.common.persistence.service.SubmissionPartitionService;
 import app.coronawarn.server.common.persistence.service.TraceTimeIntervalWarningService;
 import app.coronawarn.server.services.distribution.Application;
 import app.coronawarn.server.services.distribution.config.DistributionServiceConfig;
@@ -44,6 +46,10 @@ public class RetentionPolicy implements ApplicationRunner {
 
   private final StatisticsDownloadService statisticsDownloadService;
 
+  private final SubmissionPartitionService submissionPartitionService;
+
+  private final DccContentService dccContentService;
+
   private DccRevocationListService dccRevocationListService;
 
   private final Environment environment;
@@ -58,6 +64,8 @@ public class RetentionPolicy implements ApplicationRunner {
    * @param applicationContext              ApplicationContext
    * @param distributionServiceConfig       retention days
    * @param s3RetentionPolicy               S3RetentionPolicy
+   * @param submissionPartitionService      SubmissionPartitionService
+   * @param dccContentService               DccContentService
    */
   public RetentionPolicy(
       DiagnosisKeyService diagnosisKeyService,
@@ -68,7 +76,9 @@ public class RetentionPolicy implements ApplicationRunner {
       DccRevocationListService dccRevocationListService,
       final Environment environment,
       final DccRevocationClient dccRevocationClient,
-      StatisticsDownloadService statisticsDownloadService) {
+      StatisticsDownloadService statisticsDownloadService,
+      SubmissionPartitionService submissionPartitionService,
+      DccContentService dccContentService) {
     this.diagnosisKeyService = diagnosisKeyService;
     this.traceTimeIntervalWarningService = traceTimeIntervalWarningService;
     this.applicationContext = applicationContext;
@@ -79,6 +89,8 @@ public class RetentionPolicy implements ApplicationRunner {
     this.environment = environment;
     this.dccRevocationClient = dccRevocationClient;
     this.statisticsDownloadService = statisticsDownloadService;
+    this.submissionPartitionService = submissionPartitionService;
+    this.dccContentService = dccContentService;
   }
 
   @Override
@@ -93,12 +105,13 @@ public class RetentionPolicy implements ApplicationRunner {
         }
         s3RetentionPolicy.deleteDccRevocationDir();
       } else {
+        submissionPartitionService.applyRetentionPolicy(retentionDays);
+        submissionPartitionService.createUpcomingPartitions();
         diagnosisKeyService.applyRetentionPolicy(retentionDays);
         traceTimeIntervalWarningService.applyRetentionPolicy(retentionDays);
-        s3RetentionPolicy.applyDiagnosisKeyDayRetentionPolicy(retentionDays);
-        s3RetentionPolicy.applyDiagnosisKeyHourRetentionPolicy(hourFileRetentionDays);
-        s3RetentionPolicy.applyTraceTimeWarningHourRetentionPolicy(retentionDays);
+        s3RetentionPolicy.applyRetentionPolicies(retentionDays, hourFileRetentionDays);
         statisticsDownloadService.applyRetentionPolicy(retentionDays);
+        dccContentService.applyRetentionPolicy(retentionDays);
       }
       logger.debug("Retention policy applied successfully.");
     } catch (FetchDccListException e) {
@@ -4,6 +4,7 @@ package app.coronawarn.server.services.distribution.runner;
 
 import app.coronawarn.server.services.distribution.Application;
 import app.coronawarn.server.services.distribution.assembly.component.OutputDirectoryProvider;
+import app.coronawarn.server.services.distribution.assembly.diagnosiskeys.DiagnosisKeyArchiveFingerprints;
 import app.coronawarn.server.services.distribution.objectstore.S3Publisher;
 import app.coronawarn.server.services.distribution.objectstore.client.ObjectStoreOperationFailedException;
 import java.io.IOException;
@@ -17,7 +18,8 @@ import org.springframework.core.annotation.Order;
 import org.springframework.stereotype.Component;
 
 /**
- * This runner will sync the base working directory to the S3.
+ * This runner will sync the base working directory to the S3. Afterwards the {@link DiagnosisKeyArchiveFingerprints}
+ * of the published diagnosis key archives are stored for the next incremental assembly.
  */
 @Component
 @Order(3)
@@ -27,12 +29,14 @@ public class S3Distribution implements ApplicationRunner {
 
   private final OutputDirectoryProvider outputDirectoryProvider;
   private final S3Publisher s3Publisher;
+  private final DiagnosisKeyArchiveFingerprints archiveFingerprints;
   private final ApplicationContext applicationContext;
 
   S3Distribution(OutputDirectoryProvider outputDirectoryProvider, S3Publisher s3Publisher,
-      ApplicationContext applicationContext) {
+      DiagnosisKeyArchiveFingerprints archiveFingerprints, ApplicationContext applicationContext) {
     this.outputDirectoryProvider = outputDirectoryProvider;
     this.s3Publisher = s3Publisher;
+    this.archiveFingerprints = archiveFingerprints;
     this.applicationContext = applicationContext;
   }
 
@@ -42,6 +46,7 @@ public class S3Distribution implements ApplicationRunner {
       Path pathToDistribute = outputDirectoryProvider.getFileOnDisk().toPath().toAbsolutePath();
 
       s3Publisher.publish(pathToDistribute);
+      archiveFingerprints.store();
       logger.info("Data pushed to Object Store successfully.");
     } catch (UnsupportedOperationException | ObjectStoreOperationFailedException | IOException e) {
       logger.error("Distribution failed.", e);
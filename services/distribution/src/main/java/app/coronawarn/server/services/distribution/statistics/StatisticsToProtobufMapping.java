@@ -31,16 +31,14 @@ import app.coronawarn.server.services.distribution.statistics.keyfigurecard.fact
 import app.coronawarn.server.services.distribution.statistics.validation.StatisticsJsonValidator;
 import java.io.IOException;
 import java.time.LocalDate;
-import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
-import java.util.Arrays;
-import java.util.Collections;
-import java.util.Comparator;
+import java.util.Collection;
 import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
-import java.util.concurrent.atomic.AtomicReference;
+import java.util.Set;
 import java.util.stream.Collectors;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -52,6 +50,13 @@ public class StatisticsToProtobufMapping {
 
   private static final Logger logger = LoggerFactory.getLogger(StatisticsToProtobufMapping.class);
 
+  /**
+   * The key figure cards in the order in which they are distributed.
+   */
+  private static final List<Cards> KEY_FIGURE_CARDS = List.of(INFECTIONS_CARD, INCIDENCE_CARD, KEY_SUBMISSION_CARD,
+      REPRODUCTION_NUMBER_CARD, FIRST_VACCINATION_CARD, FULLY_VACCINATED_CARD, VACCINATION_DOSES_CARD,
+      HOSPITALIZATION_INCIDENCE_CARD, INTENSIVE_CARE_CARD, JOINED_INCIDENCE_CARD, BOOSTER_VACCINATED_CARD);
+
   private final DistributionServiceConfig distributionServiceConfig;
   private final KeyFigureCardFactory keyFigureCardFactory;
   private final StatisticJsonFileLoader jsonFileLoader;
@@ -104,16 +109,15 @@ public class StatisticsToProtobufMapping {
       } else {
         StatisticsJsonValidator<StatisticsJsonStringObject> validator = new StatisticsJsonValidator<>();
 
-        List<StatisticsJsonStringObject> jsonStringObjects = SerializationUtils
-            .deserializeJson(file.get().getContent(), typeFactory -> typeFactory
-                .constructCollectionType(List.class, StatisticsJsonStringObject.class));
-
-        jsonStringObjects = new ArrayList<>(validator.validate(jsonStringObjects));
+        MostRecentStatistics mostRecentStatistics = new MostRecentStatistics(getAllCardIdSequence());
+        SerializationUtils.deserializeJsonArray(file.get().getContent(), StatisticsJsonStringObject.class,
+            jsonStringObject -> validator.parseEffectiveDate(jsonStringObject)
+                .ifPresent(effectiveDate -> mostRecentStatistics.add(jsonStringObject, effectiveDate)));
 
         this.updateETag(file.get().getETag());
         return Statistics.newBuilder()
             .addAllCardIdSequence(getAllCardIdSequence())
-            .addAllKeyFigureCards(buildAllKeyFigureCards(jsonStringObjects))
+            .addAllKeyFigureCards(buildAllKeyFigureCards(mostRecentStatistics))
             .build();
       }
     } catch (BucketNotFoundException | ConnectionException | FilePathNotFoundException | IOException ex) {
@@ -133,132 +137,42 @@ public class StatisticsToProtobufMapping {
     return idIntegerSequence;
   }
 
-  private LocalDate effectiveDateStringToLocalDate(String effectiveDate) {
-    DateTimeFormatter formatter = DateTimeFormatter.ofPattern("yyyy-MM-dd");
-    return LocalDate.parse(effectiveDate, formatter);
-  }
-
-  private List<KeyFigureCard> buildAllKeyFigureCards(List<StatisticsJsonStringObject> jsonStringObjects) {
+  private List<KeyFigureCard> buildAllKeyFigureCards(MostRecentStatistics mostRecentStatistics) {
     Map<Integer, Optional<KeyFigureCard>> figureCardMap = new HashMap<>();
 
-    figureCardMap.put(INFECTIONS_CARD.ordinal(), Optional.empty());
-    figureCardMap.put(INCIDENCE_CARD.ordinal(), Optional.empty());
-    figureCardMap.put(KEY_SUBMISSION_CARD.ordinal(), Optional.empty());
-    figureCardMap.put(REPRODUCTION_NUMBER_CARD.ordinal(), Optional.empty());
-    figureCardMap.put(FIRST_VACCINATION_CARD.ordinal(), Optional.empty());
-    figureCardMap.put(FULLY_VACCINATED_CARD.ordinal(), Optional.empty());
-    figureCardMap.put(VACCINATION_DOSES_CARD.ordinal(), Optional.empty());
-    figureCardMap.put(HOSPITALIZATION_INCIDENCE_CARD.ordinal(), Optional.empty());
-    figureCardMap.put(INTENSIVE_CARE_CARD.ordinal(), Optional.empty());
-    figureCardMap.put(JOINED_INCIDENCE_CARD.ordinal(), Optional.empty());
-    figureCardMap.put(BOOSTER_VACCINATED_CARD.ordinal(), Optional.empty());
-
-    List<StatisticsJsonStringObject> orderedList = jsonStringObjects.stream()
-        .sorted(Comparator.comparing(a -> effectiveDateStringToLocalDate(a.getEffectiveDate())))
-        .collect(Collectors.toList());
-    Collections.reverse(orderedList);
-
-    List<StatisticsJsonStringObject> collectedJsonObjects = new ArrayList<>();
-    AtomicReference<StatisticsJsonStringObject> joinedCardIncidence = new AtomicReference<>();
-
-    createJoinedCardIncidence(orderedList, joinedCardIncidence);
-    StatisticsJsonStringObject joinedIncidenceObject = joinedCardIncidence.get();
-    if (joinedIncidenceObject != null && hasRequiredFieldsForJoinedCardIncidence(joinedIncidenceObject)) {
-      orderedList.add(joinedIncidenceObject);
-    }
-
-    for (var stat : orderedList) {
-      collectedJsonObjects.add(stat);
-      List<Integer> cardIdSequence = getAllCardIdSequence();
-      Arrays.stream(Cards.values()).map(Cards::ordinal)
-          .filter(cardIdSequence::contains)
-          .filter(figureCardMap::containsKey)
-          .forEach(id -> {
-            if (figureCardMap.get(id).isEmpty()) {
-              KeyFigureCard card;
-              try {
-                card = keyFigureCardFactory.createKeyFigureCard(stat, id);
-                logger.info("[{}] {} successfully created", stat.getEffectiveDate(), getNameFor(id));
-                figureCardMap.put(id, Optional.of(card));
-              } catch (MissingPropertyException ex) {
-                logger.warn("[{}] {}", stat.getEffectiveDate(), ex.getMessage());
-              }
-            }
-          });
-
-      if (figureCardMap.values().stream().allMatch(Optional::isPresent)) {
-        break;
-      }
+    List<Integer> cardIdSequence = getAllCardIdSequence();
+    for (Cards card : KEY_FIGURE_CARDS) {
+      int id = card.ordinal();
+      Optional<StatisticsJsonStringObject> stat = cardIdSequence.contains(id)
+          ? mostRecentStatistics.getStatistic(id)
+          : Optional.empty();
+      figureCardMap.put(id, stat.flatMap(statistic -> createKeyFigureCard(statistic, id)));
     }
 
     if (logger.isDebugEnabled()) {
       logger.debug("The following statistics JSON entries were used to create the cards. Null values are omitted.");
-      for (var stat : collectedJsonObjects) {
+      for (var stat : mostRecentStatistics.getAllStatistics()) {
         var jsonString = SerializationUtils.stringifyObject(stat);
         logger.debug("[{}] {}", stat.getEffectiveDate(), jsonString);
       }
     }
 
-    var emptyCard = keyFigureCardFactory.createKeyFigureCard(jsonStringObjects.get(0), EMPTY_CARD.ordinal());
-    return List.of(
-        figureCardMap.get(INFECTIONS_CARD.ordinal()).orElse(emptyCard),
-        figureCardMap.get(INCIDENCE_CARD.ordinal()).orElse(emptyCard),
-        figureCardMap.get(KEY_SUBMISSION_CARD.ordinal()).orElse(emptyCard),
-        figureCardMap.get(REPRODUCTION_NUMBER_CARD.ordinal()).orElse(emptyCard),
-        figureCardMap.get(FIRST_VACCINATION_CARD.ordinal()).orElse(emptyCard),
-        figureCardMap.get(FULLY_VACCINATED_CARD.ordinal()).orElse(emptyCard),
-        figureCardMap.get(VACCINATION_DOSES_CARD.ordinal()).orElse(emptyCard),
-        figureCardMap.get(HOSPITALIZATION_INCIDENCE_CARD.ordinal()).orElse(emptyCard),
-        figureCardMap.get(INTENSIVE_CARE_CARD.ordinal()).orElse(emptyCard),
-        figureCardMap.get(JOINED_INCIDENCE_CARD.ordinal()).orElse(emptyCard),
-        figureCardMap.get(BOOSTER_VACCINATED_CARD.ordinal()).orElse(emptyCard)
-    );
-  }
-
-  private void createJoinedCardIncidence(List<StatisticsJsonStringObject> orderedList,
-      AtomicReference<StatisticsJsonStringObject> joinedCardIncidence) {
-    orderedList.forEach(obj -> {
-      if (hasRequiredFieldsForIncidenceKeyFigure(obj)) {
-        if (!isJoinedIncidenceCardAlreadyCreated(joinedCardIncidence)) {
-          joinedCardIncidence.getAndSet(obj);
-          joinedCardIncidence.get().setHospitalizationEffectiveDate("");
-        } else if (keyFigureNotSetForJoinedIncidenceCard(joinedCardIncidence.get().getEffectiveDate())
-            || LocalDate.parse(joinedCardIncidence.get().getEffectiveDate())
-            .isBefore(LocalDate.parse(obj.getEffectiveDate()))) {
-          joinedCardIncidence.get().setSevenDayIncidence(obj.getSevenDayIncidence());
-          joinedCardIncidence.get().setSevenDayIncidenceTrend1percent(obj.getSevenDayIncidenceTrend1percent());
-          joinedCardIncidence.get().setSevenDayIncidenceGrowthrate(obj.getSevenDayIncidenceGrowthrate());
-          joinedCardIncidence.get().setEffectiveDate(obj.getEffectiveDate());
-        }
-      }
-      if (hasRequiredFieldsForHospitalizationKeyFigure(obj)) {
-        if (!isJoinedIncidenceCardAlreadyCreated(joinedCardIncidence)) {
-          joinedCardIncidence.getAndSet(obj);
-          joinedCardIncidence.get()
-              .setHospitalizationEffectiveDate(obj.getEffectiveDate());
-          joinedCardIncidence.get().setEffectiveDate("");
-        } else if (keyFigureNotSetForJoinedIncidenceCard(joinedCardIncidence.get().getHospitalizationEffectiveDate())
-            || LocalDate.parse(joinedCardIncidence.get().getHospitalizationEffectiveDate())
-            .isBefore(LocalDate.parse(obj.getEffectiveDate()))) {
-          joinedCardIncidence.get()
-              .setSevenDayHospitalizationReportedDaily(obj.getSevenDayHospitalizationReportedDaily());
-          joinedCardIncidence.get()
-              .setSevenDayIncidenceGrowthrate(obj.getSevenDayHospitalizationReportedGrowthrate());
-          joinedCardIncidence.get()
-              .setSevenDayHospitalizationReportedTrend1percent(obj.getSevenDayHospitalizationReportedTrend1percent());
-          joinedCardIncidence.get()
-              .setHospitalizationEffectiveDate(obj.getEffectiveDate());
-        }
-      }
-    });
-  }
-
-  private boolean keyFigureNotSetForJoinedIncidenceCard(String effectiveDate) {
-    return effectiveDate.isEmpty();
+    var emptyCard = keyFigureCardFactory.createKeyFigureCard(mostRecentStatistics.getFirst(),
+        EMPTY_CARD.ordinal());
+    return KEY_FIGURE_CARDS.stream()
+        .map(card -> figureCardMap.get(card.ordinal()).orElse(emptyCard))
+        .collect(Collectors.toList());
   }
 
-  private boolean isJoinedIncidenceCardAlreadyCreated(AtomicReference<StatisticsJsonStringObject> joinedCardIncidence) {
-    return joinedCardIncidence.get() != null;
+  private Optional<KeyFigureCard> createKeyFigureCard(StatisticsJsonStringObject stat, int id) {
+    try {
+      KeyFigureCard card = keyFigureCardFactory.createKeyFigureCard(stat, id);
+      logger.info("[{}] {} successfully created", stat.getEffectiveDate(), getNameFor(id));
+      return Optional.of(card);
+    } catch (MissingPropertyException ex) {
+      logger.warn("[{}] {}", stat.getEffectiveDate(), ex.getMessage());
+      return Optional.empty();
+    }
   }
 
   private boolean hasRequiredFieldsForHospitalizationKeyFigure(StatisticsJsonStringObject statJsonObject) {
@@ -270,8 +184,92 @@ public class StatisticsToProtobufMapping {
     return statJsonObject.getSevenDayIncidence() != null && statJsonObject.getSevenDayIncidenceTrend1percent() != null;
   }
 
-  private boolean hasRequiredFieldsForJoinedCardIncidence(StatisticsJsonStringObject statJsonObject) {
-    return hasRequiredFieldsForHospitalizationKeyFigure(statJsonObject)
-        && hasRequiredFieldsForIncidenceKeyFigure(statJsonObject);
+  /**
+   * The most recent statistics for each key figure card, i.e. those from which the card is created. Only the entries
+   * which contain all fields required for a card are considered for it, so that a card is never empty just because
+   * the most recent entry lacks some of its fields. On equal effective dates, the entry read last is kept. The joined
+   * incidence card combines the most recent incidence with the most recent hospitalization statistics.
+   */
+  private class MostRecentStatistics {
+
+    private final Map<Integer, StatisticsJsonStringObject> statistics = new HashMap<>();
+    private final Map<Integer, LocalDate> effectiveDates = new HashMap<>();
+    private final List<Integer> cardIds;
+    private StatisticsJsonStringObject first;
+    private StatisticsJsonStringObject incidenceStatistic;
+    private LocalDate incidenceEffectiveDate;
+    private StatisticsJsonStringObject hospitalizationStatistic;
+    private LocalDate hospitalizationEffectiveDate;
+
+    MostRecentStatistics(List<Integer> cardIdSequence) {
+      cardIds = KEY_FIGURE_CARDS.stream()
+          .filter(card -> card != JOINED_INCIDENCE_CARD)
+          .map(Cards::ordinal)
+          .filter(cardIdSequence::contains)
+          .collect(Collectors.toList());
+    }
+
+    void add(StatisticsJsonStringObject stat, LocalDate effectiveDate) {
+      if (first == null) {
+        first = stat;
+      }
+      for (int id : cardIds) {
+        LocalDate cardEffectiveDate = effectiveDates.get(id);
+        if ((cardEffectiveDate == null || !effectiveDate.isBefore(cardEffectiveDate))
+            && keyFigureCardFactory.hasRequiredFields(stat, id)) {
+          statistics.put(id, stat);
+          effectiveDates.put(id, effectiveDate);
+        }
+      }
+      if (hasRequiredFieldsForIncidenceKeyFigure(stat)
+          && (incidenceStatistic == null || !effectiveDate.isBefore(incidenceEffectiveDate))) {
+        incidenceStatistic = stat;
+        incidenceEffectiveDate = effectiveDate;
+      }
+      if (hasRequiredFieldsForHospitalizationKeyFigure(stat)
+          && (hospitalizationStatistic == null || !effectiveDate.isBefore(hospitalizationEffectiveDate))) {
+        hospitalizationStatistic = stat;
+        hospitalizationEffectiveDate = effectiveDate;
+      }
+    }
+
+    Optional<StatisticsJsonStringObject> getStatistic(int id) {
+      if (id == JOINED_INCIDENCE_CARD.ordinal()) {
+        return getJoinedIncidenceStatistic();
+      }
+      return Optional.ofNullable(statistics.get(id));
+    }
+
+    private Optional<StatisticsJsonStringObject> getJoinedIncidenceStatistic() {
+      if (incidenceStatistic == null || hospitalizationStatistic == null) {
+        return Optional.empty();
+      }
+      StatisticsJsonStringObject joinedIncidence = new StatisticsJsonStringObject();
+      joinedIncidence.setEffectiveDate(incidenceStatistic.getEffectiveDate());
+      joinedIncidence.setSevenDayIncidence(incidenceStatistic.getSevenDayIncidence());
+      joinedIncidence.setSevenDayIncidenceTrend1percent(incidenceStatistic.getSevenDayIncidenceTrend1percent());
+      joinedIncidence.setSevenDayIncidenceGrowthrate(incidenceStatistic.getSevenDayIncidenceGrowthrate());
+      joinedIncidence.setHospitalizationEffectiveDate(hospitalizationStatistic.getEffectiveDate());
+      joinedIncidence.setSevenDayHospitalizationReportedDaily(
+          hospitalizationStatistic.getSevenDayHospitalizationReportedDaily());
+      joinedIncidence.setSevenDayHospitalizationReportedTrend1percent(
+          hospitalizationStatistic.getSevenDayHospitalizationReportedTrend1percent());
+      joinedIncidence.setSevenDayHospitalizationReportedGrowthrate(
+          hospitalizationStatistic.getSevenDayHospitalizationReportedGrowthrate());
+      return Optional.of(joinedIncidence);
+    }
+
+    StatisticsJsonStringObject getFirst() {
+      return first;
+    }
+
+    Collection<StatisticsJsonStringObject> getAllStatistics() {
+      Set<StatisticsJsonStringObject> allStatistics = new LinkedHashSet<>(statistics.values());
+      if (incidenceStatistic != null && hospitalizationStatistic != null) {
+        allStatistics.add(incidenceStatistic);
+        allStatistics.add(hospitalizationStatistic);
+      }
+      return allStatistics;
+    }
   }
 }
@@ -12,4 +12,8 @@ public class KeyFigureCardFactory {
   public KeyFigureCard createKeyFigureCard(StatisticsJsonStringObject stats, int cardId) {
     return getFactoryFor(cardId).makeKeyFigureCard(stats);
   }
+
+  public boolean hasRequiredFields(StatisticsJsonStringObject stats, int cardId) {
+    return getFactoryFor(cardId).hasRequiredFields(stats);
+  }
 }
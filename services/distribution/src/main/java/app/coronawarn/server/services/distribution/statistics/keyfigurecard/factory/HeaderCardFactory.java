@@ -10,7 +10,6 @@ import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
 import java.util.List;
 import java.util.Optional;
-import java.util.stream.Collectors;
 import org.springframework.util.ObjectUtils;
 
 public abstract class HeaderCardFactory {
@@ -44,14 +43,22 @@ public abstract class HeaderCardFactory {
   }
 
   private void throwIfNullFieldsFound(StatisticsJsonStringObject stats) {
-    var nullFieldsOrZeroOrLessThanZero = getRequiredFieldValues(stats).stream()
-        .filter(Optional::isEmpty)
-        .collect(Collectors.toList());
-    if (!nullFieldsOrZeroOrLessThanZero.isEmpty()) {
+    if (!hasRequiredFields(stats)) {
       throw new MissingPropertyException(this.getCardId());
     }
   }
 
+  /**
+   * Checks whether the given statistics contain all fields required to create this card, i.e. whether
+   * {@link #makeKeyFigureCard} creates a card for them instead of throwing a {@link MissingPropertyException}.
+   *
+   * @param stats JSON Object statistics
+   * @return true if none of the required fields is Null or &lt;= 0.
+   */
+  public boolean hasRequiredFields(StatisticsJsonStringObject stats) {
+    return getRequiredFieldValues(stats).stream().allMatch(Optional::isPresent);
+  }
+
   protected abstract int getCardId();
 
   protected abstract KeyFigureCard buildKeyFigureCard(StatisticsJsonStringObject stats,
@@ -5,8 +5,6 @@ import static app.coronawarn.server.services.distribution.statistics.local.Build
 import static app.coronawarn.server.services.distribution.statistics.local.BuildLocalStatisticsHelper.federalStateEnhancer;
 import static app.coronawarn.server.services.distribution.statistics.local.BuildLocalStatisticsHelper.federalStateSupplier;
 import static app.coronawarn.server.services.distribution.statistics.local.BuildLocalStatisticsHelper.findFederalStateByProvinceCode;
-import static java.util.stream.Collectors.groupingBy;
-import static java.util.stream.Collectors.toList;
 
 import app.coronawarn.server.common.persistence.service.LocalStatisticsDownloadService;
 import app.coronawarn.server.common.protocols.internal.stats.LocalStatistics;
@@ -24,6 +22,7 @@ import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
 import java.util.function.Function;
 import java.util.function.Supplier;
@@ -214,61 +213,11 @@ public class LocalStatisticsToProtobufMapping {
     }
   }
 
-  private List<LocalStatisticsJsonStringObject> filterOncePerProvinceStatistics(
-      List<LocalStatisticsJsonStringObject> jsonStringObjects) {
-    List<LocalStatisticsJsonStringObject> onePerProvinceStatistics = new ArrayList<>();
-    Map<String, List<LocalStatisticsJsonStringObject>> groupedByProvince = jsonStringObjects.stream()
-        .filter(LocalStatisticsJsonStringObject::isComplete)
-        .collect(groupingBy(LocalStatisticsJsonStringObject::getProvinceCode, toList()));
-
-    groupedByProvince.keySet().stream().forEach(key -> {
-      List<LocalStatisticsJsonStringObject> sameProvinceStatistics = groupedByProvince.get(key);
-      LocalStatisticsJsonStringObject mostRecentStatistic = null;
-      LocalStatisticsJsonStringObject mostRecentHospitalizationStatistic = null;
-
-      for (LocalStatisticsJsonStringObject provinceStatistic : sameProvinceStatistics) {
-        if (hasEmptyMostRecentStatistics(mostRecentStatistic, mostRecentHospitalizationStatistic)) {
-          mostRecentStatistic = provinceStatistic;
-          if (hasSevenDayHospitalizationStatistics(provinceStatistic)) {
-            mostRecentHospitalizationStatistic = provinceStatistic;
-          }
-        } else {
-          if (isBeforeMostRecentStatistics(mostRecentStatistic, provinceStatistic)) {
-            mostRecentStatistic = provinceStatistic;
-          }
-          if (mostRecentHospitalizationStatistic == null) {
-            if (hasSevenDayHospitalizationStatistics(provinceStatistic)) {
-              mostRecentHospitalizationStatistic = provinceStatistic;
-            }
-          } else if (isBeforeMostRecentStatistics(mostRecentHospitalizationStatistic, provinceStatistic)
-              && hasSevenDayHospitalizationStatistics(provinceStatistic)) {
-            mostRecentHospitalizationStatistic = provinceStatistic;
-          }
-        }
-      }
-
-      onePerProvinceStatistics.add(enhanceWithHospitalization(mostRecentStatistic, mostRecentHospitalizationStatistic));
-    });
-
-    return onePerProvinceStatistics;
-  }
-
-  private boolean isBeforeMostRecentStatistics(LocalStatisticsJsonStringObject mostRecentHospitalizationStatistic,
-      LocalStatisticsJsonStringObject provinceStatistic) {
-    return LocalDate.parse(mostRecentHospitalizationStatistic.getEffectiveDate())
-        .isBefore(LocalDate.parse(provinceStatistic.getEffectiveDate()));
-  }
-
-  private boolean hasSevenDayHospitalizationStatistics(LocalStatisticsJsonStringObject provinceStatistic) {
+  private static boolean hasSevenDayHospitalizationStatistics(LocalStatisticsJsonStringObject provinceStatistic) {
     return provinceStatistic.getSevenDayHospitalization1stReportedDaily() != null
         && provinceStatistic.getSevenDayHospitalization1stReportedTrend1Percent() != null;
   }
 
-  private boolean hasEmptyMostRecentStatistics(LocalStatisticsJsonStringObject mostRecentStatistic,
-      LocalStatisticsJsonStringObject mostRecentHospitalizationStatistic) {
-    return mostRecentStatistic == null && mostRecentHospitalizationStatistic == null;
-  }
-
   private LocalStatisticsJsonStringObject enhanceWithHospitalization(
       LocalStatisticsJsonStringObject mostRecentStatistics,
       LocalStatisticsJsonStringObject mostRecentHospitalizationStatistics) {
@@ -285,21 +234,53 @@ public class LocalStatisticsToProtobufMapping {
     return mostRecentStatistics;
   }
 
+  /**
+   * Streams the local statistics file and keeps only the most recent complete statistic (and the most recent one with
+   * hospitalization data) per province, so that memory does not grow with the number of days contained in the file.
+   * Each effective date is parsed once, when its statistic is read.
+   */
   private List<LocalStatisticsJsonStringObject> deserializeAndValidate(JsonFile file) throws IOException {
     StatisticsJsonValidator<LocalStatisticsJsonStringObject> validator = new StatisticsJsonValidator<>();
+    Map<String, MostRecentProvinceStatistics> mostRecentByProvince = new HashMap<>();
 
-    List<LocalStatisticsJsonStringObject> jsonStringObjects = validator.validate(
-        SerializationUtils.deserializeJson(
-            file.getContent(), typeFactory -> typeFactory
-                .constructCollectionType(List.class, LocalStatisticsJsonStringObject.class)
-        )
-    );
+    SerializationUtils.deserializeJsonArray(file.getContent(), LocalStatisticsJsonStringObject.class,
+        provinceStatistic -> validator.parseEffectiveDate(provinceStatistic)
+            .filter(effectiveDate -> provinceStatistic.isComplete())
+            .ifPresent(effectiveDate -> mostRecentByProvince
+                .computeIfAbsent(Objects.requireNonNull(provinceStatistic.getProvinceCode()),
+                    provinceCode -> new MostRecentProvinceStatistics())
+                .add(provinceStatistic, effectiveDate)));
 
-    return filterOncePerProvinceStatistics(jsonStringObjects);
+    List<LocalStatisticsJsonStringObject> onePerProvinceStatistics = new ArrayList<>();
+    mostRecentByProvince.values().forEach(mostRecent -> onePerProvinceStatistics.add(
+        enhanceWithHospitalization(mostRecent.statistic, mostRecent.hospitalizationStatistic)));
+    return onePerProvinceStatistics;
   }
 
   private boolean isFederalState(int provinceCode) {
     return provinceCode < 100;
   }
 
+  /**
+   * The most recent statistics of a single province. On equal effective dates, the statistic read first is kept.
+   */
+  private static class MostRecentProvinceStatistics {
+
+    private LocalStatisticsJsonStringObject statistic;
+    private LocalDate effectiveDate;
+    private LocalStatisticsJsonStringObject hospitalizationStatistic;
+    private LocalDate hospitalizationEffectiveDate;
+
+    void add(LocalStatisticsJsonStringObject provinceStatistic, LocalDate provinceEffectiveDate) {
+      if (statistic == null || effectiveDate.isBefore(provinceEffectiveDate)) {
+        statistic = provinceStatistic;
+        effectiveDate = provinceEffectiveDate;
+      }
+      if (hasSevenDayHospitalizationStatistics(provinceStatistic) && (hospitalizationStatistic == null
+          || hospitalizationEffectiveDate.isBefore(provinceEffectiveDate))) {
+        hospitalizationStatistic = provinceStatistic;
+        hospitalizationEffectiveDate = provinceEffectiveDate;
+      }
+    }
+  }
 }
@@ -8,6 +8,7 @@ import java.time.format.DateTimeParseException;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Objects;
+import java.util.Optional;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -15,6 +16,8 @@ public class StatisticsJsonValidator<T extends StatisticsTimeJsonObject> {
 
   private static final Logger logger = LoggerFactory.getLogger(StatisticsJsonValidator.class);
 
+  private static final DateTimeFormatter EFFECTIVE_DATE_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd");
+
   /**
    * Validates mandatory fields on {@link StatisticsJsonStringObject}.
    *
@@ -24,34 +27,32 @@ public class StatisticsJsonValidator<T extends StatisticsTimeJsonObject> {
   public List<T> validate(List<T> statisticsObjects) {
     List<T> statisticsJsonStringObjects = new ArrayList<>();
     statisticsObjects.forEach(statisticsObject -> {
-      if (isValidEffectiveDate(statisticsObject)) {
+      if (parseEffectiveDate(statisticsObject).isPresent()) {
         statisticsJsonStringObjects.add(statisticsObject);
       }
     });
     return statisticsJsonStringObjects;
   }
 
-  private boolean isValidEffectiveDate(T statisticsJsonStringObject) {
-    String effectiveDate = statisticsJsonStringObject.getEffectiveDate();
+  /**
+   * Validates mandatory fields on a single statistics object and returns its parsed effective date, so that callers
+   * processing the objects one by one do not have to parse it again.
+   *
+   * @param statisticsObject the parsed JSON Object.
+   * @return the effective date of the object, or empty if the object is not valid.
+   */
+  public Optional<LocalDate> parseEffectiveDate(T statisticsObject) {
+    String effectiveDate = statisticsObject.getEffectiveDate();
 
     if (Objects.isNull(effectiveDate)) {
       logger.warn("The effective_date attribute must not be null.");
-      return false;
+      return Optional.empty();
     }
-    return checkValidEffectiveDateFormat(effectiveDate);
-  }
-
-  private boolean checkValidEffectiveDateFormat(String effectiveDate) {
     try {
-      DateTimeFormatter formatter = DateTimeFormatter.ofPattern("yyyy-MM-dd");
-      LocalDate.parse(effectiveDate, formatter);
+      return Optional.of(LocalDate.parse(effectiveDate, EFFECTIVE_DATE_FORMATTER));
     } catch (DateTimeParseException e) {
       logger.warn("The value of the effective_date attribute is not correct.");
-      return false;
-    } catch (IllegalArgumentException e) {
-      logger.warn("Invalid pattern provided.");
-      return false;
+      return Optional.empty();
     }
-    return true;
   }
 }
@@ -5,6 +5,7 @@ import static app.coronawarn.server.services.distribution.common.Helpers.buildDi
 import app.coronawarn.server.common.persistence.domain.DiagnosisKey;
 import app.coronawarn.server.common.persistence.service.DiagnosisKeyService;
 import app.coronawarn.server.common.persistence.service.common.KeySharingPoliciesChecker;
+import app.coronawarn.server.services.distribution.assembly.diagnosiskeys.DiagnosisKeyArchiveFingerprints;
 import app.coronawarn.server.services.distribution.assembly.diagnosiskeys.DiagnosisKeyBundler;
 import app.coronawarn.server.services.distribution.assembly.diagnosiskeys.ProdDiagnosisKeyBundler;
 import app.coronawarn.server.services.distribution.assembly.structure.WritableOnDisk;
@@ -50,6 +51,9 @@ class DiagnosisKeysStructureProviderTest {
 
   @Mock
   DiagnosisKeyService diagnosisKeyService;
+
+  @Mock
+  DiagnosisKeyArchiveFingerprints archiveFingerprints;
   List<DiagnosisKey> diagnosisKeys;
 
   @BeforeEach
@@ -66,7 +70,8 @@ class DiagnosisKeysStructureProviderTest {
   void testGetDiagnosisKeysReturnsCorrectDirectoryName() {
     DiagnosisKeyBundler bundler = new ProdDiagnosisKeyBundler(distributionServiceConfig, sharingPoliciesChecker);
     DiagnosisKeysStructureProvider diagnosisKeysStructureProvider = new DiagnosisKeysStructureProvider(
-        diagnosisKeyService, cryptoProvider, distributionServiceConfig, bundler, enfParameterAdapter);
+        diagnosisKeyService, cryptoProvider, distributionServiceConfig, bundler, enfParameterAdapter,
+        archiveFingerprints);
     Directory<WritableOnDisk> diagnosisKeys = diagnosisKeysStructureProvider.getDiagnosisKeys();
     Assertions.assertEquals("diagnosis-keys", diagnosisKeys.getName());
   }
@@ -1,5 +1,6 @@
 package app.coronawarn.server.services.distribution.assembly.component;
 
+import static app.coronawarn.server.services.distribution.common.Helpers.buildCheckInProtectedReports;
 import static app.coronawarn.server.services.distribution.common.Helpers.buildTraceTimeIntervalWarning;
 import static app.coronawarn.server.services.distribution.common.Helpers.getFilePaths;
 import static app.coronawarn.server.services.distribution.common.Helpers.getSubFoldersPaths;
@@ -7,8 +8,14 @@ import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import app.coronawarn.server.common.persistence.domain.CheckInProtectedReports;
 import app.coronawarn.server.common.persistence.domain.TraceTimeIntervalWarning;
 import app.coronawarn.server.common.persistence.service.TraceTimeIntervalWarningService;
 import app.coronawarn.server.common.persistence.service.common.KeySharingPoliciesChecker;
@@ -34,6 +41,7 @@ import java.util.HashSet;
 import java.util.List;
 import java.util.Optional;
 import java.util.Set;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 import java.util.stream.IntStream;
 import java.util.stream.Stream;
@@ -330,6 +338,32 @@ class TraceTimeIntervalWarningsStructureProviderTest {
     actualFiles.forEach(actual -> assertTrue(expectedPaths.contains(actual)));
   }
 
+  @Test
+  void should_stream_check_in_protected_reports_of_distribution_window() {
+    LocalDateTime utcHour = TimeUtils.getCurrentUtcHour();
+    int hourBeforeWindow = CheckinsDateSpecification.HOUR_SINCE_EPOCH_DERIVATION
+        .apply(utcHour.minusDays(distributionServiceConfig.getRetentionDays()).toEpochSecond(ZoneOffset.UTC));
+    int currentHour = CheckinsDateSpecification.HOUR_SINCE_EPOCH_DERIVATION
+        .apply(utcHour.toEpochSecond(ZoneOffset.UTC));
+    List<CheckInProtectedReports> checkInProtectedReports = buildCheckInProtectedReports(currentHour - 5, 3);
+    checkInProtectedReports.addAll(buildCheckInProtectedReports(currentHour - 1, 2));
+    doAnswer(invocation -> {
+      Consumer<CheckInProtectedReports> consumer = invocation.getArgument(2);
+      checkInProtectedReports.forEach(consumer);
+      return null;
+    }).when(traceTimeWarningService).streamCheckInProtectedReports(anyLong(), anyLong(), any());
+
+    new TraceTimeIntervalWarningsStructureProvider(traceTimeWarningService, bundler, cryptoProvider,
+        distributionServiceConfig).getCheckInProtectedReportsDirectory();
+
+    verify(traceTimeWarningService).streamCheckInProtectedReports(eq((long) hourBeforeWindow),
+        eq((long) currentHour), any());
+    assertEquals(Set.of(currentHour - 5, currentHour - 4, currentHour - 3, currentHour - 2, currentHour - 1),
+        bundler.getHoursForDistributableCheckInProtectedReports("DE"));
+    assertEquals(3, bundler.getCheckInProtectedReportsForHour(currentHour - 5).size());
+    assertEquals(2, bundler.getCheckInProtectedReportsForHour(currentHour - 1).size());
+  }
+
   private boolean isNotDsStore(String it) {
     return !it.endsWith(DS_STORE);
   }
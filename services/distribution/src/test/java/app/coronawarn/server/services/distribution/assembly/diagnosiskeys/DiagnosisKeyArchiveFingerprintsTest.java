@@ -0,0 +1,183 @@
+package app.coronawarn.server.services.distribution.assembly.diagnosiskeys;
+
+import static app.coronawarn.server.services.distribution.common.Helpers.buildDiagnosisKeys;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import app.coronawarn.server.common.persistence.domain.DiagnosisKey;
+import app.coronawarn.server.common.persistence.domain.DiagnosisKeyStore;
+import app.coronawarn.server.common.persistence.domain.DiagnosisKeyStore.Selection;
+import app.coronawarn.server.services.distribution.config.DistributionServiceConfig;
+import app.coronawarn.server.services.distribution.objectstore.FailedObjectStoreOperationsCounter;
+import app.coronawarn.server.services.distribution.objectstore.ObjectStoreAccess;
+import java.io.ByteArrayInputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicReference;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.test.context.ConfigDataApplicationContextInitializer;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+@EnableConfigurationProperties(value = DistributionServiceConfig.class)
+@ExtendWith(SpringExtension.class)
+@ContextConfiguration(classes = {DiagnosisKeyArchiveFingerprints.class},
+    initializers = ConfigDataApplicationContextInitializer.class)
+class DiagnosisKeyArchiveFingerprintsTest {
+
+  private static final LocalDateTime HOUR = LocalDateTime.of(1970, 1, 3, 1, 0);
+  private static final LocalDate DATE = HOUR.toLocalDate();
+
+  @MockBean
+  ObjectStoreAccess objectStoreAccess;
+
+  @MockBean
+  FailedObjectStoreOperationsCounter failedOperationsCounter;
+
+  @Autowired
+  DistributionServiceConfig distributionServiceConfig;
+
+  @Autowired
+  DiagnosisKeyArchiveFingerprints fingerprints;
+
+  private final AtomicReference<byte[]> storedFingerprints = new AtomicReference<>();
+
+  @BeforeEach
+  void setup() {
+    distributionServiceConfig.setIncrementalAssembly(true);
+    doAnswer(invocation -> {
+      storedFingerprints.set(Files.readAllBytes(invocation.<Path>getArgument(1)));
+      return null;
+    }).when(objectStoreAccess)
+        .putPrivateObject(eq(DiagnosisKeyArchiveFingerprints.S3_KEY), any(), anyString());
+    when(objectStoreAccess.getObjectContent(DiagnosisKeyArchiveFingerprints.S3_KEY))
+        .thenAnswer(invocation -> Optional.ofNullable(storedFingerprints.get()).map(ByteArrayInputStream::new));
+  }
+
+  @AfterEach
+  void tearDown() {
+    distributionServiceConfig.setIncrementalAssembly(false);
+  }
+
+  @Test
+  void archivesAreUnchangedAfterSuccessfulDistribution() {
+    Selection keys = DiagnosisKeyStore.copyOf(buildDiagnosisKeys(6, HOUR, 5));
+    fingerprints.load(Instant.now());
+    assertThat(fingerprints.isUnchanged("DE", HOUR, keys)).isFalse();
+    assertThat(fingerprints.isUnchanged("DE", DATE, keys)).isFalse();
+    fingerprints.store();
+
+    fingerprints.load(Instant.now());
+    assertThat(fingerprints.isUnchanged("DE", HOUR, keys)).isTrue();
+    assertThat(fingerprints.isUnchanged("DE", DATE, keys)).isTrue();
+    assertThat(fingerprints.isUnchanged("EUR", HOUR, keys)).isFalse();
+    assertThat(fingerprints.isUnchanged("DE", HOUR.plusHours(1), keys)).isFalse();
+  }
+
+  @Test
+  void fingerprintsDoNotDependOnTheOrderOfTheKeys() {
+    List<DiagnosisKey> keys = buildDiagnosisKeys(6, HOUR, 5);
+    fingerprints.load(Instant.now());
+    fingerprints.isUnchanged("DE", HOUR, DiagnosisKeyStore.copyOf(keys));
+    fingerprints.store();
+
+    Collections.reverse(keys);
+    fingerprints.load(Instant.now());
+    assertThat(fingerprints.isUnchanged("DE", HOUR, DiagnosisKeyStore.copyOf(keys))).isTrue();
+  }
+
+  @Test
+  void archivesWithChangedKeysAreRebuilt() {
+    fingerprints.load(Instant.now());
+    fingerprints.isUnchanged("DE", HOUR, DiagnosisKeyStore.copyOf(buildDiagnosisKeys(6, HOUR, 5)));
+    fingerprints.store();
+
+    fingerprints.load(Instant.now());
+    assertThat(fingerprints.isUnchanged("DE", HOUR, DiagnosisKeyStore.copyOf(buildDiagnosisKeys(6, HOUR, 5)))).isFalse();
+  }
+
+  @Test
+  void deletedArchivesAreRebuilt() {
+    Selection keys = DiagnosisKeyStore.copyOf(buildDiagnosisKeys(6, HOUR, 5));
+    fingerprints.load(Instant.now());
+    fingerprints.isUnchanged("DE", HOUR, keys);
+    fingerprints.store();
+    when(objectStoreAccess.getDeletedObjectNames())
+        .thenReturn(Set.of("version/v1/diagnosis-keys/country/DE/date/1970-01-03/hour/1/index"));
+
+    fingerprints.load(Instant.now());
+    assertThat(fingerprints.isUnchanged("DE", HOUR, keys)).isFalse();
+  }
+
+  @Test
+  void outdatedFingerprintsAreDiscarded() {
+    Selection keys = DiagnosisKeyStore.copyOf(buildDiagnosisKeys(6, HOUR, 5));
+    fingerprints.load(Instant.now().minus(25, ChronoUnit.HOURS));
+    fingerprints.isUnchanged("DE", HOUR, keys);
+    fingerprints.store();
+
+    fingerprints.load(Instant.now());
+    assertThat(fingerprints.isUnchanged("DE", HOUR, keys)).isFalse();
+  }
+
+  @Test
+  void fingerprintExpiryIsIndependentOfManifestReconciliation() {
+    Integer reconciliationHours = distributionServiceConfig.getObjectStore().getManifestReconciliationHours();
+    distributionServiceConfig.getObjectStore().setManifestReconciliationHours(0);
+    try {
+      Selection keys = DiagnosisKeyStore.copyOf(buildDiagnosisKeys(6, HOUR, 5));
+      fingerprints.load(Instant.now().minus(23, ChronoUnit.HOURS));
+      fingerprints.isUnchanged("DE", HOUR, keys);
+      fingerprints.store();
+
+      fingerprints.load(Instant.now());
+      assertThat(fingerprints.isUnchanged("DE", HOUR, keys)).isTrue();
+    } finally {
+      distributionServiceConfig.getObjectStore().setManifestReconciliationHours(reconciliationHours);
+    }
+  }
+
+  @Test
+  void fingerprintsAreNotStoredAfterFailedOperations() {
+    when(failedOperationsCounter.hasFailedOperations()).thenReturn(true);
+    fingerprints.load(Instant.now());
+    fingerprints.isUnchanged("DE", HOUR, DiagnosisKeyStore.copyOf(buildDiagnosisKeys(6, HOUR, 5)));
+    fingerprints.store();
+
+    verify(objectStoreAccess, never()).putPrivateObject(anyString(), any(), anyString());
+  }
+
+  @Test
+  void nothingIsSkippedOrStoredIfDisabled() {
+    Selection keys = DiagnosisKeyStore.copyOf(buildDiagnosisKeys(6, HOUR, 5));
+    distributionServiceConfig.setIncrementalAssembly(false);
+    fingerprints.load(Instant.now());
+    fingerprints.isUnchanged("DE", HOUR, keys);
+    fingerprints.store();
+    fingerprints.load(Instant.now());
+
+    assertThat(fingerprints.isUnchanged("DE", HOUR, keys)).isFalse();
+    verify(objectStoreAccess, never()).getObjectContent(anyString());
+    verify(objectStoreAccess, never()).putPrivateObject(anyString(), any(), anyString());
+  }
+}
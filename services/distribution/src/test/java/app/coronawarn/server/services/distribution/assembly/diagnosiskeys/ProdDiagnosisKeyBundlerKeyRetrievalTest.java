@@ -65,6 +65,29 @@ class ProdDiagnosisKeyBundlerKeyRetrievalTest {
     assertThat(bundler.getAllDiagnosisKeys("DE")).hasSize(15);
   }
 
+  @Test
+  void testDateIndexContainsKeysOfAllHoursInAscendingOrder() {
+    List<DiagnosisKey> diagnosisKeys = Stream
+        .of(buildDiagnosisKeys(6, 52L, 5),
+            buildDiagnosisKeys(6, 50L, 5),
+            buildDiagnosisKeys(6, 51L, 5))
+        .flatMap(List::stream)
+        .collect(Collectors.toList());
+    bundler.setDiagnosisKeys(diagnosisKeys, LocalDateTime.of(1970, 1, 5, 0, 0));
+
+    LocalDate date = LocalDate.of(1970, 1, 3);
+    List<DiagnosisKey> keysOfHours = bundler.getHoursWithDistributableDiagnosisKeys(date, "DE").stream()
+        .sorted()
+        .map(hour -> bundler.getDiagnosisKeysForHour(hour, "DE"))
+        .flatMap(List::stream)
+        .collect(Collectors.toList());
+    assertThat(bundler.getDiagnosisKeysForDate(date, "DE")).hasSize(15).containsExactlyElementsOf(keysOfHours);
+
+    bundler.setDiagnosisKeys(Collections.emptyList(), LocalDateTime.of(1970, 1, 5, 0, 0));
+    assertThat(bundler.getDiagnosisKeysForDate(date, "DE")).isEmpty();
+    assertThat(bundler.getDatesWithDistributableDiagnosisKeys("DE")).isEmpty();
+  }
+
   @Test
   void testGetsAllDiagnosisKeysWithWrongCountry() {
     List<DiagnosisKey> diagnosisKeys = Stream
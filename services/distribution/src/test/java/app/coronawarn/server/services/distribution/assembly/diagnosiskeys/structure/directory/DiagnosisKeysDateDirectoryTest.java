@@ -10,6 +10,7 @@ import app.coronawarn.server.common.persistence.service.common.KeySharingPolicie
 import app.coronawarn.server.common.shared.collection.ImmutableStack;
 import app.coronawarn.server.common.shared.util.TimeUtils;
 import app.coronawarn.server.services.distribution.assembly.component.CryptoProvider;
+import app.coronawarn.server.services.distribution.assembly.diagnosiskeys.DiagnosisKeyArchiveFingerprints;
 import app.coronawarn.server.services.distribution.assembly.diagnosiskeys.DiagnosisKeyBundler;
 import app.coronawarn.server.services.distribution.assembly.diagnosiskeys.ProdDiagnosisKeyBundler;
 import app.coronawarn.server.services.distribution.assembly.structure.WritableOnDisk;
@@ -37,6 +38,7 @@ import org.junit.rules.TemporaryFolder;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.boot.test.context.ConfigDataApplicationContextInitializer;
+import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.context.ContextConfiguration;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
@@ -52,6 +54,9 @@ class DiagnosisKeysDateDirectoryTest {
   @Rule
   private final TemporaryFolder outputFolder = new TemporaryFolder();
 
+  @MockBean
+  DiagnosisKeyArchiveFingerprints archiveFingerprints;
+
   @Autowired
   CryptoProvider cryptoProvider;
 
@@ -79,8 +84,8 @@ class DiagnosisKeysDateDirectoryTest {
     DiagnosisKeyBundler bundler = new ProdDiagnosisKeyBundler(distributionServiceConfig, sharingPoliciesChecker);
     bundler
         .setDiagnosisKeys(diagnosisKeys, distributionTime);
-    DiagnosisKeysDateDirectory dateDirectory = new DiagnosisKeysDateDirectory(bundler, cryptoProvider,
-        distributionServiceConfig);
+    DiagnosisKeysDateDirectory dateDirectory = new DiagnosisKeysDateDirectory(bundler, archiveFingerprints,
+        cryptoProvider, distributionServiceConfig);
     Directory<WritableOnDisk> outputDirectory = new DirectoryOnDisk(outputFile);
     outputDirectory.addWritable(dateDirectory);
     dateDirectory.prepare(new ImmutableStack<>()
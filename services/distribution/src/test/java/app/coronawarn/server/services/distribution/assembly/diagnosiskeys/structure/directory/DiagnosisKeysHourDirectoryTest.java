@@ -6,12 +6,17 @@ import static app.coronawarn.server.services.distribution.common.Helpers.buildDi
 import static app.coronawarn.server.services.distribution.common.Helpers.getExpectedHourFiles;
 import static app.coronawarn.server.services.distribution.common.Helpers.getFilePaths;
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.when;
 
 import app.coronawarn.server.common.persistence.domain.DiagnosisKey;
+import app.coronawarn.server.common.persistence.domain.DiagnosisKeyStore.Selection;
 import app.coronawarn.server.common.persistence.service.common.KeySharingPoliciesChecker;
 import app.coronawarn.server.common.shared.collection.ImmutableStack;
 import app.coronawarn.server.junit.DisabledAroundMidnight;
 import app.coronawarn.server.services.distribution.assembly.component.CryptoProvider;
+import app.coronawarn.server.services.distribution.assembly.diagnosiskeys.DiagnosisKeyArchiveFingerprints;
 import app.coronawarn.server.services.distribution.assembly.diagnosiskeys.DiagnosisKeyBundler;
 import app.coronawarn.server.services.distribution.assembly.diagnosiskeys.ProdDiagnosisKeyBundler;
 import app.coronawarn.server.services.distribution.assembly.structure.WritableOnDisk;
@@ -35,6 +40,7 @@ import org.junit.rules.TemporaryFolder;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.boot.test.context.ConfigDataApplicationContextInitializer;
+import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.test.context.ContextConfiguration;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
 @EnableConfigurationProperties(value = DistributionServiceConfig.class)
@@ -46,6 +52,9 @@ class DiagnosisKeysHourDirectoryTest {
   @Rule
   private final TemporaryFolder outputFolder = new TemporaryFolder();
 
+  @MockBean
+  DiagnosisKeyArchiveFingerprints archiveFingerprints;
+
   @Autowired
   CryptoProvider cryptoProvider;
 
@@ -67,8 +76,8 @@ class DiagnosisKeysHourDirectoryTest {
       LocalDate keysSubmissionDate) {
     DiagnosisKeyBundler bundler = new ProdDiagnosisKeyBundler(distributionServiceConfig, sharingPoliciesChecker);
     bundler.setDiagnosisKeys(diagnosisKeys, distributionTime);
-    DiagnosisKeysHourDirectory hourDirectory = new DiagnosisKeysHourDirectory(bundler, cryptoProvider,
-        distributionServiceConfig);
+    DiagnosisKeysHourDirectory hourDirectory = new DiagnosisKeysHourDirectory(bundler, archiveFingerprints,
+        cryptoProvider, distributionServiceConfig);
     Directory<WritableOnDisk> outputDirectory = new DirectoryOnDisk(outputFile);
     outputDirectory.addWritable(hourDirectory);
     hourDirectory.prepare(new ImmutableStack<>()
@@ -106,6 +115,20 @@ class DiagnosisKeysHourDirectoryTest {
     assertThat(actualFiles).isEqualTo(getExpectedHourFiles(Set.of("0", "1", "2", "3")));
   }
 
+  @Test
+  void testSkipsUnchangedHourArchives() {
+    Collection<DiagnosisKey> diagnosisKeys = IntStream.range(0, 5)
+        .mapToObj(currentHour -> buildDiagnosisKeys(6, LocalDateTime.of(1970, 1, 3, 0, 0).plusHours(currentHour), 5))
+        .flatMap(List::stream)
+        .collect(Collectors.toList());
+    when(archiveFingerprints.isUnchanged(eq("DE"), eq(LocalDateTime.of(1970, 1, 3, 1, 0)), any(Selection.class)))
+        .thenReturn(true);
+    runHourDistribution(diagnosisKeys, LocalDateTime.of(1970, 1, 3, 4, 0),
+        LocalDate.of(1970, 1, 3));
+    Set<String> actualFiles = getFilePaths(outputFile, outputFile.getAbsolutePath());
+    assertThat(actualFiles).isEqualTo(getExpectedHourFiles(Set.of("0", "2", "3")));
+  }
+
   @Test
   void testDoesNotIncludeHoursInTheFuture() {
     Collection<DiagnosisKey> diagnosisKeys = List.of(
@@ -9,6 +9,7 @@ import app.coronawarn.server.common.persistence.domain.DiagnosisKey;
 import app.coronawarn.server.common.persistence.service.common.KeySharingPoliciesChecker;
 import app.coronawarn.server.common.shared.collection.ImmutableStack;
 import app.coronawarn.server.services.distribution.assembly.component.CryptoProvider;
+import app.coronawarn.server.services.distribution.assembly.diagnosiskeys.DiagnosisKeyArchiveFingerprints;
 import app.coronawarn.server.services.distribution.assembly.diagnosiskeys.DiagnosisKeyBundler;
 import app.coronawarn.server.services.distribution.assembly.diagnosiskeys.ProdDiagnosisKeyBundler;
 import app.coronawarn.server.services.distribution.assembly.diagnosiskeys.structure.directory.DiagnosisKeysDateDirectory;
@@ -26,6 +27,7 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.boot.test.context.ConfigDataApplicationContextInitializer;
+import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.test.context.ContextConfiguration;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
 
@@ -36,6 +38,9 @@ import org.springframework.test.context.junit.jupiter.SpringExtension;
     initializers = ConfigDataApplicationContextInitializer.class)
 class DateIndexingDecoratorTest {
 
+  @MockBean
+  DiagnosisKeyArchiveFingerprints archiveFingerprints;
+
   @Autowired
   DistributionServiceConfig distributionServiceConfig;
 
@@ -97,7 +102,8 @@ class DateIndexingDecoratorTest {
 
   private DateIndexingDecorator makeDecoratedDateDirectory(DiagnosisKeyBundler diagnosisKeyBundler) {
     return new DateIndexingDecorator(
-        new DiagnosisKeysDateDirectory(diagnosisKeyBundler, cryptoProvider, distributionServiceConfig),
+        new DiagnosisKeysDateDirectory(diagnosisKeyBundler, archiveFingerprints, cryptoProvider,
+            distributionServiceConfig),
         distributionServiceConfig);
   }
 }
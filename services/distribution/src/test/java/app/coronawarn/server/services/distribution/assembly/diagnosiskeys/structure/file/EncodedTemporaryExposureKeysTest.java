@@ -0,0 +1,152 @@
+package app.coronawarn.server.services.distribution.assembly.diagnosiskeys.structure.file;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import app.coronawarn.server.common.persistence.domain.DiagnosisKey;
+import app.coronawarn.server.common.persistence.domain.DiagnosisKeyStore;
+import app.coronawarn.server.common.protocols.external.exposurenotification.ReportType;
+import app.coronawarn.server.common.protocols.external.exposurenotification.TemporaryExposureKey;
+import app.coronawarn.server.common.protocols.external.exposurenotification.TemporaryExposureKeyExport;
+import app.coronawarn.server.common.protocols.internal.SubmissionPayload.SubmissionType;
+import com.google.protobuf.ByteString;
+import com.google.protobuf.InvalidProtocolBufferException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.Test;
+
+class EncodedTemporaryExposureKeysTest {
+
+  private static final Random RANDOM = new Random(42);
+
+  private static final TemporaryExposureKeyExport EXPORT_WITHOUT_KEYS = TemporaryExposureKeyExport.newBuilder()
+      .setStartTimestamp(1)
+      .setEndTimestamp(2)
+      .setRegion("DE")
+      .setBatchNum(1)
+      .setBatchSize(1)
+      .build();
+
+  @Test
+  void encodedKeysEqualProtobufEncoding() {
+    List<TemporaryExposureKey> keys = randomKeys(50);
+
+    byte[] export = EncodedTemporaryExposureKeys.of(keys).appendTo(EXPORT_WITHOUT_KEYS.toByteArray());
+
+    assertThat(export).isEqualTo(EXPORT_WITHOUT_KEYS.toBuilder()
+        .addAllKeys(keys.stream().sorted(new TemporaryExposureKeyComparator()).collect(Collectors.toList()))
+        .build().toByteArray());
+  }
+
+  @Test
+  void mergedRunsEqualEncodingOfAllKeys() throws InvalidProtocolBufferException {
+    List<List<TemporaryExposureKey>> hours = IntStream.range(0, 24)
+        .mapToObj(hour -> randomKeys(RANDOM.nextInt(20)))
+        .collect(Collectors.toList());
+    List<TemporaryExposureKey> allKeys = new ArrayList<>();
+    hours.forEach(allKeys::addAll);
+
+    EncodedTemporaryExposureKeys merged = EncodedTemporaryExposureKeys.merge(hours.stream()
+        .map(EncodedTemporaryExposureKeys::of)
+        .collect(Collectors.toList()));
+    byte[] export = merged.appendTo(EXPORT_WITHOUT_KEYS.toByteArray());
+
+    assertThat(merged.size()).isEqualTo(allKeys.size());
+    assertThat(export).isEqualTo(EncodedTemporaryExposureKeys.of(allKeys).appendTo(EXPORT_WITHOUT_KEYS.toByteArray()));
+    assertThat(TemporaryExposureKeyExport.parseFrom(export).getKeysList())
+        .isSortedAccordingTo(new TemporaryExposureKeyComparator())
+        .containsExactlyInAnyOrderElementsOf(allKeys);
+  }
+
+  @Test
+  void keysEncodedFromStoreEqualProtobufEncoding() {
+    List<DiagnosisKey> diagnosisKeys = randomDiagnosisKeys(200);
+    diagnosisKeys.add(DiagnosisKey.builder()
+        .withKeyDataAndSubmissionType(diagnosisKeys.get(0).getKeyData(), SubmissionType.SUBMISSION_TYPE_RAPID_TEST)
+        .withRollingStartIntervalNumber(600)
+        .withTransmissionRiskLevel(1)
+        .withSubmissionTimestamp(1)
+        .withCountryCode("DE")
+        .withReportType(ReportType.CONFIRMED_TEST)
+        .build());
+
+    EncodedTemporaryExposureKeys encoded = EncodedTemporaryExposureKeys
+        .fromDiagnosisKeys(DiagnosisKeyStore.copyOf(diagnosisKeys));
+
+    assertThat(encoded.size()).isEqualTo(diagnosisKeys.size());
+    assertThat(encoded.appendTo(EXPORT_WITHOUT_KEYS.toByteArray())).isEqualTo(EncodedTemporaryExposureKeys
+        .of(diagnosisKeys.stream().map(EncodedTemporaryExposureKeysTest::toTemporaryExposureKey)
+            .collect(Collectors.toList()))
+        .appendTo(EXPORT_WITHOUT_KEYS.toByteArray()));
+  }
+
+  @Test
+  void mergedRunsEncodedFromStoreAreSorted() throws InvalidProtocolBufferException {
+    DiagnosisKeyStore.Selection diagnosisKeys = DiagnosisKeyStore.copyOf(randomDiagnosisKeys(100));
+    List<EncodedTemporaryExposureKeys> runs = IntStream.range(0, 4)
+        .mapToObj(run -> EncodedTemporaryExposureKeys.fromDiagnosisKeys(diagnosisKeys.getStore().select(
+            IntStream.range(0, diagnosisKeys.size()).filter(key -> key % 4 == run).toArray())))
+        .collect(Collectors.toList());
+
+    byte[] export = EncodedTemporaryExposureKeys.merge(runs).appendTo(EXPORT_WITHOUT_KEYS.toByteArray());
+
+    assertThat(export).isEqualTo(
+        EncodedTemporaryExposureKeys.fromDiagnosisKeys(diagnosisKeys).appendTo(EXPORT_WITHOUT_KEYS.toByteArray()));
+    assertThat(TemporaryExposureKeyExport.parseFrom(export).getKeysList())
+        .isSortedAccordingTo(new TemporaryExposureKeyComparator())
+        .hasSize(diagnosisKeys.size());
+  }
+
+  @Test
+  void mergeOfEmptyRunsIsEmpty() {
+    EncodedTemporaryExposureKeys merged = EncodedTemporaryExposureKeys.merge(List.of(
+        EncodedTemporaryExposureKeys.of(List.of()), EncodedTemporaryExposureKeys.of(List.of())));
+
+    assertThat(merged.size()).isZero();
+    assertThat(merged.appendTo(EXPORT_WITHOUT_KEYS.toByteArray())).isEqualTo(EXPORT_WITHOUT_KEYS.toByteArray());
+  }
+
+  private static List<DiagnosisKey> randomDiagnosisKeys(int numberOfKeys) {
+    return IntStream.range(0, numberOfKeys).mapToObj(i -> {
+      byte[] keyData = new byte[16];
+      RANDOM.nextBytes(keyData);
+      return DiagnosisKey.builder()
+          .withKeyDataAndSubmissionType(keyData, SubmissionType.SUBMISSION_TYPE_PCR_TEST)
+          .withRollingStartIntervalNumber(2_650_000 + RANDOM.nextInt(100_000))
+          .withTransmissionRiskLevel(RANDOM.nextInt(8) + 1)
+          .withSubmissionTimestamp(450_000 + RANDOM.nextInt(1000))
+          .withCountryCode("DE")
+          .withRollingPeriod(RANDOM.nextInt(144) + 1)
+          .withReportType(ReportType.forNumber(RANDOM.nextInt(6)))
+          .withDaysSinceOnsetOfSymptoms(RANDOM.nextInt(4016) - 15)
+          .build();
+    }).collect(Collectors.toList());
+  }
+
+  private static TemporaryExposureKey toTemporaryExposureKey(DiagnosisKey diagnosisKey) {
+    return TemporaryExposureKey.newBuilder()
+        .setKeyData(ByteString.copyFrom(diagnosisKey.getKeyData()))
+        .setTransmissionRiskLevel(diagnosisKey.getTransmissionRiskLevel())
+        .setRollingStartIntervalNumber(diagnosisKey.getRollingStartIntervalNumber())
+        .setRollingPeriod(diagnosisKey.getRollingPeriod())
+        .setReportType(diagnosisKey.getReportType())
+        .setDaysSinceOnsetOfSymptoms(diagnosisKey.getDaysSinceOnsetOfSymptoms())
+        .build();
+  }
+
+  private static List<TemporaryExposureKey> randomKeys(int numberOfKeys) {
+    return IntStream.range(0, numberOfKeys).mapToObj(i -> {
+      byte[] keyData = new byte[16];
+      RANDOM.nextBytes(keyData);
+      return TemporaryExposureKey.newBuilder()
+          .setKeyData(ByteString.copyFrom(keyData))
+          .setRollingStartIntervalNumber(RANDOM.nextInt(1000))
+          .setRollingPeriod(144)
+          .setTransmissionRiskLevel(RANDOM.nextInt(8) + 1)
+          .setDaysSinceOnsetOfSymptoms(RANDOM.nextInt(28) - 14)
+          .build();
+    }).collect(Collectors.toList());
+  }
+}
@@ -0,0 +1,79 @@
+package app.coronawarn.server.services.distribution.assembly.structure.archive;
+
+import static app.coronawarn.server.services.distribution.assembly.structure.file.FileOnDiskWithChecksum.buildChecksumPathForFile;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import app.coronawarn.server.common.shared.collection.ImmutableStack;
+import app.coronawarn.server.services.distribution.assembly.structure.directory.DirectoryOnDisk;
+import app.coronawarn.server.services.distribution.assembly.structure.file.FileOnDisk;
+import app.coronawarn.server.services.distribution.assembly.structure.file.FileOnDiskWithChecksum;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class ArchiveOnDiskTest {
+
+  private static final byte[] EXPORT_BYTES = "export".getBytes();
+
+  @TempDir
+  Path outputFolder;
+
+  private ArchiveOnDisk archive;
+
+  @BeforeEach
+  void setup() {
+    archive = new ArchiveOnDisk("index");
+    archive.setParent(new DirectoryOnDisk(outputFolder.toFile()));
+    archive.addWritable(new FileOnDisk("export.bin", EXPORT_BYTES));
+    archive.prepare(new ImmutableStack<>());
+  }
+
+  @Test
+  void archiveIsStreamedToDiskWithoutTemporaryDirectory() throws IOException {
+    String tempDir = System.getProperty("java.io.tmpdir");
+    long temporaryDirectoriesBefore = countTemporaryDirectories(tempDir);
+
+    archive.write();
+
+    assertThat(countTemporaryDirectories(tempDir)).isEqualTo(temporaryDirectoriesBefore);
+    assertThat(Files.readAllBytes(archive.getFileOnDisk().toPath())).isEqualTo(archive.getBytes());
+    assertThat(unzip(archive.getBytes())).containsOnlyKeys("export.bin");
+    assertThat(unzip(archive.getBytes()).get("export.bin")).isEqualTo(EXPORT_BYTES);
+  }
+
+  @Test
+  void checksumIsComputedFromArchivedFile() throws IOException {
+    archive.write();
+
+    FileOnDiskWithChecksum plainFile = new FileOnDiskWithChecksum("plain", EXPORT_BYTES);
+    plainFile.setParent(new DirectoryOnDisk(outputFolder.toFile()));
+    plainFile.write();
+
+    assertThat(Files.readString(buildChecksumPathForFile(archive.getFileOnDisk().toPath())))
+        .isEqualTo(Files.readString(buildChecksumPathForFile(plainFile.getFileOnDisk().toPath())));
+  }
+
+  private static long countTemporaryDirectories(String tempDir) throws IOException {
+    try (var paths = Files.list(Path.of(tempDir))) {
+      return paths.filter(path -> path.getFileName().toString().startsWith("temporary")).count();
+    }
+  }
+
+  private static Map<String, byte[]> unzip(byte[] zip) throws IOException {
+    Map<String, byte[]> entries = new HashMap<>();
+    try (ZipInputStream zipInputStream = new ZipInputStream(new ByteArrayInputStream(zip))) {
+      for (ZipEntry entry = zipInputStream.getNextEntry(); entry != null; entry = zipInputStream.getNextEntry()) {
+        entries.put(entry.getName(), zipInputStream.readAllBytes());
+      }
+    }
+    return entries;
+  }
+}
@@ -9,8 +9,12 @@ import app.coronawarn.server.common.shared.functional.Formatter;
 import app.coronawarn.server.common.shared.functional.IndexFunction;
 import app.coronawarn.server.services.distribution.assembly.structure.WritableOnDisk;
 import app.coronawarn.server.services.distribution.assembly.structure.file.FileOnDisk;
+import app.coronawarn.server.services.distribution.assembly.structure.util.ParallelAssembly;
 
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
@@ -105,6 +109,26 @@ class IndexDirectoryTest {
     assertThat(actualPhysicalFiles).isEqualTo(expectedPhysicalFiles);
   }
 
+  @Test
+  void checkParallelAssemblyKeepsIndicesOfSubtrees() throws IOException {
+    indexDirectory.addWritableToAll(ignoredValue -> {
+      IndexDirectoryOnDisk<Integer> innerDirectory = new IndexDirectoryOnDisk<>("inner", indexFunction, indexFormatter);
+      innerDirectory.addWritableToAll(indices -> Optional.of(new FileOnDisk("index",
+          (indices.pop().peek() + "/" + indices.peek()).getBytes(StandardCharsets.UTF_8))));
+      return Optional.of(innerDirectory);
+    });
+
+    ParallelAssembly.invoke(4, () -> outputDirectory.prepare(new ImmutableStack<>()));
+    ParallelAssembly.invoke(4, outputDirectory::write);
+
+    for (Integer outer : index) {
+      for (Integer inner : index) {
+        Path file = outputFile.toPath().resolve(Path.of(name, outer.toString(), "inner", inner.toString(), "index"));
+        assertThat(Files.readString(file)).isEqualTo(outer + "/" + inner);
+      }
+    }
+  }
+
   private static Stream<java.io.File> getContainedElements(java.io.File directory) {
     return Arrays.stream(directory.listFiles());
   }
@@ -66,7 +66,7 @@ class DemoTraceTimeIntervalWarningsPackageBundlerTest {
             buildCheckInProtectedReports(5, 5))
         .flatMap(List::stream)
         .collect(Collectors.toList());
-    bundler.setCheckInProtectedReports(checkInProtectedReports, LocalDateTime.of(1970, 1, 5, 0, 0));
+    bundler.setCheckInProtectedReports(sourceOf(checkInProtectedReports), LocalDateTime.of(1970, 1, 5, 0, 0));
     assertThat(bundler.getCheckInProtectedReportsForHour(5)).hasSize(15);
   }
 
@@ -104,7 +104,7 @@ class DemoTraceTimeIntervalWarningsPackageBundlerTest {
             buildCheckInProtectedReports(7, 5))
         .flatMap(List::stream)
         .collect(Collectors.toList());
-    bundler.setCheckInProtectedReports(checkInProtectedReports, LocalDateTime.of(1970, 1, 5, 0, 0));
+    bundler.setCheckInProtectedReports(sourceOf(checkInProtectedReports), LocalDateTime.of(1970, 1, 5, 0, 0));
     assertThat(bundler.getHoursForDistributableCheckInProtectedReports("DE")).hasSize(3);
   }
 
@@ -116,7 +116,7 @@ class DemoTraceTimeIntervalWarningsPackageBundlerTest {
             buildCheckInProtectedReports(7, 5))
         .flatMap(List::stream)
         .collect(Collectors.toList());
-    bundler.setCheckInProtectedReports(checkInProtectedReports, LocalDateTime.of(1970, 1, 5, 0, 0));
+    bundler.setCheckInProtectedReports(sourceOf(checkInProtectedReports), LocalDateTime.of(1970, 1, 5, 0, 0));
     assertThat(bundler.getHoursForDistributableCheckInProtectedReports("UNKNOWN")).isEmpty();
   }
 
@@ -142,4 +142,11 @@ class DemoTraceTimeIntervalWarningsPackageBundlerTest {
 
     assertThat(bundler.getLatestHourWithDistributableWarnings("DE")).contains(currentHour);
   }
+
+  private static TraceTimeIntervalWarningsPackageBundler.CheckInProtectedReportsSource sourceOf(
+      List<CheckInProtectedReports> checkInProtectedReports) {
+    return (afterHour, beforeHour, consumer) -> checkInProtectedReports.stream()
+        .filter(report -> report.getSubmissionTimestamp() > afterHour && report.getSubmissionTimestamp() < beforeHour)
+        .forEach(consumer);
+  }
 }
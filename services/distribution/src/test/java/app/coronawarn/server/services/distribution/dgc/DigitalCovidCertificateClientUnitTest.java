@@ -2,21 +2,36 @@ package app.coronawarn.server.services.distribution.dgc;
 
 import static app.coronawarn.server.services.distribution.dgc.client.TestDigitalCovidCertificateClient.DISEASE_AGENT_TARGETED_HASH;
 import static app.coronawarn.server.services.distribution.dgc.client.TestDigitalCovidCertificateClient.RULE_1_HASH;
+import static app.coronawarn.server.services.distribution.dgc.client.TestDigitalCovidCertificateClient.RULE_2_HASH;
+import static app.coronawarn.server.services.distribution.dgc.client.TestDigitalCovidCertificateClient.RULE_3_HASH;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.junit.Assert.assertThrows;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import app.coronawarn.server.common.persistence.service.DccContentService;
 import app.coronawarn.server.common.shared.util.SerializationUtils;
+import app.coronawarn.server.services.distribution.config.DistributionServiceConfig;
+import app.coronawarn.server.services.distribution.config.DistributionServiceConfig.Client;
+import app.coronawarn.server.services.distribution.config.DistributionServiceConfig.DigitalGreenCertificate;
 import app.coronawarn.server.services.distribution.dgc.client.DigitalCovidCertificateFeignClient;
 import app.coronawarn.server.services.distribution.dgc.client.ProdDigitalCovidCertificateClient;
 import app.coronawarn.server.services.distribution.dgc.client.TestDigitalCovidCertificateClient;
 import app.coronawarn.server.services.distribution.dgc.exception.FetchBusinessRulesException;
 import app.coronawarn.server.services.distribution.dgc.exception.FetchValueSetsException;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import feign.FeignException.FeignClientException;
 import feign.RetryableException;
 import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -43,10 +58,24 @@ class DigitalCovidCertificateClientUnitTest {
   @Mock
   ResourceLoader resourceLoader;
 
+  @Mock
+  DccContentService dccContentService;
+
   @BeforeEach
   void setup() {
     testDigitalCovidCertificateClient = new TestDigitalCovidCertificateClient(resourceLoader);
-    prodDigitalCovidCertificateClient = new ProdDigitalCovidCertificateClient(digitalCovidCertificateFeignClient);
+    prodDigitalCovidCertificateClient = new ProdDigitalCovidCertificateClient(digitalCovidCertificateFeignClient,
+        dccContentService, distributionServiceConfig(1));
+  }
+
+  private static DistributionServiceConfig distributionServiceConfig(int maxConcurrentRequests) {
+    Client client = new Client();
+    client.setMaxConcurrentRequests(maxConcurrentRequests);
+    DigitalGreenCertificate digitalGreenCertificate = new DigitalGreenCertificate();
+    digitalGreenCertificate.setClient(client);
+    DistributionServiceConfig distributionServiceConfig = new DistributionServiceConfig();
+    distributionServiceConfig.setDigitalGreenCertificate(digitalGreenCertificate);
+    return distributionServiceConfig;
   }
 
   @Test
@@ -115,4 +144,66 @@ class DigitalCovidCertificateClientUnitTest {
     assertThrows(FetchBusinessRulesException.class,
         () -> prodDigitalCovidCertificateClient.getRules());
   }
+
+  @Test
+  void shouldFetchRuleOnlyOnceAndCacheIt() throws FetchBusinessRulesException {
+    BusinessRule rule = businessRule();
+    when(digitalCovidCertificateFeignClient.getCountryRule(DE, RULE_1_HASH)).thenReturn(ResponseEntity.ok(rule));
+
+    assertThat(prodDigitalCovidCertificateClient.getCountryRuleByHash(DE, RULE_1_HASH)).isSameAs(rule);
+    assertThat(prodDigitalCovidCertificateClient.getCountryRuleByHash(DE, RULE_1_HASH)).isSameAs(rule);
+
+    verify(digitalCovidCertificateFeignClient, times(1)).getCountryRule(DE, RULE_1_HASH);
+    verify(dccContentService).store(eq("country-rule"), eq(RULE_1_HASH), any());
+  }
+
+  @Test
+  void shouldNotFetchRulesWhichAreStored() throws Exception {
+    BusinessRuleItem item = businessRuleItem(RULE_1_HASH);
+    when(digitalCovidCertificateFeignClient.getRules()).thenReturn(ResponseEntity.ok(List.of(item)));
+    when(dccContentService.getContents("country-rule", List.of(RULE_1_HASH)))
+        .thenReturn(Map.of(RULE_1_HASH, new ObjectMapper().writeValueAsBytes(businessRule())));
+
+    prodDigitalCovidCertificateClient.getRules();
+    BusinessRule rule = prodDigitalCovidCertificateClient.getCountryRuleByHash(DE, RULE_1_HASH);
+
+    assertThat(rule.getIdentifier()).isEqualTo("GR-DE-0001");
+    assertThat(rule.getType()).isEqualTo("Acceptance");
+    verify(digitalCovidCertificateFeignClient, never()).getCountryRule(anyString(), anyString());
+    verify(dccContentService, never()).store(anyString(), anyString(), any());
+  }
+
+  @Test
+  void shouldPrefetchMissingRulesConcurrently() throws FetchBusinessRulesException {
+    prodDigitalCovidCertificateClient = new ProdDigitalCovidCertificateClient(digitalCovidCertificateFeignClient,
+        dccContentService, distributionServiceConfig(4));
+    List<BusinessRuleItem> items = List.of(businessRuleItem(RULE_1_HASH), businessRuleItem(RULE_2_HASH),
+        businessRuleItem(RULE_3_HASH));
+    when(digitalCovidCertificateFeignClient.getRules()).thenReturn(ResponseEntity.ok(items));
+    when(dccContentService.getContents(eq("country-rule"), anyCollection())).thenReturn(Map.of());
+    when(digitalCovidCertificateFeignClient.getCountryRule(eq(DE), anyString()))
+        .thenAnswer(invocation -> ResponseEntity.ok(businessRule()));
+
+    prodDigitalCovidCertificateClient.getRules();
+    for (BusinessRuleItem item : items) {
+      assertThat(prodDigitalCovidCertificateClient.getCountryRuleByHash(DE, item.getHash())).isNotNull();
+      verify(digitalCovidCertificateFeignClient, times(1)).getCountryRule(DE, item.getHash());
+    }
+    verify(dccContentService, times(3)).store(eq("country-rule"), anyString(), any());
+  }
+
+  private static BusinessRuleItem businessRuleItem(String hash) {
+    BusinessRuleItem item = new BusinessRuleItem();
+    item.setCountry(DE);
+    item.setHash(hash);
+    return item;
+  }
+
+  private static BusinessRule businessRule() {
+    BusinessRule rule = new BusinessRule();
+    rule.setIdentifier("GR-DE-0001");
+    rule.setCountry(DE);
+    rule.setType("Acceptance");
+    return rule;
+  }
 }
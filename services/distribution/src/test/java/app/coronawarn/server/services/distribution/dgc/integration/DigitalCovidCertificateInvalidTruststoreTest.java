@@ -2,6 +2,7 @@ package app.coronawarn.server.services.distribution.dgc.integration;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
+import app.coronawarn.server.common.persistence.service.DccContentService;
 import app.coronawarn.server.services.distribution.config.DistributionServiceConfig;
 import app.coronawarn.server.services.distribution.dgc.ApacheHttpTestConfiguration;
 import app.coronawarn.server.services.distribution.dgc.client.CloudDccFeignClientConfiguration;
@@ -19,6 +20,7 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
 import org.springframework.boot.autoconfigure.http.HttpMessageConvertersAutoConfiguration;
 import org.springframework.boot.test.context.ConfigDataApplicationContextInitializer;
+import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.cloud.openfeign.FeignAutoConfiguration;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.context.ContextConfiguration;
@@ -33,6 +35,9 @@ import org.springframework.test.context.junit.jupiter.SpringExtension;
 @ActiveProfiles({"dcc-invalid-truststore","dcc-client-factory"})
 class DigitalCovidCertificateInvalidTruststoreTest {
 
+  @MockBean
+  DccContentService dccContentService;
+
   @Autowired
   private DigitalCovidCertificateClient digitalCovidCertificateClient;
 
@@ -12,6 +12,7 @@ import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.any;
 import static org.springframework.http.HttpHeaders.CONTENT_TYPE;
 
+import app.coronawarn.server.common.persistence.service.DccContentService;
 import app.coronawarn.server.common.shared.util.SecurityUtils;
 import app.coronawarn.server.services.distribution.config.DistributionServiceConfig;
 import app.coronawarn.server.services.distribution.dgc.ApacheHttpTestConfiguration;
@@ -42,6 +43,7 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
 import org.springframework.boot.autoconfigure.http.HttpMessageConvertersAutoConfiguration;
 import org.springframework.boot.test.context.ConfigDataApplicationContextInitializer;
+import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.cloud.openfeign.FeignAutoConfiguration;
 import org.springframework.core.io.ResourceLoader;
 import org.springframework.http.HttpStatus;
@@ -61,6 +63,9 @@ public class DigitalCovidCertificateSignatureTest {
 
   private static final WireMockServer wireMockServer = new WireMockServer(options().port(1234));
 
+  @MockBean
+  DccContentService dccContentService;
+
   @Autowired
   DigitalCovidCertificateClient digitalCovidCertificateClient;
 
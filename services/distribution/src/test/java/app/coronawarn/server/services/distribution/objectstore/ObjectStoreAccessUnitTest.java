@@ -7,6 +7,7 @@ import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.atLeastOnce;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
@@ -136,4 +137,15 @@ class ObjectStoreAccessUnitTest {
 
     verify(objectStoreClient, times(1)).removeObjects(eq(expBucketName), eq(filesToDeleteObjectName));
   }
+
+  @Test
+  void shouldDeleteGivenObjectsWithoutListing() {
+    var objectNames = List.of("test-file-1", "test-file-2");
+
+    objectStoreAccess.deleteObjects(objectNames);
+
+    verify(objectStoreClient, times(1)).removeObjects(eq(expBucketName), eq(objectNames));
+    verify(objectStoreClient, never()).getObjects(any(), any());
+    assertThat(objectStoreAccess.getDeletedObjectNames()).containsExactlyInAnyOrderElementsOf(objectNames);
+  }
 }
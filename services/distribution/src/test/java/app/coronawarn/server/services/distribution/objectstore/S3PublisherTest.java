@@ -2,10 +2,13 @@ package app.coronawarn.server.services.distribution.objectstore;
 
 import static java.util.Collections.emptyList;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.doReturn;
 import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.spy;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
@@ -15,15 +18,26 @@ import app.coronawarn.server.services.distribution.config.DistributionServiceCon
 import app.coronawarn.server.services.distribution.config.DistributionServiceConfig.Api;
 import app.coronawarn.server.services.distribution.objectstore.client.ObjectStoreOperationFailedException;
 import app.coronawarn.server.services.distribution.objectstore.client.S3Object;
+import app.coronawarn.server.services.distribution.objectstore.publish.LocalFile;
+import app.coronawarn.server.services.distribution.objectstore.publish.PublishedManifest;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.nio.file.Files;
 import java.nio.file.Path;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
 import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Future;
 import org.assertj.core.api.Assertions;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.boot.test.context.ConfigDataApplicationContextInitializer;
@@ -107,12 +121,88 @@ class S3PublisherTest {
   }
 
   @Test
-  void executorGetsShutDown() throws IOException {
+  void executorIsReusable() throws IOException {
     when(objectStoreAccess.getObjectsWithPrefix("version")).thenReturn(emptyList());
 
     s3Publisher.publish(publishingPath);
+    s3Publisher.publish(publishingPath);
+
+    verify(executor, never()).shutdown();
+    verify(objectStoreAccess, times(6)).putObject(any());
+  }
+
+  @Test
+  void indexFilesAreUploadedLastAndDeepestFirst(@TempDir Path root) throws IOException {
+    Files.createDirectories(root.resolve("version/v1"));
+    Files.writeString(root.resolve("version/index"), "[]");
+    Files.writeString(root.resolve("version/v1/index"), "[]");
+    Files.writeString(root.resolve("version/v1/file"), "content");
+    when(objectStoreAccess.getObjectsWithPrefix("version")).thenReturn(emptyList());
+    List<String> uploaded = new CopyOnWriteArrayList<>();
+    doAnswer(invocation -> uploaded.add(invocation.<LocalFile>getArgument(0).getS3Key()))
+        .when(objectStoreAccess).putObject(any());
 
-    verify(executor, times(1)).shutdown();
+    s3Publisher.publish(root);
+
+    Assertions.assertThat(uploaded).containsExactly("version/v1/file", "version/v1", "version");
+  }
+
+  @Test
+  void indexFilesOfADepthAreUploadedAfterAllDeeperUploadsFinished(@TempDir Path root) throws IOException {
+    Files.createDirectories(root.resolve("version/v1/a"));
+    Files.createDirectories(root.resolve("version/v1/b"));
+    Files.writeString(root.resolve("version/index"), "[]");
+    Files.writeString(root.resolve("version/v1/index"), "[]");
+    Files.writeString(root.resolve("version/v1/a/index"), "[]");
+    Files.writeString(root.resolve("version/v1/b/index"), "[]");
+    when(objectStoreAccess.getObjectsWithPrefix("version")).thenReturn(emptyList());
+    List<String> events = new CopyOnWriteArrayList<>();
+    doAnswer(invocation -> {
+      String s3Key = invocation.<LocalFile>getArgument(0).getS3Key();
+      events.add("start " + s3Key);
+      if (s3Key.equals("version/v1/a")) {
+        Thread.sleep(200);
+      }
+      events.add("end " + s3Key);
+      return null;
+    }).when(objectStoreAccess).putObject(any());
+    ThreadPoolTaskExecutor parallelExecutor = new ThreadPoolTaskExecutor();
+    parallelExecutor.setMaxPoolSize(3);
+    parallelExecutor.setCorePoolSize(3);
+    parallelExecutor.initialize();
+
+    new S3Publisher(objectStoreAccess, failedObjectStoreOperationsCounter, parallelExecutor, distributionServiceConfig)
+        .publish(root);
+    parallelExecutor.shutdown();
+
+    Assertions.assertThat(events.indexOf("start version/v1"))
+        .isGreaterThan(events.indexOf("end version/v1/a"))
+        .isGreaterThan(events.indexOf("end version/v1/b"));
+    Assertions.assertThat(events.indexOf("start version")).isGreaterThan(events.indexOf("end version/v1"));
+  }
+
+  @Test
+  void indexFilesAboveAFailedUploadAreSkipped(@TempDir Path root) throws IOException {
+    Files.createDirectories(root.resolve("version/v1"));
+    Files.createDirectories(root.resolve("version/v2"));
+    Files.writeString(root.resolve("version/index"), "[]");
+    Files.writeString(root.resolve("version/v1/index"), "[]");
+    Files.writeString(root.resolve("version/v1/file"), "content");
+    Files.writeString(root.resolve("version/v2/index"), "[]");
+    Files.writeString(root.resolve("version/v2/file"), "content");
+    when(objectStoreAccess.getObjectsWithPrefix("version")).thenReturn(emptyList());
+    List<String> uploaded = new CopyOnWriteArrayList<>();
+    doAnswer(invocation -> {
+      String s3Key = invocation.<LocalFile>getArgument(0).getS3Key();
+      if (s3Key.equals("version/v1/file")) {
+        throw new ObjectStoreOperationFailedException("failed");
+      }
+      return uploaded.add(s3Key);
+    }).when(objectStoreAccess).putObject(any());
+
+    s3Publisher.publish(root);
+
+    Assertions.assertThat(uploaded).containsExactly("version/v2/file", "version/v2");
   }
 
   @Test
@@ -128,14 +218,14 @@ class S3PublisherTest {
   }
 
   @Test
-  void threadPoolShutDownWhenMaximumFailedOperationsReached() {
+  void threadPoolNotShutDownWhenMaximumFailedOperationsReached() {
     when(objectStoreAccess.getObjectsWithPrefix("version")).thenReturn(emptyList());
     setUpFailureThresholdExceededOnSecondUpload();
 
     Assertions.assertThatExceptionOfType(ObjectStoreOperationFailedException.class)
         .isThrownBy(() -> s3Publisher.publish(publishingPath));
 
-    verify(executor, times(1)).shutdown();
+    verify(executor, never()).shutdown();
   }
 
   private void setUpFailureThresholdExceededOnSecondUpload() {
@@ -156,7 +246,55 @@ class S3PublisherTest {
     Assertions.assertThatExceptionOfType(ObjectStoreOperationFailedException.class)
         .isThrownBy(() -> s3Publisher.publish(publishingPath));
 
-    verify(executor, times(1)).shutdown();
+    verify(executor, never()).shutdown();
+  }
+
+  @Test
+  void manifestIsStoredAfterPublishing() throws IOException {
+    when(objectStoreAccess.getObjectsWithPrefix("version")).thenReturn(emptyList());
+
+    s3Publisher.publish(publishingPath);
+
+    verify(objectStoreAccess, times(1)).putPrivateObject(eq(PublishedManifest.S3_KEY), any(), anyString());
+  }
+
+  @Test
+  void noListingAndNoUploadsWithUpToDateManifest() throws IOException {
+    when(objectStoreAccess.getObjectContent(PublishedManifest.S3_KEY))
+        .thenReturn(Optional.of(manifestOf(allExistAllSame(), Instant.now())));
+
+    s3Publisher.publish(publishingPath);
+
+    verify(objectStoreAccess, never()).getObjectsWithPrefix(any());
+    verify(objectStoreAccess, never()).putObject(any());
+  }
+
+  @Test
+  void uploadObjectsDeletedSinceManifestWasWritten() throws IOException {
+    when(objectStoreAccess.getObjectContent(PublishedManifest.S3_KEY))
+        .thenReturn(Optional.of(manifestOf(allExistAllSame(), Instant.now())));
+    when(objectStoreAccess.getDeletedObjectNames()).thenReturn(Set.of(FILE_1.getObjectName()));
+
+    s3Publisher.publish(publishingPath);
+
+    verify(objectStoreAccess, times(1)).putObject(any());
+  }
+
+  @Test
+  void listingIsUsedWhenManifestIsDueForReconciliation() throws IOException {
+    when(objectStoreAccess.getObjectContent(PublishedManifest.S3_KEY))
+        .thenReturn(Optional.of(manifestOf(allExistAllSame(), Instant.now().minus(25, ChronoUnit.HOURS))));
+    when(objectStoreAccess.getObjectsWithPrefix("version")).thenReturn(emptyList());
+
+    s3Publisher.publish(publishingPath);
+
+    verify(objectStoreAccess, times(3)).putObject(any());
+  }
+
+  private static ByteArrayInputStream manifestOf(List<S3Object> s3Objects, Instant reconciledAt) throws IOException {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    PublishedManifest.fromListing(s3Objects, reconciledAt).write(out);
+    return new ByteArrayInputStream(out.toByteArray());
   }
 
   private List<S3Object> otherExisting() {
@@ -4,9 +4,10 @@ import static app.coronawarn.server.common.shared.util.TimeUtils.getCurrentUtcHo
 import static app.coronawarn.server.common.shared.util.TimeUtils.getUtcDate;
 import static java.util.Arrays.asList;
 import static java.util.stream.Collectors.toList;
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.util.Lists.list;
 import static org.mockito.ArgumentMatchers.any;
-import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.atLeast;
 import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
@@ -23,6 +24,7 @@ import java.time.ZoneOffset;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
+import java.util.Set;
 import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 import java.util.stream.LongStream;
@@ -30,19 +32,25 @@ import java.util.stream.Stream;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.boot.test.context.ConfigDataApplicationContextInitializer;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 import org.springframework.test.context.ContextConfiguration;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
 
 @EnableConfigurationProperties(value = DistributionServiceConfig.class)
 @ExtendWith(SpringExtension.class)
-@ContextConfiguration(classes = {S3RetentionPolicy.class, ObjectStore.class, FailedObjectStoreOperationsCounter.class},
-    initializers = ConfigDataApplicationContextInitializer.class)
+@ContextConfiguration(classes = {S3RetentionPolicy.class, ObjectStore.class, FailedObjectStoreOperationsCounter.class,
+    S3RetentionPolicyTest.ExecutorConfig.class}, initializers = ConfigDataApplicationContextInitializer.class)
 class S3RetentionPolicyTest {
 
+  private static final int RETENTION_DAYS = 14;
+
   @MockBean
   private ObjectStoreAccess objectStoreAccess;
 
@@ -76,10 +84,10 @@ class S3RetentionPolicyTest {
         .collect(Collectors.toUnmodifiableList()));
 
     when(objectStoreAccess.getObjectsWithPrefix(this.getDiagnosisKeyPrefix("DE"))).thenReturn(mockResponse);
-    s3RetentionPolicy.applyDiagnosisKeyHourRetentionPolicy(2);
+    s3RetentionPolicy.applyRetentionPolicies(RETENTION_DAYS, 2);
 
-    toBeDeleted.forEach(f -> verify(objectStoreAccess, times(1)).deleteObjectsWithPrefix(f));
-    toBeKept.forEach(f -> verify(objectStoreAccess, never()).deleteObjectsWithPrefix(f));
+    assertThat(deletedObjectNames()).containsAll(toBeDeleted);
+    assertThat(deletedObjectNames()).doesNotContainAnyElementsOf(toBeKept);
   }
 
   @Test
@@ -100,12 +108,12 @@ class S3RetentionPolicyTest {
             .collect(Collectors.toUnmodifiableList()));
     when(objectStoreAccess.getObjectsWithPrefix(this.getDiagnosisKeyPrefix("EUR"))).thenReturn(mockResponseEUR);
 
-    s3RetentionPolicy.applyDiagnosisKeyHourRetentionPolicy(2);
+    s3RetentionPolicy.applyRetentionPolicies(RETENTION_DAYS, 2);
 
-    toBeDeletedDE.forEach(f -> verify(objectStoreAccess, times(1)).deleteObjectsWithPrefix(f));
-    toBeKeptDE.forEach(f -> verify(objectStoreAccess, never()).deleteObjectsWithPrefix(f));
-    toBeDeletedEUR.forEach(f -> verify(objectStoreAccess, times(1)).deleteObjectsWithPrefix(f));
-    toBeKeptEUR.forEach(f -> verify(objectStoreAccess, never()).deleteObjectsWithPrefix(f));
+    assertThat(deletedObjectNames()).containsAll(toBeDeletedDE);
+    assertThat(deletedObjectNames()).doesNotContainAnyElementsOf(toBeKeptDE);
+    assertThat(deletedObjectNames()).containsAll(toBeDeletedEUR);
+    assertThat(deletedObjectNames()).doesNotContainAnyElementsOf(toBeKeptEUR);
   }
 
   @Test
@@ -117,10 +125,10 @@ class S3RetentionPolicyTest {
 
     when(objectStoreAccess.getObjectsWithPrefix(this.getDiagnosisKeyPrefix("DE"))).thenReturn(mockResponse);
 
-    s3RetentionPolicy.applyDiagnosisKeyHourRetentionPolicy(2);
+    s3RetentionPolicy.applyRetentionPolicies(RETENTION_DAYS, 2);
 
-    verify(objectStoreAccess, times(1)).deleteObjectsWithPrefix(invalidHourFile);
-    verify(objectStoreAccess, never()).deleteObjectsWithPrefix(validHourFile);
+    assertThat(deletedObjectNames()).contains(invalidHourFile);
+    assertThat(deletedObjectNames()).doesNotContain(validHourFile);
   }
 
   @Test
@@ -132,10 +140,10 @@ class S3RetentionPolicyTest {
 
     when(objectStoreAccess.getObjectsWithPrefix(this.getDiagnosisKeyPrefix("EUR"))).thenReturn(mockResponse);
 
-    s3RetentionPolicy.applyDiagnosisKeyHourRetentionPolicy(2);
+    s3RetentionPolicy.applyRetentionPolicies(RETENTION_DAYS, 2);
 
-    verify(objectStoreAccess, times(1)).deleteObjectsWithPrefix(invalidHourFile);
-    verify(objectStoreAccess, never()).deleteObjectsWithPrefix(validHourFile);
+    assertThat(deletedObjectNames()).contains(invalidHourFile);
+    assertThat(deletedObjectNames()).doesNotContain(validHourFile);
   }
 
   @Test
@@ -148,11 +156,11 @@ class S3RetentionPolicyTest {
 
     when(objectStoreAccess.getObjectsWithPrefix(this.getDiagnosisKeyPrefix("DE"))).thenReturn(mockResponse);
 
-    s3RetentionPolicy.applyDiagnosisKeyHourRetentionPolicy(2);
+    s3RetentionPolicy.applyRetentionPolicies(RETENTION_DAYS, 2);
 
-    verify(objectStoreAccess, times(1)).deleteObjectsWithPrefix(invalidHourFile1);
-    verify(objectStoreAccess, times(1)).deleteObjectsWithPrefix(invalidHourFile2);
-    verify(objectStoreAccess, never()).deleteObjectsWithPrefix(validHourFile);
+    assertThat(deletedObjectNames()).contains(invalidHourFile1);
+    assertThat(deletedObjectNames()).contains(invalidHourFile2);
+    assertThat(deletedObjectNames()).doesNotContain(validHourFile);
   }
 
   @Test
@@ -171,10 +179,9 @@ class S3RetentionPolicyTest {
 
     when(objectStoreAccess.getObjectsWithPrefix(any())).thenReturn(mockResponse);
 
-    s3RetentionPolicy.applyDiagnosisKeyDayRetentionPolicy(1);
+    s3RetentionPolicy.applyRetentionPolicies(1, 2);
 
-    expectedFilesToBeDeleted.forEach(expectedFileToBeDeleted ->
-        verify(objectStoreAccess, atLeastOnce()).deleteObjectsWithPrefix(expectedFileToBeDeleted));
+    assertThat(deletedObjectNames()).containsAll(expectedFilesToBeDeleted);
   }
 
   @Test
@@ -190,16 +197,18 @@ class S3RetentionPolicyTest {
             .collect(toList()));
 
     when(objectStoreAccess.getObjectsWithPrefix(any())).thenReturn(mockResponse);
-    s3RetentionPolicy.applyDiagnosisKeyDayRetentionPolicy(1);
+    s3RetentionPolicy.applyRetentionPolicies(1, 2);
 
-    verify(objectStoreAccess, never()).deleteObjectsWithPrefix(any());
+    verify(objectStoreAccess, never()).deleteObjects(any());
   }
 
   @Test
   void deleteDiagnosisKeysUpdatesFailedOperationCounter() {
-    doThrow(ObjectStoreOperationFailedException.class).when(objectStoreAccess).deleteObjectsWithPrefix(any());
+    doThrow(ObjectStoreOperationFailedException.class).when(objectStoreAccess).deleteObjects(any());
+    when(objectStoreAccess.getObjectsWithPrefix(this.getDiagnosisKeyPrefix("DE")))
+        .thenReturn(s3ObjectsFromFilenames(list(generateDiagnosisKeyHourFilename(getUtcDate().minusDays(5), "DE"))));
 
-    s3RetentionPolicy.deleteS3Object(new S3Object("foo"));
+    s3RetentionPolicy.applyRetentionPolicies(RETENTION_DAYS, 2);
 
     verify(failedObjectStoreOperationsCounter, times(1))
         .incrementAndCheckThreshold(any(ObjectStoreOperationFailedException.class));
@@ -216,10 +225,85 @@ class S3RetentionPolicyTest {
         .collect(Collectors.toUnmodifiableList()));
 
     when(objectStoreAccess.getObjectsWithPrefix(this.getTraceTimeWarningPrefix("DE"))).thenReturn(mockResponse);
-    s3RetentionPolicy.applyTraceTimeWarningHourRetentionPolicy(2);
+    s3RetentionPolicy.applyRetentionPolicies(2, 2);
+
+    assertThat(deletedObjectNames()).containsAll(toBeDeleted);
+    assertThat(deletedObjectNames()).doesNotContainAnyElementsOf(toBeKept);
+  }
+
+  @Test
+  @SuppressWarnings("unchecked")
+  void shouldDeleteExpiredObjectsInChunks() {
+    List<String> toBeDeleted = generateTraceTimeWarningFilenamesForRange(
+        currentTime.minusHours(2 * S3RetentionPolicy.DELETE_CHUNK_SIZE + 100L), currentTime.minusDays(3));
+    when(objectStoreAccess.getObjectsWithPrefix(this.getTraceTimeWarningPrefix("DE")))
+        .thenReturn(s3ObjectsFromFilenames(toBeDeleted));
+
+    s3RetentionPolicy.applyRetentionPolicies(2, 2);
+
+    ArgumentCaptor<List<String>> chunks = ArgumentCaptor.forClass(List.class);
+    verify(objectStoreAccess, times(3)).deleteObjects(chunks.capture());
+    assertThat(chunks.getAllValues()).allSatisfy(chunk -> assertThat(chunk).hasSizeLessThanOrEqualTo(
+        S3RetentionPolicy.DELETE_CHUNK_SIZE));
+    assertThat(deletedObjectNames()).containsExactlyInAnyOrderElementsOf(toBeDeleted);
+    verify(objectStoreAccess, never()).deleteObjectsWithPrefix(any());
+  }
+
+  @Test
+  void shouldDeleteObjectsBelowExpiredObjects() {
+    String expired = generateTraceTimeWarningFilenamesForRange(currentTime.minusDays(5),
+        currentTime.minusDays(5).plusHours(1)).get(0);
+    String kept = generateTraceTimeWarningFilenamesForRange(currentTime.minusHours(1), currentTime).get(0);
+    when(objectStoreAccess.getObjectsWithPrefix(this.getTraceTimeWarningPrefix("DE")))
+        .thenReturn(s3ObjectsFromFilenames(list(expired, expired + "/index", kept, kept + "/index")));
+
+    s3RetentionPolicy.applyRetentionPolicies(2, 2);
+
+    assertThat(deletedObjectNames()).containsExactlyInAnyOrder(expired, expired + "/index");
+  }
 
-    toBeDeleted.forEach(f -> verify(objectStoreAccess, times(1)).deleteObjectsWithPrefix(f));
-    toBeKept.forEach(f -> verify(objectStoreAccess, never()).deleteObjectsWithPrefix(f));
+  @Test
+  void failedChunkDeletionsUpdateFailedOperationCounter() {
+    doThrow(ObjectStoreOperationFailedException.class).when(objectStoreAccess).deleteObjects(any());
+    when(objectStoreAccess.getObjectsWithPrefix(this.getTraceTimeWarningPrefix("DE")))
+        .thenReturn(s3ObjectsFromFilenames(generateTraceTimeWarningFilenamesForRange(
+            currentTime.minusHours(S3RetentionPolicy.DELETE_CHUNK_SIZE + 100L), currentTime.minusDays(3))));
+
+    s3RetentionPolicy.applyRetentionPolicies(2, 2);
+
+    verify(failedObjectStoreOperationsCounter, times(2))
+        .incrementAndCheckThreshold(any(ObjectStoreOperationFailedException.class));
+  }
+
+  @Test
+  void shouldApplyAllRetentionRulesWithOneListingPerPrefix() {
+    String expiredDay = generateDiagnosisKeyHourFilename(getUtcDate().minusDays(5), "DE");
+    String expiredHour = generateDiagnosisKeyHourFilename(getUtcDate().minusDays(2), "DE");
+    String keptDay = getDiagnosisKeyPrefix("DE") + getUtcDate().minusDays(2) + "/index";
+    String keptHour = generateDiagnosisKeyHourFilename(getUtcDate(), "DE");
+    List<String> expiredTraceWarnings = generateTraceTimeWarningFilenamesForRange(currentTime.minusDays(5),
+        currentTime.minusDays(4));
+    when(objectStoreAccess.getObjectsWithPrefix(this.getDiagnosisKeyPrefix("DE")))
+        .thenReturn(s3ObjectsFromFilenames(list(expiredDay, expiredHour, keptDay, keptHour)));
+    when(objectStoreAccess.getObjectsWithPrefix(this.getTraceTimeWarningPrefix("DE")))
+        .thenReturn(s3ObjectsFromFilenames(expiredTraceWarnings));
+
+    s3RetentionPolicy.applyRetentionPolicies(3, 2);
+
+    Stream.of("DE", "EUR").forEach(country -> {
+      verify(objectStoreAccess, times(1)).getObjectsWithPrefix(getDiagnosisKeyPrefix(country));
+      verify(objectStoreAccess, times(1)).getObjectsWithPrefix(getTraceTimeWarningPrefix(country));
+    });
+    verify(objectStoreAccess, times(1)).deleteObjects(any());
+    assertThat(deletedObjectNames()).containsAll(expiredTraceWarnings).contains(expiredDay, expiredHour)
+        .doesNotContain(keptDay, keptHour).hasSize(expiredTraceWarnings.size() + 2);
+  }
+
+  @SuppressWarnings("unchecked")
+  private Set<String> deletedObjectNames() {
+    ArgumentCaptor<List<String>> chunks = ArgumentCaptor.forClass(List.class);
+    verify(objectStoreAccess, atLeast(0)).deleteObjects(chunks.capture());
+    return chunks.getAllValues().stream().flatMap(List::stream).collect(Collectors.toSet());
   }
 
   private String getDiagnosisKeyPrefix(String country) {
@@ -271,4 +355,16 @@ class S3RetentionPolicyTest {
   private List<S3Object> s3ObjectsFromFilenames(List<String> filenames) {
     return filenames.stream().map(S3Object::new).collect(Collectors.toUnmodifiableList());
   }
+
+  @Configuration
+  static class ExecutorConfig {
+
+    @Bean
+    ThreadPoolTaskExecutor executor() {
+      ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+      executor.setCorePoolSize(2);
+      executor.initialize();
+      return executor;
+    }
+  }
 }
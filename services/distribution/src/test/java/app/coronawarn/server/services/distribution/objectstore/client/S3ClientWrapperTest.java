@@ -139,11 +139,33 @@ class S3ClientWrapperTest {
   void testGetObjects(List<S3Object> expResult) {
     ListObjectsResponse actResponse = buildListObjectsResponse(expResult);
     when(s3Client.listObjects(any(ListObjectsRequest.class))).thenReturn(actResponse);
-    when(s3Client.headObject(any(HeadObjectRequest.class))).thenReturn(HeadObjectResponse.builder().build());
 
     List<S3Object> actResult = s3ClientWrapper.getObjects(VALID_BUCKET_NAME, VALID_PREFIX);
 
     assertThat(actResult).isEqualTo(expResult);
+    verify(s3Client, times(0)).headObject(any(HeadObjectRequest.class));
+  }
+
+  @Test
+  void testGetObjectsKeepsETag() {
+    var responseObject = software.amazon.awssdk.services.s3.model.S3Object.builder()
+        .key("objName").eTag("\"d41d8cd98f00b204e9800998ecf8427e\"").build();
+    when(s3Client.listObjects(any(ListObjectsRequest.class)))
+        .thenReturn(ListObjectsResponse.builder().contents(responseObject).isTruncated(false).build());
+
+    List<S3Object> actResult = s3ClientWrapper.getObjects(VALID_BUCKET_NAME, VALID_PREFIX);
+
+    assertThat(actResult).containsExactly(new S3Object("objName", null, "d41d8cd98f00b204e9800998ecf8427e"));
+  }
+
+  @Test
+  void testGetCwaHash() {
+    when(s3Client.headObject(any(HeadObjectRequest.class)))
+        .thenReturn(HeadObjectResponse.builder().metadata(Map.of("cwa-hash", "1234")).build());
+
+    assertThat(s3ClientWrapper.getCwaHash(VALID_BUCKET_NAME, "objName")).isEqualTo("1234");
+    verify(s3Client, times(1))
+        .headObject(eq(HeadObjectRequest.builder().bucket(VALID_BUCKET_NAME).key("objName").build()));
   }
 
   @Test
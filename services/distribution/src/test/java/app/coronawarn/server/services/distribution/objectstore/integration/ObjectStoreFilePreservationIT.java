@@ -2,9 +2,11 @@ package app.coronawarn.server.services.distribution.objectstore.integration;
 
 import static org.mockito.Mockito.when;
 
+import app.coronawarn.server.common.persistence.service.DccContentService;
 import app.coronawarn.server.common.persistence.service.DccRevocationListService;
 import app.coronawarn.server.common.persistence.service.DiagnosisKeyService;
 import app.coronawarn.server.common.persistence.service.StatisticsDownloadService;
+import app.coronawarn.server.common.persistence.service.SubmissionPartitionService;
 import app.coronawarn.server.common.persistence.service.TraceTimeIntervalWarningService;
 import app.coronawarn.server.services.distribution.assembly.component.OutputDirectoryProvider;
 import app.coronawarn.server.services.distribution.assembly.structure.directory.DirectoryOnDisk;
@@ -61,6 +63,10 @@ class ObjectStoreFilePreservationIT extends BaseS3IntegrationTest {
   private Environment environment;
   @Autowired
   private DccRevocationClient dccRevocationClient;
+  @Autowired
+  private SubmissionPartitionService submissionPartitionService;
+  @Autowired
+  private DccContentService dccContentService;
 
   @MockBean
   private OutputDirectoryProvider distributionDirectoryProvider;
@@ -141,17 +147,17 @@ class ObjectStoreFilePreservationIT extends BaseS3IntegrationTest {
           if (filesAreDifferent(previouslyPublished, secondVersion)) {
             throw new AssertionError("Files have been changed on object store "
                 + "due to retention policy. Before: " + (previouslyPublished != null
-                    ? previouslyPublished.getObjectName() + "-" + previouslyPublished.getCwaHash()
+                    ? previouslyPublished.getObjectName() + "-" + previouslyPublished.getEtag()
                     : null)
                 + "| After:" + secondVersion.getObjectName()
-                + "-" + secondVersion.getCwaHash());
+                + "-" + secondVersion.getEtag());
           }
         });
   }
 
   private boolean filesAreDifferent(S3Object previouslyPublished, S3Object newVerion) {
     return previouslyPublished == null ||
-        !newVerion.getCwaHash().equals(previouslyPublished.getCwaHash());
+        !newVerion.getEtag().equals(previouslyPublished.getEtag());
   }
 
   /**
@@ -163,7 +169,7 @@ class ObjectStoreFilePreservationIT extends BaseS3IntegrationTest {
     mockDistributionConfig.setObjectStore(distributionServiceConfig.getObjectStore());
     new RetentionPolicy(diagnosisKeyService, traceTimeIntervalWarningService, applicationContext,
         mockDistributionConfig, s3RetentionPolicy, dccRevocationListService, environment, dccRevocationClient,
-        statisticsDownloadService).run(null);
+        statisticsDownloadService, submissionPartitionService, dccContentService).run(null);
   }
 
   private Integer numberOfDaysSince(LocalDate testStartDate) {
@@ -2,6 +2,7 @@
 
 package app.coronawarn.server.services.distribution.objectstore.publish;
 
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 
@@ -10,6 +11,8 @@ import java.io.File;
 import java.nio.file.Path;
 import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Test;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.ValueSource;
 
@@ -50,4 +53,31 @@ class PublishedFileSetTest {
     assertTrue(publishedSet.shouldPublish(testFile));
   }
 
+  @Test
+  void testCwaHashIsLoadedIfNotDerivableFromETag() {
+    String key = "version/v1/configuration/country/DE/app_config";
+    AtomicInteger loaderCalls = new AtomicInteger();
+    List<S3Object> s3Objects = List.of(new S3Object(key, null, "d41d8cd98f00b204e9800998ecf8427e-2"));
+    PublishedFileSet publishedSet = new PublishedFileSet(s3Objects, false, s3Object -> {
+      loaderCalls.incrementAndGet();
+      return "";
+    });
+    LocalFile testFile = new LocalIndexFile(Path.of("/root", key, "/index"), Path.of("/root"));
+    assertFalse(publishedSet.shouldPublish(testFile));
+    assertEquals(1, loaderCalls.get());
+  }
+
+  @Test
+  void testCwaHashIsNotLoadedIfKnown() {
+    String key = "version/v1/configuration/country/DE/app_config";
+    AtomicInteger loaderCalls = new AtomicInteger();
+    List<S3Object> s3Objects = List.of(new S3Object(key, "1234", "d41d8cd98f00b204e9800998ecf8427e"));
+    PublishedFileSet publishedSet = new PublishedFileSet(s3Objects, false, s3Object -> {
+      loaderCalls.incrementAndGet();
+      return "";
+    });
+    LocalFile testFile = new LocalIndexFile(Path.of("/root", key, "/index"), Path.of("/root"));
+    assertTrue(publishedSet.shouldPublish(testFile));
+    assertEquals(0, loaderCalls.get());
+  }
 }
@@ -0,0 +1,77 @@
+package app.coronawarn.server.services.distribution.objectstore.publish;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+
+import app.coronawarn.server.services.distribution.objectstore.client.S3Object;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+class PublishedManifestTest {
+
+  private static final Instant NOW = Instant.ofEpochSecond(1_600_000_000L);
+
+  @Test
+  void testWriteAndRead() throws IOException {
+    PublishedManifest manifest = new PublishedManifest(NOW);
+    manifest.put("version/v1/index", new PublishedManifest.Entry("1234", 42, NOW));
+    manifest.put("version/v1/unknown", new PublishedManifest.Entry(null, PublishedManifest.Entry.UNKNOWN_SIZE, NOW));
+
+    PublishedManifest read = PublishedManifest.read(new ByteArrayInputStream(write(manifest)));
+
+    assertThat(read.getReconciledAt()).isEqualTo(NOW);
+    assertThat(read.get("version/v1/index")).hasValueSatisfying(entry -> {
+      assertThat(entry.getCwaHash()).isEqualTo("1234");
+      assertThat(entry.getSize()).isEqualTo(42);
+      assertThat(entry.getPublishedAt()).isEqualTo(NOW);
+    });
+    assertThat(read.get("version/v1/unknown")).hasValueSatisfying(entry -> assertThat(entry.getCwaHash()).isNull());
+    assertThat(read.getS3Objects())
+        .containsExactly(new S3Object("version/v1/index", "1234"), new S3Object("version/v1/unknown"));
+  }
+
+  @Test
+  void testFromListingAndRemoveAll() {
+    PublishedManifest manifest = PublishedManifest.fromListing(
+        List.of(new S3Object("version/v1/a"), new S3Object("version/v1/b")), NOW);
+
+    manifest.removeAll(List.of("version/v1/a"));
+
+    assertThat(manifest.getReconciledAt()).isEqualTo(NOW);
+    assertThat(manifest.get("version/v1/a")).isEmpty();
+    assertThat(manifest.get("version/v1/b")).hasValueSatisfying(entry -> {
+      assertThat(entry.getCwaHash()).isNull();
+      assertThat(entry.getSize()).isEqualTo(PublishedManifest.Entry.UNKNOWN_SIZE);
+    });
+  }
+
+  @Test
+  void testReadFailsOnInvalidContent() {
+    byte[] content = "not a manifest".getBytes(StandardCharsets.UTF_8);
+    assertThatExceptionOfType(IOException.class)
+        .isThrownBy(() -> PublishedManifest.read(new ByteArrayInputStream(content)));
+  }
+
+  @Test
+  void testReadFailsOnTruncatedManifest() throws IOException {
+    PublishedManifest manifest = new PublishedManifest(NOW);
+    manifest.put("version/v1/index", new PublishedManifest.Entry("1234", 42, NOW));
+    byte[] content = write(manifest);
+    byte[] truncated = new byte[content.length / 2];
+    System.arraycopy(content, 0, truncated, 0, truncated.length);
+
+    assertThatExceptionOfType(IOException.class)
+        .isThrownBy(() -> PublishedManifest.read(new ByteArrayInputStream(truncated)));
+  }
+
+  private static byte[] write(PublishedManifest manifest) throws IOException {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    manifest.write(out);
+    return out.toByteArray();
+  }
+}
@@ -2,10 +2,12 @@
 
 package app.coronawarn.server.services.distribution.objectstore.publish;
 
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 
 import app.coronawarn.server.services.distribution.objectstore.client.S3Object;
+import org.junit.jupiter.api.Test;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.ValueSource;
 
@@ -30,4 +32,18 @@ class S3ObjectTest {
     S3Object test = new S3Object(key);
     assertFalse(test.isDiagnosisKeyFile());
   }
+
+  @Test
+  void testCwaHashFromSinglePartETag() {
+    // ETag of an empty object
+    S3Object test = new S3Object("key", null, "\"d41d8cd98f00b204e9800998ecf8427e\"");
+    assertThat(test.getCwaHashFromEtag()).contains("59adb24ef3cdbe0297f05b395827453f");
+  }
+
+  @ParameterizedTest
+  @ValueSource(strings = {"d41d8cd98f00b204e9800998ecf8427e-2", ""})
+  void testNoCwaHashFromMultiPartETag(String etag) {
+    S3Object test = new S3Object("key", null, etag);
+    assertThat(test.getCwaHashFromEtag()).isEmpty();
+  }
 }
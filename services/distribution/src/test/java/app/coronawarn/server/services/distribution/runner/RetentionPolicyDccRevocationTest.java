@@ -4,9 +4,11 @@ import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import app.coronawarn.server.common.persistence.service.DccContentService;
 import app.coronawarn.server.common.persistence.service.DccRevocationListService;
 import app.coronawarn.server.common.persistence.service.DiagnosisKeyService;
 import app.coronawarn.server.common.persistence.service.StatisticsDownloadService;
+import app.coronawarn.server.common.persistence.service.SubmissionPartitionService;
 import app.coronawarn.server.common.persistence.service.TraceTimeIntervalWarningService;
 import app.coronawarn.server.services.distribution.config.DistributionServiceConfig;
 import app.coronawarn.server.services.distribution.dcc.DccRevocationClient;
@@ -43,6 +45,12 @@ class RetentionPolicyDccRevocationTest {
   @MockBean
   StatisticsDownloadService statisticsDownloadService;
 
+  @MockBean
+  SubmissionPartitionService submissionPartitionService;
+
+  @MockBean
+  DccContentService dccContentService;
+
   @Autowired
   DistributionServiceConfig distributionServiceConfig;
 
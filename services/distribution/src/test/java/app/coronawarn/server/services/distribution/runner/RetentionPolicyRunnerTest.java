@@ -3,9 +3,11 @@ package app.coronawarn.server.services.distribution.runner;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 
+import app.coronawarn.server.common.persistence.service.DccContentService;
 import app.coronawarn.server.common.persistence.service.DccRevocationListService;
 import app.coronawarn.server.common.persistence.service.DiagnosisKeyService;
 import app.coronawarn.server.common.persistence.service.StatisticsDownloadService;
+import app.coronawarn.server.common.persistence.service.SubmissionPartitionService;
 import app.coronawarn.server.common.persistence.service.TraceTimeIntervalWarningService;
 import app.coronawarn.server.services.distribution.config.DistributionServiceConfig;
 import app.coronawarn.server.services.distribution.dcc.DccRevocationClient;
@@ -36,6 +38,12 @@ class RetentionPolicyRunnerTest {
   @MockBean
   StatisticsDownloadService statisticsDownloadService;
 
+  @MockBean
+  SubmissionPartitionService submissionPartitionService;
+
+  @MockBean
+  DccContentService dccContentService;
+
   @Autowired
   DistributionServiceConfig distributionServiceConfig;
 
@@ -54,15 +62,16 @@ class RetentionPolicyRunnerTest {
 
     verify(statisticsDownloadService, times(1))
         .applyRetentionPolicy(distributionServiceConfig.getRetentionDays());
+    verify(submissionPartitionService, times(1))
+        .applyRetentionPolicy(distributionServiceConfig.getRetentionDays());
+    verify(submissionPartitionService, times(1)).createUpcomingPartitions();
     verify(diagnosisKeyService, times(1))
         .applyRetentionPolicy(distributionServiceConfig.getRetentionDays());
     verify(traceTimeIntervalWarningService, times(1))
         .applyRetentionPolicy(distributionServiceConfig.getRetentionDays());
-    verify(s3RetentionPolicy, times(1))
-        .applyDiagnosisKeyDayRetentionPolicy(distributionServiceConfig.getRetentionDays());
-    verify(s3RetentionPolicy, times(1))
-        .applyDiagnosisKeyHourRetentionPolicy(distributionServiceConfig.getObjectStore().getHourFileRetentionDays());
-    verify(s3RetentionPolicy, times(1))
-        .applyTraceTimeWarningHourRetentionPolicy(distributionServiceConfig.getRetentionDays());
+    verify(s3RetentionPolicy, times(1)).applyRetentionPolicies(distributionServiceConfig.getRetentionDays(),
+        distributionServiceConfig.getObjectStore().getHourFileRetentionDays());
+    verify(dccContentService, times(1))
+        .applyRetentionPolicy(distributionServiceConfig.getRetentionDays());
   }
 }
@@ -5,6 +5,7 @@ import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import app.coronawarn.server.services.distribution.assembly.component.OutputDirectoryProvider;
+import app.coronawarn.server.services.distribution.assembly.diagnosiskeys.DiagnosisKeyArchiveFingerprints;
 import app.coronawarn.server.services.distribution.config.DistributionServiceConfig;
 import app.coronawarn.server.services.distribution.objectstore.S3Publisher;
 import java.io.IOException;
@@ -29,6 +30,9 @@ class S3DistributionRunnerTest {
   @MockBean
   S3Publisher s3Publisher;
 
+  @MockBean
+  DiagnosisKeyArchiveFingerprints archiveFingerprints;
+
   @Autowired
   S3Distribution s3Distribution;
 
@@ -42,5 +46,6 @@ class S3DistributionRunnerTest {
     s3Distribution.run(null);
 
     verify(s3Publisher, times(1)).publish(outputPath.toAbsolutePath());
+    verify(archiveFingerprints, times(1)).store();
   }
 }
@@ -17,18 +17,22 @@ import app.coronawarn.server.common.protocols.internal.stats.KeyFigureCard;
 import app.coronawarn.server.common.protocols.internal.stats.Statistics;
 import app.coronawarn.server.common.shared.util.SerializationUtils;
 import app.coronawarn.server.services.distribution.config.DistributionServiceConfig;
+import app.coronawarn.server.services.distribution.statistics.file.JsonFile;
 import app.coronawarn.server.services.distribution.statistics.file.MockStatisticJsonFileLoader;
 import app.coronawarn.server.services.distribution.statistics.file.StatisticJsonFileLoader;
 import app.coronawarn.server.services.distribution.statistics.keyfigurecard.KeyFigureCardFactory;
 import app.coronawarn.server.services.distribution.statistics.validation.StatisticsJsonValidator;
+import java.io.ByteArrayInputStream;
 import java.io.File;
 import java.io.IOException;
 import java.nio.charset.StandardCharsets;
 import java.time.LocalDate;
 import java.time.ZoneOffset;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
+import java.util.Random;
 import org.junit.Assert;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
@@ -74,6 +78,68 @@ class StatisticsJsonToProtobufTest {
       assertThat(statistics.getKeyFigureCardsList().isEmpty()).isTrue();
       verify(mockLoader, times(1)).getFileIfUpdated(eq("latest-etag"));
     }
+
+    @Test
+    void shouldCreateCardsFromMostRecentEntriesWithRequiredFields() {
+      LocalDate firstDay = LocalDate.of(2021, 1, 1);
+      int numberOfDays = 400;
+      List<StatisticsJsonStringObject> entries = new ArrayList<>();
+      for (int day = 0; day < numberOfDays; day++) {
+        StatisticsJsonStringObject entry = new StatisticsJsonStringObject();
+        entry.setEffectiveDate(firstDay.plusDays(day).toString());
+        if (day < numberOfDays - 5) {
+          entry.setInfectionsReportedDaily(1000 + day);
+          entry.setInfectionsReported7daysAvg(1000.0);
+          entry.setInfectionsReportedCumulated(100000 + day);
+          entry.setInfectionsReported7daysTrend5percent(1);
+        }
+        if (day % 2 == 0) {
+          entry.setSevenDayIncidence(10.0 + day);
+          entry.setSevenDayIncidenceTrend1percent(1);
+        }
+        if (day == 300) {
+          entry.setSevenDayHospitalizationReportedDaily(5.0);
+          entry.setSevenDayHospitalizationReportedTrend1percent(1);
+        }
+        entries.add(entry);
+      }
+      Collections.shuffle(entries, new Random(42));
+      when(service.getMostRecentDownload()).thenReturn(Optional.empty());
+      when(mockLoader.getFile()).thenReturn(new JsonFile(
+          new ByteArrayInputStream(SerializationUtils.stringifyObject(entries).getBytes(StandardCharsets.UTF_8)),
+          "etag"));
+
+      var statistics = new StatisticsToProtobufMapping(serviceConfig, factory, mockLoader, service)
+          .constructProtobufStatistics();
+
+      assertThat(statistics.getKeyFigureCards(0).getHeader())
+          .extracting(CardHeader::getCardId, CardHeader::getUpdatedAt)
+          .containsExactly(INFECTIONS_CARD.ordinal(), dateToTimestamp(firstDay.plusDays(394)));
+      assertThat(statistics.getKeyFigureCards(0).getKeyFigures(0).getValue()).isEqualTo(1394.0);
+      assertThat(statistics.getKeyFigureCards(1).getHeader())
+          .extracting(CardHeader::getCardId, CardHeader::getUpdatedAt)
+          .containsExactly(INCIDENCE_CARD.ordinal(), dateToTimestamp(firstDay.plusDays(398)));
+      assertThat(statistics.getKeyFigureCards(1).getKeyFigures(0).getValue()).isEqualTo(408.0);
+      assertThat(statistics.getKeyFigureCards(2).getHeader().getCardId()).isEqualTo(EMPTY_CARD.ordinal());
+      assertThat(statistics.getKeyFigureCards(7).getHeader())
+          .extracting(CardHeader::getCardId, CardHeader::getUpdatedAt)
+          .containsExactly(HOSPITALIZATION_INCIDENCE_CARD.ordinal(), dateToTimestamp(firstDay.plusDays(300)));
+
+      KeyFigureCard joinedIncidence = statistics.getKeyFigureCards(9);
+      assertThat(joinedIncidence.getHeader())
+          .extracting(CardHeader::getCardId, CardHeader::getUpdatedAt)
+          .containsExactly(JOINED_INCIDENCE_CARD.ordinal(), dateToTimestamp(firstDay.plusDays(398)));
+      assertThat(joinedIncidence.getKeyFigures(0))
+          .extracting(KeyFigure::getValue, KeyFigure::getUpdatedAt)
+          .containsExactly(408.0, dateToTimestamp(firstDay.plusDays(398)));
+      assertThat(joinedIncidence.getKeyFigures(1))
+          .extracting(KeyFigure::getValue, KeyFigure::getUpdatedAt)
+          .containsExactly(5.0, dateToTimestamp(firstDay.plusDays(300)));
+    }
+
+    private long dateToTimestamp(LocalDate date) {
+      return date.atStartOfDay(ZoneOffset.UTC).toEpochSecond();
+    }
   }
 
   @EnableConfigurationProperties(value = DistributionServiceConfig.class)
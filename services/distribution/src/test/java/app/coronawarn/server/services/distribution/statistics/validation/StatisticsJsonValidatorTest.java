@@ -5,6 +5,7 @@ import static org.assertj.core.api.Assertions.assertThat;
 
 import app.coronawarn.server.services.distribution.config.DistributionServiceConfig;
 import app.coronawarn.server.services.distribution.statistics.StatisticsJsonStringObject;
+import java.time.LocalDate;
 import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -66,4 +67,15 @@ class StatisticsJsonValidatorTest {
     assertThat(result).hasSize(1);
   }
 
+  @Test
+  void shouldParseEffectiveDateOfValidObject() {
+    assertThat(validator.parseEffectiveDate(jsonWithDate("2021-01-02"))).contains(LocalDate.of(2021, 1, 2));
+  }
+
+  @Test
+  void shouldNotParseEffectiveDateOfInvalidObject() {
+    assertThat(validator.parseEffectiveDate(jsonWithDate("back in the day"))).isEmpty();
+    assertThat(validator.parseEffectiveDate(jsonWithoutDate())).isEmpty();
+  }
+
 }
@@ -1,36 +1,39 @@
-
-
 package app.coronawarn.server.services.download;
 
 import app.coronawarn.server.common.protocols.external.exposurenotification.DiagnosisKeyBatch;
-import java.util.Objects;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
 import java.util.Optional;
 
 /**
- * Contains the {@link DiagnosisKeyBatch} and batch tag metadata as served by the federation gateway.
+ * Contains the protocol buffers encoded {@link DiagnosisKeyBatch} and batch tag metadata as served by the federation
+ * gateway. The batch is not parsed as a whole, its keys are read one at a time with a {@link DiagnosisKeyBatchReader}.
+ * The response has to be closed, so that the underlying connection is released, even if the batch is not read.
  */
-public class BatchDownloadResponse {
+public class BatchDownloadResponse implements Closeable {
 
-  private final Optional<DiagnosisKeyBatch> diagnosisKeyBatch;
+  private final Optional<InputStream> diagnosisKeyBatch;
   private final String batchTag;
   private final Optional<String> nextBatchTag;
 
   /**
-   * Creates a FederationGatewayResponse that holds a {@link DiagnosisKeyBatch} and batch tag metadata as served by the
-   * federation gateway.
+   * Creates a FederationGatewayResponse that holds the encoded {@link DiagnosisKeyBatch} and batch tag metadata as
+   * served by the federation gateway.
    *
-   * @param batchTag batch tag id
-   * @param diagnosisKeyBatch (optional) diagnosis key batch
-   * @param nextBatchTag (optional) next batch tag id
+   * @param batchTag          batch tag id
+   * @param diagnosisKeyBatch (optional) the response body containing the encoded diagnosis key batch, which is
+   *                          closed together with this response
+   * @param nextBatchTag      (optional) next batch tag id
    */
-  public BatchDownloadResponse(String batchTag, Optional<DiagnosisKeyBatch> diagnosisKeyBatch,
+  public BatchDownloadResponse(String batchTag, Optional<InputStream> diagnosisKeyBatch,
       Optional<String> nextBatchTag) {
     this.batchTag = batchTag;
     this.diagnosisKeyBatch = diagnosisKeyBatch;
     this.nextBatchTag = nextBatchTag;
   }
 
-  public Optional<DiagnosisKeyBatch> getDiagnosisKeyBatch() {
+  public Optional<InputStream> getDiagnosisKeyBatch() {
     return diagnosisKeyBatch;
   }
 
@@ -43,21 +46,9 @@ public class BatchDownloadResponse {
   }
 
   @Override
-  public boolean equals(Object o) {
-    if (this == o) {
-      return true;
-    }
-    if (o == null || getClass() != o.getClass()) {
-      return false;
+  public void close() throws IOException {
+    if (diagnosisKeyBatch.isPresent()) {
+      diagnosisKeyBatch.get().close();
     }
-    BatchDownloadResponse that = (BatchDownloadResponse) o;
-    return Objects.equals(diagnosisKeyBatch, that.diagnosisKeyBatch)
-        && Objects.equals(batchTag, that.batchTag)
-        && Objects.equals(nextBatchTag, that.nextBatchTag);
-  }
-
-  @Override
-  public int hashCode() {
-    return Objects.hash(diagnosisKeyBatch, batchTag, nextBatchTag);
   }
 }
@@ -0,0 +1,54 @@
+package app.coronawarn.server.services.download;
+
+import app.coronawarn.server.common.protocols.external.exposurenotification.DiagnosisKey;
+import app.coronawarn.server.common.protocols.external.exposurenotification.DiagnosisKeyBatch;
+import com.google.protobuf.CodedInputStream;
+import com.google.protobuf.ExtensionRegistryLite;
+import com.google.protobuf.WireFormat;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Optional;
+
+/**
+ * Reads the keys of a protocol buffers encoded {@link DiagnosisKeyBatch} one at a time from a stream, so that only the
+ * current key is held in memory instead of the whole batch.
+ */
+public class DiagnosisKeyBatchReader implements Closeable {
+
+  private final InputStream stream;
+  private final CodedInputStream input;
+
+  /**
+   * Creates a reader for the given encoded batch. Closing the reader closes the stream.
+   *
+   * @param stream the protocol buffers encoded {@link DiagnosisKeyBatch}
+   */
+  public DiagnosisKeyBatchReader(InputStream stream) {
+    this.stream = stream;
+    this.input = CodedInputStream.newInstance(stream);
+  }
+
+  /**
+   * Reads the next key of the batch. Unknown fields of the batch are skipped.
+   *
+   * @return the next key or an empty {@link Optional} at the end of the batch
+   * @throws IOException if the stream can not be read or does not contain a valid batch
+   */
+  public Optional<DiagnosisKey> next() throws IOException {
+    while (!input.isAtEnd()) {
+      int tag = input.readTag();
+      if (WireFormat.getTagFieldNumber(tag) == DiagnosisKeyBatch.KEYS_FIELD_NUMBER
+          && WireFormat.getTagWireType(tag) == WireFormat.WIRETYPE_LENGTH_DELIMITED) {
+        return Optional.of(input.readMessage(DiagnosisKey.parser(), ExtensionRegistryLite.getEmptyRegistry()));
+      }
+      input.skipField(tag);
+    }
+    return Optional.empty();
+  }
+
+  @Override
+  public void close() throws IOException {
+    stream.close();
+  }
+}
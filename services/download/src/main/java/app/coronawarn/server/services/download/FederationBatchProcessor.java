@@ -13,28 +13,32 @@ import app.coronawarn.server.common.persistence.domain.FederationBatchSourceSyst
 import app.coronawarn.server.common.persistence.domain.FederationBatchStatus;
 import app.coronawarn.server.common.persistence.service.DiagnosisKeyService;
 import app.coronawarn.server.common.persistence.service.FederationBatchInfoService;
-import app.coronawarn.server.common.protocols.external.exposurenotification.DiagnosisKeyBatch;
 import app.coronawarn.server.common.protocols.external.exposurenotification.ReportType;
 import app.coronawarn.server.services.download.config.DownloadServiceConfig;
 import app.coronawarn.server.services.download.normalization.FederationKeyNormalizer;
 import app.coronawarn.server.services.download.validation.ValidFederationKeyFilter;
+import java.io.InputStream;
 import java.time.LocalDate;
 import java.time.Period;
 import java.time.ZoneOffset;
+import java.util.ArrayList;
 import java.util.Deque;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
-import java.util.Map.Entry;
 import java.util.Optional;
 import java.util.Set;
-import java.util.concurrent.atomic.AtomicBoolean;
-import java.util.concurrent.atomic.AtomicReference;
-import java.util.stream.Collectors;
-import java.util.stream.Stream;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.core.task.SyncTaskExecutor;
 import org.springframework.stereotype.Component;
 
 /**
@@ -45,6 +49,10 @@ public class FederationBatchProcessor {
 
   private static final Logger logger = LoggerFactory.getLogger(FederationBatchProcessor.class);
   private static final String CH = "CH";
+  /**
+   * Maximum number of keys of a batch, which are converted and held in memory before they are stored.
+   */
+  static final int SAVE_CHUNK_SIZE = 1000;
   private final FederationBatchInfoService batchInfoService;
   private final DiagnosisKeyService diagnosisKeyService;
   private final FederationGatewayDownloadService federationGatewayDownloadService;
@@ -106,8 +114,9 @@ public class FederationBatchProcessor {
   protected void saveFirstBatchInfoForDate(LocalDate date) throws FatalFederationGatewayException {
     try {
       logger.info("Triggering download of first batch for date {}", date);
-      BatchDownloadResponse response = federationGatewayDownloadService.downloadBatch(date);
-      batchInfoService.save(new FederationBatchInfo(response.getBatchTag(), date, this.config.getSourceSystem()));
+      try (BatchDownloadResponse response = federationGatewayDownloadService.downloadBatch(date)) {
+        batchInfoService.save(new FederationBatchInfo(response.getBatchTag(), date, this.config.getSourceSystem()));
+      }
     } catch (FatalFederationGatewayException e) {
       throw e;
     } catch (Exception e) {
@@ -117,13 +126,31 @@ public class FederationBatchProcessor {
 
   /**
    * Downloads and processes all batches from the federation gateway that have previously been marked with the status
-   * value {@link FederationBatchStatus#ERROR}.
+   * value {@link FederationBatchStatus#ERROR}. With a {@link DownloadServiceConfig#getBatchProcessingParallelism()
+   * batch processing parallelism} greater than one, the batches are retried concurrently. Each retry only updates the
+   * status of its own batch, the info of the following batch is not saved if it already exists and keys which are
+   * already stored are skipped, so the retries do not interfere with each other.
    */
   public void processErrorFederationBatches() {
     List<FederationBatchInfo> federationBatchInfoWithError = batchInfoService
         .findByStatus(ERROR, this.config.getSourceSystem());
     logger.info("{} error federation batches for reprocessing found", federationBatchInfoWithError.size());
-    federationBatchInfoWithError.forEach(this::retryProcessingBatch);
+    if (config.getBatchProcessingParallelism() <= 1) {
+      federationBatchInfoWithError.forEach(this::retryProcessingBatch);
+      return;
+    }
+
+    ExecutorService executor = Executors.newFixedThreadPool(config.getBatchProcessingParallelism());
+    try {
+      executor.invokeAll(federationBatchInfoWithError.stream()
+          .map(batchInfo -> Executors.callable(() -> retryProcessingBatch(batchInfo)))
+          .collect(toList()));
+    } catch (InterruptedException e) {
+      logger.error("Reprocessing of error federation batches was interrupted", e);
+      Thread.currentThread().interrupt();
+    } finally {
+      executor.shutdownNow();
+    }
   }
 
   private void retryProcessingBatch(FederationBatchInfo federationBatchInfo) {
@@ -141,7 +168,9 @@ public class FederationBatchProcessor {
 
   /**
    * Downloads and processes all batches from the federation gateway that have previously been marked with status value
-   * {@link FederationBatchStatus#UNPROCESSED}.
+   * {@link FederationBatchStatus#UNPROCESSED}. With a {@link DownloadServiceConfig#getBatchProcessingParallelism()
+   * batch processing parallelism} greater than one, the batches are processed in a pipeline: the next batch is
+   * downloaded while the current one is validated and stored.
    *
    * @throws FatalFederationGatewayException triggers if error occurs in the federation gateway
    */
@@ -151,16 +180,31 @@ public class FederationBatchProcessor {
             .getSourceSystem()));
     logger.info("{} unprocessed {} batches found", unprocessedBatches.size(), config.getSourceSystem());
 
-    while (!unprocessedBatches.isEmpty()) {
-      FederationBatchInfo currentBatchInfo = unprocessedBatches.remove();
-      seenBatches.add(currentBatchInfo.getBatchTag());
-      processBatchAndReturnNextBatchId(currentBatchInfo, ERROR)
-          .ifPresent(nextBatchTag -> {
-            if (isEfgsEnforceDateBasedDownloadAndNotSeen(nextBatchTag)) {
-              unprocessedBatches.add(new FederationBatchInfo(nextBatchTag, currentBatchInfo.getDate(), this.config
-                  .getSourceSystem()));
-            }
-          });
+    ExecutorService executor = config.getBatchProcessingParallelism() > 1
+        ? Executors.newFixedThreadPool(config.getBatchProcessingParallelism())
+        : null;
+    Executor pipeline = executor != null ? executor : new SyncTaskExecutor();
+    FutureTask<BatchDownloadResponse> download = null;
+    try {
+      download = unprocessedBatches.isEmpty() ? null : downloadBatch(unprocessedBatches.peek(), pipeline);
+      while (!unprocessedBatches.isEmpty()) {
+        FederationBatchInfo currentBatchInfo = unprocessedBatches.remove();
+        seenBatches.add(currentBatchInfo.getBatchTag());
+        Optional<BatchDownloadResponse> response = awaitDownload(currentBatchInfo, download, ERROR);
+        response.flatMap(BatchDownloadResponse::getNextBatchTag).ifPresent(nextBatchTag -> {
+          if (isEfgsEnforceDateBasedDownloadAndNotSeen(nextBatchTag)) {
+            unprocessedBatches.add(new FederationBatchInfo(nextBatchTag, currentBatchInfo.getDate(), this.config
+                .getSourceSystem()));
+          }
+        });
+        download = unprocessedBatches.isEmpty() ? null : downloadBatch(unprocessedBatches.peek(), pipeline);
+        response.ifPresent(batch -> processBatch(currentBatchInfo, batch, ERROR, pipeline));
+      }
+    } finally {
+      closeUnprocessedDownload(download);
+      if (executor != null) {
+        executor.shutdownNow();
+      }
     }
     logger.info("Processed {} total {} batches", seenBatches.size(), config.getSourceSystem());
   }
@@ -171,71 +215,173 @@ public class FederationBatchProcessor {
 
   private Optional<String> processBatchAndReturnNextBatchId(
       FederationBatchInfo batchInfo, FederationBatchStatus errorStatus) throws FatalFederationGatewayException {
+    Executor executor = new SyncTaskExecutor();
+    Optional<BatchDownloadResponse> response = awaitDownload(batchInfo, downloadBatch(batchInfo, executor),
+        errorStatus);
+    response.ifPresent(batch -> processBatch(batchInfo, batch, errorStatus, executor));
+    return response.flatMap(BatchDownloadResponse::getNextBatchTag);
+  }
+
+  private FutureTask<BatchDownloadResponse> downloadBatch(FederationBatchInfo batchInfo, Executor executor) {
+    FutureTask<BatchDownloadResponse> download = new FutureTask<>(
+        () -> federationGatewayDownloadService.downloadBatch(batchInfo.getBatchTag(), batchInfo.getDate()));
+    executor.execute(download);
+    return download;
+  }
+
+  /**
+   * Closes the response of a (prefetched) download, which has not been processed, because the processing of the
+   * batches has been aborted, e.g. by a {@link FatalFederationGatewayException}.
+   */
+  private static void closeUnprocessedDownload(Future<BatchDownloadResponse> download) {
+    if (download == null) {
+      return;
+    }
+    try {
+      getResult(download).close();
+    } catch (Exception e) {
+      logger.debug("Unprocessed batch download could not be closed", e);
+    }
+  }
+
+  /**
+   * Waits for the download of the given batch. If the download failed, the batch status is set to the given error
+   * status.
+   *
+   * @return the downloaded batch or an empty {@link Optional} if the download failed
+   */
+  private Optional<BatchDownloadResponse> awaitDownload(FederationBatchInfo batchInfo,
+      Future<BatchDownloadResponse> download, FederationBatchStatus errorStatus)
+      throws FatalFederationGatewayException {
+    try {
+      return Optional.of(getResult(download));
+    } catch (FatalFederationGatewayException e) {
+      throw e;
+    } catch (Exception e) {
+      logger.error(batchInfo.getSourceSystem() + " batch download for date " + batchInfo.getDate() + " and batchTag "
+          + batchInfo.getBatchTag() + " failed. Status set to " + errorStatus.name(), e);
+      batchInfoService.updateStatus(batchInfo, errorStatus);
+      return Optional.empty();
+    }
+  }
+
+  /**
+   * Validates and stores the keys of the downloaded batch and updates the batch status accordingly. The keys are read
+   * from the response body one at a time, so the batch is never held in memory as a whole, and they are validated,
+   * converted and stored in chunks of {@link #SAVE_CHUNK_SIZE} keys. If enabled, the batch is audited on the given
+   * executor while its first keys are validated. Keys are only stored after a successful audit.
+   *
+   * <p>Each chunk is stored in its own transaction, so that no database transaction stays open while the rest of the
+   * batch is downloaded. If the processing fails, the chunks stored so far are kept and the batch status is set to the
+   * given error status. Retrying the batch does not store these keys twice, because existing keys are skipped. The
+   * response is closed in any case.
+   */
+  private void processBatch(FederationBatchInfo batchInfo, BatchDownloadResponse response,
+      FederationBatchStatus errorStatus, Executor executor) {
     LocalDate date = batchInfo.getDate();
     String batchTag = batchInfo.getBatchTag();
     logger.info("Processing '{}' batch for date '{}' and batchTag '{}'", batchInfo.getSourceSystem(), date, batchTag);
-    AtomicReference<Optional<String>> nextBatchTag = new AtomicReference<>(Optional.empty());
-    try {
-      BatchDownloadResponse response = federationGatewayDownloadService.downloadBatch(batchTag, date);
-      AtomicBoolean batchContainsInvalidKeys = new AtomicBoolean(false);
-      nextBatchTag.set(response.getNextBatchTag());
-      response.getDiagnosisKeyBatch().ifPresentOrElse(batch -> {
-        logger.info("Downloaded {} '{}' keys for date '{}' and batchTag '{}'", batch.getKeysCount(),
-            batchInfo.getSourceSystem(), date, batchTag);
-        Map<String, Integer> countedKeysByOriginCountry = batch
-            .getKeysList().stream().collect(Collectors.groupingBy(
-                app.coronawarn.server.common.protocols.external.exposurenotification.DiagnosisKey::getOrigin))
-            .entrySet().stream()
-            .collect(Collectors.toMap(Entry::getKey,
-                e -> e.getValue().size()));
-        if (config.getSourceSystem() == FederationBatchSourceSystem.EFGS) {
-          countedKeysByOriginCountry.forEach((key, value) -> logger
-              .info("Downloaded {} '{}' keys with origin country '{}'", value, batchInfo.getSourceSystem(), key));
+    try (response) {
+      Optional<InputStream> diagnosisKeyBatch = response.getDiagnosisKeyBatch();
+      if (diagnosisKeyBatch.isEmpty()) {
+        logger.info("{} batch for date {} and batchTag {} did not contain any keys", batchInfo.getSourceSystem(),
+            date, batchTag);
+        batchInfoService.updateStatus(batchInfo, PROCESSED);
+        return;
+      }
+      try (DiagnosisKeyBatchReader reader = new DiagnosisKeyBatchReader(diagnosisKeyBatch.get())) {
+        FutureTask<Void> audit = null;
+        if (config.isBatchAuditEnabled()) {
+          audit = new FutureTask<>(() -> federationGatewayDownloadService.auditBatch(batchTag, date), null);
+          executor.execute(audit);
         }
-        if (isChgs()) {
-          countedKeysByOriginCountry.entrySet().stream().filter(k -> !CH.equalsIgnoreCase(k.getKey()))
-              .forEach(k -> logger
-                  .warn("There are keys {} with origin country {} which is different to CH and therefore they will be "
-                      + "dropped", k.getValue(), k.getKey()));
+        FederationKeyNormalizer normalizer = new FederationKeyNormalizer(config);
+        Map<String, int[]> countedKeysByOriginCountry = new HashMap<>();
+        List<DiagnosisKey> chunk = new ArrayList<>();
+        int keys = 0;
+        int validKeys = 0;
+        int insertedKeys = 0;
+        for (Optional<app.coronawarn.server.common.protocols.external.exposurenotification.DiagnosisKey> federationKey
+            = reader.next(); federationKey.isPresent(); federationKey = reader.next()) {
+          keys++;
+          countedKeysByOriginCountry.computeIfAbsent(federationKey.get().getOrigin(), origin -> new int[1])[0]++;
+          Optional<DiagnosisKey> diagnosisKey = isAccepted(federationKey.get())
+              ? convertFederationDiagnosisKeyToDiagnosisKey(federationKey.get(), normalizer)
+              : Optional.empty();
+          if (diagnosisKey.isPresent()) {
+            chunk.add(diagnosisKey.get());
+            validKeys++;
+          }
+          if (chunk.size() == SAVE_CHUNK_SIZE) {
+            awaitAudit(audit);
+            insertedKeys += diagnosisKeyService.saveDiagnosisKeys(chunk);
+            chunk.clear();
+          }
         }
-
-        if (config.isBatchAuditEnabled()) {
-          federationGatewayDownloadService.auditBatch(batchTag, date);
+        awaitAudit(audit);
+        if (!chunk.isEmpty()) {
+          insertedKeys += diagnosisKeyService.saveDiagnosisKeys(chunk);
         }
-        List<DiagnosisKey> validDiagnosisKeys = extractValidDiagnosisKeysFromBatch(batch);
-        int numOfInvalidKeys = batch.getKeysCount() - validDiagnosisKeys.size();
+        logger.info("Downloaded {} '{}' keys for date '{}' and batchTag '{}'", keys, batchInfo.getSourceSystem(),
+            date, batchTag);
+        logKeysByOriginCountry(batchInfo, countedKeysByOriginCountry);
+
+        int numOfInvalidKeys = keys - validKeys;
         if (numOfInvalidKeys > 0) {
-          batchContainsInvalidKeys.set(true);
           logger.info("{} {} keys failed validation and were skipped", batchInfo.getSourceSystem(), numOfInvalidKeys);
         }
-        int insertedKeys = diagnosisKeyService.saveDiagnosisKeys(validDiagnosisKeys);
         logger.info("Successfully inserted {} {} keys for date {} and batchTag {}", batchInfo.getSourceSystem(),
             insertedKeys, date, batchTag);
-      }, () -> logger.info("{} batch for date {} and batchTag {} did not contain any keys", batchInfo.getSourceSystem(),
-          date, batchTag));
-      batchInfoService.updateStatus(batchInfo, batchContainsInvalidKeys.get() ? PROCESSED_WITH_ERROR : PROCESSED);
-      return nextBatchTag.get();
-    } catch (FatalFederationGatewayException e) {
-      throw e;
+        batchInfoService.updateStatus(batchInfo, numOfInvalidKeys > 0 ? PROCESSED_WITH_ERROR : PROCESSED);
+      }
     } catch (Exception e) {
       logger.error(batchInfo.getSourceSystem() + " batch processing for date " + date + " and batchTag " + batchTag
           + " failed. Status set to " + errorStatus.name(), e);
       batchInfoService.updateStatus(batchInfo, errorStatus);
-      return nextBatchTag.get();
     }
   }
 
-  private List<DiagnosisKey> extractValidDiagnosisKeysFromBatch(DiagnosisKeyBatch diagnosisKeyBatch) {
-    Stream<app.coronawarn.server.common.protocols.external.exposurenotification.DiagnosisKey> partialKeys
-        = diagnosisKeyBatch.getKeysList().stream().filter(validFederationKeyFilter::isValid);
+  private void logKeysByOriginCountry(FederationBatchInfo batchInfo, Map<String, int[]> countedKeysByOriginCountry) {
+    if (config.getSourceSystem() == FederationBatchSourceSystem.EFGS) {
+      countedKeysByOriginCountry.forEach((key, value) -> logger
+          .info("Downloaded {} '{}' keys with origin country '{}'", value[0], batchInfo.getSourceSystem(), key));
+    }
     if (isChgs()) {
-      partialKeys = partialKeys.filter(key -> CH.equalsIgnoreCase(key.getOrigin()));
+      countedKeysByOriginCountry.entrySet().stream().filter(k -> !CH.equalsIgnoreCase(k.getKey()))
+          .forEach(k -> logger
+              .warn("There are keys {} with origin country {} which is different to CH and therefore they will be "
+                  + "dropped", k.getValue()[0], k.getKey()));
     }
-    return partialKeys
-        .map(this::convertFederationDiagnosisKeyToDiagnosisKey)
-        .filter(Optional::isPresent)
-        .map(Optional::get)
-        .collect(toList());
+  }
+
+  /**
+   * Waits for the audit of the current batch, if there is any. Waiting again for a completed audit returns
+   * immediately.
+   */
+  private static void awaitAudit(Future<Void> audit) throws Exception {
+    if (audit != null) {
+      getResult(audit);
+    }
+  }
+
+  /**
+   * Waits for the given task and rethrows the exception it failed with.
+   */
+  private static <T> T getResult(Future<T> future) throws Exception {
+    try {
+      return future.get();
+    } catch (ExecutionException e) {
+      throw e.getCause() instanceof Exception ? (Exception) e.getCause() : e;
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw e;
+    }
+  }
+
+  private boolean isAccepted(
+      app.coronawarn.server.common.protocols.external.exposurenotification.DiagnosisKey federationKey) {
+    return validFederationKeyFilter.isValid(federationKey)
+        && (!isChgs() || CH.equalsIgnoreCase(federationKey.getOrigin()));
   }
 
   private boolean isChgs() {
@@ -243,11 +389,12 @@ public class FederationBatchProcessor {
   }
 
   private Optional<DiagnosisKey> convertFederationDiagnosisKeyToDiagnosisKey(
-      app.coronawarn.server.common.protocols.external.exposurenotification.DiagnosisKey diagnosisKey) {
+      app.coronawarn.server.common.protocols.external.exposurenotification.DiagnosisKey diagnosisKey,
+      FederationKeyNormalizer normalizer) {
     try {
       return Optional.of(DiagnosisKey.builder().fromFederationDiagnosisKey(diagnosisKey)
           .withReportType(ReportType.CONFIRMED_TEST)
-          .withFieldNormalization(new FederationKeyNormalizer(config))
+          .withFieldNormalization(normalizer)
           .build());
     } catch (Exception e) {
       logger.warn(
@@ -3,14 +3,16 @@ package app.coronawarn.server.services.download;
 import static java.time.format.DateTimeFormatter.ISO_LOCAL_DATE;
 
 import app.coronawarn.server.common.federation.client.FederationGatewayClient;
-import app.coronawarn.server.common.protocols.external.exposurenotification.DiagnosisKeyBatch;
 import feign.FeignException;
+import feign.Response;
 import java.io.IOException;
+import java.io.PushbackInputStream;
 import java.time.LocalDate;
+import java.util.Collections;
 import java.util.Optional;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Component;
 
@@ -40,20 +42,19 @@ public class FederationGatewayDownloadService {
    * Download the first batch from the EFGS for the given date.
    *
    * @param date The date for which the batch should be downloaded.
-   * @return The {@link BatchDownloadResponse} containing the downloaded batch, batchTag and nextBatchTag.
+   * @return The {@link BatchDownloadResponse} containing the unread batch, batchTag and nextBatchTag.
    * @throws FatalFederationGatewayException triggers if error occurs in the federation gateway
    */
   public BatchDownloadResponse downloadBatch(LocalDate date)
       throws FatalFederationGatewayException, BatchDownloadException {
     try {
       logger.info("Downloading first batch for date {}", date);
-      ResponseEntity<DiagnosisKeyBatch> response = federationGatewayClient
-          .getDiagnosisKeys(getDateAsString(date));
-      return parseResponseEntity(response);
+      return parseResponse("FederationGatewayClient#getDiagnosisKeys(String)",
+          federationGatewayClient.getDiagnosisKeys(getDateAsString(date)));
     } catch (FeignException.Forbidden feignException) {
       throw new FatalFederationGatewayException(
           "Downloading batch for date " + getDateAsString(date) + " failed due to invalid client certificate.");
-    } catch (FeignException | IllegalResponseException feignException) {
+    } catch (FeignException | IOException feignException) {
       logger.error("Downloading first batch for date {} failed.", date);
       throw new BatchDownloadException(date, feignException);
     }
@@ -64,7 +65,7 @@ public class FederationGatewayDownloadService {
    *
    * @param batchTag The batchTag of the batch that should be downloaded.
    * @param date     The date for which the batch should be downloaded.
-   * @return The {@link BatchDownloadResponse} containing the downloaded batch, batchTag and nextBatchTag.
+   * @return The {@link BatchDownloadResponse} containing the unread batch, batchTag and nextBatchTag.
    * @throws FatalFederationGatewayException triggers if error occurs in the federation gateway
    */
   public BatchDownloadResponse downloadBatch(String batchTag, LocalDate date)
@@ -72,14 +73,13 @@ public class FederationGatewayDownloadService {
     String dateString = getDateAsString(date);
     try {
       logger.info("Downloading batch for date {} and batchTag {}.", dateString, batchTag);
-      ResponseEntity<DiagnosisKeyBatch> response = federationGatewayClient
-          .getDiagnosisKeys(batchTag, dateString);
-      return parseResponseEntity(response);
+      return parseResponse("FederationGatewayClient#getDiagnosisKeys(String,String)",
+          federationGatewayClient.getDiagnosisKeys(batchTag, dateString));
     } catch (FeignException.Forbidden feignException) {
       throw new FatalFederationGatewayException(
           "Downloading batch " + batchTag + " for date " + getDateAsString(date)
               + " failed due to invalid client certificate.");
-    } catch (FeignException | IllegalResponseException exception) {
+    } catch (FeignException | IOException exception) {
       logger.error("Downloading batch for date {} and batchTag {} failed.", batchTag, dateString);
       throw new BatchDownloadException(batchTag, date, exception);
     }
@@ -117,27 +117,39 @@ public class FederationGatewayDownloadService {
     return date.format(ISO_LOCAL_DATE);
   }
 
-  private BatchDownloadResponse parseResponseEntity(ResponseEntity<DiagnosisKeyBatch> response)
-      throws IllegalResponseException {
-    String batchTag = getHeader(response, HEADER_BATCH_TAG)
-        .orElseThrow(() -> new IllegalResponseException("Missing " + HEADER_BATCH_TAG + " header."));
-    Optional<String> nextBatchTag = getHeader(response, HEADER_NEXT_BATCH_TAG);
-    return new BatchDownloadResponse(batchTag, Optional.ofNullable(response.getBody()), nextBatchTag);
-  }
-
-  private Optional<String> getHeader(ResponseEntity<DiagnosisKeyBatch> response, String header) {
-    HttpHeaders headers = extractCaseInsensitiveHeaders(response);
-    String headerString = headers.getFirst(header);
-    return (!EMPTY_HEADER.equals(headerString))
-        ? Optional.ofNullable(headerString)
-        : Optional.empty();
+  /**
+   * Parses the batch tags of the given response and hands over its body without reading it. The response is closed
+   * if it is not successful or can not be parsed.
+   */
+  private BatchDownloadResponse parseResponse(String methodKey, Response response) throws IOException {
+    try {
+      if (HttpStatus.Series.resolve(response.status()) != HttpStatus.Series.SUCCESSFUL) {
+        throw FeignException.errorStatus(methodKey, response);
+      }
+      String batchTag = getHeader(response, HEADER_BATCH_TAG)
+          .orElseThrow(() -> new IllegalResponseException("Missing " + HEADER_BATCH_TAG + " header."));
+      Optional<String> nextBatchTag = getHeader(response, HEADER_NEXT_BATCH_TAG);
+      PushbackInputStream body = response.body() == null ? null
+          : new PushbackInputStream(response.body().asInputStream());
+      // the length of a streamed body is not known in advance, so an empty body is detected by reading its first byte
+      int firstByte = body == null ? -1 : body.read();
+      if (firstByte == -1) {
+        response.close();
+        return new BatchDownloadResponse(batchTag, Optional.empty(), nextBatchTag);
+      }
+      body.unread(firstByte);
+      return new BatchDownloadResponse(batchTag, Optional.of(body), nextBatchTag);
+    } catch (FeignException | IOException e) {
+      response.close();
+      throw e;
+    }
   }
 
-  private HttpHeaders extractCaseInsensitiveHeaders(ResponseEntity<DiagnosisKeyBatch> response) {
-    // required because response.getHeaders() is case-sensitive in our case
-    HttpHeaders headers = new HttpHeaders();
-    headers.addAll(response.getHeaders());
-    return headers;
+  private Optional<String> getHeader(Response response, String header) {
+    // the headers of a feign response are case-insensitive
+    return response.headers().getOrDefault(header, Collections.emptyList()).stream()
+        .findFirst()
+        .filter(headerString -> !EMPTY_HEADER.equals(headerString));
   }
 
   static class IllegalResponseException extends IOException {
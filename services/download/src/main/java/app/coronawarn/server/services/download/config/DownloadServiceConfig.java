@@ -29,6 +29,9 @@ public class DownloadServiceConfig {
   @Autowired
   private TekFieldDerivations tekFieldDerivations;
   private boolean batchAuditEnabled;
+  @Min(1)
+  @Max(32)
+  private int batchProcessingParallelism = 1;
   private FederationBatchSourceSystem sourceSystem;
 
   public Validation getValidation() {
@@ -80,6 +83,14 @@ public class DownloadServiceConfig {
     this.batchAuditEnabled = batchAuditEnabled;
   }
 
+  public int getBatchProcessingParallelism() {
+    return batchProcessingParallelism;
+  }
+
+  public void setBatchProcessingParallelism(int batchProcessingParallelism) {
+    this.batchProcessingParallelism = batchProcessingParallelism;
+  }
+
   public FederationBatchSourceSystem getSourceSystem() {
     return sourceSystem;
   }
@@ -0,0 +1,64 @@
+package app.coronawarn.server.services.download;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+
+import app.coronawarn.server.common.protocols.external.exposurenotification.DiagnosisKey;
+import app.coronawarn.server.common.protocols.external.exposurenotification.DiagnosisKeyBatch;
+import com.google.protobuf.InvalidProtocolBufferException;
+import com.google.protobuf.UnknownFieldSet;
+import java.io.ByteArrayInputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.Test;
+
+class DiagnosisKeyBatchReaderTest {
+
+  @Test
+  void readsAllKeysInOrder() throws Exception {
+    List<DiagnosisKey> keys = IntStream.range(0, 100)
+        .mapToObj(i -> FederationBatchTestHelper.createFederationDiagnosisKeyWithKeyData(String.format("%016d", i)))
+        .collect(Collectors.toList());
+
+    assertThat(readAll(FederationBatchTestHelper.createDiagnosisKeyBatch(keys))).isEqualTo(keys);
+  }
+
+  @Test
+  void readsEmptyBatch() throws Exception {
+    assertThat(readAll(DiagnosisKeyBatch.getDefaultInstance())).isEmpty();
+  }
+
+  @Test
+  void skipsUnknownFields() throws Exception {
+    DiagnosisKey key = FederationBatchTestHelper.createFederationDiagnosisKeyWithKeyData("0123456789ABCDEF");
+    DiagnosisKeyBatch batch = FederationBatchTestHelper.createDiagnosisKeyBatch(List.of(key)).toBuilder()
+        .setUnknownFields(UnknownFieldSet.newBuilder()
+            .addField(42, UnknownFieldSet.Field.newBuilder().addVarint(7).build())
+            .build())
+        .build();
+
+    assertThat(readAll(batch)).containsExactly(key);
+  }
+
+  @Test
+  void failsOnTruncatedBatch() {
+    byte[] encoded = FederationBatchTestHelper.createDiagnosisKeyBatch("0123456789ABCDEF").toByteArray();
+    DiagnosisKeyBatchReader reader = new DiagnosisKeyBatchReader(
+        new ByteArrayInputStream(encoded, 0, encoded.length - 1));
+
+    assertThatExceptionOfType(InvalidProtocolBufferException.class).isThrownBy(reader::next);
+  }
+
+  private static List<DiagnosisKey> readAll(DiagnosisKeyBatch batch) throws Exception {
+    List<DiagnosisKey> keys = new ArrayList<>();
+    try (DiagnosisKeyBatchReader reader = new DiagnosisKeyBatchReader(FederationBatchTestHelper.encode(batch))) {
+      for (Optional<DiagnosisKey> key = reader.next(); key.isPresent(); key = reader.next()) {
+        keys.add(key.get());
+      }
+    }
+    return keys;
+  }
+}
@@ -15,6 +15,7 @@ import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.reset;
 import static org.mockito.Mockito.times;
@@ -33,12 +34,20 @@ import app.coronawarn.server.services.download.config.DownloadServiceConfig;
 import app.coronawarn.server.services.download.validation.ValidFederationKeyFilter;
 import com.google.protobuf.ByteString;
 import feign.FeignException;
+import java.io.ByteArrayInputStream;
 import java.time.Duration;
 import java.time.LocalDate;
 import java.time.Period;
 import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.BeforeEach;
@@ -48,6 +57,7 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.ValueSource;
 import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
 import org.mockito.Mockito;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.context.properties.EnableConfigurationProperties;
@@ -93,6 +103,8 @@ class FederationBatchProcessorTest {
   @BeforeEach
   void resetConfigToDefault() {
     config.setEnforceDateBasedDownload(false);
+    config.setBatchAuditEnabled(false);
+    config.setBatchProcessingParallelism(1);
   }
 
   @Nested
@@ -143,6 +155,7 @@ class FederationBatchProcessorTest {
       batchProcessor.saveFirstBatchInfoForDate(date);
 
       verify(batchInfoService, times(1)).save(new FederationBatchInfo(batchTag1, date, EFGS));
+      verify(serverResponse, times(1)).close();
     }
 
     @Test
@@ -397,6 +410,68 @@ class FederationBatchProcessorTest {
       verify(diagnosisKeyService, times(1)).saveDiagnosisKeys(any());
     }
 
+    @Test
+    void testKeysAreStoredInChunks() throws Exception {
+      FederationBatchInfo batchInfo = new FederationBatchInfo(batchTag1, date, UNPROCESSED, EFGS);
+      when(batchInfoService.findByStatus(UNPROCESSED, EFGS)).thenReturn(list(batchInfo));
+
+      DiagnosisKey validKey = FederationBatchTestHelper.createBuilderForValidFederationDiagnosisKey().build();
+      DiagnosisKeyBatch batch = FederationBatchTestHelper.createDiagnosisKeyBatch(
+          Collections.nCopies(FederationBatchProcessor.SAVE_CHUNK_SIZE + 1, validKey));
+      BatchDownloadResponse downloadResponse = FederationBatchTestHelper.createBatchDownloadResponse(batchTag1,
+          Optional.empty(), batch);
+      when(federationGatewayDownloadService.downloadBatch(batchTag1, date)).thenReturn(downloadResponse);
+
+      List<Integer> chunkSizes = new ArrayList<>();
+      when(diagnosisKeyService.saveDiagnosisKeys(any())).thenAnswer(invocation -> {
+        chunkSizes.add(invocation.<List<?>>getArgument(0).size());
+        return 0;
+      });
+      batchProcessor.processUnprocessedFederationBatches();
+
+      assertThat(chunkSizes).containsExactly(FederationBatchProcessor.SAVE_CHUNK_SIZE, 1);
+      verify(batchInfoService, times(1)).updateStatus(batchInfo, PROCESSED);
+    }
+
+    @Test
+    void testStoredChunksAreKeptIfLaterChunkFails() throws Exception {
+      FederationBatchInfo batchInfo = new FederationBatchInfo(batchTag1, date, UNPROCESSED, EFGS);
+      when(batchInfoService.findByStatus(UNPROCESSED, EFGS)).thenReturn(list(batchInfo));
+
+      DiagnosisKey validKey = FederationBatchTestHelper.createBuilderForValidFederationDiagnosisKey().build();
+      DiagnosisKeyBatch batch = FederationBatchTestHelper.createDiagnosisKeyBatch(
+          Collections.nCopies(FederationBatchProcessor.SAVE_CHUNK_SIZE + 1, validKey));
+      BatchDownloadResponse downloadResponse = FederationBatchTestHelper.createBatchDownloadResponse(batchTag1,
+          Optional.empty(), batch);
+      when(federationGatewayDownloadService.downloadBatch(batchTag1, date)).thenReturn(downloadResponse);
+      when(diagnosisKeyService.saveDiagnosisKeys(any()))
+          .thenReturn(FederationBatchProcessor.SAVE_CHUNK_SIZE)
+          .thenThrow(new RuntimeException("second chunk failed"));
+
+      batchProcessor.processUnprocessedFederationBatches();
+
+      // every chunk is stored in its own transaction, the first chunk is not rolled back
+      verify(diagnosisKeyService, times(2)).saveDiagnosisKeys(any());
+      verify(batchInfoService, times(1)).updateStatus(batchInfo, ERROR);
+      verify(batchInfoService, never()).updateStatus(batchInfo, PROCESSED);
+    }
+
+    @Test
+    void testUndecodableBatchSetsErrorStatus() throws Exception {
+      FederationBatchInfo batchInfo = new FederationBatchInfo(batchTag1, date, UNPROCESSED, EFGS);
+      when(batchInfoService.findByStatus(UNPROCESSED, EFGS)).thenReturn(list(batchInfo));
+      BatchDownloadResponse downloadResponse = mock(BatchDownloadResponse.class);
+      when(downloadResponse.getBatchTag()).thenReturn(batchTag1);
+      when(downloadResponse.getDiagnosisKeyBatch())
+          .thenReturn(Optional.of(new ByteArrayInputStream(new byte[] {10, 100, 1})));
+      when(federationGatewayDownloadService.downloadBatch(batchTag1, date)).thenReturn(downloadResponse);
+
+      batchProcessor.processUnprocessedFederationBatches();
+
+      verify(batchInfoService, times(1)).updateStatus(batchInfo, ERROR);
+      verify(diagnosisKeyService, never()).saveDiagnosisKeys(any());
+    }
+
     @Test
     void testDiagnosisKeyPassesDownloadValidationButBuildingFails() throws Exception {
       FederationBatchInfo batchInfo = new FederationBatchInfo(batchTag1, date, UNPROCESSED, EFGS);
@@ -494,6 +569,116 @@ class FederationBatchProcessorTest {
     }
   }
 
+  @Nested
+  @DisplayName("pipelinedBatchProcessing")
+  class PipelinedBatchProcessingTest {
+
+    /**
+     * The batch processor remembers the batch tags it has seen, so every test uses its own tags.
+     */
+    private List<String> batchTags;
+
+    @BeforeEach
+    void enablePipelining() {
+      config.setBatchProcessingParallelism(4);
+      batchTags = IntStream.range(0, 3).mapToObj(i -> UUID.randomUUID().toString()).collect(Collectors.toList());
+    }
+
+    @Test
+    void testBatchChainIsProcessedInOrder() throws Exception {
+      config.setEnforceDateBasedDownload(true);
+      FederationBatchInfo firstBatchInfo = new FederationBatchInfo(batchTags.get(0), date, UNPROCESSED, EFGS);
+      when(batchInfoService.findByStatus(UNPROCESSED, EFGS)).thenReturn(list(firstBatchInfo));
+      List<BatchDownloadResponse> serverResponses = mockBatchChain();
+
+      batchProcessor.processUnprocessedFederationBatches();
+
+      InOrder inOrder = Mockito.inOrder(batchInfoService);
+      for (String batchTag : batchTags) {
+        verify(federationGatewayDownloadService, times(1)).downloadBatch(batchTag, date);
+        inOrder.verify(batchInfoService).updateStatus(new FederationBatchInfo(batchTag, date, EFGS), PROCESSED);
+      }
+      verify(diagnosisKeyService, times(3)).saveDiagnosisKeys(any());
+      for (BatchDownloadResponse serverResponse : serverResponses) {
+        verify(serverResponse, times(1)).close();
+      }
+    }
+
+    @Test
+    void testPrefetchedDownloadIsClosedIfProcessingIsAborted() throws Exception {
+      config.setEnforceDateBasedDownload(true);
+      FederationBatchInfo firstBatchInfo = new FederationBatchInfo(batchTags.get(0), date, UNPROCESSED, EFGS);
+      when(batchInfoService.findByStatus(UNPROCESSED, EFGS)).thenReturn(list(firstBatchInfo));
+      List<BatchDownloadResponse> serverResponses = mockBatchChain();
+      doThrow(IllegalStateException.class).when(batchInfoService).updateStatus(any(), any());
+
+      assertThatThrownBy(() -> batchProcessor.processUnprocessedFederationBatches())
+          .isInstanceOf(IllegalStateException.class);
+
+      verify(serverResponses.get(0), times(1)).close();
+      verify(serverResponses.get(1), times(1)).close();
+      verify(federationGatewayDownloadService, never()).downloadBatch(batchTags.get(2), date);
+    }
+
+    @Test
+    void testFailedAuditOnlyAffectsAuditedBatch() throws Exception {
+      config.setEnforceDateBasedDownload(true);
+      config.setBatchAuditEnabled(true);
+      FederationBatchInfo firstBatchInfo = new FederationBatchInfo(batchTags.get(0), date, UNPROCESSED, EFGS);
+      when(batchInfoService.findByStatus(UNPROCESSED, EFGS)).thenReturn(list(firstBatchInfo));
+      mockBatchChain();
+      doThrow(BatchAuditException.class).when(federationGatewayDownloadService).auditBatch(batchTags.get(1), date);
+
+      batchProcessor.processUnprocessedFederationBatches();
+
+      verify(batchInfoService, times(1)).updateStatus(new FederationBatchInfo(batchTags.get(0), date, EFGS), PROCESSED);
+      verify(batchInfoService, times(1)).updateStatus(new FederationBatchInfo(batchTags.get(1), date, EFGS), ERROR);
+      verify(batchInfoService, times(1)).updateStatus(new FederationBatchInfo(batchTags.get(2), date, EFGS), PROCESSED);
+      verify(diagnosisKeyService, times(2)).saveDiagnosisKeys(any());
+    }
+
+    @Test
+    void testErrorBatchesAreRetriedConcurrently() throws Exception {
+      List<FederationBatchInfo> errorBatches = List.of(
+          new FederationBatchInfo(batchTags.get(0), date, ERROR, EFGS),
+          new FederationBatchInfo(batchTags.get(1), date, ERROR, EFGS),
+          new FederationBatchInfo(batchTags.get(2), date, ERROR, EFGS));
+      when(batchInfoService.findByStatus(ERROR, EFGS)).thenReturn(errorBatches);
+      CountDownLatch allDownloadsStarted = new CountDownLatch(batchTags.size());
+      for (String batchTag : batchTags) {
+        BatchDownloadResponse serverResponse = FederationBatchTestHelper.createBatchDownloadResponse(batchTag,
+            Optional.empty());
+        when(federationGatewayDownloadService.downloadBatch(batchTag, date)).thenAnswer(invocation -> {
+          allDownloadsStarted.countDown();
+          assertThat(allDownloadsStarted.await(10, TimeUnit.SECONDS)).isTrue();
+          if (batchTag.equals(batchTags.get(1))) {
+            throw new BatchDownloadException(batchTag, date, null);
+          }
+          return serverResponse;
+        });
+      }
+
+      batchProcessor.processErrorFederationBatches();
+
+      verify(batchInfoService, times(1)).updateStatus(errorBatches.get(0), PROCESSED);
+      verify(batchInfoService, times(1)).updateStatus(errorBatches.get(1), ERROR_WONT_RETRY);
+      verify(batchInfoService, times(1)).updateStatus(errorBatches.get(2), PROCESSED);
+      verify(diagnosisKeyService, times(2)).saveDiagnosisKeys(any());
+    }
+
+    private List<BatchDownloadResponse> mockBatchChain() throws Exception {
+      List<BatchDownloadResponse> serverResponses = new ArrayList<>();
+      for (int i = 0; i < batchTags.size(); i++) {
+        Optional<String> nextBatchTag = i + 1 < batchTags.size() ? Optional.of(batchTags.get(i + 1)) : Optional.empty();
+        BatchDownloadResponse serverResponse = FederationBatchTestHelper.createBatchDownloadResponse(batchTags.get(i),
+            nextBatchTag);
+        when(federationGatewayDownloadService.downloadBatch(batchTags.get(i), date)).thenReturn(serverResponse);
+        serverResponses.add(serverResponse);
+      }
+      return serverResponses;
+    }
+  }
+
   @Test
   void testProcessBachAndReturnNextBatchIdNotAuthenticated() throws Exception {
     FederationBatchInfo batchInfo = new FederationBatchInfo(batchTag1, date, UNPROCESSED, EFGS);
@@ -507,11 +692,9 @@ class FederationBatchProcessorTest {
 
   public void verifyProcessedWithStatus(FederationBatchInfo federationBatchInfo, FederationBatchStatus expectedStatus)
       throws Exception {
-    ArgumentCaptor<List> captor = ArgumentCaptor.forClass(List.class);
     verify(batchInfoService, times(1)).findByStatus(UNPROCESSED, EFGS);
     verify(federationGatewayDownloadService, times(1)).downloadBatch(batchTag1, date);
     verify(batchInfoService, times(1)).updateStatus(federationBatchInfo, expectedStatus);
-    verify(diagnosisKeyService, times(1)).saveDiagnosisKeys(captor.capture());
-    assertThat(captor.getValue()).isEmpty();
+    verify(diagnosisKeyService, never()).saveDiagnosisKeys(any());
   }
 }
@@ -12,6 +12,8 @@ import app.coronawarn.server.services.download.config.DownloadServiceConfig;
 import app.coronawarn.server.common.protocols.external.exposurenotification.ReportType;
 import app.coronawarn.server.services.download.normalization.FederationKeyNormalizer;
 import com.google.protobuf.ByteString;
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
 import java.util.List;
 import java.util.Optional;
 import java.util.Set;
@@ -118,7 +120,11 @@ public class FederationBatchTestHelper {
     BatchDownloadResponse gatewayResponse = mock(BatchDownloadResponse.class);
     when(gatewayResponse.getBatchTag()).thenReturn(batchTag);
     when(gatewayResponse.getNextBatchTag()).thenReturn(nextBatchTag);
-    when(gatewayResponse.getDiagnosisKeyBatch()).thenReturn(Optional.of(diagnosisKeyBatch));
+    when(gatewayResponse.getDiagnosisKeyBatch()).thenReturn(Optional.of(encode(diagnosisKeyBatch)));
     return gatewayResponse;
   }
+
+  public static InputStream encode(DiagnosisKeyBatch diagnosisKeyBatch) {
+    return new ByteArrayInputStream(diagnosisKeyBatch.toByteArray());
+  }
 }
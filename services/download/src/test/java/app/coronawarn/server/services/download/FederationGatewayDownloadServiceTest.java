@@ -14,7 +14,9 @@ import app.coronawarn.server.common.federation.client.CloudFederationFeignHttpCl
 import app.coronawarn.server.common.protocols.external.exposurenotification.DiagnosisKeyBatch;
 import com.github.tomakehurst.wiremock.WireMockServer;
 import feign.httpclient.ApacheHttpClient;
+import java.io.InputStream;
 import java.time.LocalDate;
+import java.util.List;
 import java.util.Optional;
 import java.util.stream.Stream;
 import org.junit.jupiter.api.AfterAll;
@@ -97,9 +99,7 @@ class FederationGatewayDownloadServiceTest {
                     .withHeader("batchTag", BATCH_TAG)
                     .withHeader("nextBatchTag", NEXT_BATCH_TAG)));
 
-    BatchDownloadResponse expResponse = new BatchDownloadResponse(BATCH_TAG, Optional.empty(),
-        Optional.of(NEXT_BATCH_TAG));
-    assertDownloadResponseMatches(expResponse);
+    assertDownloadResponseMatches(Optional.empty(), Optional.of(NEXT_BATCH_TAG));
   }
 
   @Test
@@ -116,9 +116,7 @@ class FederationGatewayDownloadServiceTest {
                     .withHeader("nextBatchTag", NEXT_BATCH_TAG)
                     .withBody(batch.toByteArray())));
 
-    BatchDownloadResponse expResponse = new BatchDownloadResponse(BATCH_TAG, Optional.of(batch),
-        Optional.of(NEXT_BATCH_TAG));
-    assertDownloadResponseMatches(expResponse);
+    assertDownloadResponseMatches(Optional.of(batch), Optional.of(NEXT_BATCH_TAG));
   }
 
   @Test
@@ -134,8 +132,7 @@ class FederationGatewayDownloadServiceTest {
                     .withHeader("batchTag", BATCH_TAG)
                     .withBody(batch.toByteArray())));
 
-    BatchDownloadResponse expResponse = new BatchDownloadResponse(BATCH_TAG, Optional.of(batch), Optional.empty());
-    assertDownloadResponseMatches(expResponse);
+    assertDownloadResponseMatches(Optional.of(batch), Optional.empty());
   }
 
 
@@ -181,9 +178,19 @@ class FederationGatewayDownloadServiceTest {
     assertThat(feignClientProvider.createFeignClient()).isInstanceOf(ApacheHttpClient.class);
   }
 
-  void assertDownloadResponseMatches(BatchDownloadResponse expResponse) throws Exception {
-    assertThat(downloadService.downloadBatch(DATE)).isEqualTo(expResponse);
-    assertThat(downloadService.downloadBatch(BATCH_TAG, DATE)).isEqualTo(expResponse);
+  void assertDownloadResponseMatches(Optional<DiagnosisKeyBatch> expBatch, Optional<String> expNextBatchTag)
+      throws Exception {
+    for (BatchDownloadResponse response : List.of(downloadService.downloadBatch(DATE),
+        downloadService.downloadBatch(BATCH_TAG, DATE))) {
+      assertThat(response.getBatchTag()).isEqualTo(BATCH_TAG);
+      assertThat(response.getNextBatchTag()).isEqualTo(expNextBatchTag);
+      assertThat(response.getDiagnosisKeyBatch().isPresent()).isEqualTo(expBatch.isPresent());
+      if (response.getDiagnosisKeyBatch().isPresent()) {
+        try (InputStream body = response.getDiagnosisKeyBatch().get()) {
+          assertThat(DiagnosisKeyBatch.parseFrom(body)).isEqualTo(expBatch.get());
+        }
+      }
+    }
   }
 
   void assertExceptionIsThrown() {
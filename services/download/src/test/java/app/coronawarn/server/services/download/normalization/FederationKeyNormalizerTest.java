@@ -131,7 +131,8 @@ class FederationKeyNormalizerTest {
     List<DiagnosisKey> diagnosisKeys = getKeysWithDaysSinceSymptoms().entrySet().stream()
         .map(e -> diagnosisKeyFactory.apply(e)).collect(Collectors.toList());
     DiagnosisKeyBatch diagnosisKeyBatch = DiagnosisKeyBatch.newBuilder().addAllKeys(diagnosisKeys).build();
-    return new BatchDownloadResponse(BATCH_TAG, Optional.of(diagnosisKeyBatch), Optional.empty());
+    return new BatchDownloadResponse(BATCH_TAG, Optional.of(FederationBatchTestHelper.encode(diagnosisKeyBatch)),
+        Optional.empty());
   }
 
   private DiagnosisKey createDiagnosisKeyWithNoTrl(Entry<String, Integer> entry) {
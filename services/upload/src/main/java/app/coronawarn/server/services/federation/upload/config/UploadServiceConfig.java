@@ -18,6 +18,7 @@ public class UploadServiceConfig {
   private Signature signature;
   private TestData testData;
   private EfgsTransmission efgsTransmission;
+  private int maxConcurrentUploads = 1;
 
   public Integer getRetentionDays() {
     return retentionDays;
@@ -35,6 +36,14 @@ public class UploadServiceConfig {
     this.efgsTransmission = efgsTransmission;
   }
 
+  public int getMaxConcurrentUploads() {
+    return maxConcurrentUploads;
+  }
+
+  public void setMaxConcurrentUploads(int maxConcurrentUploads) {
+    this.maxConcurrentUploads = maxConcurrentUploads;
+  }
+
   public Integer getExpiryPolicyMinutes() {
     return expiryPolicyMinutes;
   }
@@ -8,10 +8,12 @@ import java.io.IOException;
 import java.security.GeneralSecurityException;
 import java.time.LocalDateTime;
 import java.time.ZoneOffset;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
-import java.util.concurrent.atomic.AtomicInteger;
+import java.util.Map.Entry;
 import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 import org.apache.commons.codec.binary.Base64;
 import org.bouncycastle.cms.CMSException;
 import org.bouncycastle.operator.OperatorCreationException;
@@ -59,7 +61,7 @@ public class PayloadFactory {
 
   /**
    * Generates the Payload objects based on a list of Diagnosis Keys. This method will generate batches, add a proper
-   * batch tag and sign them with the server private key.
+   * batch tag and sign them with the server private key. The batches are signed in parallel.
    *
    * @param diagnosisKeys List of Diagnosis Keys.
    * @return upload payload object {@link UploadPayload}.
@@ -67,13 +69,14 @@ public class PayloadFactory {
   public List<UploadPayload> makePayloadList(List<FederationUploadKey> diagnosisKeys) {
     Map<DiagnosisKeyBatch, List<FederationUploadKey>> batchesAndOriginalKeys = assembler
         .assembleDiagnosisKeyBatch(diagnosisKeys);
-    AtomicInteger batchCounter = new AtomicInteger(0);
+    List<Entry<DiagnosisKeyBatch, List<FederationUploadKey>>> batches = new ArrayList<>(
+        batchesAndOriginalKeys.entrySet());
 
-    return batchesAndOriginalKeys.entrySet().stream()
-        .map(entry -> this.mapToPayloadAndSign(
-            generateBatchTag(batchCounter.getAndIncrement(), HashUtils.generateSecureRandomByteArrayData(4)),
-            entry.getKey(),
-            entry.getValue()))
+    return IntStream.range(0, batches.size()).parallel()
+        .mapToObj(batchCounter -> this.mapToPayloadAndSign(
+            generateBatchTag(batchCounter, HashUtils.generateSecureRandomByteArrayData(4)),
+            batches.get(batchCounter).getKey(),
+            batches.get(batchCounter).getValue()))
         .collect(Collectors.toList());
   }
 }
@@ -14,9 +14,11 @@ import java.nio.charset.StandardCharsets;
 import java.security.GeneralSecurityException;
 import java.security.cert.CertificateEncodingException;
 import java.security.cert.X509Certificate;
+import java.util.AbstractMap.SimpleImmutableEntry;
 import java.util.Base64;
 import java.util.Comparator;
 import java.util.List;
+import java.util.Map.Entry;
 import java.util.stream.Collectors;
 import org.bouncycastle.cert.X509CertificateHolder;
 import org.bouncycastle.cms.CMSException;
@@ -42,12 +44,31 @@ public class BatchSigner {
 
   private final CryptoProvider cryptoProvider;
 
-  private final UploadServiceConfig uploadServiceConfig;
+  /**
+   * The signing infrastructure, which does not depend on the signed data and is shared by all signatures. Only the
+   * {@link ContentSigner} and the {@link CMSSignedDataGenerator} are stateful and created per signature.
+   */
+  private final JcaContentSignerBuilder contentSignerBuilder;
+  private final DigestCalculatorProvider digestCalculatorProvider;
+  private final X509CertificateHolder certificateHolder;
 
+  /**
+   * Creates a {@link BatchSigner}, which signs batches with the private key and certificate of the given
+   * {@link CryptoProvider}. Instances are thread-safe.
+   *
+   * @param cryptoProvider      provides the private key and certificate
+   * @param uploadServiceConfig provides the signature algorithm
+   */
   public BatchSigner(CryptoProvider cryptoProvider,
       UploadServiceConfig uploadServiceConfig) {
     this.cryptoProvider = cryptoProvider;
-    this.uploadServiceConfig = uploadServiceConfig;
+    this.contentSignerBuilder = new JcaContentSignerBuilder(uploadServiceConfig.getSignature().getAlgorithmName());
+    try {
+      this.digestCalculatorProvider = new JcaDigestCalculatorProviderBuilder().build();
+      this.certificateHolder = new X509CertificateHolder(getCertificateFromPublicKey().getEncoded());
+    } catch (OperatorCreationException | CertificateEncodingException | IOException e) {
+      throw new IllegalStateException("Failed to create the batch signing infrastructure", e);
+    }
   }
 
   private String bytesToBase64String(byte[] bytes) {
@@ -63,10 +84,9 @@ public class BatchSigner {
     final ByteArrayOutputStream buffer = new ByteArrayOutputStream();
     sortBatchByKeyData(batch).stream()
         .map(this::createBytesForKey)
-        .sorted(Comparator.nullsLast(
-            Comparator.comparing(this::bytesToBase64String)
-        ))
-        .forEach(buffer::writeBytes);
+        .map(bytes -> new SimpleImmutableEntry<>(bytesToBase64String(bytes), bytes))
+        .sorted(Entry.comparingByKey(Comparator.nullsLast(Comparator.naturalOrder())))
+        .forEach(entry -> buffer.writeBytes(entry.getValue()));
     return buffer.toByteArray();
   }
 
@@ -136,29 +156,18 @@ public class BatchSigner {
 
   private SignerInfoGenerator createSignerInfo(X509Certificate cert)
       throws OperatorCreationException, CertificateEncodingException {
-    return new JcaSignerInfoGeneratorBuilder(createDigestBuilder()).build(createContentSigner(), cert);
-  }
-
-  private X509CertificateHolder createCertificateHolder(X509Certificate cert)
-      throws CertificateEncodingException, IOException {
-    return new X509CertificateHolder(cert.getEncoded());
-  }
-
-  private DigestCalculatorProvider createDigestBuilder() throws OperatorCreationException {
-    return new JcaDigestCalculatorProviderBuilder().build();
-
+    return new JcaSignerInfoGeneratorBuilder(digestCalculatorProvider).build(createContentSigner(), cert);
   }
 
   private ContentSigner createContentSigner() throws OperatorCreationException {
-    return new JcaContentSignerBuilder(uploadServiceConfig.getSignature().getAlgorithmName())
-        .build(cryptoProvider.getPrivateKey());
+    return contentSignerBuilder.build(cryptoProvider.getPrivateKey());
   }
 
   private String sign(final byte[] data, X509Certificate cert)
-      throws CertificateEncodingException, OperatorCreationException, IOException, CMSException {
+      throws CertificateEncodingException, OperatorCreationException, CMSException, IOException {
     final CMSSignedDataGenerator signedDataGenerator = new CMSSignedDataGenerator();
     signedDataGenerator.addSignerInfoGenerator(createSignerInfo(cert));
-    signedDataGenerator.addCertificate(createCertificateHolder(cert));
+    signedDataGenerator.addCertificate(certificateHolder);
 
     CMSSignedData singedData = signedDataGenerator.generate(new CMSProcessableByteArray(data), false);
     return Base64.getEncoder().encodeToString(singedData.getEncoded());
@@ -6,6 +6,7 @@ import app.coronawarn.server.common.persistence.domain.FederationUploadKey;
 import app.coronawarn.server.common.persistence.service.FederationUploadKeyService;
 import app.coronawarn.server.services.federation.upload.Application;
 import app.coronawarn.server.services.federation.upload.client.FederationUploadClient;
+import app.coronawarn.server.services.federation.upload.config.UploadServiceConfig;
 import app.coronawarn.server.services.federation.upload.keys.DiagnosisKeyLoader;
 import app.coronawarn.server.services.federation.upload.payload.PayloadFactory;
 import app.coronawarn.server.services.federation.upload.payload.UploadPayload;
@@ -15,6 +16,10 @@ import java.util.Arrays;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.stream.Collectors;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -36,6 +41,7 @@ public class Upload implements ApplicationRunner {
   private final DiagnosisKeyLoader diagnosisKeyLoader;
   private final ApplicationContext applicationContext;
   private final FederationUploadKeyService uploadKeyService;
+  private final UploadServiceConfig uploadServiceConfig;
   private final Environment env;
 
   /**
@@ -47,16 +53,18 @@ public class Upload implements ApplicationRunner {
    * @param diagnosisKeyLoader     {@link DiagnosisKeyLoader} to load DiagnosisKeys from the Upload table.
    * @param applicationContext     {@link ApplicationContext} app context.
    * @param uploadKeyService       {@link FederationUploadKeyService} upload service.
+   * @param uploadServiceConfig    {@link UploadServiceConfig} for the maximum number of concurrent uploads.
    * @param env                    Spring Application Context
    */
   public Upload(FederationUploadClient federationUploadClient, PayloadFactory payloadFactory,
       DiagnosisKeyLoader diagnosisKeyLoader, ApplicationContext applicationContext,
-      FederationUploadKeyService uploadKeyService, Environment env) {
+      FederationUploadKeyService uploadKeyService, UploadServiceConfig uploadServiceConfig, Environment env) {
     this.federationUploadClient = federationUploadClient;
     this.payloadFactory = payloadFactory;
     this.diagnosisKeyLoader = diagnosisKeyLoader;
     this.applicationContext = applicationContext;
     this.uploadKeyService = uploadKeyService;
+    this.uploadServiceConfig = uploadServiceConfig;
     this.env = env;
   }
 
@@ -108,16 +116,40 @@ public class Upload implements ApplicationRunner {
 
       List<UploadPayload> requests = this.payloadFactory.makePayloadList(sortByKeyData(diagnosisKeys));
       logger.info("Executing {} {} batch upload requests", getGateway(), requests.size());
-      requests.forEach(payload -> {
-        List<FederationUploadKey> retryKeys = this.executeUploadAndCollectErrors(payload);
-        this.markSuccessfullyUploadedKeys(payload, retryKeys);
-      });
+      uploadConcurrently(requests);
     } catch (Exception e) {
       logger.error(getGateway() + " Upload diagnosis key data failed", e);
       Application.killApplication(applicationContext);
     }
   }
 
+  /**
+   * Posts the given payloads with at most {@link UploadServiceConfig#getMaxConcurrentUploads()} concurrent requests
+   * and marks the successfully uploaded keys of each payload as soon as its response is received. All payloads are
+   * posted, even if some of them fail; the first failure is rethrown afterwards.
+   */
+  private void uploadConcurrently(List<UploadPayload> requests) throws Exception {
+    ExecutorService executor = Executors.newFixedThreadPool(
+        Math.max(1, Math.min(uploadServiceConfig.getMaxConcurrentUploads(), requests.size())));
+    try {
+      List<Future<Object>> uploads = executor.invokeAll(requests.stream()
+          .map(payload -> Executors.callable(() -> {
+            List<FederationUploadKey> retryKeys = this.executeUploadAndCollectErrors(payload);
+            this.markSuccessfullyUploadedKeys(payload, retryKeys);
+          }))
+          .collect(Collectors.toList()));
+      for (Future<Object> upload : uploads) {
+        try {
+          upload.get();
+        } catch (ExecutionException e) {
+          throw e.getCause() instanceof Exception ? (Exception) e.getCause() : e;
+        }
+      }
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
   FederationBatchSourceSystem getGateway() {
     if (Arrays.asList(env.getActiveProfiles()).contains("connect-chgs")) {
       return FederationBatchSourceSystem.CHGS;
@@ -2,6 +2,7 @@ package app.coronawarn.server.services.federation.upload.runner;
 
 import static app.coronawarn.server.services.federation.upload.utils.MockData.generateRandomUploadKey;
 import static java.util.Collections.emptyList;
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.util.Lists.list;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
@@ -23,6 +24,7 @@ import app.coronawarn.server.services.federation.upload.keys.DiagnosisKeyLoader;
 import app.coronawarn.server.services.federation.upload.payload.AllowedPropertiesMap;
 import app.coronawarn.server.services.federation.upload.payload.DiagnosisKeyBatchAssembler;
 import app.coronawarn.server.services.federation.upload.payload.PayloadFactory;
+import app.coronawarn.server.services.federation.upload.payload.UploadPayload;
 import app.coronawarn.server.services.federation.upload.payload.signing.BatchSigner;
 import app.coronawarn.server.services.federation.upload.payload.signing.CryptoProvider;
 import com.google.protobuf.ByteString;
@@ -30,9 +32,11 @@ import java.util.Comparator;
 import java.util.List;
 import java.util.Optional;
 import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.boot.test.context.ConfigDataApplicationContextInitializer;
@@ -166,6 +170,25 @@ class UploadResponseTest {
     verify(mockUploadKeyRepository, never()).updateBatchTag(eq(orderedKeys.get(1).getKeyData()), any());
   }
 
+  @Test
+  void checkConcurrentUploadOfMultipleBatches() throws Exception {
+    List<FederationUploadKey> keys = IntStream.range(0, 8)
+        .mapToObj(i -> generateRandomUploadKey(true, SubmissionType.SUBMISSION_TYPE_PCR_TEST))
+        .collect(Collectors.toList());
+    when(uploadServiceConfig.getMaxBatchKeyCount()).thenReturn(2);
+    when(uploadServiceConfig.getMaxConcurrentUploads()).thenReturn(3);
+    when(mockDiagnosisKeyLoader.loadDiagnosisKeys()).thenReturn(keys);
+    returnEmptyFromUpload();
+
+    upload.run(null);
+
+    ArgumentCaptor<UploadPayload> payloads = ArgumentCaptor.forClass(UploadPayload.class);
+    verify(mockUploadClient, times(4)).postBatchUpload(payloads.capture());
+    assertThat(payloads.getAllValues()).extracting(UploadPayload::getBatchSignature).doesNotContainNull();
+    assertThat(payloads.getAllValues()).extracting(UploadPayload::getBatchTag).doesNotHaveDuplicates();
+    keys.forEach(key -> verify(mockUploadKeyRepository, times(1)).updateBatchTag(eq(key.getKeyData()), any()));
+  }
+
   private BatchUploadResponse createFake409And500Response() {
     return new BatchUploadResponse(list("0"), list("1"), emptyList());
   }